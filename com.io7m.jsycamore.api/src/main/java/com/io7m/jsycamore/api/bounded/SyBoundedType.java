@@ -44,4 +44,25 @@ public interface SyBoundedType<T extends SySpaceType>
   {
     this.position().set(newPosition);
   }
+
+  /**
+   * Set the position of the object. The position is only replaced, and
+   * subscribers to {@link #position()} are only notified, if the new position
+   * differs from the current position. This allows layout code to reposition
+   * objects without producing garbage when the layout has not changed.
+   *
+   * @param x The new X position
+   * @param y The new Y position
+   */
+
+  default void setPosition(
+    final int x,
+    final int y)
+  {
+    final var position = this.position();
+    final var existing = position.get();
+    if (existing.x() != x || existing.y() != y) {
+      position.set(PVector2I.of(x, y));
+    }
+  }
 }
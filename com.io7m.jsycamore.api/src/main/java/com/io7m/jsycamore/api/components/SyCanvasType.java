@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+
+import java.util.Optional;
+
+/**
+ * Write access to canvases. A canvas displays an application-owned
+ * {@link SyRaster}, scaled to fill the canvas.
+ */
+
+public interface SyCanvasType
+  extends SyCanvasReadableType, SyComponentType
+{
+  /**
+   * @return The raster displayed by the canvas
+   */
+
+  @Override
+  AttributeType<Optional<SyRaster>> raster();
+
+  /**
+   * A convenience method to set the raster.
+   *
+   * @param raster The raster
+   */
+
+  default void setRaster(
+    final SyRaster raster)
+  {
+    this.raster().set(Optional.of(raster));
+  }
+}
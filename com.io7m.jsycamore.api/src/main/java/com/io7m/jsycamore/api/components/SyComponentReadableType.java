@@ -73,16 +73,35 @@ public interface SyComponentReadableType
      * parent, the component is visible.
      */
 
+    if (!this.isVisibleIfAncestorsVisible()) {
+      return false;
+    }
+
+    final var parentOpt = this.nodeReadable().parentReadable();
+    if (parentOpt.isPresent()) {
+      final var parent = parentOpt.get().value();
+      return parent.isVisible();
+    }
+    return true;
+  }
+
+  /**
+   * Determine whether this component would be visible assuming that all of
+   * its ancestors are visible. This is intended for use by code that walks
+   * the component tree from the root downwards and has therefore already
+   * established the visibility of each ancestor, allowing it to avoid
+   * repeatedly walking back up the tree.
+   *
+   * @return {@code true} if this component is visible when its ancestors are
+   *
+   * @see #isVisible()
+   */
+
+  default boolean isVisibleIfAncestorsVisible()
+  {
     return switch (this.visibility().get()) {
       case VISIBILITY_INVISIBLE -> false;
-      case VISIBILITY_VISIBLE -> {
-        final var parentOpt = this.nodeReadable().parentReadable();
-        if (parentOpt.isPresent()) {
-          final var parent = parentOpt.get().value();
-          yield parent.isVisible();
-        }
-        yield true;
-      }
+      case VISIBILITY_VISIBLE -> true;
     };
   }
 
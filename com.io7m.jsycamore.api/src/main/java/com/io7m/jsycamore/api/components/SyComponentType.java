@@ -105,8 +105,9 @@ public interface SyComponentType
      */
 
     final var childNodes = this.node().children();
-    for (final var childNode : childNodes) {
-      childNode.value().layout(layoutContext, limitedConstraints);
+    final var childCount = childNodes.size();
+    for (int index = 0; index < childCount; ++index) {
+      childNodes.get(index).value().layout(layoutContext, limitedConstraints);
     }
 
     /*
@@ -114,10 +115,50 @@ public interface SyComponentType
      * constraints.
      */
 
-    final PAreaSizeI<SySpaceParentRelativeType> newSize =
-      limitedConstraints.sizeMaximum();
-    this.setSize(newSize);
-    return newSize;
+    this.setSize(
+      limitedConstraints.sizeMaximumX(),
+      limitedConstraints.sizeMaximumY()
+    );
+    return this.size().get();
+  }
+
+  /**
+   * Collect the visible children of this component into {@code output},
+   * in child order. The list is cleared first. No allocation is performed
+   * beyond any growth of {@code output}, and so layout code may call this
+   * method on every layout pass with a list that it retains.
+   *
+   * <p>The visibility of the ancestors of this component is not examined:
+   * the method assumes that the ancestors are visible, as is the case
+   * during a traversal of the component tree from the root downwards. If
+   * this component is itself invisible, no children are collected.</p>
+   *
+   * @param output The output list
+   *
+   * @return {@code output}
+   *
+   * @see SyComponentReadableType#isVisibleIfAncestorsVisible()
+   */
+
+  default List<SyComponentType> collectChildrenVisible(
+    final List<SyComponentType> output)
+  {
+    Objects.requireNonNull(output, "output");
+
+    output.clear();
+    if (!this.isVisibleIfAncestorsVisible()) {
+      return output;
+    }
+
+    final var childNodes = this.node().children();
+    final var childCount = childNodes.size();
+    for (int index = 0; index < childCount; ++index) {
+      final var child = childNodes.get(index).value();
+      if (child.isVisibleIfAncestorsVisible()) {
+        output.add(child);
+      }
+    }
+    return output;
   }
 
   /**
@@ -137,6 +178,31 @@ public interface SyComponentType
     SyWindowViewportAccumulatorType context,
     SyComponentQuery query);
 
+  /**
+   * Find the component under the given window-relative position. This is
+   * equivalent to
+   * {@link #componentForWindowRelative(PVector2I, SyWindowViewportAccumulatorType, SyComponentQuery)}
+   * but takes the position and the window-relative origin of the parent
+   * of this component as plain integers, and returns {@code null} instead
+   * of an empty {@code Optional}. It is used on paths such as mouse movement
+   * that must not allocate.
+   *
+   * @param targetX The window-relative X position
+   * @param targetY The window-relative Y position
+   * @param originX The window-relative X position of the parent component
+   * @param originY The window-relative Y position of the parent component
+   * @param query   The type of query
+   *
+   * @return The component, or {@code null} if there isn't one
+   */
+
+  SyComponentType componentAtWindowRelative(
+    int targetX,
+    int targetY,
+    int originX,
+    int originY,
+    SyComponentQuery query);
+
   /**
    * A convenience function to remove all child components of this component.
    */
@@ -149,6 +215,9 @@ public interface SyComponentType
     for (final var child : children) {
       this.node().childRemove(child);
     }
+    if (!children.isEmpty()) {
+      this.onComponentTreeChanged();
+    }
   }
 
   /**
@@ -161,6 +230,7 @@ public interface SyComponentType
     final SyComponentType component)
   {
     this.node().childAdd(component.node());
+    this.onComponentTreeChanged();
   }
 
   /**
@@ -173,6 +243,23 @@ public interface SyComponentType
     final SyComponentType component)
   {
     this.node().childRemove(component.node());
+    this.onComponentTreeChanged();
+  }
+
+  /**
+   * Indicate that the tree of components containing this component has
+   * changed. The window to which this component is attached, if any, is
+   * notified.
+   *
+   * @see SyWindowType#onComponentTreeChanged()
+   */
+
+  default void onComponentTreeChanged()
+  {
+    final var windowOpt = this.window();
+    if (windowOpt.isPresent()) {
+      windowOpt.get().onComponentTreeChanged();
+    }
   }
 
   /**
@@ -74,6 +74,58 @@ public record SyConstraints(
     return ZERO;
   }
 
+  /**
+   * Return a set of constraints with the given values, reusing
+   * {@code existing} if it already has exactly those values (after the
+   * clamping applied by the constructor). This allows layout code that
+   * recomputes constraints on every layout pass to avoid producing garbage
+   * when the constraints have not changed.
+   *
+   * @param existing     The existing constraints, if any
+   * @param sizeMinimumX The minimum allowed size on the X axis
+   * @param sizeMinimumY The minimum allowed size on the Y axis
+   * @param sizeMaximumX The maximum allowed size on the X axis
+   * @param sizeMaximumY The maximum allowed size on the Y axis
+   *
+   * @return A set of constraints
+   */
+
+  public static SyConstraints reusing(
+    final SyConstraints existing,
+    final int sizeMinimumX,
+    final int sizeMinimumY,
+    final int sizeMaximumX,
+    final int sizeMaximumY)
+  {
+    if (existing == null) {
+      return new SyConstraints(
+        sizeMinimumX,
+        sizeMinimumY,
+        sizeMaximumX,
+        sizeMaximumY
+      );
+    }
+
+    final var minX =
+      Math.clamp(sizeMinimumX, 0, MAX_VALUE);
+    final var maxX =
+      Math.clamp(sizeMaximumX, minX, MAX_VALUE);
+    final var minY =
+      Math.clamp(sizeMinimumY, 0, MAX_VALUE);
+    final var maxY =
+      Math.clamp(sizeMaximumY, minY, MAX_VALUE);
+
+    final var sameX =
+      existing.sizeMinimumX == minX && existing.sizeMaximumX == maxX;
+    final var sameY =
+      existing.sizeMinimumY == minY && existing.sizeMaximumY == maxY;
+
+    if (sameX && sameY) {
+      return existing;
+    }
+    return new SyConstraints(minX, minY, maxX, maxY);
+  }
+
   /**
    * @param <T> The coordinate space type
    *
@@ -177,17 +229,24 @@ public record SyConstraints(
    *
    * @param size The size
    *
-   * @return A new set of constraints
+   * @return A new set of constraints, or these constraints if the given size
+   * does not further limit them
    */
 
   public SyConstraints deriveLimitedBy(
     final PAreaSizeI<?> size)
   {
+    final var limitX = size.sizeX();
+    final var limitY = size.sizeY();
+    if (limitX >= this.sizeMaximumX && limitY >= this.sizeMaximumY) {
+      return this;
+    }
+
     return new SyConstraints(
       this.sizeMinimumX(),
       this.sizeMinimumY(),
-      min(this.sizeMaximumX(), size.sizeX()),
-      min(this.sizeMaximumY(), size.sizeY())
+      min(this.sizeMaximumX(), limitX),
+      min(this.sizeMaximumY(), limitY)
     );
   }
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * <p>A factory of cell components for grid views.</p>
+ *
+ * <p>A grid view creates only as many cells as are needed to fill its
+ * viewport, and recycles cells as the view is scrolled. A cell is therefore
+ * bound to many different items over its lifetime, and
+ * {@link #cellBind(SyComponentType, int, int, Object)} must fully replace any
+ * state left over from a previously bound item.</p>
+ *
+ * @param <T> The type of items
+ */
+
+public interface SyGridViewCellFactoryType<T>
+{
+  /**
+   * Create a new, unbound cell component.
+   *
+   * @return A cell component
+   */
+
+  SyComponentType cellCreate();
+
+  /**
+   * Bind a cell component to an item.
+   *
+   * @param cell   A cell component previously returned by {@link #cellCreate()}
+   * @param row    The row index
+   * @param column The column index
+   * @param item   The item
+   */
+
+  void cellBind(
+    SyComponentType cell,
+    int row,
+    int column,
+    T item);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * <p>The data displayed by a grid view.</p>
+ *
+ * <p>A grid view only requests the items in cells that are currently
+ * visible, and so implementations may present very large (or lazily
+ * computed) data sets without materializing every item.</p>
+ *
+ * @param <T> The type of items
+ */
+
+public interface SyGridViewDataType<T>
+{
+  /**
+   * @return The number of rows
+   */
+
+  int rowCount();
+
+  /**
+   * @return The number of columns
+   */
+
+  int columnCount();
+
+  /**
+   * @param row    The row index in the range {@code [0, rowCount())}
+   * @param column The column index in the range {@code [0, columnCount())}
+   *
+   * @return The item in the given cell
+   */
+
+  T itemAt(
+    int row,
+    int column);
+}
@@ -23,12 +23,86 @@ import java.util.List;
 import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.GRID_VIEW;
 
 /**
- * Read-only access to grid views.
+ * <p>Read-only access to grid views.</p>
+ *
+ * <p>A grid view displays a (potentially very large) table of items, and
+ * only instantiates cell components for the cells that are visible within
+ * its viewport. A number of leading rows and columns may be <i>frozen</i>,
+ * in which case they remain visible regardless of the scroll position.</p>
  */
 
 public interface SyGridViewReadableType
   extends SyContainerReadableType
 {
+  /**
+   * @return The number of rows in the grid
+   */
+
+  int rowCount();
+
+  /**
+   * @return The number of columns in the grid
+   */
+
+  int columnCount();
+
+  /**
+   * @return The height of every row
+   */
+
+  int rowHeight();
+
+  /**
+   * @return The width of columns that have not been given an explicit width
+   */
+
+  int columnWidthDefault();
+
+  /**
+   * @param column The column index
+   *
+   * @return The width of the given column
+   */
+
+  int columnWidth(int column);
+
+  /**
+   * @return The number of leading rows that do not scroll vertically
+   */
+
+  int frozenRows();
+
+  /**
+   * @return The number of leading columns that do not scroll horizontally
+   */
+
+  int frozenColumns();
+
+  /**
+   * @return The number of cell components that have been created, including
+   * cells that are currently unused
+   */
+
+  int cellsCreated();
+
+  /**
+   * @return The number of cells bound to items in the most recent layout
+   */
+
+  int cellsBoundCount();
+
+  /**
+   * @return A readable reference to the horizontal scroll bar
+   */
+
+  SyScrollBarHorizontalReadableType scrollBarHorizontal();
+
+  /**
+   * @return A readable reference to the vertical scroll bar
+   */
+
+  SyScrollBarVerticalReadableType scrollBarVertical();
+
   @Override
   default List<SyThemeClassNameType> themeClassesDefaultForComponent()
   {
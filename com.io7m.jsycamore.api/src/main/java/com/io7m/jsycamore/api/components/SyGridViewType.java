@@ -23,5 +23,90 @@ package com.io7m.jsycamore.api.components;
 public interface SyGridViewType
   extends SyGridViewReadableType, SyContainerType
 {
+  /**
+   * Set the items displayed by the grid view, and the factory used to
+   * create and bind cell components. Any existing cells are discarded.
+   *
+   * @param data  The items
+   * @param cells The cell factory
+   * @param <T>   The type of items
+   */
 
+  <T> void setItems(
+    SyGridViewDataType<T> data,
+    SyGridViewCellFactoryType<T> cells);
+
+  /**
+   * Indicate that the items have changed. All visible cells are rebound on
+   * the next layout. Cells that are not visible are not touched, and so
+   * the cost of an update is proportional to the size of the viewport
+   * rather than the size of the grid.
+   */
+
+  void itemsChanged();
+
+  /**
+   * Set the height of every row.
+   *
+   * @param height The row height
+   */
+
+  void setRowHeight(int height);
+
+  /**
+   * Set the width of columns that have not been given an explicit width.
+   *
+   * @param width The column width
+   */
+
+  void setColumnWidthDefault(int width);
+
+  /**
+   * Set the width of a column.
+   *
+   * @param column The column index
+   * @param width  The column width
+   */
+
+  void setColumnWidth(
+    int column,
+    int width);
+
+  /**
+   * Set the number of leading rows that do not scroll vertically. These
+   * are typically used as column headers.
+   *
+   * @param rows The number of rows
+   */
+
+  void setFrozenRows(int rows);
+
+  /**
+   * Set the number of leading columns that do not scroll horizontally.
+   * These are typically used as row headers.
+   *
+   * @param columns The number of columns
+   */
+
+  void setFrozenColumns(int columns);
+
+  /**
+   * Scroll such that the given cell is at the top left of the scrolling
+   * region of the viewport (or as close as the scroll region allows). The
+   * scroll position is updated on the next layout, when the size of the
+   * viewport is known.
+   *
+   * @param row    The row index
+   * @param column The column index
+   */
+
+  void scrollToCell(
+    int row,
+    int column);
+
+  @Override
+  SyScrollBarHorizontalType scrollBarHorizontal();
+
+  @Override
+  SyScrollBarVerticalType scrollBarVertical();
 }
@@ -43,4 +43,10 @@ public interface SyImageViewReadableType
    */
 
   AttributeReadableType<Optional<URI>> imageURI();
+
+  /**
+   * @return The manner in which the image is displayed
+   */
+
+  AttributeReadableType<SyImageViewScaling> scaling();
 }
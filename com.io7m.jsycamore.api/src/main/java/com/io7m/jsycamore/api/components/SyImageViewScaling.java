@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * The manner in which an image view displays its image.
+ */
+
+public enum SyImageViewScaling
+{
+  /**
+   * The whole image is loaded, scaled to the size of the image view.
+   */
+
+  IMAGE_SCALED,
+
+  /**
+   * The image is divided into a pyramid of tiles at successively halved
+   * resolutions, decoded on demand. Only the tiles that intersect the
+   * visible part of the image view are loaded, at the resolution closest
+   * to the size of the image view. This is intended for images much larger
+   * than the screen, displayed in a scroll pane.
+   */
+
+  IMAGE_TILED
+}
@@ -35,6 +35,13 @@ public interface SyImageViewType
   @Override
   AttributeType<Optional<URI>> imageURI();
 
+  /**
+   * @return The manner in which the image is displayed
+   */
+
+  @Override
+  AttributeType<SyImageViewScaling> scaling();
+
   /**
    * A convenience method to set the image URI.
    *
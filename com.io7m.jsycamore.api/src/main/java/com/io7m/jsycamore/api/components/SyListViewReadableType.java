@@ -23,12 +23,60 @@ import java.util.List;
 import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.LIST_VIEW;
 
 /**
- * Read-only access to list views.
+ * <p>Read-only access to list views.</p>
+ *
+ * <p>A list view displays a (potentially very large) list of items, and
+ * only instantiates row components for the items that are visible within
+ * its viewport.</p>
  */
 
 public interface SyListViewReadableType
   extends SyContainerReadableType
 {
+  /**
+   * @return The number of items in the list
+   */
+
+  int itemCount();
+
+  /**
+   * @return The current row height policy
+   */
+
+  SyListViewRowHeightType rowHeight();
+
+  /**
+   * @return The number of rows rendered above and below the viewport
+   */
+
+  int overscan();
+
+  /**
+   * @return The number of row components that have been created, including
+   * rows that are currently unused
+   */
+
+  int rowsCreated();
+
+  /**
+   * @return The index of the first item bound to a row in the most recent
+   * layout, or {@code 0} if no rows are bound
+   */
+
+  int rowsBoundFirst();
+
+  /**
+   * @return The number of items bound to rows in the most recent layout
+   */
+
+  int rowsBoundCount();
+
+  /**
+   * @return A readable reference to the vertical scroll bar
+   */
+
+  SyScrollBarVerticalReadableType scrollBarVertical();
+
   @Override
   default List<SyThemeClassNameType> themeClassesDefaultForComponent()
   {
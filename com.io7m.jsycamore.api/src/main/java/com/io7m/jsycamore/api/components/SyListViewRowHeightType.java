@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * The base type of list view row height policies.
+ */
+
+public sealed interface SyListViewRowHeightType
+  permits SyListViewRowHeightEstimated,
+  SyListViewRowHeightFixed
+{
+  /**
+   * All rows are exactly {@code height} tall.
+   *
+   * @param height The row height
+   *
+   * @return A row height policy
+   */
+
+  static SyListViewRowHeightFixed fixed(
+    final int height)
+  {
+    return new SyListViewRowHeightFixed(height);
+  }
+
+  /**
+   * Rows have variable heights. Rows that have not yet been laid out are
+   * assumed to be {@code estimate} tall; the heights of rows are recorded as
+   * they are laid out. Rows are laid out with the height of the viewport as
+   * their maximum height, and so rows will typically need to limit their own
+   * size with {@link SyComponentType#sizeUpperLimit()}.
+   *
+   * @param estimate The estimated row height
+   *
+   * @return A row height policy
+   */
+
+  static SyListViewRowHeightEstimated estimated(
+    final int estimate)
+  {
+    return new SyListViewRowHeightEstimated(estimate);
+  }
+}
@@ -23,5 +23,55 @@ package com.io7m.jsycamore.api.components;
 public interface SyListViewType
   extends SyListViewReadableType, SyContainerType
 {
+  /**
+   * Set the items displayed by the list view, and the factory used to
+   * create and bind row components. Any existing rows are discarded.
+   *
+   * @param data The items
+   * @param rows The row factory
+   * @param <T>  The type of items
+   */
 
+  <T> void setItems(
+    SyListViewDataType<T> data,
+    SyListViewRowFactoryType<T> rows);
+
+  /**
+   * Indicate that the items have changed. All visible rows are rebound on
+   * the next layout, and any recorded row heights are discarded.
+   */
+
+  void itemsChanged();
+
+  /**
+   * Set the row height policy.
+   *
+   * @param rowHeight The row height policy
+   */
+
+  void setRowHeight(SyListViewRowHeightType rowHeight);
+
+  /**
+   * Set the number of rows rendered above and below the viewport. Rendering
+   * a few rows beyond the edges of the viewport avoids rebinding rows on
+   * every small scroll movement.
+   *
+   * @param rows The number of rows
+   */
+
+  void setOverscan(int rows);
+
+  /**
+   * Scroll such that the item at the given index is at the top of the
+   * viewport (or as close to the top as the scroll region allows). The
+   * scroll position is updated on the next layout, when the size of the
+   * viewport is known.
+   *
+   * @param index The item index
+   */
+
+  void scrollToItem(int index);
+
+  @Override
+  SyScrollBarVerticalType scrollBarVertical();
 }
@@ -16,19 +16,124 @@
 
 package com.io7m.jsycamore.api.components;
 
+import com.io7m.jsycamore.api.rendering.SyRaster;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.METER;
 
 /**
- * Read-only access to meters.
+ * <p>Read-only access to meters.</p>
+ *
+ * <p>A meter displays a stream of numeric samples, such as telemetry values.
+ * Samples are aggregated into a history of pixel columns as they arrive, so
+ * the work performed for each sample is constant, and the work performed
+ * when displaying the meter depends only on the width of the meter.</p>
  */
 
 public interface SyMeterReadableType
   extends SyComponentReadableType
 {
+  /**
+   * @return The meter style
+   */
+
+  SyMeterStyle style();
+
+  /**
+   * @return The minimum value of the displayed range
+   */
+
+  double valueMinimum();
+
+  /**
+   * @return The maximum value of the displayed range
+   */
+
+  double valueMaximum();
+
+  /**
+   * @return The most recently collected sample, or {@code NaN} if no samples
+   * have been collected
+   */
+
+  double valueLatest();
+
+  /**
+   * @return The number of samples aggregated into each column
+   */
+
+  int samplesPerColumn();
+
+  /**
+   * @return The total number of samples collected
+   */
+
+  long samplesCollected();
+
+  /**
+   * @return The total number of samples discarded because the sample sink
+   * was full
+   */
+
+  long samplesDiscarded();
+
+  /**
+   * @return The number of columns of history currently held, which is at
+   * most the width of the meter
+   */
+
+  int columnCount();
+
+  /**
+   * @return The total number of columns appended to the history since the
+   * meter was created; renderers may compare this value between frames to
+   * determine how many new columns have scrolled in
+   */
+
+  long columnsAppended();
+
+  /**
+   * The raster into which the meter draws its column history when its style
+   * is {@link SyMeterStyle#METER_SPARKLINE}. The raster holds one pixel
+   * column per column of history, and wraps horizontally: new columns are
+   * written over the oldest ones, and {@link #sparklineScrollX()} advances,
+   * so that only new columns are drawn. The raster is updated when the
+   * meter is laid out.
+   *
+   * @return The sparkline raster, if the meter has been laid out with the
+   * sparkline style and a non-empty size
+   *
+   * @see com.io7m.jsycamore.api.rendering.SyRenderNodeRaster
+   */
+
+  Optional<SyRaster> sparkline();
+
+  /**
+   * @return The column of {@link #sparkline()} that should be drawn at the
+   * left edge of the meter
+   */
+
+  int sparklineScrollX();
+
+  /**
+   * @param column The column, where {@code 0} is the oldest column
+   *
+   * @return The smallest sample in the given column
+   */
+
+  double columnMinimum(int column);
+
+  /**
+   * @param column The column, where {@code 0} is the oldest column
+   *
+   * @return The largest sample in the given column
+   */
+
+  double columnMaximum(int column);
+
   @Override
   default List<SyThemeClassNameType> themeClassesDefaultForComponent()
   {
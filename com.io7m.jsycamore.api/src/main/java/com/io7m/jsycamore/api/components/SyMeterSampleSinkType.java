@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * <p>A sink of meter samples.</p>
+ *
+ * <p>Samples may be submitted from any thread, and submitting a sample never
+ * blocks and never touches the component tree. Samples are collected by the
+ * meter when it is next laid out. If samples are submitted faster than the
+ * meter collects them, the sink fills up and further samples are discarded
+ * until the meter catches up.</p>
+ */
+
+public interface SyMeterSampleSinkType
+{
+  /**
+   * Submit a sample.
+   *
+   * @param value The sample value
+   *
+   * @return {@code true} if the sample was accepted, or {@code false} if the
+   * sink was full and the sample was discarded
+   */
+
+  boolean sampleAdd(double value);
+}
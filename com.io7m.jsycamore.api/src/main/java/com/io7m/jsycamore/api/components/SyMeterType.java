@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * Write access to meters.
+ */
+
+public interface SyMeterType
+  extends SyMeterReadableType, SyComponentType
+{
+  /**
+   * @return The sink to which samples may be submitted from any thread
+   */
+
+  SyMeterSampleSinkType samples();
+
+  /**
+   * Set the range of values displayed by the meter. Samples outside of
+   * the range are clamped to the range when displayed.
+   *
+   * @param minimum The minimum value
+   * @param maximum The maximum value
+   */
+
+  void setRange(
+    double minimum,
+    double maximum);
+
+  /**
+   * Set the meter style.
+   *
+   * @param style The style
+   */
+
+  void setStyle(SyMeterStyle style);
+
+  /**
+   * Set the number of samples aggregated into each pixel column of the
+   * meter's history. Changing this value does not affect columns that
+   * have already been produced.
+   *
+   * @param samples The number of samples per column
+   */
+
+  void setSamplesPerColumn(int samples);
+}
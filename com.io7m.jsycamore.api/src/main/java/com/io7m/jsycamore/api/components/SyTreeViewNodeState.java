@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * The loading state of the children of a tree view node.
+ */
+
+public enum SyTreeViewNodeState
+{
+  /**
+   * The children of the node have not been requested, or were discarded
+   * after the node was collapsed.
+   */
+
+  NODE_UNLOADED,
+
+  /**
+   * The children of the node have been requested and have not yet arrived.
+   */
+
+  NODE_LOADING,
+
+  /**
+   * The children of the node are loaded.
+   */
+
+  NODE_LOADED,
+
+  /**
+   * Loading the children of the node failed. Expanding the node again
+   * retries the request.
+   */
+
+  NODE_FAILED
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * <p>A node in a tree view.</p>
+ *
+ * <p>Nodes must only be expanded or collapsed on the thread that owns the
+ * screen, typically from within event handlers of row components.</p>
+ *
+ * @param <T> The type of items
+ */
+
+public interface SyTreeViewNodeType<T>
+{
+  /**
+   * @return The item held by the node
+   */
+
+  T item();
+
+  /**
+   * @return The depth of the node, where the top-level rows are at depth
+   * {@code 0}
+   */
+
+  int depth();
+
+  /**
+   * @return {@code true} if the provider reports that the node has no
+   * children
+   */
+
+  boolean isLeaf();
+
+  /**
+   * @return {@code true} if the node is expanded
+   */
+
+  boolean isExpanded();
+
+  /**
+   * @return The loading state of the node's children
+   */
+
+  SyTreeViewNodeState state();
+
+  /**
+   * Expand the node. If the node's children are not loaded, they are
+   * requested from the provider, and a placeholder row is displayed until
+   * they arrive.
+   */
+
+  void expand();
+
+  /**
+   * Collapse the node. The node's children are retained for the tree
+   * view's discard delay, after which they are discarded and must be
+   * requested again if the node is expanded.
+   */
+
+  void collapse();
+
+  /**
+   * Expand the node if it is collapsed, or collapse it otherwise.
+   */
+
+  default void toggle()
+  {
+    if (this.isExpanded()) {
+      this.collapse();
+    } else {
+      this.expand();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>A provider of the children of tree view items.</p>
+ *
+ * <p>Children are requested only when a node is expanded, and may be
+ * produced asynchronously on any thread. The tree view collects completed
+ * requests on the thread that owns the screen.</p>
+ *
+ * @param <T> The type of items
+ */
+
+public interface SyTreeViewProviderType<T>
+{
+  /**
+   * Determine if an item has no children. This is called once for each
+   * item when the item's node is created, and must not block.
+   *
+   * @param item The item
+   *
+   * @return {@code true} if the item cannot have children
+   */
+
+  boolean isLeaf(T item);
+
+  /**
+   * Request the children of an item.
+   *
+   * @param item The item
+   *
+   * @return A future that will complete with the children of the item
+   */
+
+  CompletableFuture<List<T>> children(T item);
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.TREE_VIEW;
+
+/**
+ * <p>Read-only access to tree views.</p>
+ *
+ * <p>A tree view displays a hierarchy whose children are loaded lazily, as
+ * nodes are expanded. The visible nodes are displayed as the rows of a
+ * virtualized list, and so neither the hierarchy nor the visible rows are
+ * materialized as components.</p>
+ */
+
+public interface SyTreeViewReadableType
+  extends SyContainerReadableType
+{
+  /**
+   * @return The number of rows currently displayed, including placeholders
+   */
+
+  int rowCount();
+
+  /**
+   * @return The number of nodes currently held in memory
+   */
+
+  int nodesRealized();
+
+  /**
+   * @return The time after which the children of a collapsed node are
+   * discarded
+   */
+
+  Duration collapsedDiscardDelay();
+
+  /**
+   * @return The list view that displays the rows
+   */
+
+  SyListViewReadableType listView();
+
+  @Override
+  default List<SyThemeClassNameType> themeClassesDefaultForComponent()
+  {
+    return List.of(TREE_VIEW);
+  }
+}
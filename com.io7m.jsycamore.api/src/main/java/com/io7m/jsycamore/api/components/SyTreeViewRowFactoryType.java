@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+/**
+ * <p>A factory of row components for tree views.</p>
+ *
+ * <p>As with list views, rows are recycled as the view is scrolled, and
+ * a row may be bound to a node in one layout and to a placeholder in the
+ * next. Both binding methods must fully replace any state left over from a
+ * previous binding.</p>
+ *
+ * @param <T> The type of items
+ *
+ * @see SyListViewRowFactoryType
+ */
+
+public interface SyTreeViewRowFactoryType<T>
+{
+  /**
+   * Create a new, unbound row component.
+   *
+   * @return A row component
+   */
+
+  SyComponentType rowCreate();
+
+  /**
+   * Bind a row component to a node.
+   *
+   * @param row  A row component previously returned by {@link #rowCreate()}
+   * @param node The node
+   */
+
+  void rowBind(
+    SyComponentType row,
+    SyTreeViewNodeType<T> node);
+
+  /**
+   * Bind a row component to a placeholder displayed beneath a node whose
+   * children are loading.
+   *
+   * @param row    A row component previously returned by {@link #rowCreate()}
+   * @param parent The node whose children are loading
+   */
+
+  void rowBindPlaceholder(
+    SyComponentType row,
+    SyTreeViewNodeType<T> parent);
+}
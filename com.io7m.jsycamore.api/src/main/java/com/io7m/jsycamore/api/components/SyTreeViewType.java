@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.components;
+
+import java.time.Duration;
+
+/**
+ * Write access to tree views.
+ */
+
+public interface SyTreeViewType
+  extends SyTreeViewReadableType, SyContainerType
+{
+  /**
+   * Set the root of the displayed hierarchy. The root item itself is not
+   * displayed; its children are the top-level rows, and are requested
+   * immediately. Any existing nodes are discarded.
+   *
+   * @param root     The root item
+   * @param provider The provider of children
+   * @param rows     The row factory
+   * @param <T>      The type of items
+   */
+
+  <T> void setRoot(
+    T root,
+    SyTreeViewProviderType<T> provider,
+    SyTreeViewRowFactoryType<T> rows);
+
+  /**
+   * Set the time after which the children of a collapsed node are
+   * discarded. Keeping the children of recently collapsed nodes for a
+   * short time avoids reloading them if the node is quickly expanded
+   * again.
+   *
+   * @param delay The delay
+   */
+
+  void setCollapsedDiscardDelay(Duration delay);
+
+  @Override
+  SyListViewType listView();
+}
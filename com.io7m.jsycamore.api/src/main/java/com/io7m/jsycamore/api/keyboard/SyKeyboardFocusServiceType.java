@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.keyboard;
+
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.services.SyServiceType;
+
+import java.util.Optional;
+
+/**
+ * <p>The keyboard focus service.</p>
+ * <p>The keyboard focus service tracks the component that has keyboard
+ * focus in each window. Key events delivered to the screen are sent to the
+ * focused component of the focused window. Focus traversal visits, in
+ * depth-first order, the components of a window that receive focus, and
+ * does not descend into components that stop traversal.</p>
+ *
+ * @see SyKeyboardFocusBehavior
+ */
+
+public interface SyKeyboardFocusServiceType
+  extends SyServiceType
+{
+  /**
+   * @return The component that has keyboard focus in the focused window,
+   * if any
+   */
+
+  Optional<SyComponentType> focused();
+
+  /**
+   * Give keyboard focus to the given component. The component must be
+   * attached to a window, and its focus behavior must allow it to receive
+   * focus.
+   *
+   * @param component The component
+   *
+   * @see SyKeyboardFocusBehavior#receivesFocus()
+   */
+
+  void focus(SyComponentType component);
+
+  /**
+   * Remove keyboard focus from any component in the focused window.
+   */
+
+  void focusClear();
+
+  /**
+   * Move keyboard focus to the next component in the traversal order of the
+   * focused window, wrapping around at the end.
+   *
+   * @return The newly focused component, if any
+   */
+
+  Optional<SyComponentType> focusNext();
+
+  /**
+   * Move keyboard focus to the previous component in the traversal order of
+   * the focused window, wrapping around at the start.
+   *
+   * @return The newly focused component, if any
+   */
+
+  Optional<SyComponentType> focusPrevious();
+}
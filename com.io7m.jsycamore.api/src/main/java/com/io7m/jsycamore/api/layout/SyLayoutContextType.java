@@ -22,9 +22,17 @@ import com.io7m.jsycamore.api.themes.SyThemeContextType;
 import com.io7m.jsycamore.api.themes.SyThemeType;
 
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * The context of a layout operation.
+ * <p>The context of a layout operation.</p>
+ *
+ * <p>Implementations must be thread-safe. When parallel layout is enabled on
+ * a screen, a single layout context is shared by all of the threads laying
+ * out windows concurrently. The theme returned by {@link #themeCurrent()}
+ * and the font directory returned by {@link #fonts()} are shared in the same
+ * way, and are required to tolerate concurrent reads. A layout operation
+ * must only modify the components in the subtree being laid out.</p>
  */
 
 public interface SyLayoutContextType extends SyThemeContextType
@@ -35,6 +43,15 @@ public interface SyLayoutContextType extends SyThemeContextType
 
   SyThemeType themeCurrent();
 
+  /**
+   * @return The pool used for parallel layout
+   */
+
+  default ForkJoinPool layoutPool()
+  {
+    return ForkJoinPool.commonPool();
+  }
+
   /**
    * Derive size constraints based on the current theme, if any exist.
    *
@@ -62,7 +79,9 @@ public interface SyLayoutContextType extends SyThemeContextType
         .findForComponent(component)
         .size(this, component);
 
-    return themeSize.map(constraints::deriveLimitedBy)
-      .orElse(constraints);
+    if (themeSize.isPresent()) {
+      return constraints.deriveLimitedBy(themeSize.get());
+    }
+    return constraints;
   }
 }
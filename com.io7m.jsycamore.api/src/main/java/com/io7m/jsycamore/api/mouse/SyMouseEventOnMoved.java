@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.api.mouse;
+
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+
+import java.util.Objects;
+
+/**
+ * Notify the component that the mouse cursor has moved within this
+ * component. This event is only delivered to components that are
+ * subscribed to mouse movements.
+ *
+ * @param mousePosition The position of the mouse cursor now
+ * @param actual        The component that is under the mouse
+ *
+ * @see SyMouseFocusAcceptingType#setMouseMoveSubscribed(boolean)
+ */
+
+public record SyMouseEventOnMoved(
+  PVector2I<SySpaceViewportType> mousePosition,
+  SyComponentType actual)
+  implements SyMouseEventType
+{
+  /**
+   * Notify the component that the mouse cursor has moved within this
+   * component.
+   *
+   * @param mousePosition The position of the mouse cursor now
+   * @param actual        The component that is under the mouse
+   */
+
+  public SyMouseEventOnMoved
+  {
+    Objects.requireNonNull(mousePosition, "mousePosition");
+    Objects.requireNonNull(actual, "actual");
+  }
+}
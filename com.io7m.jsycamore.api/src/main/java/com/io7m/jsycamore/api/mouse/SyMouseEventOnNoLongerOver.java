@@ -18,6 +18,8 @@ package com.io7m.jsycamore.api.mouse;
 
 /**
  * Notify the component that the mouse cursor is no longer over this component.
+ * This is delivered when the cursor leaves a component that previously
+ * received a {@link SyMouseEventOnOver} event.
  */
 
 public record SyMouseEventOnNoLongerOver()
@@ -24,7 +24,10 @@ import java.util.Objects;
 
 /**
  * Notify the component that the mouse cursor has just moved over this
- * component.
+ * component. The event is delivered only when the cursor enters the
+ * component; further movements within the component are delivered as
+ * {@link SyMouseEventOnMoved} events to components that are subscribed to
+ * them.
  *
  * @param mousePosition The position of the mouse cursor now
  * @param actual        The component that is under the mouse
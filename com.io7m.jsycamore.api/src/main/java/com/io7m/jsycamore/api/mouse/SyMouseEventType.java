@@ -25,6 +25,7 @@ import com.io7m.jsycamore.api.events.SyEventInputType;
 public sealed interface SyMouseEventType
   extends SyEventInputType
   permits SyMouseEventOnHeld,
+  SyMouseEventOnMoved,
   SyMouseEventOnNoLongerOver,
   SyMouseEventOnOver,
   SyMouseEventOnPressed,
@@ -35,4 +35,17 @@ public interface SyMouseFocusAcceptingReadableType
    */
 
   boolean isMouseQueryAccepting();
+
+  /**
+   * A component that is <i>mouse move subscribed</i> receives a
+   * {@link SyMouseEventOnMoved} event each time the mouse cursor moves while
+   * the component is under the cursor. Components that are not subscribed
+   * only receive {@link SyMouseEventOnOver} and
+   * {@link SyMouseEventOnNoLongerOver} events when the cursor enters and
+   * leaves them. Components are not subscribed by default.
+   *
+   * @return {@code true} if this component is subscribed to mouse movements
+   */
+
+  boolean isMouseMoveSubscribed();
 }
@@ -32,4 +32,14 @@ public interface SyMouseFocusAcceptingType
    */
 
   void setMouseQueryAccepting(boolean accepting);
+
+  /**
+   * Subscribe to, or unsubscribe from, mouse movements.
+   *
+   * @param subscribed {@code true} if mouse movements should be delivered
+   *
+   * @see #isMouseMoveSubscribed()
+   */
+
+  void setMouseMoveSubscribed(boolean subscribed);
 }
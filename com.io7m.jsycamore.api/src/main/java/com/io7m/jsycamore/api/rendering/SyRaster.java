@@ -0,0 +1,416 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>An application-owned raster of pixels.</p>
+ *
+ * <p>Pixels are stored row by row in a plain {@code int[]} array, one
+ * packed 32-bit ARGB value per pixel, with the color components
+ * premultiplied by alpha. Renderers read the array directly, without
+ * copying it.</p>
+ *
+ * <p>After writing to the pixel array, applications call
+ * {@link #markDirty(int, int, int, int)} to declare which parts of the
+ * raster have changed. Renderers that retain copies of the raster use the
+ * dirty regions to update only the pixels that changed. Dirty regions may
+ * be marked from any thread; writes to the pixel array itself are not
+ * synchronized, and so should be performed on the thread that renders the
+ * screen if tearing is not acceptable.</p>
+ *
+ * <p>A {@link #snapshot()} of a raster is an immutable copy of its pixels.
+ * Scene snapshots capture rasters this way, so that a screen rendered from
+ * snapshots on another thread shows each raster as it was when the scene
+ * snapshot was taken. When a screen is rendered from snapshots, pixel writes
+ * should instead be performed on the thread that updates the screen, before
+ * the scene snapshot is taken. A snapshot is copied only if the raster has
+ * changed since its previous snapshot, and each snapshot records the
+ * regions that changed since that previous snapshot, so renderers that
+ * retain copies of the raster can still update only the pixels that
+ * changed.</p>
+ */
+
+public final class SyRaster
+{
+  /**
+   * The maximum number of distinct dirty regions tracked. If more regions
+   * are marked before the renderer takes them, they are merged into a single
+   * region covering all of them.
+   */
+
+  public static final int DIRTY_REGIONS_MAXIMUM = 16;
+
+  private final SyRaster origin;
+  private final long snapshotBase;
+  private final int[] pixels;
+  private final int width;
+  private final int height;
+  private final int[] dirty;
+  private final int[] dirtySnapshot;
+  private int dirtyCount;
+  private int dirtySnapshotCount;
+  private long version;
+  private SyRaster snapshotLast;
+
+  /**
+   * Create a raster that wraps an existing array of pixels.
+   *
+   * @param inPixels The pixels
+   * @param inWidth  The width in pixels
+   * @param inHeight The height in pixels
+   */
+
+  public SyRaster(
+    final int[] inPixels,
+    final int inWidth,
+    final int inHeight)
+  {
+    this.pixels =
+      Objects.requireNonNull(inPixels, "pixels");
+    this.width =
+      Preconditions.checkPreconditionI(
+        inWidth, inWidth > 0, i -> "Width must be positive");
+    this.height =
+      Preconditions.checkPreconditionI(
+        inHeight, inHeight > 0, i -> "Height must be positive");
+
+    Preconditions.checkPreconditionI(
+      inPixels.length,
+      (long) inPixels.length >= (long) inWidth * (long) inHeight,
+      i -> "Pixel array must hold at least width * height pixels"
+    );
+
+    this.origin = this;
+    this.snapshotBase = -1L;
+    this.dirty = new int[DIRTY_REGIONS_MAXIMUM * 4];
+    this.dirtySnapshot = new int[DIRTY_REGIONS_MAXIMUM * 4];
+    this.markDirtyAll();
+  }
+
+  private SyRaster(
+    final SyRaster inOrigin,
+    final long inSnapshotBase)
+  {
+    this.origin = inOrigin;
+    this.snapshotBase = inSnapshotBase;
+    this.width = inOrigin.width;
+    this.height = inOrigin.height;
+    this.pixels =
+      Arrays.copyOf(
+        inOrigin.pixels,
+        Math.multiplyExact(this.width, this.height)
+      );
+    this.version = inOrigin.version;
+    this.dirty =
+      Arrays.copyOf(inOrigin.dirtySnapshot, DIRTY_REGIONS_MAXIMUM * 4);
+    this.dirtyCount = inOrigin.dirtySnapshotCount;
+    this.dirtySnapshot = this.dirty;
+  }
+
+  /**
+   * Create a raster with a new array of (transparent) pixels.
+   *
+   * @param inWidth  The width in pixels
+   * @param inHeight The height in pixels
+   */
+
+  public SyRaster(
+    final int inWidth,
+    final int inHeight)
+  {
+    this(new int[Math.multiplyExact(inWidth, inHeight)], inWidth, inHeight);
+  }
+
+  /**
+   * Take an immutable snapshot of the raster. If the raster has not been
+   * marked as dirty since the previous snapshot, the previous snapshot is
+   * returned. Otherwise, the pixels are copied, and the snapshot records
+   * the regions marked as dirty since the previous snapshot; see
+   * {@link #dirtySinceSnapshotBase(int[])}. The snapshot of a snapshot is
+   * the snapshot itself. This must be called on the thread that writes to
+   * the pixel array.
+   *
+   * @return A snapshot of the raster
+   */
+
+  public synchronized SyRaster snapshot()
+  {
+    if (this.isSnapshot()) {
+      return this;
+    }
+
+    final var last = this.snapshotLast;
+    if (last != null && last.version == this.version) {
+      return last;
+    }
+
+    final var base = last == null ? -1L : last.version;
+    final var copy = new SyRaster(this, base);
+    this.dirtySnapshotCount = 0;
+    this.snapshotLast = copy;
+    return copy;
+  }
+
+  /**
+   * @return {@code true} if this raster is a snapshot of another raster
+   *
+   * @see #snapshot()
+   */
+
+  public boolean isSnapshot()
+  {
+    return this.origin != this;
+  }
+
+  /**
+   * @return The raster of which this raster is a snapshot, or this raster
+   * if it is not a snapshot
+   */
+
+  public SyRaster origin()
+  {
+    return this.origin;
+  }
+
+  /**
+   * @return The {@link #version()} of the snapshot taken before this
+   * snapshot, or {@code -1} if there was no such snapshot or this raster is
+   * not a snapshot
+   */
+
+  public long snapshotBase()
+  {
+    return this.snapshotBase;
+  }
+
+  /**
+   * Retrieve the regions of this snapshot that differ from the snapshot
+   * identified by {@link #snapshotBase()}, in the same format as
+   * {@link #dirtyTake(int[])}. The snapshot is not modified.
+   *
+   * @param output The output array, which must have room for at least
+   *               {@code 4 * DIRTY_REGIONS_MAXIMUM} values
+   *
+   * @return The number of regions written
+   */
+
+  public synchronized int dirtySinceSnapshotBase(
+    final int[] output)
+  {
+    Preconditions.checkPrecondition(
+      this.isSnapshot(), "Raster must be a snapshot");
+    Preconditions.checkPreconditionI(
+      output.length,
+      output.length >= this.dirty.length,
+      i -> "Output array must have room for all dirty regions"
+    );
+
+    System.arraycopy(this.dirty, 0, output, 0, this.dirtyCount * 4);
+    return this.dirtyCount;
+  }
+
+  /**
+   * @return The pixel array; the pixel at {@code (x, y)} is at index
+   * {@code y * width() + x}. The pixels of a snapshot must not be modified.
+   */
+
+  public int[] pixels()
+  {
+    return this.pixels;
+  }
+
+  /**
+   * @return The width in pixels
+   */
+
+  public int width()
+  {
+    return this.width;
+  }
+
+  /**
+   * @return The height in pixels
+   */
+
+  public int height()
+  {
+    return this.height;
+  }
+
+  /**
+   * @return A value that changes every time a region is marked as dirty
+   */
+
+  public synchronized long version()
+  {
+    return this.version;
+  }
+
+  /**
+   * @return The number of dirty regions that have not yet been taken
+   */
+
+  public synchronized int dirtyCount()
+  {
+    return this.dirtyCount;
+  }
+
+  /**
+   * Mark the whole raster as dirty.
+   */
+
+  public void markDirtyAll()
+  {
+    this.markDirty(0, 0, this.width, this.height);
+  }
+
+  /**
+   * Mark a region of the raster as dirty. The region is clipped to the
+   * bounds of the raster.
+   *
+   * @param x     The X coordinate of the top left corner of the region
+   * @param y     The Y coordinate of the top left corner of the region
+   * @param sizeX The width of the region
+   * @param sizeY The height of the region
+   */
+
+  public synchronized void markDirty(
+    final int x,
+    final int y,
+    final int sizeX,
+    final int sizeY)
+  {
+    Preconditions.checkPrecondition(
+      !this.isSnapshot(), "Snapshots of rasters cannot be modified");
+
+    final var x0 = Math.max(x, 0);
+    final var y0 = Math.max(y, 0);
+    final var x1 = (int) Math.min((long) x + (long) sizeX, this.width);
+    final var y1 = (int) Math.min((long) y + (long) sizeY, this.height);
+    if (x1 <= x0 || y1 <= y0) {
+      return;
+    }
+
+    ++this.version;
+
+    this.dirtyCount =
+      dirtyAdd(this.dirty, this.dirtyCount, x0, y0, x1, y1);
+    this.dirtySnapshotCount =
+      dirtyAdd(this.dirtySnapshot, this.dirtySnapshotCount, x0, y0, x1, y1);
+  }
+
+  private static int dirtyAdd(
+    final int[] regions,
+    final int count,
+    final int x0,
+    final int y0,
+    final int x1,
+    final int y1)
+  {
+    for (int index = 0; index < count; ++index) {
+      final var base = index * 4;
+      if (regions[base] <= x0
+          && regions[base + 1] <= y0
+          && regions[base + 2] >= x1
+          && regions[base + 3] >= y1) {
+        return count;
+      }
+    }
+
+    if (count == DIRTY_REGIONS_MAXIMUM) {
+      dirtyMergeAll(regions, count, x0, y0, x1, y1);
+      return 1;
+    }
+
+    final var base = count * 4;
+    regions[base] = x0;
+    regions[base + 1] = y0;
+    regions[base + 2] = x1;
+    regions[base + 3] = y1;
+    return count + 1;
+  }
+
+  private static void dirtyMergeAll(
+    final int[] regions,
+    final int count,
+    final int x0,
+    final int y0,
+    final int x1,
+    final int y1)
+  {
+    var minX = x0;
+    var minY = y0;
+    var maxX = x1;
+    var maxY = y1;
+    for (int index = 0; index < count; ++index) {
+      final var base = index * 4;
+      minX = Math.min(minX, regions[base]);
+      minY = Math.min(minY, regions[base + 1]);
+      maxX = Math.max(maxX, regions[base + 2]);
+      maxY = Math.max(maxY, regions[base + 3]);
+    }
+
+    regions[0] = minX;
+    regions[1] = minY;
+    regions[2] = maxX;
+    regions[3] = maxY;
+  }
+
+  /**
+   * Take the current dirty regions, leaving the raster with no dirty regions.
+   * Each region is written to {@code output} as four consecutive values: the
+   * inclusive minimum X and Y coordinates, followed by the exclusive maximum
+   * X and Y coordinates.
+   *
+   * @param output The output array, which must have room for at least
+   *               {@code 4 * DIRTY_REGIONS_MAXIMUM} values
+   *
+   * @return The number of regions written
+   */
+
+  public synchronized int dirtyTake(
+    final int[] output)
+  {
+    Preconditions.checkPrecondition(
+      !this.isSnapshot(), "Snapshots of rasters cannot be modified");
+    Preconditions.checkPreconditionI(
+      output.length,
+      output.length >= this.dirty.length,
+      i -> "Output array must have room for all dirty regions"
+    );
+
+    final var count = this.dirtyCount;
+    System.arraycopy(this.dirty, 0, output, 0, count * 4);
+    this.dirtyCount = 0;
+    return count;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[SyRaster %dx%d]".formatted(
+      Integer.valueOf(this.width),
+      Integer.valueOf(this.height)
+    );
+  }
+}
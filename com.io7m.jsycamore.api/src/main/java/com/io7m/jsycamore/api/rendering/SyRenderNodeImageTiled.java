@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.spaces.SySpaceComponentRelativeType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * A render node consisting of an image that is loaded as tiles. Renderers
+ * load only the tiles that intersect the current clip region, at the
+ * resolution closest to the size of the node.
+ *
+ * @param name     The node name, for debugging purposes
+ * @param image    The image
+ * @param position The position
+ * @param size     The image size
+ */
+
+public record SyRenderNodeImageTiled(
+  String name,
+  URI image,
+  PVector2I<SySpaceComponentRelativeType> position,
+  PAreaSizeI<SySpaceComponentRelativeType> size)
+  implements SyRenderNodePrimitiveType
+{
+  /**
+   * A render node consisting of an image that is loaded as tiles.
+   *
+   * @param name     The node name, for debugging purposes
+   * @param image    The image
+   * @param position The position
+   * @param size     The image size
+   */
+
+  public SyRenderNodeImageTiled
+  {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(image, "image");
+    Objects.requireNonNull(position, "position");
+    Objects.requireNonNull(size, "size");
+  }
+}
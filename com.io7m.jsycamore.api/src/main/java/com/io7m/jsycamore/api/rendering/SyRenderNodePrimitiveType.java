@@ -23,7 +23,9 @@ package com.io7m.jsycamore.api.rendering;
 public sealed interface SyRenderNodePrimitiveType
   extends SyRenderNodeType
   permits SyRenderNodeImage,
+  SyRenderNodeImageTiled,
   SyRenderNodeNoop,
+  SyRenderNodeRaster,
   SyRenderNodeShape,
   SyRenderNodeText
 {
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.spaces.SySpaceComponentRelativeType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+
+import java.util.Objects;
+
+/**
+ * <p>A render node consisting of an application-owned raster. The raster is
+ * scaled to fill the size of the node.</p>
+ *
+ * <p>The raster is treated as wrapping horizontally: column {@code scrollX}
+ * of the raster is drawn at the left edge of the node, and the columns to
+ * the left of {@code scrollX} are drawn after the rightmost column of the
+ * raster. Content that scrolls horizontally can therefore be updated by
+ * writing only the newly scrolled-in columns and advancing the scroll
+ * offset, rather than by moving every pixel.</p>
+ *
+ * @param name     The node name, for debugging purposes
+ * @param raster   The raster
+ * @param position The position
+ * @param size     The node size
+ * @param scrollX  The raster column drawn at the left edge of the node
+ */
+
+public record SyRenderNodeRaster(
+  String name,
+  SyRaster raster,
+  PVector2I<SySpaceComponentRelativeType> position,
+  PAreaSizeI<SySpaceComponentRelativeType> size,
+  int scrollX)
+  implements SyRenderNodePrimitiveType
+{
+  /**
+   * A render node consisting of an application-owned raster. The raster is
+   * scaled to fill the size of the node.
+   *
+   * @param name     The node name, for debugging purposes
+   * @param raster   The raster
+   * @param position The position
+   * @param size     The node size
+   * @param scrollX  The raster column drawn at the left edge of the node
+   */
+
+  public SyRenderNodeRaster
+  {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(raster, "raster");
+    Objects.requireNonNull(position, "position");
+    Objects.requireNonNull(size, "size");
+    Preconditions.checkPreconditionI(
+      scrollX,
+      scrollX >= 0 && scrollX < raster.width(),
+      i -> "Scroll offset must be in the range [0, raster width)"
+    );
+  }
+
+  /**
+   * A render node consisting of an application-owned raster, drawn without
+   * scrolling. The raster is scaled to fill the size of the node.
+   *
+   * @param inName     The node name, for debugging purposes
+   * @param inRaster   The raster
+   * @param inPosition The position
+   * @param inSize     The node size
+   */
+
+  public SyRenderNodeRaster(
+    final String inName,
+    final SyRaster inRaster,
+    final PVector2I<SySpaceComponentRelativeType> inPosition,
+    final PAreaSizeI<SySpaceComponentRelativeType> inSize)
+  {
+    this(inName, inRaster, inPosition, inSize, 0);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+/**
+ * A receiver of the render nodes produced for the components of a window.
+ */
+
+public interface SyRenderNodeSinkType
+{
+  /**
+   * Accept a render node.
+   *
+   * @param node       The render node
+   * @param originX    The window-relative X origin of the node
+   * @param originY    The window-relative Y origin of the node
+   * @param inClipMinX The window-relative minimum X clip
+   * @param inClipMinY The window-relative minimum Y clip
+   * @param inClipMaxX The window-relative maximum X clip (exclusive)
+   * @param inClipMaxY The window-relative maximum Y clip (exclusive)
+   */
+
+  void add(
+    SyRenderNodeType node,
+    int originX,
+    int originY,
+    int inClipMinX,
+    int inClipMinY,
+    int inClipMaxX,
+    int inClipMaxY);
+}
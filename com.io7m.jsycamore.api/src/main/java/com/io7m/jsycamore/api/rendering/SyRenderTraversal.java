@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jorchard.core.JOTreeNodeReadableType;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jsycamore.api.themes.SyThemeType;
+import com.io7m.jsycamore.api.windows.SyWindowReadableType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>A traversal that produces the render nodes for the components of a
+ * window.</p>
+ *
+ * <p>The component tree is walked iteratively in depth-first order using an
+ * explicit stack of integer translations and clip rectangles, expressed in
+ * window-relative coordinates. Any component whose bounds do not intersect
+ * the accumulated clip region cannot draw anything, and neither can any of
+ * its descendants; such subtrees are rejected before the theme is
+ * consulted.</p>
+ *
+ * <p>Instances are not thread-safe, and are intended to be reused between
+ * frames in order to avoid allocating.</p>
+ */
+
+public final class SyRenderTraversal
+{
+  private final TraversalStack stack;
+  private int windowClipMinX;
+  private int windowClipMinY;
+  private int windowClipMaxX;
+  private int windowClipMaxY;
+
+  /**
+   * A traversal that produces the render nodes for the components of a
+   * window.
+   */
+
+  public SyRenderTraversal()
+  {
+    this.stack = new TraversalStack();
+  }
+
+  /**
+   * @return The window-relative minimum X clip of the most recent window
+   */
+
+  public int windowClipMinX()
+  {
+    return this.windowClipMinX;
+  }
+
+  /**
+   * @return The window-relative minimum Y clip of the most recent window
+   */
+
+  public int windowClipMinY()
+  {
+    return this.windowClipMinY;
+  }
+
+  /**
+   * @return The window-relative maximum X clip (exclusive) of the most recent
+   * window
+   */
+
+  public int windowClipMaxX()
+  {
+    return this.windowClipMaxX;
+  }
+
+  /**
+   * @return The window-relative maximum Y clip (exclusive) of the most recent
+   * window
+   */
+
+  public int windowClipMaxY()
+  {
+    return this.windowClipMaxY;
+  }
+
+  /**
+   * Calculate the initial clip region of a window. This is the window's
+   * bounds intersected with the screen, expressed in window-relative
+   * coordinates.
+   *
+   * @param screenSize The size of the screen
+   * @param window     The window
+   *
+   * @return {@code false} if the window lies entirely outside the screen
+   */
+
+  public boolean windowBegin(
+    final PAreaSizeI<SySpaceViewportType> screenSize,
+    final SyWindowReadableType window)
+  {
+    Objects.requireNonNull(screenSize, "screenSize");
+    Objects.requireNonNull(window, "window");
+
+    final var bounds = window.boundingArea();
+
+    this.windowClipMinX =
+      Math.max(0, -bounds.minimumX());
+    this.windowClipMinY =
+      Math.max(0, -bounds.minimumY());
+    this.windowClipMaxX =
+      Math.min(bounds.sizeX(), screenSize.sizeX() - bounds.minimumX());
+    this.windowClipMaxY =
+      Math.min(bounds.sizeY(), screenSize.sizeY() - bounds.minimumY());
+
+    return this.windowClipMinX < this.windowClipMaxX
+           && this.windowClipMinY < this.windowClipMaxY;
+  }
+
+  /**
+   * Collect the render nodes for the components of a window, starting from
+   * the window clip region most recently calculated by
+   * {@link #windowBegin(PAreaSizeI, SyWindowReadableType)}. The render nodes
+   * produced for each component are passed to the given sink in rendering
+   * order.
+   *
+   * @param theme   The theme
+   * @param context The theme context
+   * @param window  The window
+   * @param sink    The sink
+   */
+
+  public void windowCollect(
+    final SyThemeType theme,
+    final SyThemeContextType context,
+    final SyWindowReadableType window,
+    final SyRenderNodeSinkType sink)
+  {
+    Objects.requireNonNull(theme, "theme");
+    Objects.requireNonNull(context, "context");
+    Objects.requireNonNull(window, "window");
+    Objects.requireNonNull(sink, "sink");
+
+    final var traversal = this.stack;
+
+    traversal.clear();
+    traversal.push(
+      window.rootNodeReadable(),
+      0,
+      0,
+      this.windowClipMinX,
+      this.windowClipMinY,
+      this.windowClipMaxX,
+      this.windowClipMaxY
+    );
+
+    while (!traversal.isEmpty()) {
+      final var index = traversal.pop();
+      final var node = traversal.nodes[index];
+      final var component = node.value();
+
+      /*
+       * Invisible components hide all of their descendants.
+       */
+
+      if (!component.isVisibleIfAncestorsVisible()) {
+        continue;
+      }
+
+      final var position = component.position().get();
+      final var size = component.size().get();
+      final var x = traversal.originX[index] + position.x();
+      final var y = traversal.originY[index] + position.y();
+
+      /*
+       * Components are clipped to their own bounds (plus one pixel to
+       * allow for edges drawn along the maximum edges), intersected with the
+       * clip region of the parent.
+       */
+
+      final var clipMinX =
+        Math.max(traversal.clipMinX[index], x);
+      final var clipMinY =
+        Math.max(traversal.clipMinY[index], y);
+      final var clipMaxX =
+        clampedEdge(traversal.clipMaxX[index], x, size.sizeX());
+      final var clipMaxY =
+        clampedEdge(traversal.clipMaxY[index], y, size.sizeY());
+
+      if (clipMinX >= clipMaxX || clipMinY >= clipMaxY) {
+        continue;
+      }
+
+      final var renderNode =
+        theme.findForComponent(component)
+          .render(context, component);
+
+      sink.add(renderNode, x, y, clipMinX, clipMinY, clipMaxX, clipMaxY);
+
+      /*
+       * Push the children in reverse order so that they are popped (and
+       * therefore rendered) in their natural order.
+       */
+
+      final var children = node.childrenReadable();
+      for (int c = children.size() - 1; c >= 0; --c) {
+        traversal.push(
+          children.get(c),
+          x,
+          y,
+          clipMinX,
+          clipMinY,
+          clipMaxX,
+          clipMaxY
+        );
+      }
+    }
+  }
+
+  private static int clampedEdge(
+    final int parentMaximum,
+    final int origin,
+    final int size)
+  {
+    return (int) Math.min(
+      (long) parentMaximum,
+      (long) origin + (long) size + 1L
+    );
+  }
+
+  /**
+   * A stack of tree nodes, each paired with the window-relative origin of
+   * the parent and the accumulated clip region of the parent. The stack is
+   * stored as a set of parallel arrays that are only ever reallocated when
+   * the stack needs to grow; a steady-state traversal performs no
+   * allocations.
+   */
+
+  private static final class TraversalStack
+  {
+    private JOTreeNodeReadableType<SyComponentReadableType>[] nodes;
+    private int[] originX;
+    private int[] originY;
+    private int[] clipMinX;
+    private int[] clipMinY;
+    private int[] clipMaxX;
+    private int[] clipMaxY;
+    private int size;
+
+    TraversalStack()
+    {
+      this.allocate(64);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(
+      final int capacity)
+    {
+      final var newNodes =
+        (JOTreeNodeReadableType<SyComponentReadableType>[])
+          new JOTreeNodeReadableType<?>[capacity];
+
+      if (this.nodes != null) {
+        System.arraycopy(this.nodes, 0, newNodes, 0, this.size);
+      }
+      this.nodes = newNodes;
+      this.originX = grow(this.originX, capacity, this.size);
+      this.originY = grow(this.originY, capacity, this.size);
+      this.clipMinX = grow(this.clipMinX, capacity, this.size);
+      this.clipMinY = grow(this.clipMinY, capacity, this.size);
+      this.clipMaxX = grow(this.clipMaxX, capacity, this.size);
+      this.clipMaxY = grow(this.clipMaxY, capacity, this.size);
+    }
+
+    private static int[] grow(
+      final int[] array,
+      final int capacity,
+      final int size)
+    {
+      final var result = new int[capacity];
+      if (array != null) {
+        System.arraycopy(array, 0, result, 0, size);
+      }
+      return result;
+    }
+
+    void clear()
+    {
+      Arrays.fill(this.nodes, 0, this.size, null);
+      this.size = 0;
+    }
+
+    boolean isEmpty()
+    {
+      return this.size == 0;
+    }
+
+    void push(
+      final JOTreeNodeReadableType<SyComponentReadableType> node,
+      final int x,
+      final int y,
+      final int inClipMinX,
+      final int inClipMinY,
+      final int inClipMaxX,
+      final int inClipMaxY)
+    {
+      if (this.size == this.nodes.length) {
+        this.allocate(this.nodes.length * 2);
+      }
+
+      final var index = this.size;
+      this.nodes[index] = node;
+      this.originX[index] = x;
+      this.originY[index] = y;
+      this.clipMinX[index] = inClipMinX;
+      this.clipMinY[index] = inClipMinY;
+      this.clipMaxX[index] = inClipMaxX;
+      this.clipMaxY[index] = inClipMaxY;
+      ++this.size;
+    }
+
+    /**
+     * Pop the top element of the stack. The returned index remains valid
+     * until the next call to {@link #push}.
+     *
+     * @return The index of the popped element
+     */
+
+    int pop()
+    {
+      --this.size;
+      return this.size;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import java.util.Objects;
+
+/**
+ * A render node captured in a scene snapshot, together with the
+ * window-relative origin and clip region it was produced with.
+ *
+ * @param node    The render node
+ * @param originX The window-relative X origin of the node
+ * @param originY The window-relative Y origin of the node
+ * @param clipMinX The window-relative minimum X clip
+ * @param clipMinY The window-relative minimum Y clip
+ * @param clipMaxX The window-relative maximum X clip (exclusive)
+ * @param clipMaxY The window-relative maximum Y clip (exclusive)
+ */
+
+public record SySceneNode(
+  SyRenderNodeType node,
+  int originX,
+  int originY,
+  int clipMinX,
+  int clipMinY,
+  int clipMaxX,
+  int clipMaxY)
+{
+  /**
+   * A render node captured in a scene snapshot, together with the
+   * window-relative origin and clip region it was produced with.
+   *
+   * @param node    The render node
+   * @param originX The window-relative X origin of the node
+   * @param originY The window-relative Y origin of the node
+   * @param clipMinX The window-relative minimum X clip
+   * @param clipMinY The window-relative minimum Y clip
+   * @param clipMaxX The window-relative maximum X clip (exclusive)
+   * @param clipMaxY The window-relative maximum Y clip (exclusive)
+   */
+
+  public SySceneNode
+  {
+    Objects.requireNonNull(node, "node");
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>An immutable, render-ready snapshot of a screen, captured at the end of
+ * an update. A snapshot shares no mutable state with the screen, and can
+ * therefore be rendered on one thread while the screen is updated on
+ * another. Application-owned rasters are captured with
+ * {@link SyRaster#snapshot()}, and so a snapshot shows each raster as it was
+ * when the snapshot was taken.</p>
+ *
+ * <p>Windows that are completely hidden behind opaque windows are not
+ * included in the snapshot.</p>
+ *
+ * @param frame   The number of the update that produced the snapshot
+ * @param size    The size of the screen
+ * @param windows The visible windows, in rendering order (furthest first)
+ */
+
+public record SySceneSnapshot(
+  long frame,
+  PAreaSizeI<SySpaceViewportType> size,
+  List<SySceneWindow> windows)
+{
+  /**
+   * An immutable, render-ready snapshot of a screen.
+   *
+   * @param frame   The number of the update that produced the snapshot
+   * @param size    The size of the screen
+   * @param windows The visible windows, in rendering order (furthest first)
+   */
+
+  public SySceneSnapshot
+  {
+    Objects.requireNonNull(size, "size");
+    windows = List.copyOf(windows);
+  }
+}
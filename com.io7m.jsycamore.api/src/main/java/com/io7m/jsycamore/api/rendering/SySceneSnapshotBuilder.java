@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jregions.core.parameterized.areas.PAreasI;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.windows.SyWindowOcclusion;
+import com.io7m.jsycamore.api.windows.SyWindowType;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * <p>A builder of scene snapshots.</p>
+ *
+ * <p>Instances are not thread-safe, and are intended to be reused between
+ * frames. The snapshots produced are immutable.</p>
+ */
+
+public final class SySceneSnapshotBuilder
+{
+  private final SyRenderTraversal traversal;
+  private final SyWindowOcclusion occlusion;
+  private final ArrayList<SyWindowType> windowsUnoccluded;
+  private final ArrayList<SySceneNode> nodes;
+  private final SyRenderNodeSinkType sink;
+
+  /**
+   * A builder of scene snapshots.
+   */
+
+  public SySceneSnapshotBuilder()
+  {
+    this.traversal =
+      new SyRenderTraversal();
+    this.occlusion =
+      new SyWindowOcclusion();
+    this.windowsUnoccluded =
+      new ArrayList<>();
+    this.nodes =
+      new ArrayList<>();
+    this.sink =
+      this::nodeAdd;
+  }
+
+  /**
+   * Capture a snapshot of the current state of the given screen. This must
+   * be called on the thread that updates the screen.
+   *
+   * @param screen The screen
+   * @param frame  The frame number
+   *
+   * @return An immutable snapshot
+   */
+
+  public SySceneSnapshot build(
+    final SyScreenType screen,
+    final long frame)
+  {
+    Objects.requireNonNull(screen, "screen");
+
+    final var theme = screen.theme();
+    final var context = screen.themeContext();
+    final var screenSize = screen.size().get();
+    final var windows = this.windowsUnoccluded;
+
+    try {
+      this.occlusion.windowsUnoccluded(
+        theme,
+        screenSize,
+        screen.windowService().windowsVisibleOrdered(),
+        windows
+      );
+
+      final var sceneWindows =
+        new ArrayList<SySceneWindow>(windows.size());
+
+      for (int index = windows.size() - 1; index >= 0; --index) {
+        final var window = windows.get(index);
+        if (!this.traversal.windowBegin(screenSize, window)) {
+          continue;
+        }
+
+        this.nodes.clear();
+        this.traversal.windowCollect(theme, context, window, this.sink);
+
+        sceneWindows.add(
+          new SySceneWindow(
+            window.id(),
+            window.boundingArea(),
+            PAreasI.create(
+              this.traversal.windowClipMinX(),
+              this.traversal.windowClipMinY(),
+              this.traversal.windowClipMaxX() - this.traversal.windowClipMinX(),
+              this.traversal.windowClipMaxY() - this.traversal.windowClipMinY()
+            ),
+            this.nodes
+          )
+        );
+      }
+
+      return new SySceneSnapshot(frame, screenSize, sceneWindows);
+    } finally {
+      windows.clear();
+      this.nodes.clear();
+    }
+  }
+
+  private void nodeAdd(
+    final SyRenderNodeType node,
+    final int originX,
+    final int originY,
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    /*
+     * Raster nodes refer to application-owned pixel arrays, and so are
+     * captured as immutable snapshots of their rasters.
+     */
+
+    final SyRenderNodeType captured;
+    if (node instanceof final SyRenderNodeRaster raster) {
+      captured =
+        new SyRenderNodeRaster(
+          raster.name(),
+          raster.raster().snapshot(),
+          raster.position(),
+          raster.size(),
+          raster.scrollX()
+        );
+    } else {
+      captured = node;
+    }
+
+    this.nodes.add(
+      new SySceneNode(
+        captured,
+        originX,
+        originY,
+        inClipMinX,
+        inClipMinY,
+        inClipMaxX,
+        inClipMaxY
+      )
+    );
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.rendering;
+
+import com.io7m.jregions.core.parameterized.areas.PAreaI;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.spaces.SySpaceWindowType;
+import com.io7m.jsycamore.api.windows.SyWindowID;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A window captured in a scene snapshot.
+ *
+ * @param id     The window ID
+ * @param bounds The bounds of the window on the screen
+ * @param clip   The window-relative region of the window that lies on the
+ *               screen
+ * @param nodes  The render nodes of the window, in rendering order
+ */
+
+public record SySceneWindow(
+  SyWindowID id,
+  PAreaI<SySpaceViewportType> bounds,
+  PAreaI<SySpaceWindowType> clip,
+  List<SySceneNode> nodes)
+{
+  /**
+   * A window captured in a scene snapshot.
+   *
+   * @param id     The window ID
+   * @param bounds The bounds of the window on the screen
+   * @param clip   The window-relative region of the window that lies on the
+   *               screen
+   * @param nodes  The render nodes of the window, in rendering order
+   */
+
+  public SySceneWindow
+  {
+    Objects.requireNonNull(id, "id");
+    Objects.requireNonNull(bounds, "bounds");
+    Objects.requireNonNull(clip, "clip");
+    nodes = List.copyOf(nodes);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.api.screens;
+
+import com.io7m.jsycamore.api.mouse.SyMouseButton;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+
+/**
+ * A queue through which input can be submitted to a screen from any thread.
+ * Submitting input never blocks, and never delivers any events directly;
+ * submitted input is delivered, in submission order, by the thread that
+ * next calls {@link SyScreenType#update()}.
+ */
+
+public interface SyScreenInputQueueType extends SyScreenKeyEventsType
+{
+  /**
+   * Submit a mouse movement.
+   *
+   * @param position The current mouse position
+   *
+   * @see SyScreenMouseEventsType#mouseMoved(PVector2I)
+   */
+
+  void mouseMoved(
+    PVector2I<SySpaceViewportType> position);
+
+  /**
+   * Submit a mouse button press.
+   *
+   * @param position The current mouse position
+   * @param button   The mouse button
+   *
+   * @see SyScreenMouseEventsType#mouseDown(PVector2I, SyMouseButton)
+   */
+
+  void mouseDown(
+    PVector2I<SySpaceViewportType> position,
+    SyMouseButton button);
+
+  /**
+   * Submit a mouse button release.
+   *
+   * @param position The current mouse position
+   * @param button   The mouse button
+   *
+   * @see SyScreenMouseEventsType#mouseUp(PVector2I, SyMouseButton)
+   */
+
+  void mouseUp(
+    PVector2I<SySpaceViewportType> position,
+    SyMouseButton button);
+}
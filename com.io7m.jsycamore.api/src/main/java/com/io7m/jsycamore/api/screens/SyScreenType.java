@@ -19,7 +19,9 @@ package com.io7m.jsycamore.api.screens;
 import com.io7m.jattribute.core.AttributeReadableType;
 import com.io7m.jsycamore.api.components.SyComponentType;
 import com.io7m.jsycamore.api.events.SyEventType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusServiceType;
 import com.io7m.jsycamore.api.menus.SyMenuServiceType;
+import com.io7m.jsycamore.api.rendering.SySceneSnapshot;
 import com.io7m.jsycamore.api.services.SyServiceDirectoryReadableType;
 import com.io7m.jsycamore.api.sized.SySizedType;
 import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
@@ -30,6 +32,7 @@ import com.io7m.jsycamore.api.windows.SyWindowServiceType;
 import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Flow.Publisher;
 
 /**
@@ -75,6 +78,15 @@ public interface SyScreenType
     return this.services().requireService(SyTextSelectionServiceType.class);
   }
 
+  /**
+   * @return Access to the (mandatory) keyboard focus service
+   */
+
+  default SyKeyboardFocusServiceType keyboardFocusService()
+  {
+    return this.services().requireService(SyKeyboardFocusServiceType.class);
+  }
+
   /**
    * @return The theme context
    */
@@ -87,6 +99,18 @@ public interface SyScreenType
 
   SyThemeType theme();
 
+  /**
+   * The methods of {@link SyScreenMouseEventsType} and
+   * {@link SyScreenKeyEventsType} implemented by the screen must only be
+   * called from the thread that updates the screen. Input arriving on other
+   * threads should be submitted through the input queue instead, and is
+   * delivered at the start of the next call to {@link #update()}.
+   *
+   * @return The input queue for the screen
+   */
+
+  SyScreenInputQueueType inputQueue();
+
   /**
    * @return The component that is currently underneath the mouse pointer, if
    * any
@@ -102,11 +126,82 @@ public interface SyScreenType
 
   /**
    * Update the screen, executing a layout pass and updating any animating
-   * elements.
+   * elements. If snapshots are enabled, a new snapshot is published at the
+   * end of the update.
+   *
+   * @see #setSnapshotsEnabled(boolean)
    */
 
   void update();
 
+  /**
+   * Enable or disable scene snapshots. When enabled, each call to
+   * {@link #update()} ends by capturing an immutable, render-ready
+   * {@link SySceneSnapshot} of the screen. This allows a renderer running on
+   * a separate thread to draw one frame while the thread that owns the screen
+   * processes input and lays out the next. Snapshots are disabled by default.
+   *
+   * @param enabled {@code true} if snapshots should be captured
+   */
+
+  void setSnapshotsEnabled(boolean enabled);
+
+  /**
+   * Retrieve the most recently published snapshot. This method may be called
+   * from any thread.
+   *
+   * @return The most recent snapshot, if snapshots are enabled and at least
+   * one update has completed since they were enabled
+   */
+
+  Optional<SySceneSnapshot> snapshot();
+
+  /**
+   * Enable or disable parallel layout. When enabled, each call to
+   * {@link #update()} lays out the visible windows concurrently on the
+   * layout pool, and returns once all windows have been laid out. The
+   * component trees of windows are disjoint, and so windows can be laid out
+   * independently, but the layout context, theme, and font directory are
+   * shared between all windows and must therefore be thread-safe (see
+   * {@link com.io7m.jsycamore.api.layout.SyLayoutContextType}). Parallel
+   * layout is disabled by default.
+   *
+   * @param enabled {@code true} if windows should be laid out in parallel
+   *
+   * @see #setLayoutPool(ForkJoinPool)
+   */
+
+  void setParallelLayoutEnabled(boolean enabled);
+
+  /**
+   * Set the pool used for parallel layout. The pool is used both for laying
+   * out windows in parallel, and by containers that lay out large numbers of
+   * children in parallel. The default is the common pool.
+   *
+   * @param pool The pool
+   *
+   * @see #setParallelLayoutEnabled(boolean)
+   */
+
+  void setLayoutPool(ForkJoinPool pool);
+
+  /**
+   * Enable or disable the coalescing of mouse movements. When enabled,
+   * {@link #mouseMoved(PVector2I)} records the new position without
+   * delivering any events, and returns the component that was under the
+   * mouse cursor as of the last delivered movement. Only the most recently
+   * recorded position is delivered, either at the start of the next call to
+   * {@link #update()}, or immediately before the next button press or
+   * release, so that movements are never reordered relative to presses and
+   * releases. High-rate pointing devices can otherwise cause several
+   * "over" or "held" events to be delivered per frame. Coalescing is
+   * disabled by default; disabling it delivers any recorded position.
+   *
+   * @param enabled {@code true} if mouse movements should be coalesced
+   */
+
+  void setMouseCoalescingEnabled(boolean enabled);
+
   /**
    * @return An attribute that exposes the most recently published mouse
    * position
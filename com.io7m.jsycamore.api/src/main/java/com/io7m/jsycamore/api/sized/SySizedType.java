@@ -47,6 +47,27 @@ public interface SySizedType<T extends SySpaceType>
     this.size().set(newSize);
   }
 
+  /**
+   * Set the size of the object. The size is only replaced, and subscribers
+   * to {@link #size()} are only notified, if the new size differs from the
+   * current size. This allows layout code to resize objects without producing
+   * garbage when the layout has not changed.
+   *
+   * @param sizeX The new size on the X axis
+   * @param sizeY The new size on the Y axis
+   */
+
+  default void setSize(
+    final int sizeX,
+    final int sizeY)
+  {
+    final var size = this.size();
+    final var existing = size.get();
+    if (existing.sizeX() != sizeX || existing.sizeY() != sizeY) {
+      size.set(PAreaSizeI.of(sizeX, sizeY));
+    }
+  }
+
   /**
    * Set the desired upper limit on the size of the object.
    *
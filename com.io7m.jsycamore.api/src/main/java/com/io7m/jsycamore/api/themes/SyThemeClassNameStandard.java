@@ -33,6 +33,14 @@ public enum SyThemeClassNameStandard
     "Button",
     "A generic button."),
 
+  /**
+   * A canvas class.
+   */
+
+  CANVAS(
+    "Canvas",
+    "A canvas displaying an application-owned raster."),
+
   /**
    * A checkbox class.
    */
@@ -337,6 +345,14 @@ public enum SyThemeClassNameStandard
     "TextMultilineView",
     "A multi-line text view."),
 
+  /**
+   * A tree view class.
+   */
+
+  TREE_VIEW(
+    "TreeView",
+    "A tree view."),
+
   /**
    * The close button for a window.
    */
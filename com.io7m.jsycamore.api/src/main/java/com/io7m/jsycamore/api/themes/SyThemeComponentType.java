@@ -20,7 +20,9 @@ import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
 import com.io7m.jsycamore.api.components.SyComponentReadableType;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
 import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.spaces.SySpaceRGBAPreType;
 import com.io7m.jsycamore.api.text.SyFontType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector4D;
 
 import java.util.Objects;
 import java.util.Optional;
@@ -50,6 +52,29 @@ public interface SyThemeComponentType
     return Optional.empty();
   }
 
+  /**
+   * Produce the color with which a component should draw content that it
+   * draws itself, such as a raster that the component retains between
+   * frames, if the theme defines one. Components consult this during
+   * layout, so that their pixels can be written on the thread that updates
+   * the screen rather than during rendering.
+   *
+   * @param context   The theme context
+   * @param component The component
+   *
+   * @return The color, if the theme defines one
+   */
+
+  default Optional<PVector4D<SySpaceRGBAPreType>> foreground(
+    final SyThemeContextType context,
+    final SyComponentReadableType component)
+  {
+    Objects.requireNonNull(context, "context");
+    Objects.requireNonNull(component, "component");
+
+    return Optional.empty();
+  }
+
   /**
    * Produce a render node for a component.
    *
@@ -20,8 +20,10 @@ import com.io7m.jsycamore.api.components.SyComponentType;
 import com.io7m.jsycamore.api.components.SyConstraints;
 import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.windows.SyWindowDecorationComponent;
+import com.io7m.jsycamore.api.windows.SyWindowReadableType;
 
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Theme information for windows.
@@ -54,4 +56,24 @@ public interface SyThemeWindowType
     SyLayoutContextType layoutContext,
     SyConstraints windowConstraints,
     Map<SyWindowDecorationComponent, SyComponentType> windowComponents);
+
+  /**
+   * Determine whether the given window is rendered opaquely. A window is
+   * opaque if rendering the window is guaranteed to overwrite every pixel
+   * within the window's bounding area. Renderers may use this information
+   * to avoid rendering windows that are completely hidden behind opaque
+   * windows. Themes that cannot make this guarantee for a window must
+   * return {@code false}.
+   *
+   * @param window The window
+   *
+   * @return {@code true} if the window is rendered opaquely
+   */
+
+  default boolean windowIsOpaque(
+    final SyWindowReadableType window)
+  {
+    Objects.requireNonNull(window, "window");
+    return false;
+  }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.api.windows;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.themes.SyThemeWindowType;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>An occlusion calculator for windows.</p>
+ *
+ * <p>Given a list of windows in depth order (nearest first), the calculator
+ * determines which windows are at least partially visible. A window is
+ * hidden if the visible part of its bounding area is entirely covered by
+ * the union of the bounding areas of the opaque windows in front of it. The
+ * theme decides which windows are opaque.</p>
+ *
+ * <p>Instances are not thread-safe, and are intended to be reused between
+ * frames in order to avoid allocating.</p>
+ */
+
+public final class SyWindowOcclusion
+{
+  private int[] coveredMinX;
+  private int[] coveredMinY;
+  private int[] coveredMaxX;
+  private int[] coveredMaxY;
+  private int coveredCount;
+
+  /**
+   * An occlusion calculator for windows.
+   */
+
+  public SyWindowOcclusion()
+  {
+    this.coveredMinX = new int[16];
+    this.coveredMinY = new int[16];
+    this.coveredMaxX = new int[16];
+    this.coveredMaxY = new int[16];
+  }
+
+  /**
+   * Determine the set of windows that are at least partially visible.
+   *
+   * @param theme      The theme that decides which windows are opaque
+   * @param screenSize The size of the screen
+   * @param windows    The windows in depth order (nearest first)
+   * @param output     The list to which visible windows will be added, in
+   *                   depth order (nearest first)
+   */
+
+  public void windowsUnoccluded(
+    final SyThemeWindowType theme,
+    final PAreaSizeI<SySpaceViewportType> screenSize,
+    final List<SyWindowType> windows,
+    final List<SyWindowType> output)
+  {
+    Objects.requireNonNull(theme, "theme");
+    Objects.requireNonNull(screenSize, "screenSize");
+    Objects.requireNonNull(windows, "windows");
+    Objects.requireNonNull(output, "output");
+
+    this.coveredCount = 0;
+
+    final var windowCount = windows.size();
+    for (int index = 0; index < windowCount; ++index) {
+      final var window = windows.get(index);
+      final var bounds = window.boundingArea();
+
+      final var minX = Math.max(0, bounds.minimumX());
+      final var minY = Math.max(0, bounds.minimumY());
+      final var maxX = Math.min(screenSize.sizeX(), bounds.maximumX());
+      final var maxY = Math.min(screenSize.sizeY(), bounds.maximumY());
+
+      /*
+       * Windows that lie entirely outside the screen can neither be seen
+       * nor hide anything.
+       */
+
+      if (minX >= maxX || minY >= maxY) {
+        continue;
+      }
+
+      if (this.isCovered(minX, minY, maxX, maxY, 0)) {
+        continue;
+      }
+
+      output.add(window);
+
+      if (theme.windowIsOpaque(window)) {
+        this.coveredAdd(minX, minY, maxX, maxY);
+      }
+    }
+  }
+
+  /**
+   * Determine if the given rectangle is completely covered by the covering
+   * rectangles starting at {@code start}. The parts of the rectangle that
+   * lie outside the first intersecting covering rectangle are split into at
+   * most four disjoint pieces, each of which is checked against the
+   * remaining covering rectangles.
+   */
+
+  private boolean isCovered(
+    final int minX,
+    final int minY,
+    final int maxX,
+    final int maxY,
+    final int start)
+  {
+    for (int index = start; index < this.coveredCount; ++index) {
+      final var cMinX = this.coveredMinX[index];
+      final var cMinY = this.coveredMinY[index];
+      final var cMaxX = this.coveredMaxX[index];
+      final var cMaxY = this.coveredMaxY[index];
+
+      final var intersects =
+        cMinX < maxX && minX < cMaxX && cMinY < maxY && minY < cMaxY;
+
+      if (!intersects) {
+        continue;
+      }
+
+      final var next = index + 1;
+
+      /*
+       * The pieces above and below the covering rectangle span the full
+       * width of the rectangle; the pieces to the left and right span only
+       * the height of the intersection.
+       */
+
+      if (minY < cMinY) {
+        if (!this.isCovered(minX, minY, maxX, cMinY, next)) {
+          return false;
+        }
+      }
+      if (cMaxY < maxY) {
+        if (!this.isCovered(minX, cMaxY, maxX, maxY, next)) {
+          return false;
+        }
+      }
+
+      final var midMinY = Math.max(minY, cMinY);
+      final var midMaxY = Math.min(maxY, cMaxY);
+
+      if (minX < cMinX) {
+        if (!this.isCovered(minX, midMinY, cMinX, midMaxY, next)) {
+          return false;
+        }
+      }
+      if (cMaxX < maxX) {
+        return this.isCovered(cMaxX, midMinY, maxX, midMaxY, next);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private void coveredAdd(
+    final int minX,
+    final int minY,
+    final int maxX,
+    final int maxY)
+  {
+    if (this.coveredCount == this.coveredMinX.length) {
+      final var capacity = this.coveredCount * 2;
+      this.coveredMinX = grow(this.coveredMinX, capacity);
+      this.coveredMinY = grow(this.coveredMinY, capacity);
+      this.coveredMaxX = grow(this.coveredMaxX, capacity);
+      this.coveredMaxY = grow(this.coveredMaxY, capacity);
+    }
+
+    final var index = this.coveredCount;
+    this.coveredMinX[index] = minX;
+    this.coveredMinY[index] = minY;
+    this.coveredMaxX[index] = maxX;
+    this.coveredMaxY[index] = maxY;
+    ++this.coveredCount;
+  }
+
+  private static int[] grow(
+    final int[] array,
+    final int capacity)
+  {
+    final var result = new int[capacity];
+    System.arraycopy(array, 0, result, 0, array.length);
+    return result;
+  }
+}
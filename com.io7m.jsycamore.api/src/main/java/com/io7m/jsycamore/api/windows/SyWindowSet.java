@@ -43,6 +43,7 @@ public final class SyWindowSet
   private final Map<SyWindowID, SyWindowType> windows;
   private final TreeMap<SyWindowLayerID, LinkedList<SyWindowType>> windowsVisibleOrdered;
   private final Set<SyWindowLayerID> windowLayersHidden;
+  private final List<SyWindowType> windowsVisibleOrderedList;
 
   private SyWindowSet(
     final Map<SyWindowID, SyWindowType> inWindows,
@@ -63,6 +64,15 @@ public final class SyWindowSet
         );
       });
     });
+
+    this.windowsVisibleOrderedList =
+      this.windowsVisibleOrdered.keySet()
+        .stream()
+        .sorted(Comparator.reverseOrder())
+        .filter(layer -> !this.windowLayersHidden.contains(layer))
+        .map(this.windowsVisibleOrdered::get)
+        .flatMap(Collection::stream)
+        .toList();
   }
 
   /**
@@ -117,19 +127,15 @@ public final class SyWindowSet
   /**
    * Calculate the complete set of visible windows and return them in depth
    * order: Windows nearer to the viewer are closer to the start of the list.
+   * The list is calculated once when the set is created, and so this method
+   * does not allocate.
    *
    * @return The set of windows that are visible in depth order
    */
 
   public List<SyWindowType> windowsVisibleOrdered()
   {
-    return this.windowsVisibleOrdered.keySet()
-      .stream()
-      .sorted(Comparator.reverseOrder())
-      .filter(layer -> !this.windowLayersHidden.contains(layer))
-      .map(this.windowsVisibleOrdered::get)
-      .flatMap(Collection::stream)
-      .toList();
+    return this.windowsVisibleOrderedList;
   }
 
   /**
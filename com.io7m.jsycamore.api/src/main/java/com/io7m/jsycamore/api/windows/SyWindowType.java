@@ -74,6 +74,26 @@ public interface SyWindowType extends SyWindowReadableType
     PVector2I<SySpaceViewportType> position,
     SyComponentQuery query);
 
+  /**
+   * Find a component given a viewport position. This is equivalent to
+   * {@link #componentForViewportPosition(PVector2I, SyComponentQuery)} but
+   * takes the position as plain integers and returns {@code null} instead of
+   * an empty {@code Optional}, and so does not allocate.
+   *
+   * @param viewportX The viewport X position
+   * @param viewportY The viewport Y position
+   * @param query     The type of position query
+   *
+   * @return A component, or {@code null} if there isn't one
+   *
+   * @see SyMouseFocusAcceptingReadableType
+   */
+
+  SyComponentType componentAtViewportPosition(
+    int viewportX,
+    int viewportY,
+    SyComponentQuery query);
+
   /**
    * Transform the given viewport position to a window-relative position.
    *
@@ -136,6 +156,15 @@ public interface SyWindowType extends SyWindowReadableType
 
   SyComponentType contentArea();
 
+  /**
+   * Indicate that components have been added to or removed from the window,
+   * or that the keyboard focus behavior of a component in the window has
+   * changed. This allows the window to update any information it caches
+   * about its components, such as the keyboard focus traversal order.
+   */
+
+  void onComponentTreeChanged();
+
   @Override
   AttributeType<SyText> title();
 
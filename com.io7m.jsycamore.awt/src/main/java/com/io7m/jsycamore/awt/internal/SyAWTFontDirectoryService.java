@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Font;
 import java.awt.FontFormatException;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -155,8 +156,17 @@ public final class SyAWTFontDirectoryService
       }
 
       LOG.debug("loaded font: {}", request.identifier());
-      final var fontMetrics =
-        graphics.getFontMetrics(derivedFont);
+
+      /*
+       * The cache may load several fonts concurrently when layout runs on
+       * multiple threads, and the shared graphics context is not
+       * thread-safe.
+       */
+
+      final FontMetrics fontMetrics;
+      synchronized (graphics) {
+        fontMetrics = graphics.getFontMetrics(derivedFont);
+      }
       return new SyAWTFont(fontMetrics, derivedFont, request);
     }
   }
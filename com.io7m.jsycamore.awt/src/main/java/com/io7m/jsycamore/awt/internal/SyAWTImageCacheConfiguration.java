@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The sizes of the tiers of an image loader's cache.
+ *
+ * @param heapBytesMaximum    The maximum size in bytes of the images held
+ *                            on the heap, ready to draw
+ * @param offHeapBytesMaximum The maximum size in bytes of the images held
+ *                            as raw pixels in off-heap memory
+ * @param spillBytesMaximum   The maximum size in bytes of the scratch file
+ *                            to which images are spilled from off-heap
+ *                            memory; zero disables spilling
+ * @param tileBytesMaximum    The maximum size in bytes of the tiles of
+ *                            tiled images held on the heap
+ * @param spillDirectory      The directory in which the scratch file is
+ *                            created, if not the temporary directory
+ */
+
+public record SyAWTImageCacheConfiguration(
+  long heapBytesMaximum,
+  long offHeapBytesMaximum,
+  long spillBytesMaximum,
+  long tileBytesMaximum,
+  Optional<Path> spillDirectory)
+{
+  /**
+   * The sizes of the tiers of an image loader's cache.
+   *
+   * @param heapBytesMaximum    The maximum size in bytes of the images held
+   *                            on the heap, ready to draw
+   * @param offHeapBytesMaximum The maximum size in bytes of the images held
+   *                            as raw pixels in off-heap memory
+   * @param spillBytesMaximum   The maximum size in bytes of the scratch file
+   *                            to which images are spilled from off-heap
+   *                            memory; zero disables spilling
+   * @param tileBytesMaximum    The maximum size in bytes of the tiles of
+   *                            tiled images held on the heap
+   * @param spillDirectory      The directory in which the scratch file is
+   *                            created, if not the temporary directory
+   */
+
+  public SyAWTImageCacheConfiguration
+  {
+    Objects.requireNonNull(spillDirectory, "spillDirectory");
+
+    Preconditions.checkPreconditionV(
+      heapBytesMaximum >= 0L,
+      "Heap size %d must be >= 0",
+      Long.valueOf(heapBytesMaximum));
+    Preconditions.checkPreconditionV(
+      offHeapBytesMaximum >= 0L,
+      "Off-heap size %d must be >= 0",
+      Long.valueOf(offHeapBytesMaximum));
+    Preconditions.checkPreconditionV(
+      spillBytesMaximum >= 0L && spillBytesMaximum <= Integer.MAX_VALUE,
+      "Spill size %d must be in the range [0, %d]",
+      Long.valueOf(spillBytesMaximum),
+      Integer.valueOf(Integer.MAX_VALUE));
+    Preconditions.checkPreconditionV(
+      tileBytesMaximum >= 0L,
+      "Tile size %d must be >= 0",
+      Long.valueOf(tileBytesMaximum));
+  }
+
+  /**
+   * @return The default configuration
+   */
+
+  public static SyAWTImageCacheConfiguration defaults()
+  {
+    return new SyAWTImageCacheConfiguration(
+      16_000_000L,
+      64_000_000L,
+      256_000_000L,
+      32_000_000L,
+      Optional.empty()
+    );
+  }
+}
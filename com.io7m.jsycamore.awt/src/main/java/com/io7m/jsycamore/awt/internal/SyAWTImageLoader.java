@@ -17,49 +17,186 @@
 
 package com.io7m.jsycamore.awt.internal;
 
-import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.Weigher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static java.awt.image.BufferedImage.TYPE_4BYTE_ABGR_PRE;
 
 /**
- * An image loader.
+ * <p>An image loader.</p>
  *
- * This implementation automatically resizes loaded images according to their
- * requested size, and caches the resized images in a fixed-size cache.
+ * <p>This implementation automatically resizes loaded images according to
+ * their requested size, and caches the resized images in a fixed-size
+ * cache.</p>
+ *
+ * <p>Decoded source images are cached separately from the resized images,
+ * so requesting the same image at several sizes decodes the image once.
+ * When the requested size is at most half of the original size, the image
+ * is subsampled as it is decoded, so large images are never decoded at full
+ * resolution merely to produce small ones. Subsampling factors are rounded
+ * down to powers of two so that similar sizes share a decoded source.</p>
+ *
+ * <p>Completion listeners are notified each time a request finishes loading,
+ * whether successfully or not, so that hosts can redraw the parts of the
+ * screen that showed placeholders instead of redrawing periodically.</p>
+ *
+ * <p>Images may be prefetched ahead of being displayed. Loads requested by
+ * the renderer, for images that are on screen, always start before
+ * prefetches, and a queued prefetch is promoted if its image is displayed
+ * before it starts. Prefetches that have not started may be cancelled.
+ * Loading and decoding run on the executor given at construction; the
+ * default is a small bounded pool of daemon threads.</p>
+ *
+ * <p>The cache of resized images is tiered. Images that are ready to draw
+ * are held on the heap; when the heap tier is full, evicted images are
+ * demoted to raw pixels in off-heap memory, and from there to a
+ * memory-mapped scratch file. An image found in either lower tier is
+ * rebuilt from its pixels without being decoded again. The sizes of the
+ * tiers are given by a {@link SyAWTImageCacheConfiguration}. Closing the
+ * loader empties the heap tier, releases the lower tiers, and deletes the
+ * scratch file. Images loaded after the loader is closed are not demoted
+ * when they are evicted.</p>
+ *
+ * <p>Images that are much larger than the screen may instead be loaded as
+ * tiles: each level of a pyramid of successively halved resolutions is
+ * divided into square tiles, and each tile is decoded on its own, using
+ * the same subsampling as for whole images. Tiles are held in their own
+ * least-recently-used cache. Tiles are not demoted to the lower tiers, as
+ * they are cheap to decode again. Tiles are loaded with the same priority
+ * as visible images, and the loads of tiles that are scrolled out of view
+ * before they start are dropped.</p>
  */
 
-public final class SyAWTImageLoader
+public final class SyAWTImageLoader implements AutoCloseable
 {
   private static final Logger LOG =
     LoggerFactory.getLogger(SyAWTImageLoader.class);
 
   private final BufferedImage failed;
-  private final AsyncLoadingCache<SyAWTImageRequest, BufferedImage> cache;
+  private final AsyncCache<SyAWTImageRequest, BufferedImage> cache;
+  private final SyAWTImageTiers tiers;
+  private final SyAWTImageScheduler scheduler;
+  private final LoadingCache<SourceKey, BufferedImage> sources;
+  private final Cache<URI, SyAWTImageTiles.Size> sourceSizes;
+  private final SyAWTImageTiles tiles;
+  private final AtomicLong sourcesOpened;
+  private final AtomicLong sourcesDecoded;
+  private final AtomicLong sourcePixelsDecoded;
+  private final CopyOnWriteArrayList<Consumer<SyAWTImageRequest>> listeners;
+  private final CopyOnWriteArrayList<Consumer<Object>> tileListeners;
   private final BufferedImage loading;
 
   /**
-   * Construct an image loader.
+   * Construct an image loader that loads images on a bounded pool of
+   * daemon threads.
    */
 
   public SyAWTImageLoader()
   {
-    this.cache =
+    this(createDefaultExecutor());
+  }
+
+  /**
+   * Construct an image loader. The executor may be a bounded pool, or may
+   * create a virtual thread per task; in either case, loads for visible
+   * images take priority over prefetches.
+   *
+   * @param executor The executor used to load and decode images
+   */
+
+  public SyAWTImageLoader(
+    final Executor executor)
+  {
+    this(executor, SyAWTImageCacheConfiguration.defaults());
+  }
+
+  /**
+   * Construct an image loader.
+   *
+   * @param executor      The executor used to load and decode images
+   * @param configuration The sizes of the cache tiers
+   */
+
+  public SyAWTImageLoader(
+    final Executor executor,
+    final SyAWTImageCacheConfiguration configuration)
+  {
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(configuration, "configuration");
+
+    this.listeners =
+      new CopyOnWriteArrayList<>();
+    this.tileListeners =
+      new CopyOnWriteArrayList<>();
+    this.sourcesOpened =
+      new AtomicLong();
+    this.sourcesDecoded =
+      new AtomicLong();
+    this.sourcePixelsDecoded =
+      new AtomicLong();
+
+    this.sourceSizes =
+      Caffeine.newBuilder()
+        .maximumSize(4096L)
+        .build();
+
+    this.sources =
       Caffeine.newBuilder()
         .maximumWeight(16_000_000L)
+        .weigher((Weigher<SourceKey, BufferedImage>) (key, value) -> imageBytes(
+          value))
+        .build(this::loadSource);
+
+    this.tiers =
+      new SyAWTImageTiers(configuration);
+
+    this.cache =
+      Caffeine.newBuilder()
+        .maximumWeight(configuration.heapBytesMaximum())
         .weigher((Weigher<SyAWTImageRequest, BufferedImage>) (key, value) -> imageBytes(
           value))
-        .buildAsync(SyAWTImageLoader::loadImage);
+        .removalListener(this::onEvicted)
+        .executor(executor)
+        .buildAsync();
+
+    this.scheduler =
+      new SyAWTImageScheduler(executor, this::loadImage);
+
+    this.tiles =
+      new SyAWTImageTiles(
+        this.scheduler,
+        configuration.tileBytesMaximum(),
+        this::loadTile,
+        this::loadTileSize,
+        this::notifyTileCompleted
+      );
 
     this.failed = new BufferedImage(4, 4, TYPE_4BYTE_ABGR_PRE);
 
@@ -85,29 +222,370 @@ public final class SyAWTImageLoader
     }
   }
 
+  private void onEvicted(
+    final SyAWTImageRequest request,
+    final BufferedImage image,
+    final RemovalCause cause)
+  {
+    if (cause == RemovalCause.SIZE && request != null && image != null) {
+      this.tiers.demote(request, image);
+    }
+  }
+
+  private static Executor createDefaultExecutor()
+  {
+    final var threads =
+      Math.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+
+    final var executor =
+      new ThreadPoolExecutor(
+        threads,
+        threads,
+        10L,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> {
+          final var thread = new Thread(runnable);
+          thread.setName("com.io7m.jsycamore.awt.image[%d]"
+                           .formatted(Long.valueOf(thread.threadId())));
+          thread.setDaemon(true);
+          return thread;
+        }
+      );
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private static int imageBytes(
     final BufferedImage image)
   {
     return image.getWidth() * image.getHeight() * 4;
   }
 
-  private static BufferedImage loadImage(
+  /**
+   * Determine the factor by which an image should be subsampled as it is
+   * decoded. The factor is the largest power of two that does not reduce
+   * the decoded image below the requested size.
+   *
+   * @param originalWidth   The original width
+   * @param originalHeight  The original height
+   * @param requestedWidth  The requested width
+   * @param requestedHeight The requested height
+   *
+   * @return The subsampling factor
+   */
+
+  static int subsamplingFor(
+    final int originalWidth,
+    final int originalHeight,
+    final int requestedWidth,
+    final int requestedHeight)
+  {
+    final var ratio =
+      Math.min(
+        originalWidth / requestedWidth,
+        originalHeight / requestedHeight
+      );
+
+    if (ratio < 2) {
+      return 1;
+    }
+    return Integer.highestOneBit(ratio);
+  }
+
+  /**
+   * @return The number of times that source images have been opened and
+   * their headers parsed
+   */
+
+  public long sourcesOpened()
+  {
+    return this.sourcesOpened.get();
+  }
+
+  /**
+   * @return The number of source images that have been decoded
+   */
+
+  public long sourcesDecoded()
+  {
+    return this.sourcesDecoded.get();
+  }
+
+  /**
+   * @return The total number of pixels in all decoded source images
+   */
+
+  public long sourcePixelsDecoded()
+  {
+    return this.sourcePixelsDecoded.get();
+  }
+
+  /**
+   * @return The number of images held as raw pixels in off-heap memory
+   */
+
+  public int imagesOffHeap()
+  {
+    return this.tiers.warmCount();
+  }
+
+  /**
+   * @return The number of images held in the scratch file
+   */
+
+  public int imagesSpilled()
+  {
+    return this.tiers.coldCount();
+  }
+
+  /**
+   * @return The number of images rebuilt from off-heap memory
+   */
+
+  public long imagesRestoredOffHeap()
+  {
+    return this.tiers.restoredWarm();
+  }
+
+  /**
+   * @return The number of images rebuilt from the scratch file
+   */
+
+  public long imagesRestoredSpilled()
+  {
+    return this.tiers.restoredCold();
+  }
+
+  /**
+   * @return The number of tiles of tiled images that have been decoded
+   */
+
+  public long tilesDecoded()
+  {
+    return this.tiles.tilesDecoded();
+  }
+
+  /**
+   * @return The number of tiles of tiled images currently cached
+   */
+
+  public int tilesCached()
+  {
+    return this.tiles.tilesCached();
+  }
+
+  /**
+   * @return The tiles of tiled images
+   */
+
+  SyAWTImageTiles tiles()
+  {
+    return this.tiles;
+  }
+
+  /**
+   * @return The image drawn in place of images that could not be loaded
+   */
+
+  BufferedImage failedImage()
+  {
+    return this.failed;
+  }
+
+  /**
+   * Add a listener that will be called when any tile or tiled image size
+   * finishes loading. The listener receives the {@link SyAWTImageTile} or
+   * the source {@link URI}, respectively.
+   *
+   * @param listener The listener
+   *
+   * @return A subscription that removes the listener when closed
+   */
+
+  SyAWTImageListenerSubscriptionType addTileCompletionListener(
+    final Consumer<Object> listener)
+  {
+    return new Subscription<>(
+      this.tileListeners,
+      Objects.requireNonNull(listener, "listener")
+    );
+  }
+
+  /**
+   * Add a listener that will be called when any request finishes loading,
+   * successfully or otherwise. Listeners are called on the thread that
+   * loaded the image, after the image has become available from
+   * {@link #load(SyAWTImageRequest)}.
+   *
+   * @param listener The listener
+   *
+   * @return A subscription that removes the listener when closed
+   */
+
+  public SyAWTImageListenerSubscriptionType addCompletionListener(
+    final Consumer<SyAWTImageRequest> listener)
+  {
+    return new Subscription<>(
+      this.listeners,
+      Objects.requireNonNull(listener, "listener")
+    );
+  }
+
+  /**
+   * @param image An image returned by {@link #load(SyAWTImageRequest)}
+   *
+   * @return {@code true} if the image is the placeholder returned for
+   * requests that are still loading
+   */
+
+  boolean isLoadingPlaceholder(
+    final BufferedImage image)
+  {
+    return image == this.loading;
+  }
+
+  /**
+   * @param request The image request
+   *
+   * @return {@code true} if the request is not currently loading
+   */
+
+  boolean isDone(
+    final SyAWTImageRequest request)
+  {
+    final var future = this.cache.getIfPresent(request);
+    return future == null || future.isDone();
+  }
+
+  private CompletableFuture<BufferedImage> loadImageAsync(
+    final SyAWTImageRequest request,
+    final boolean isPrefetch)
+  {
+    final var future = this.scheduler.submit(request, isPrefetch);
+
+    /*
+     * Listeners are attached to the returned future rather than chained,
+     * so that the future is already complete when they run.
+     */
+
+    future.whenComplete((image, error) -> this.notifyCompleted(request));
+    return future;
+  }
+
+  private void notifyCompleted(
+    final SyAWTImageRequest request)
+  {
+    for (final var listener : this.listeners) {
+      try {
+        listener.accept(request);
+      } catch (final Exception e) {
+        LOG.error("image completion listener raised an exception: ", e);
+      }
+    }
+  }
+
+  private void notifyTileCompleted(
+    final Object key)
+  {
+    for (final var listener : this.tileListeners) {
+      try {
+        listener.accept(key);
+      } catch (final Exception e) {
+        LOG.error("tile completion listener raised an exception: ", e);
+      }
+    }
+  }
+
+  private SyAWTImageTiles.Size loadTileSize(
+    final URI uri)
+  {
+    try {
+      return this.sourceSizes.get(uri, this::readSize);
+    } catch (final Exception e) {
+      LOG.error("unable to load image {}: ", uri, e);
+      return SyAWTImageTiles.Size.FAILED;
+    }
+  }
+
+  private BufferedImage loadTile(
+    final SyAWTImageTile tile)
+  {
+    try {
+      final var image = this.withReader(tile.source(), reader -> {
+        final var width = reader.getWidth(0);
+        final var height = reader.getHeight(0);
+        final var span = tile.span();
+        final var x = tile.tileX() * span;
+        final var y = tile.tileY() * span;
+
+        final var parameters = reader.getDefaultReadParam();
+        parameters.setSourceRegion(
+          new Rectangle(
+            x,
+            y,
+            Math.min(span, width - x),
+            Math.min(span, height - y)
+          )
+        );
+        parameters.setSourceSubsampling(
+          tile.subsampling(),
+          tile.subsampling(),
+          0,
+          0
+        );
+        return reader.read(0, parameters);
+      });
+
+      image.getColorModel()
+        .coerceData(image.getRaster(), true);
+      return image;
+    } catch (final Exception e) {
+      LOG.error("unable to load tile {}: ", tile, e);
+      return this.failed;
+    }
+  }
+
+  private BufferedImage loadImage(
     final SyAWTImageRequest request)
     throws IOException
   {
+    final var restored = this.tiers.take(request);
+    if (restored != null) {
+      return restored;
+    }
+
     try {
-      final var url = request.source().toURL();
-      final var image = ImageIO.read(url);
+      final var uri = request.source();
       final var requestWidth = request.width();
       final var requestHeight = request.height();
-      final var originalWidth = image.getWidth();
-      final var originalHeight = image.getHeight();
 
-      image.getColorModel()
-        .coerceData(image.getRaster(), true);
+      /*
+       * If the size of the source is not yet known, the header is read and
+       * the source decoded while the source is open, rather than opening
+       * and parsing the source once for its size and again to decode it.
+       */
+
+      final var size = this.sourceSizes.getIfPresent(uri);
+      final BufferedImage image;
+      if (size == null) {
+        image = this.loadSourceSized(uri, requestWidth, requestHeight);
+      } else {
+        final var subsampling =
+          subsamplingFor(
+            size.width(),
+            size.height(),
+            requestWidth,
+            requestHeight
+          );
+        image = this.sources.get(new SourceKey(uri, subsampling));
+      }
+
+      final var sourceWidth = image.getWidth();
+      final var sourceHeight = image.getHeight();
 
-      final var matchesWidth = originalWidth == requestWidth;
-      final var matchesHeight = originalHeight == requestHeight;
+      final var matchesWidth = sourceWidth == requestWidth;
+      final var matchesHeight = sourceHeight == requestHeight;
 
       if (!matchesWidth || !matchesHeight) {
         final var result =
@@ -126,8 +604,8 @@ public final class SyAWTImageLoader
             requestHeight,
             0,
             0,
-            originalWidth,
-            originalHeight,
+            sourceWidth,
+            sourceHeight,
             null
           );
           return result;
@@ -137,10 +615,202 @@ public final class SyAWTImageLoader
       }
 
       return image;
+    } catch (final UncheckedIOException e) {
+      LOG.error("unable to load image {}: ", request.source(), e.getCause());
+      throw e.getCause();
+    }
+  }
+
+  private SyAWTImageTiles.Size readSize(
+    final URI uri)
+  {
+    try {
+      return this.withReader(uri, reader -> {
+        return new SyAWTImageTiles.Size(
+          reader.getWidth(0),
+          reader.getHeight(0)
+        );
+      });
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Open the given source, record its size, and decode it with the
+   * subsampling appropriate for the requested size. The decoded source is
+   * cached exactly as if it had been loaded by {@link #loadSource(SourceKey)}.
+   */
+
+  private BufferedImage loadSourceSized(
+    final URI uri,
+    final int requestWidth,
+    final int requestHeight)
+  {
+    try {
+      return this.withReader(uri, reader -> {
+        final var size =
+          new SyAWTImageTiles.Size(reader.getWidth(0), reader.getHeight(0));
+        this.sourceSizes.put(uri, size);
+
+        final var key =
+          new SourceKey(
+            uri,
+            subsamplingFor(
+              size.width(),
+              size.height(),
+              requestWidth,
+              requestHeight
+            )
+          );
+
+        final var existing = this.sources.getIfPresent(key);
+        if (existing != null) {
+          return existing;
+        }
+
+        final var image = this.decode(reader, key.subsampling());
+        this.sources.put(key, image);
+        return image;
+      });
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private BufferedImage loadSource(
+    final SourceKey key)
+  {
+    try {
+      return this.withReader(
+        key.source(),
+        reader -> this.decode(reader, key.subsampling())
+      );
     } catch (final IOException e) {
-      LOG.error("unable to load image {}: ", request.source(), e);
-      throw e;
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private BufferedImage decode(
+    final ImageReader reader,
+    final int subsampling)
+    throws IOException
+  {
+    final var parameters = reader.getDefaultReadParam();
+    parameters.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+    final var image = reader.read(0, parameters);
+    image.getColorModel()
+      .coerceData(image.getRaster(), true);
+
+    this.sourcesDecoded.incrementAndGet();
+    this.sourcePixelsDecoded.addAndGet(
+      (long) image.getWidth() * (long) image.getHeight());
+    return image;
+  }
+
+  private <T> T withReader(
+    final URI uri,
+    final ReaderFunctionType<T> function)
+    throws IOException
+  {
+    this.sourcesOpened.incrementAndGet();
+    try (var stream = uri.toURL().openStream();
+         var imageStream = ImageIO.createImageInputStream(stream)) {
+      if (imageStream == null) {
+        throw new IOException("No image input stream available for " + uri);
+      }
+
+      final var readers = ImageIO.getImageReaders(imageStream);
+      if (!readers.hasNext()) {
+        throw new IOException("No image reader available for " + uri);
+      }
+
+      final var reader = readers.next();
+      try {
+        reader.setInput(imageStream, true, true);
+        return function.apply(reader);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Load the given image request asynchronously.
+   *
+   * @param request The image request
+   *
+   * @return The image, when it has loaded
+   */
+
+  public CompletableFuture<BufferedImage> loadAsync(
+    final SyAWTImageRequest request)
+  {
+    Objects.requireNonNull(request, "request");
+
+    final var future =
+      this.cache.get(request, (k, e) -> this.loadImageAsync(k, false));
+    if (!future.isDone()) {
+      this.scheduler.promote(request);
     }
+    return future;
+  }
+
+  /**
+   * Prefetch the given image request, so that it is cached before it is
+   * displayed. Prefetches start only when no loads of visible images are
+   * waiting. Prefetching an image that is already cached or loading has
+   * no effect.
+   *
+   * @param request The image request
+   *
+   * @return The image, when it has loaded
+   *
+   * @see #prefetchCancel(SyAWTImageRequest)
+   */
+
+  public CompletableFuture<BufferedImage> prefetch(
+    final SyAWTImageRequest request)
+  {
+    Objects.requireNonNull(request, "request");
+    return this.cache.get(request, (k, e) -> this.loadImageAsync(k, true));
+  }
+
+  /**
+   * Cancel a prefetch that has not yet started. Prefetches that have been
+   * promoted because their images were displayed cannot be cancelled.
+   *
+   * @param request The image request
+   *
+   * @return {@code true} if the prefetch was cancelled
+   */
+
+  public boolean prefetchCancel(
+    final SyAWTImageRequest request)
+  {
+    return this.scheduler.cancel(Objects.requireNonNull(request, "request"));
+  }
+
+  /**
+   * Cancel all prefetches that have not yet started. This is typically
+   * called when navigation makes earlier prefetches stale.
+   *
+   * @return The number of prefetches cancelled
+   */
+
+  public int prefetchCancelAll()
+  {
+    return this.scheduler.cancelAll();
+  }
+
+  /**
+   * @return The number of prefetches that have not yet started
+   */
+
+  public int prefetchesQueued()
+  {
+    return this.scheduler.prefetchesQueued();
   }
 
   /**
@@ -156,7 +826,7 @@ public final class SyAWTImageLoader
     final SyAWTImageRequest request)
   {
     try {
-      final var future = this.cache.get(request);
+      final var future = this.loadAsync(request);
       if (future.isCompletedExceptionally()) {
         return this.failed;
       }
@@ -165,4 +835,56 @@ public final class SyAWTImageLoader
       return this.failed;
     }
   }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    /*
+     * Invalidated images are not demoted, as only evictions due to size
+     * are demoted.
+     */
+
+    this.cache.synchronous().invalidateAll();
+    this.tiers.close();
+  }
+
+  private interface ReaderFunctionType<T>
+  {
+    T apply(ImageReader reader)
+      throws IOException;
+  }
+
+  private static final class Subscription<T>
+    implements SyAWTImageListenerSubscriptionType
+  {
+    private final CopyOnWriteArrayList<T> listeners;
+    private final T listener;
+    private final AtomicBoolean closed;
+
+    Subscription(
+      final CopyOnWriteArrayList<T> inListeners,
+      final T inListener)
+    {
+      this.listeners = inListeners;
+      this.listener = inListener;
+      this.closed = new AtomicBoolean(false);
+      this.listeners.add(inListener);
+    }
+
+    @Override
+    public void close()
+    {
+      if (this.closed.compareAndSet(false, true)) {
+        this.listeners.remove(this.listener);
+      }
+    }
+  }
+
+  private record SourceKey(
+    URI source,
+    int subsampling)
+  {
+
+  }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jregions.core.parameterized.areas.PAreaI;
+import com.io7m.jregions.core.parameterized.areas.PAreasI;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>The regions of the screen that are showing placeholders for images that
+ * have not yet loaded.</p>
+ *
+ * <p>Each time a renderer draws a loading placeholder, it records the
+ * region that it drew into. When the image finishes loading, the regions
+ * that showed it become ready to be redrawn, and the ready listener is
+ * notified. Hosts can use this to redraw only the affected regions when
+ * images arrive, rather than redrawing periodically. The same applies to
+ * the tiles of tiled images.</p>
+ *
+ * <p>Regions are expressed in the coordinate space of the graphics context
+ * given to the renderer; for a {@link SyAWTRenderer}, this is the
+ * viewport.</p>
+ *
+ * <p>The regions listen to the image loader until they are closed.</p>
+ */
+
+public final class SyAWTImagePendingRegions implements AutoCloseable
+{
+  private final SyAWTImageLoader loader;
+  private final HashMap<Object, PAreaI<SySpaceViewportType>> pending;
+  private final ArrayList<PAreaI<SySpaceViewportType>> ready;
+  private final SyAWTImageListenerSubscriptionType completionSubscription;
+  private final SyAWTImageListenerSubscriptionType tileSubscription;
+  private Runnable onReady;
+
+  /**
+   * The regions of the screen that are showing placeholders for images that
+   * have not yet loaded.
+   *
+   * @param inLoader The image loader
+   */
+
+  public SyAWTImagePendingRegions(
+    final SyAWTImageLoader inLoader)
+  {
+    this.loader =
+      Objects.requireNonNull(inLoader, "loader");
+    this.pending =
+      new HashMap<>();
+    this.ready =
+      new ArrayList<>();
+    this.onReady =
+      () -> { };
+
+    this.completionSubscription =
+      inLoader.addCompletionListener(this::completed);
+    this.tileSubscription =
+      inLoader.addTileCompletionListener(this::completed);
+  }
+
+  /**
+   * Stop listening to the image loader. Regions that are pending when the
+   * regions are closed never become ready.
+   */
+
+  @Override
+  public void close()
+  {
+    this.completionSubscription.close();
+    this.tileSubscription.close();
+  }
+
+  /**
+   * Set the listener called when regions become ready to be redrawn. The
+   * listener is called at most once until the ready regions are taken with
+   * {@link #takeReady()}, and may be called on any thread.
+   *
+   * @param listener The listener
+   */
+
+  public void setOnReadyListener(
+    final Runnable listener)
+  {
+    Objects.requireNonNull(listener, "listener");
+    synchronized (this) {
+      this.onReady = listener;
+    }
+  }
+
+  /**
+   * @return The number of requests and tiles that placeholders are being
+   * shown for
+   */
+
+  public synchronized int pendingCount()
+  {
+    return this.pending.size();
+  }
+
+  /**
+   * Take the regions that are ready to be redrawn.
+   *
+   * @return The regions that showed placeholders for images that have since
+   * loaded
+   */
+
+  public synchronized List<PAreaI<SySpaceViewportType>> takeReady()
+  {
+    final var result = List.copyOf(this.ready);
+    this.ready.clear();
+    return result;
+  }
+
+  /**
+   * Record that a placeholder was drawn into the given rectangle of a
+   * graphics context. The rectangle is clipped to the current clip region
+   * and transformed into the coordinate space of the graphics context.
+   *
+   * @param request The request, tile, or tiled image source
+   * @param g       The graphics context
+   * @param x       The X coordinate of the rectangle
+   * @param y       The Y coordinate of the rectangle
+   * @param sizeX   The width of the rectangle
+   * @param sizeY   The height of the rectangle
+   */
+
+  void placeholderDrawn(
+    final Object request,
+    final Graphics2D g,
+    final int x,
+    final int y,
+    final int sizeX,
+    final int sizeY)
+  {
+    var area = new Rectangle(x, y, sizeX, sizeY);
+    final var clip = g.getClipBounds();
+    if (clip != null) {
+      area = area.intersection(clip);
+    }
+    if (area.isEmpty()) {
+      return;
+    }
+
+    final var bounds =
+      g.getTransform()
+        .createTransformedShape(area)
+        .getBounds();
+
+    this.placeholderDrawn(
+      request,
+      PAreasI.create(bounds.x, bounds.y, bounds.width, bounds.height)
+    );
+  }
+
+  /**
+   * Record that a placeholder was drawn for the given request, or for the
+   * given tile or size of a tiled image.
+   *
+   * @param request The request, tile, or tiled image source
+   * @param area    The area into which the placeholder was drawn
+   */
+
+  void placeholderDrawn(
+    final Object request,
+    final PAreaI<SySpaceViewportType> area)
+  {
+    final Runnable listener;
+    synchronized (this) {
+      final var existing = this.pending.get(request);
+      this.pending.put(
+        request,
+        existing == null ? area : PAreasI.containing(existing, area)
+      );
+
+      /*
+       * The request may have completed between the placeholder being
+       * returned and the placeholder being recorded here, in which case
+       * the completion listener will already have run.
+       */
+
+      if (!this.isDone(request)) {
+        return;
+      }
+      listener = this.readyAdd(request);
+    }
+    listener.run();
+  }
+
+  private boolean isDone(
+    final Object request)
+  {
+    if (request instanceof final SyAWTImageRequest imageRequest) {
+      return this.loader.isDone(imageRequest);
+    }
+    return this.loader.tiles().isDone(request);
+  }
+
+  private void completed(
+    final Object request)
+  {
+    final Runnable listener;
+    synchronized (this) {
+      listener = this.readyAdd(request);
+    }
+    listener.run();
+  }
+
+  private Runnable readyAdd(
+    final Object request)
+  {
+    final var area = this.pending.remove(request);
+    if (area == null) {
+      return () -> { };
+    }
+
+    final var wasEmpty = this.ready.isEmpty();
+    this.ready.add(area);
+    return wasEmpty ? this.onReady : () -> { };
+  }
+}
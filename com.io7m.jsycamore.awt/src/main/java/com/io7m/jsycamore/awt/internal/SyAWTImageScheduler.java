@@ -0,0 +1,355 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>A scheduler for image loads with two priorities.</p>
+ *
+ * <p>Loads of images that are visible are always started before prefetches.
+ * Each submission hands the executor a token that, when run, starts
+ * whichever queued load has the highest priority at that moment rather than
+ * the load that was submitted. Prefetches that are promoted because their
+ * images became visible therefore overtake other prefetches, even if the
+ * executor queues tokens in submission order. Prefetches that have not yet
+ * started may be cancelled.</p>
+ *
+ * <p>Loads of things other than whole images, such as the tiles of tiled
+ * images, may also be submitted. These are always visible loads, and are
+ * started in submission order along with the loads of visible images.
+ * They may be cancelled until they start, so that loads for tiles that are
+ * no longer visible do not delay the loads of tiles that are.</p>
+ *
+ * <p>Promotion and cancellation are constant-time, as loads are requested
+ * for every visible image on every frame. A promoted or cancelled prefetch
+ * is marked as no longer being a prefetch and is left in the prefetch queue,
+ * and is discarded when it reaches the head of that queue. Cancelled
+ * visible loads are likewise discarded when they reach the head of the
+ * visible queue.</p>
+ */
+
+final class SyAWTImageScheduler
+{
+  private final Executor executor;
+  private final ImageLoaderType loader;
+  private final ArrayDeque<Task> visible;
+  private final ArrayDeque<Task> prefetch;
+  private final HashMap<Object, Task> queued;
+  private int prefetchCount;
+
+  SyAWTImageScheduler(
+    final Executor inExecutor,
+    final ImageLoaderType inLoader)
+  {
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.loader =
+      Objects.requireNonNull(inLoader, "loader");
+    this.visible =
+      new ArrayDeque<>();
+    this.prefetch =
+      new ArrayDeque<>();
+    this.queued =
+      new HashMap<>();
+  }
+
+  /**
+   * Submit a load.
+   *
+   * @param request    The request
+   * @param isPrefetch {@code true} if the load is a prefetch
+   *
+   * @return The future result of the load
+   */
+
+  CompletableFuture<BufferedImage> submit(
+    final SyAWTImageRequest request,
+    final boolean isPrefetch)
+  {
+    final var future = new CompletableFuture<BufferedImage>();
+    this.enqueue(
+      new Task(
+        request,
+        () -> this.runLoad(request, future),
+        () -> future.cancel(false),
+        isPrefetch
+      )
+    );
+    return future;
+  }
+
+  /**
+   * Submit a visible load of something other than a whole image, such as a
+   * tile of a tiled image. The load may be cancelled with
+   * {@link #cancelVisible(Object)} until it starts.
+   *
+   * @param key  The key identifying the load
+   * @param load The load
+   */
+
+  void submitVisible(
+    final Object key,
+    final Runnable load)
+  {
+    this.enqueue(new Task(key, load, () -> { }, false));
+  }
+
+  private void enqueue(
+    final Task task)
+  {
+    synchronized (this) {
+      this.queued.put(task.key, task);
+      if (task.prefetch) {
+        this.prefetch.add(task);
+        ++this.prefetchCount;
+      } else {
+        this.visible.add(task);
+      }
+    }
+
+    this.executor.execute(this::runNext);
+  }
+
+  private void runLoad(
+    final SyAWTImageRequest request,
+    final CompletableFuture<BufferedImage> future)
+  {
+    try {
+      future.complete(this.loader.load(request));
+    } catch (final Exception e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Promote a queued prefetch to a visible load.
+   *
+   * @param request The request
+   */
+
+  void promote(
+    final SyAWTImageRequest request)
+  {
+    synchronized (this) {
+      final var task = this.queued.get(request);
+      if (task == null || !task.prefetch) {
+        return;
+      }
+      task.prefetch = false;
+      --this.prefetchCount;
+      this.visible.add(task);
+    }
+  }
+
+  /**
+   * Cancel a prefetch that has not yet started.
+   *
+   * @param request The request
+   *
+   * @return {@code true} if the prefetch was cancelled
+   */
+
+  boolean cancel(
+    final SyAWTImageRequest request)
+  {
+    final Task task;
+    synchronized (this) {
+      task = this.queued.get(request);
+      if (task == null || !task.prefetch) {
+        return false;
+      }
+      task.prefetch = false;
+      --this.prefetchCount;
+      this.queued.remove(request);
+    }
+
+    task.onCancel.run();
+    return true;
+  }
+
+  /**
+   * Cancel a load submitted with {@link #submitVisible(Object, Runnable)}
+   * that has not yet started.
+   *
+   * @param key The key identifying the load
+   *
+   * @return {@code true} if the load was cancelled
+   */
+
+  boolean cancelVisible(
+    final Object key)
+  {
+    synchronized (this) {
+      final var task = this.queued.get(key);
+      if (task == null || task.prefetch) {
+        return false;
+      }
+      task.cancelled = true;
+      this.queued.remove(key);
+    }
+    return true;
+  }
+
+  /**
+   * Cancel all prefetches that have not yet started.
+   *
+   * @return The number of prefetches cancelled
+   */
+
+  int cancelAll()
+  {
+    final var tasks = new ArrayList<Task>();
+    synchronized (this) {
+      for (final var task : this.prefetch) {
+        if (task.prefetch) {
+          task.prefetch = false;
+          this.queued.remove(task.key);
+          tasks.add(task);
+        }
+      }
+      this.prefetch.clear();
+      this.prefetchCount = 0;
+    }
+
+    for (final var task : tasks) {
+      task.onCancel.run();
+    }
+    return tasks.size();
+  }
+
+  /**
+   * @return The number of prefetches that have not yet started
+   */
+
+  synchronized int prefetchesQueued()
+  {
+    return this.prefetchCount;
+  }
+
+  private void runNext()
+  {
+    final Task task;
+    synchronized (this) {
+      var next = this.visiblePoll();
+      if (next == null) {
+        next = this.prefetchPoll();
+      }
+      if (next == null) {
+        return;
+      }
+      task = next;
+    }
+
+    task.load.run();
+  }
+
+  /**
+   * Take the first visible load that has not been cancelled, discarding
+   * any that have.
+   */
+
+  private Task visiblePoll()
+  {
+    while (true) {
+      final var next = this.visible.poll();
+      if (next == null) {
+        return null;
+      }
+      if (!next.cancelled) {
+        this.queued.remove(next.key);
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Take the first prefetch that has been neither promoted nor cancelled,
+   * discarding any that have.
+   */
+
+  private Task prefetchPoll()
+  {
+    while (true) {
+      final var next = this.prefetch.poll();
+      if (next == null) {
+        return null;
+      }
+      if (next.prefetch) {
+        next.prefetch = false;
+        --this.prefetchCount;
+        this.queued.remove(next.key);
+        return next;
+      }
+    }
+  }
+
+  /**
+   * The function that performs loads.
+   */
+
+  interface ImageLoaderType
+  {
+    /**
+     * Load an image.
+     *
+     * @param request The request
+     *
+     * @return The image
+     *
+     * @throws Exception On errors
+     */
+
+    BufferedImage load(SyAWTImageRequest request)
+      throws Exception;
+  }
+
+  /**
+   * A queued load. The {@code prefetch} and {@code cancelled} fields are
+   * guarded by the scheduler. The {@code prefetch} field is {@code true}
+   * only while the task is waiting in the prefetch queue, and the
+   * {@code cancelled} field is set when a visible load is cancelled.
+   */
+
+  private static final class Task
+  {
+    private final Object key;
+    private final Runnable load;
+    private final Runnable onCancel;
+    private boolean prefetch;
+    private boolean cancelled;
+
+    Task(
+      final Object inKey,
+      final Runnable inLoad,
+      final Runnable inOnCancel,
+      final boolean inPrefetch)
+    {
+      this.key = inKey;
+      this.load = inLoad;
+      this.onCancel = inOnCancel;
+      this.prefetch = inPrefetch;
+    }
+  }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.AlphaComposite;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB_PRE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * <p>The lower tiers of an image loader's cache.</p>
+ *
+ * <p>Images evicted from the heap are demoted to the warm tier, where their
+ * pixels are held as premultiplied ARGB in direct buffers outside of the
+ * heap. The warm tier evicts its least recently used images to the cold
+ * tier, a memory-mapped scratch file that is written as a ring: when the
+ * ring wraps, the oldest spilled images are overwritten. The scratch file
+ * is created on first use, and deleted when the tiers are closed or the
+ * virtual machine exits.</p>
+ *
+ * <p>An image taken from either tier is rebuilt from its raw pixels, so
+ * re-promoting an image never decodes it again.</p>
+ *
+ * <p>Once the tiers are closed, demoted images are discarded and nothing
+ * can be taken, so that a loader that is still in use after being closed
+ * does not create a new scratch file.</p>
+ */
+
+final class SyAWTImageTiers implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SyAWTImageTiers.class);
+
+  private final SyAWTImageCacheConfiguration configuration;
+  private final LinkedHashMap<SyAWTImageRequest, Stored> warm;
+  private final HashMap<SyAWTImageRequest, Spilled> cold;
+  private final ArrayDeque<Spilled> coldOrder;
+  private long warmBytes;
+  private long coldBytes;
+  private int coldPosition;
+  private FileChannel coldChannel;
+  private MappedByteBuffer coldBuffer;
+  private boolean coldFailed;
+  private boolean closed;
+  private long restoredWarm;
+  private long restoredCold;
+
+  SyAWTImageTiers(
+    final SyAWTImageCacheConfiguration inConfiguration)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.warm =
+      new LinkedHashMap<>(16, 0.75f, true);
+    this.cold =
+      new HashMap<>();
+    this.coldOrder =
+      new ArrayDeque<>();
+  }
+
+  private static long imageBytes(
+    final int width,
+    final int height)
+  {
+    return (long) width * (long) height * 4L;
+  }
+
+  private static BufferedImage toIntARGBPre(
+    final BufferedImage image)
+  {
+    if (image.getType() == TYPE_INT_ARGB_PRE) {
+      return image;
+    }
+
+    final var result =
+      new BufferedImage(image.getWidth(), image.getHeight(), TYPE_INT_ARGB_PRE);
+    final var graphics = result.createGraphics();
+    try {
+      graphics.setComposite(AlphaComposite.Src);
+      graphics.drawImage(image, 0, 0, null);
+    } finally {
+      graphics.dispose();
+    }
+    return result;
+  }
+
+  /**
+   * Copy the pixels of an image into a buffer row by row. The raster is
+   * accessed with {@code getDataElements} rather than by taking its backing
+   * array, so that the image remains eligible for acceleration.
+   */
+
+  private static void copyOut(
+    final BufferedImage image,
+    final IntBuffer target)
+  {
+    final var source = toIntARGBPre(image);
+    final var raster = source.getRaster();
+    final var width = source.getWidth();
+    final var height = source.getHeight();
+    final var row = new int[width];
+    for (int y = 0; y < height; ++y) {
+      raster.getDataElements(0, y, width, 1, row);
+      target.put(row);
+    }
+  }
+
+  private static BufferedImage copyIn(
+    final int width,
+    final int height,
+    final IntBuffer source)
+  {
+    final var image = new BufferedImage(width, height, TYPE_INT_ARGB_PRE);
+    final var raster = image.getRaster();
+    final var row = new int[width];
+    for (int y = 0; y < height; ++y) {
+      source.get(row);
+      raster.setDataElements(0, y, width, 1, row);
+    }
+    return image;
+  }
+
+  /**
+   * Demote an image that has been evicted from the heap.
+   *
+   * @param request The request that produced the image
+   * @param image   The image
+   */
+
+  void demote(
+    final SyAWTImageRequest request,
+    final BufferedImage image)
+  {
+    final var width = image.getWidth();
+    final var height = image.getHeight();
+    final var size = imageBytes(width, height);
+    final var warmMaximum = this.configuration.offHeapBytesMaximum();
+    final var coldMaximum = this.configuration.spillBytesMaximum();
+
+    if (size > Math.max(warmMaximum, coldMaximum)) {
+      return;
+    }
+
+    /*
+     * The pixels are copied out before the lock is taken, so that lookups
+     * are not held up by the conversion.
+     */
+
+    final var data = copyToDirect(image, size);
+
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+
+      this.remove(request);
+
+      if (size > warmMaximum) {
+        this.spill(request, width, height, data);
+        return;
+      }
+
+      this.warm.put(request, new Stored(width, height, data));
+      this.warmBytes += size;
+
+      final var iterator = this.warm.entrySet().iterator();
+      while (this.warmBytes > warmMaximum) {
+        final var eldest = iterator.next();
+        final var stored = eldest.getValue();
+        iterator.remove();
+        this.warmBytes -= imageBytes(stored.width(), stored.height());
+        this.spill(
+          eldest.getKey(),
+          stored.width(),
+          stored.height(),
+          stored.data()
+        );
+      }
+    }
+  }
+
+  private static ByteBuffer copyToDirect(
+    final BufferedImage image,
+    final long size)
+  {
+    final var buffer =
+      ByteBuffer.allocateDirect(Math.toIntExact(size))
+        .order(ByteOrder.nativeOrder());
+    copyOut(image, buffer.asIntBuffer());
+    return buffer;
+  }
+
+  /**
+   * Take an image from the warm or cold tier. The image is removed from the
+   * tier, as the caller is expected to return it to the heap.
+   *
+   * @param request The request
+   *
+   * @return The image, or {@code null} if neither tier holds it
+   */
+
+  synchronized BufferedImage take(
+    final SyAWTImageRequest request)
+  {
+    if (this.closed) {
+      return null;
+    }
+
+    final var stored = this.warm.remove(request);
+    if (stored != null) {
+      this.warmBytes -= imageBytes(stored.width(), stored.height());
+      ++this.restoredWarm;
+      return copyIn(
+        stored.width(),
+        stored.height(),
+        stored.data().asIntBuffer()
+      );
+    }
+
+    final var spilled = this.cold.remove(request);
+    if (spilled != null) {
+      spilled.live = false;
+      this.coldBytes -= imageBytes(spilled.width, spilled.height);
+      ++this.restoredCold;
+
+      final var view =
+        this.coldBuffer.slice(
+          spilled.position,
+          Math.toIntExact(imageBytes(spilled.width, spilled.height))
+        ).order(ByteOrder.nativeOrder());
+
+      return copyIn(spilled.width, spilled.height, view.asIntBuffer());
+    }
+    return null;
+  }
+
+  private void remove(
+    final SyAWTImageRequest request)
+  {
+    final var stored = this.warm.remove(request);
+    if (stored != null) {
+      this.warmBytes -= imageBytes(stored.width(), stored.height());
+    }
+    final var spilled = this.cold.remove(request);
+    if (spilled != null) {
+      spilled.live = false;
+      this.coldBytes -= imageBytes(spilled.width, spilled.height);
+    }
+  }
+
+  private void spill(
+    final SyAWTImageRequest request,
+    final int width,
+    final int height,
+    final ByteBuffer data)
+  {
+    final var capacity = this.configuration.spillBytesMaximum();
+    final var size = Math.toIntExact(imageBytes(width, height));
+    if (size > capacity || !this.coldOpen()) {
+      return;
+    }
+
+    /*
+     * Wrap to the start of the ring if the image does not fit at the end.
+     * The spilled images between the old position and the end are the
+     * oldest of all, and are discarded first.
+     */
+
+    if ((long) this.coldPosition + size > capacity) {
+      while (!this.coldOrder.isEmpty()
+             && this.coldOrder.peek().position >= this.coldPosition) {
+        this.coldDiscardOldest();
+      }
+      this.coldPosition = 0;
+    }
+
+    final var end = this.coldPosition + size;
+    while (!this.coldOrder.isEmpty()
+           && this.coldOrder.peek().position >= this.coldPosition
+           && this.coldOrder.peek().position < end) {
+      this.coldDiscardOldest();
+    }
+
+    this.coldBuffer.put(this.coldPosition, data, 0, size);
+
+    final var spilled =
+      new Spilled(request, this.coldPosition, width, height);
+    this.cold.put(request, spilled);
+    this.coldOrder.add(spilled);
+    this.coldBytes += size;
+    this.coldPosition = end;
+  }
+
+  private void coldDiscardOldest()
+  {
+    final var oldest = this.coldOrder.poll();
+    if (oldest.live) {
+      oldest.live = false;
+      this.cold.remove(oldest.request);
+      this.coldBytes -= imageBytes(oldest.width, oldest.height);
+    }
+  }
+
+  private boolean coldOpen()
+  {
+    if (this.coldBuffer != null) {
+      return true;
+    }
+    if (this.coldFailed || this.closed) {
+      return false;
+    }
+
+    try {
+      final var directory =
+        this.configuration.spillDirectory()
+          .orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir")));
+      final var file =
+        Files.createTempFile(directory, "jsycamore-images-", ".spill");
+      file.toFile().deleteOnExit();
+
+      this.coldChannel =
+        FileChannel.open(file, READ, WRITE, CREATE, DELETE_ON_CLOSE);
+      this.coldBuffer =
+        this.coldChannel.map(
+          FileChannel.MapMode.READ_WRITE,
+          0L,
+          this.configuration.spillBytesMaximum()
+        );
+      return true;
+    } catch (final IOException e) {
+      LOG.error("unable to create image spill file: ", e);
+      this.coldFailed = true;
+      return false;
+    }
+  }
+
+  /**
+   * @return The number of images held in off-heap memory
+   */
+
+  synchronized int warmCount()
+  {
+    return this.warm.size();
+  }
+
+  /**
+   * @return The number of bytes of images held in off-heap memory
+   */
+
+  synchronized long warmBytes()
+  {
+    return this.warmBytes;
+  }
+
+  /**
+   * @return The number of images held in the scratch file
+   */
+
+  synchronized int coldCount()
+  {
+    return this.cold.size();
+  }
+
+  /**
+   * @return The number of bytes of images held in the scratch file
+   */
+
+  synchronized long coldBytes()
+  {
+    return this.coldBytes;
+  }
+
+  /**
+   * @return The number of images restored from off-heap memory
+   */
+
+  synchronized long restoredWarm()
+  {
+    return this.restoredWarm;
+  }
+
+  /**
+   * @return The number of images restored from the scratch file
+   */
+
+  synchronized long restoredCold()
+  {
+    return this.restoredCold;
+  }
+
+  @Override
+  public synchronized void close()
+    throws IOException
+  {
+    this.closed = true;
+    this.warm.clear();
+    this.warmBytes = 0L;
+    this.cold.clear();
+    this.coldOrder.clear();
+    this.coldBytes = 0L;
+    this.coldPosition = 0;
+    this.coldBuffer = null;
+
+    if (this.coldChannel != null) {
+      this.coldChannel.close();
+      this.coldChannel = null;
+    }
+  }
+
+  private record Stored(
+    int width,
+    int height,
+    ByteBuffer data)
+  {
+
+  }
+
+  private static final class Spilled
+  {
+    private final SyAWTImageRequest request;
+    private final int position;
+    private final int width;
+    private final int height;
+    private boolean live;
+
+    Spilled(
+      final SyAWTImageRequest inRequest,
+      final int inPosition,
+      final int inWidth,
+      final int inHeight)
+    {
+      this.request = inRequest;
+      this.position = inPosition;
+      this.width = inWidth;
+      this.height = inHeight;
+      this.live = true;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * A tile of a tiled image. The tiles of a level of the image pyramid are
+ * {@link #SIZE} pixels square, except at the right and bottom edges; the
+ * level is identified by the subsampling factor that produces it from the
+ * original image.
+ *
+ * @param source      The source URI
+ * @param subsampling The subsampling factor of the level
+ * @param tileX       The tile column
+ * @param tileY       The tile row
+ */
+
+record SyAWTImageTile(
+  URI source,
+  int subsampling,
+  int tileX,
+  int tileY)
+{
+  /**
+   * The width and height of tiles, in level pixels.
+   */
+
+  static final int SIZE = 256;
+
+  /**
+   * A tile of a tiled image.
+   *
+   * @param source      The source URI
+   * @param subsampling The subsampling factor of the level
+   * @param tileX       The tile column
+   * @param tileY       The tile row
+   */
+
+  SyAWTImageTile
+  {
+    Objects.requireNonNull(source, "source");
+  }
+
+  /**
+   * @return The number of original image pixels spanned by the tile
+   */
+
+  int span()
+  {
+    return SIZE * this.subsampling;
+  }
+}
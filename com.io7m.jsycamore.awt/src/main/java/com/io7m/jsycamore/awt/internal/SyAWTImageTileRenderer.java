@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Objects;
+
+import static com.io7m.jsycamore.awt.internal.SyAWTImageTile.SIZE;
+
+/**
+ * <p>A renderer for tiled images.</p>
+ *
+ * <p>The level of the image pyramid is chosen in the same way as the
+ * subsampling factor for whole images, so that the level is never smaller
+ * than the size at which it is drawn. Only the tiles of that level that
+ * intersect the current clip region are drawn. A tile that has not yet
+ * loaded is drawn using the corresponding part of a coarser tile, if one is
+ * cached, so that zooming in shows a blurred image rather than nothing
+ * while the finer tiles load.</p>
+ *
+ * <p>The renderer remembers the tiles that were still loading when it drew
+ * them. At the start of each frame, the loads of tiles that were drawn in
+ * an earlier frame but not in the latest one are dropped if they have not
+ * yet started.</p>
+ */
+
+final class SyAWTImageTileRenderer
+{
+  private final SyAWTImageLoader loader;
+  private final SyAWTImagePendingRegions pending;
+  private HashSet<Object> requestedLatest;
+  private HashSet<Object> requestedEarlier;
+
+  SyAWTImageTileRenderer(
+    final SyAWTImageLoader inLoader,
+    final SyAWTImagePendingRegions inPending)
+  {
+    this.loader =
+      Objects.requireNonNull(inLoader, "loader");
+    this.pending =
+      Objects.requireNonNull(inPending, "pending");
+    this.requestedLatest =
+      new HashSet<>();
+    this.requestedEarlier =
+      new HashSet<>();
+  }
+
+  /**
+   * Begin a new frame, dropping the loads of tiles that were not drawn
+   * during the latest frame.
+   */
+
+  void frameBegin()
+  {
+    final var tiles = this.loader.tiles();
+    for (final var key : this.requestedEarlier) {
+      if (!this.requestedLatest.contains(key)) {
+        tiles.drop(key);
+      }
+    }
+
+    final var earlier = this.requestedEarlier;
+    earlier.clear();
+    this.requestedEarlier = this.requestedLatest;
+    this.requestedLatest = earlier;
+  }
+
+  /**
+   * Draw a tiled image at the current origin of the graphics context.
+   *
+   * @param g      The graphics context
+   * @param source The image
+   * @param sizeX  The width of the image node
+   * @param sizeY  The height of the image node
+   */
+
+  void draw(
+    final Graphics2D g,
+    final URI source,
+    final int sizeX,
+    final int sizeY)
+  {
+    final var size = this.loader.tiles().size(source);
+    if (size == null) {
+      this.requestedLatest.add(source);
+      this.pending.placeholderDrawn(source, g, 0, 0, sizeX, sizeY);
+      return;
+    }
+    if (size.isFailed()) {
+      g.drawImage(this.loader.failedImage(), 0, 0, sizeX, sizeY, null);
+      return;
+    }
+
+    var visible = new Rectangle(0, 0, sizeX, sizeY);
+    final var clip = g.getClipBounds();
+    if (clip != null) {
+      visible = visible.intersection(clip);
+    }
+    if (visible.isEmpty()) {
+      return;
+    }
+
+    final var width = size.width();
+    final var height = size.height();
+    final var subsampling =
+      SyAWTImageLoader.subsamplingFor(width, height, sizeX, sizeY);
+    final var span = SIZE * subsampling;
+
+    final var tileX0 =
+      toSource(visible.x, width, sizeX) / span;
+    final var tileY0 =
+      toSource(visible.y, height, sizeY) / span;
+    final var tileX1 =
+      (toSourceCeiling(visible.x + visible.width, width, sizeX) - 1) / span;
+    final var tileY1 =
+      (toSourceCeiling(visible.y + visible.height, height, sizeY) - 1) / span;
+
+    final var area = new TileArea(width, height, sizeX, sizeY);
+    for (int tileY = tileY0; tileY <= tileY1; ++tileY) {
+      for (int tileX = tileX0; tileX <= tileX1; ++tileX) {
+        this.drawTile(
+          g,
+          new SyAWTImageTile(source, subsampling, tileX, tileY),
+          area
+        );
+      }
+    }
+  }
+
+  private static int toSource(
+    final int node,
+    final int sourceSize,
+    final int nodeSize)
+  {
+    return (int) ((long) node * (long) sourceSize / (long) nodeSize);
+  }
+
+  private static int toSourceCeiling(
+    final int node,
+    final int sourceSize,
+    final int nodeSize)
+  {
+    return (int) Math.ceilDiv((long) node * (long) sourceSize, nodeSize);
+  }
+
+  private static int toNode(
+    final int source,
+    final int sourceSize,
+    final int nodeSize)
+  {
+    return (int) ((long) source * (long) nodeSize / (long) sourceSize);
+  }
+
+  private void drawTile(
+    final Graphics2D g,
+    final SyAWTImageTile tile,
+    final TileArea area)
+  {
+    final var span = tile.span();
+    final var sourceX0 = tile.tileX() * span;
+    final var sourceY0 = tile.tileY() * span;
+    final var source =
+      new Bounds(
+        sourceX0,
+        sourceY0,
+        Math.min(sourceX0 + span, area.width),
+        Math.min(sourceY0 + span, area.height)
+      );
+
+    /*
+     * Both edges of each tile are rounded down, so that adjacent tiles
+     * meet exactly.
+     */
+
+    final var target =
+      new Bounds(
+        toNode(source.x0, area.width, area.sizeX),
+        toNode(source.y0, area.height, area.sizeY),
+        toNode(source.x1, area.width, area.sizeX),
+        toNode(source.y1, area.height, area.sizeY)
+      );
+    if (target.isEmpty()) {
+      return;
+    }
+
+    final var image = this.loader.tiles().tile(tile);
+    if (image != null) {
+      g.drawImage(
+        image,
+        target.x0, target.y0, target.x1, target.y1,
+        0, 0, image.getWidth(), image.getHeight(),
+        null
+      );
+      return;
+    }
+
+    this.requestedLatest.add(tile);
+    this.pending.placeholderDrawn(
+      tile,
+      g,
+      target.x0,
+      target.y0,
+      target.x1 - target.x0,
+      target.y1 - target.y0
+    );
+    this.drawCoarse(g, tile, area, source, target);
+  }
+
+  private void drawCoarse(
+    final Graphics2D g,
+    final SyAWTImageTile tile,
+    final TileArea area,
+    final Bounds source,
+    final Bounds target)
+  {
+    final var tiles = this.loader.tiles();
+    final var maximum = Math.max(area.width, area.height);
+
+    for (int factor = tile.subsampling() * 2;
+         SIZE * (factor / 2) < maximum;
+         factor *= 2) {
+      final var coarseSpan = SIZE * factor;
+      final var originX = (source.x0 / coarseSpan) * coarseSpan;
+      final var originY = (source.y0 / coarseSpan) * coarseSpan;
+      final var coarse =
+        new SyAWTImageTile(
+          tile.source(),
+          factor,
+          source.x0 / coarseSpan,
+          source.y0 / coarseSpan
+        );
+
+      final var image = tiles.tileIfLoaded(coarse);
+      if (image == null) {
+        continue;
+      }
+      if (image == this.loader.failedImage()) {
+        return;
+      }
+
+      g.drawImage(
+        image,
+        target.x0, target.y0, target.x1, target.y1,
+        (source.x0 - originX) / factor,
+        (source.y0 - originY) / factor,
+        Math.min(Math.ceilDiv(source.x1 - originX, factor), image.getWidth()),
+        Math.min(Math.ceilDiv(source.y1 - originY, factor), image.getHeight()),
+        null
+      );
+      return;
+    }
+  }
+
+  private record Bounds(
+    int x0,
+    int y0,
+    int x1,
+    int y1)
+  {
+    boolean isEmpty()
+    {
+      return this.x1 <= this.x0 || this.y1 <= this.y0;
+    }
+  }
+
+  private record TileArea(
+    int width,
+    int height,
+    int sizeX,
+    int sizeY)
+  {
+
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>The tiles of tiled images.</p>
+ *
+ * <p>Tiles and image sizes are submitted to the scheduler as visible loads
+ * when first asked for; until they have loaded, lookups return
+ * {@code null}. Loads that have not yet started may be dropped when their
+ * tiles are no longer visible. Loaded tiles are held in a
+ * least-recently-used cache bounded by size in bytes. The bound should be
+ * comfortably larger than the tiles needed to cover the screen, as tiles
+ * that are evicted while visible will be loaded again on the next frame.
+ * Each time a tile or size finishes loading or is dropped, the completion
+ * listener is called with the tile or source URI.</p>
+ */
+
+final class SyAWTImageTiles
+{
+  private static final int SIZES_MAXIMUM = 256;
+
+  private final SyAWTImageScheduler scheduler;
+  private final long bytesMaximum;
+  private final Function<SyAWTImageTile, BufferedImage> tileLoader;
+  private final Function<URI, Size> sizeLoader;
+  private final Consumer<Object> onCompleted;
+  private final LinkedHashMap<SyAWTImageTile, BufferedImage> tiles;
+  private final LinkedHashMap<URI, Size> sizes;
+  private final HashSet<Object> loading;
+  private long bytes;
+  private long tilesDecoded;
+
+  SyAWTImageTiles(
+    final SyAWTImageScheduler inScheduler,
+    final long inBytesMaximum,
+    final Function<SyAWTImageTile, BufferedImage> inTileLoader,
+    final Function<URI, Size> inSizeLoader,
+    final Consumer<Object> inOnCompleted)
+  {
+    this.scheduler =
+      Objects.requireNonNull(inScheduler, "scheduler");
+    this.bytesMaximum =
+      inBytesMaximum;
+    this.tileLoader =
+      Objects.requireNonNull(inTileLoader, "tileLoader");
+    this.sizeLoader =
+      Objects.requireNonNull(inSizeLoader, "sizeLoader");
+    this.onCompleted =
+      Objects.requireNonNull(inOnCompleted, "onCompleted");
+    this.tiles =
+      new LinkedHashMap<>(64, 0.75f, true);
+    this.sizes =
+      new LinkedHashMap<>(16, 0.75f, true)
+      {
+        @Override
+        protected boolean removeEldestEntry(
+          final Map.Entry<URI, Size> eldest)
+        {
+          return this.size() > SIZES_MAXIMUM;
+        }
+      };
+    this.loading =
+      new HashSet<>();
+  }
+
+  private static long imageBytes(
+    final BufferedImage image)
+  {
+    return (long) image.getWidth() * (long) image.getHeight() * 4L;
+  }
+
+  /**
+   * Get the size of the given image, starting to read it if necessary.
+   *
+   * @param source The source URI
+   *
+   * @return The size, or {@code null} if it is still being read
+   */
+
+  Size size(
+    final URI source)
+  {
+    synchronized (this) {
+      final var size = this.sizes.get(source);
+      if (size != null || !this.loading.add(source)) {
+        return size;
+      }
+    }
+
+    this.scheduler.submitVisible(source, () -> {
+      final var size = this.sizeLoader.apply(source);
+      synchronized (this) {
+        this.loading.remove(source);
+        this.sizes.put(source, size);
+      }
+      this.onCompleted.accept(source);
+    });
+    return null;
+  }
+
+  /**
+   * Get the given tile, starting to load it if necessary.
+   *
+   * @param tile The tile
+   *
+   * @return The tile image, or {@code null} if it is still loading
+   */
+
+  BufferedImage tile(
+    final SyAWTImageTile tile)
+  {
+    synchronized (this) {
+      final var image = this.tiles.get(tile);
+      if (image != null || !this.loading.add(tile)) {
+        return image;
+      }
+    }
+
+    this.scheduler.submitVisible(tile, () -> {
+      final var image = this.tileLoader.apply(tile);
+      synchronized (this) {
+        this.loading.remove(tile);
+        ++this.tilesDecoded;
+        this.tiles.put(tile, image);
+        this.bytes += imageBytes(image);
+        this.evict();
+      }
+      this.onCompleted.accept(tile);
+    });
+    return null;
+  }
+
+  /**
+   * Drop the load of the given tile or size if it has not yet started. The
+   * tile or size will be loaded again if it is asked for.
+   *
+   * @param key A tile or source URI
+   *
+   * @return {@code true} if the load was dropped
+   */
+
+  boolean drop(
+    final Object key)
+  {
+    if (!this.scheduler.cancelVisible(key)) {
+      return false;
+    }
+
+    synchronized (this) {
+      this.loading.remove(key);
+    }
+    this.onCompleted.accept(key);
+    return true;
+  }
+
+  private void evict()
+  {
+    final var iterator = this.tiles.values().iterator();
+    while (this.bytes > this.bytesMaximum && iterator.hasNext()) {
+      this.bytes -= imageBytes(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Get the given tile if it is loaded, without starting to load it.
+   *
+   * @param tile The tile
+   *
+   * @return The tile image, or {@code null} if it is not loaded
+   */
+
+  synchronized BufferedImage tileIfLoaded(
+    final SyAWTImageTile tile)
+  {
+    return this.tiles.get(tile);
+  }
+
+  /**
+   * @param key A tile or source URI
+   *
+   * @return {@code true} if the tile or size is not currently loading
+   */
+
+  synchronized boolean isDone(
+    final Object key)
+  {
+    return !this.loading.contains(key);
+  }
+
+  /**
+   * @return The number of tiles that have been decoded
+   */
+
+  synchronized long tilesDecoded()
+  {
+    return this.tilesDecoded;
+  }
+
+  /**
+   * @return The number of tiles currently cached
+   */
+
+  synchronized int tilesCached()
+  {
+    return this.tiles.size();
+  }
+
+  /**
+   * The size of a source image.
+   *
+   * @param width  The width, or zero if the image could not be read
+   * @param height The height, or zero if the image could not be read
+   */
+
+  record Size(
+    int width,
+    int height)
+  {
+    /**
+     * The size recorded for images that could not be read.
+     */
+
+    static final Size FAILED = new Size(0, 0);
+
+    /**
+     * @return {@code true} if the image could not be read
+     */
+
+    boolean isFailed()
+    {
+      return this.width == 0 || this.height == 0;
+    }
+  }
+}
@@ -24,8 +24,11 @@ import com.io7m.jsycamore.api.rendering.SyPaintFlat;
 import com.io7m.jsycamore.api.rendering.SyPaintGradientLinear;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeComposite;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeImage;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeImageTiled;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRaster;
 import com.io7m.jsycamore.api.rendering.SyRenderNodePrimitiveType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeShape;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeText;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
@@ -35,8 +38,10 @@ import com.io7m.jsycamore.api.rendering.SyShapeRectangle;
 import com.io7m.jsycamore.api.spaces.SySpaceComponentRelativeType;
 import com.io7m.jsycamore.api.spaces.SySpaceRGBAPreType;
 import com.io7m.jsycamore.api.spaces.SySpaceType;
+import com.io7m.jsycamore.api.text.SyFontDescription;
 import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
 import com.io7m.jsycamore.api.text.SyFontException;
+import com.io7m.jsycamore.api.text.SyTextDirection;
 import com.io7m.jtensors.core.parameterized.vectors.PVector4D;
 import com.io7m.junreachable.UnimplementedCodeException;
 import org.slf4j.Logger;
@@ -49,22 +54,25 @@ import java.awt.LinearGradientPaint;
 import java.awt.Paint;
 import java.awt.Polygon;
 import java.awt.RenderingHints;
+import java.net.URI;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 /**
- * An AWT node renderer.
+ * An AWT node renderer. Node renderers listen to their image loader until
+ * they are closed.
  */
 
-public final class SyAWTNodeRenderer
+public final class SyAWTNodeRenderer implements AutoCloseable
 {
   private static final Logger LOG =
     LoggerFactory.getLogger(SyAWTNodeRenderer.class);
 
   private final SyAWTImageLoader imageLoader;
   private final SyFontDirectoryServiceType<SyAWTFont> fontDirectory;
+  private final SyAWTRasterCache rasterCache;
+  private final SyAWTImagePendingRegions imagesPending;
+  private final SyAWTImageTileRenderer imagesTiled;
   private boolean debugBounds;
   private boolean textAntialias;
 
@@ -83,6 +91,52 @@ public final class SyAWTNodeRenderer
       Objects.requireNonNull(inImageLoader, "imageLoader");
     this.fontDirectory =
       Objects.requireNonNull(inFontDirectory, "fontDirectory");
+    this.rasterCache =
+      new SyAWTRasterCache();
+    this.imagesPending =
+      new SyAWTImagePendingRegions(inImageLoader);
+    this.imagesTiled =
+      new SyAWTImageTileRenderer(inImageLoader, this.imagesPending);
+  }
+
+  /**
+   * Stop listening to the image loader.
+   */
+
+  @Override
+  public void close()
+  {
+    this.imagesPending.close();
+  }
+
+  /**
+   * @return The regions showing placeholders for images that are loading
+   */
+
+  public SyAWTImagePendingRegions imagesPending()
+  {
+    return this.imagesPending;
+  }
+
+  /**
+   * Begin a new frame. The loads of tiles of tiled images that were drawn
+   * in an earlier frame, but not in the latest frame, are dropped if they
+   * have not yet started, so that tiles that have been scrolled out of view
+   * do not delay the tiles that replaced them.
+   */
+
+  public void frameBegin()
+  {
+    this.imagesTiled.frameBegin();
+  }
+
+  /**
+   * @return The cache of images used to draw rasters
+   */
+
+  public SyAWTRasterCache rasterCache()
+  {
+    return this.rasterCache;
   }
 
   private static void renderShapeRectangle(
@@ -91,27 +145,27 @@ public final class SyAWTNodeRenderer
     final Optional<SyPaintFillType> fill,
     final SyShapeRectangle<SySpaceComponentRelativeType> rectangle)
   {
-    fill.ifPresent(fillPaint -> {
-      final var area = rectangle.area();
-      graphics.setPaint(fillToPaint(area, fillPaint));
+    final var area = rectangle.area();
+
+    if (fill.isPresent()) {
+      graphics.setPaint(fillToPaint(area, fill.get()));
       graphics.fillRect(
         area.minimumX(),
         area.minimumY(),
         area.sizeX(),
         area.sizeY()
       );
-    });
+    }
 
-    edge.ifPresent(edgePaint -> {
-      final var area = rectangle.area();
-      graphics.setPaint(edgeToPaint(area, edgePaint));
+    if (edge.isPresent()) {
+      graphics.setPaint(edgeToPaint(area, edge.get()));
       graphics.drawRect(
         area.minimumX(),
         area.minimumY(),
         area.sizeX(),
         area.sizeY()
       );
-    });
+    }
   }
 
   private static void renderShapePolygon(
@@ -122,17 +176,17 @@ public final class SyAWTNodeRenderer
   {
     final var awtPoly = awtPolygon(polygon);
 
-    fill.ifPresent(fillPaint -> {
+    if (fill.isPresent()) {
       final var area = polygon.boundingArea();
-      graphics.setPaint(fillToPaint(area, fillPaint));
+      graphics.setPaint(fillToPaint(area, fill.get()));
       graphics.fillPolygon(awtPoly);
-    });
+    }
 
-    edge.ifPresent(edgePaint -> {
+    if (edge.isPresent()) {
       final var area = polygon.boundingArea();
-      graphics.setPaint(edgeToPaint(area, edgePaint));
+      graphics.setPaint(edgeToPaint(area, edge.get()));
       graphics.drawPolygon(awtPoly);
-    });
+    }
   }
 
   private static Polygon awtPolygon(
@@ -188,18 +242,44 @@ public final class SyAWTNodeRenderer
       colors[index] = toColor4(colorList.get(index));
     }
 
-    final var x = (double) boundingArea.minimumX();
-    final var y = (double) boundingArea.minimumY();
-    final var w = (double) boundingArea.sizeX();
-    final var h = (double) boundingArea.sizeY();
-
     final var p0 = linear.point0();
     final var p1 = linear.point1();
 
-    final var x0 = x + (p0.x() * w);
-    final var y0 = y + (p0.y() * h);
-    final var x1 = x + (p1.x() * w);
-    final var y1 = y + (p1.y() * h);
+    return gradientPaint(
+      boundingArea.minimumX(),
+      boundingArea.minimumY(),
+      boundingArea.sizeX(),
+      boundingArea.sizeY(),
+      p0.x(),
+      p0.y(),
+      p1.x(),
+      p1.y(),
+      fractions,
+      colors
+    );
+  }
+
+  static Paint gradientPaint(
+    final int areaX,
+    final int areaY,
+    final int areaSizeX,
+    final int areaSizeY,
+    final double p0x,
+    final double p0y,
+    final double p1x,
+    final double p1y,
+    final float[] fractions,
+    final Color[] colors)
+  {
+    final var x = (double) areaX;
+    final var y = (double) areaY;
+    final var w = (double) areaSizeX;
+    final var h = (double) areaSizeY;
+
+    final var x0 = x + (p0x * w);
+    final var y0 = y + (p0y * h);
+    final var x1 = x + (p1x * w);
+    final var y1 = y + (p1y * h);
 
     return new LinearGradientPaint(
       (float) x0, (float) y0,
@@ -209,6 +289,18 @@ public final class SyAWTNodeRenderer
     );
   }
 
+  static Color flatColor(
+    final SyPaintFlat flat)
+  {
+    return toColor4(flat.color());
+  }
+
+  static Color color(
+    final PVector4D<SySpaceRGBAPreType> color)
+  {
+    return toColor4(color);
+  }
+
   private static Paint fillToPaintFlat(
     final SyPaintFlat flat)
   {
@@ -237,7 +329,6 @@ public final class SyAWTNodeRenderer
 
   private void renderNodeText(
     final Graphics2D g,
-    final SyFontDirectoryServiceType<SyAWTFont> fonts,
     final SyRenderNodeText textNode)
   {
     final var text = textNode.text();
@@ -246,18 +337,47 @@ public final class SyAWTNodeRenderer
     }
 
     final var size = textNode.size();
-    final var sizeX = size.sizeX();
-    final var sizeY = size.sizeY();
+    this.drawText(
+      g,
+      textNode.font().description(),
+      text.value(),
+      text.direction(),
+      size.sizeX(),
+      size.sizeY(),
+      fillToPaint(textNode.boundingArea(), textNode.fillPaint())
+    );
+  }
+
+  /**
+   * Draw text at the current origin of the graphics context.
+   *
+   * @param g         The graphics context
+   * @param font      The font description
+   * @param text      The (non-empty) text
+   * @param direction The text direction
+   * @param sizeX     The width of the text node
+   * @param sizeY     The height of the text node
+   * @param paint     The text paint
+   */
 
+  void drawText(
+    final Graphics2D g,
+    final SyFontDescription font,
+    final String text,
+    final SyTextDirection direction,
+    final int sizeX,
+    final int sizeY,
+    final Paint paint)
+  {
     try {
-      final var font =
-        fonts.get(textNode.font().description());
+      final var awtFontInfo =
+        this.fontDirectory.get(font);
 
       final var width =
-        font.textWidth(text.value());
+        awtFontInfo.textWidth(text);
 
       final int x =
-        switch (text.direction()) {
+        switch (direction) {
           case TEXT_DIRECTION_LEFT_TO_RIGHT -> {
             yield 0;
           }
@@ -266,24 +386,15 @@ public final class SyAWTNodeRenderer
           }
         };
 
+      final int y =
+        awtFontInfo.textHeight() - (awtFontInfo.textDescent());
 
-      final int y = font.textHeight() - (font.textDescent());
-
-      if (this.textAntialias) {
-        g.setRenderingHint(
-          RenderingHints.KEY_TEXT_ANTIALIASING,
-          RenderingHints.VALUE_TEXT_ANTIALIAS_ON
-        );
-      } else {
-        g.setRenderingHint(
-          RenderingHints.KEY_TEXT_ANTIALIASING,
-          RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
-        );
+      final var awtFont = awtFontInfo.font();
+      if (g.getFont() != awtFont) {
+        g.setFont(awtFont);
       }
-
-      g.setFont(font.font());
-      g.setPaint(fillToPaint(textNode.boundingArea(), textNode.fillPaint()));
-      g.drawString(text.value(), x, y);
+      g.setPaint(paint);
+      g.drawString(text, x, y);
     } catch (final SyFontException e) {
       LOG.error("Error rendering text: ", e);
       g.setPaint(Color.RED);
@@ -332,16 +443,13 @@ public final class SyAWTNodeRenderer
     this.textAntialias = enabled;
   }
 
-  private static void pushTransform(
-    final Graphics2D graphics2D,
-    final Consumer<Graphics2D> f)
+  /**
+   * @return {@code true} if debug bounds rendering is enabled
+   */
+
+  public boolean isDebugBoundsRendering()
   {
-    final var saved = graphics2D.getTransform();
-    try {
-      f.accept(graphics2D);
-    } finally {
-      graphics2D.setTransform(saved);
-    }
+    return this.debugBounds;
   }
 
   /**
@@ -355,38 +463,107 @@ public final class SyAWTNodeRenderer
     final Graphics2D graphics2D,
     final SyRenderNodeType renderNode)
   {
-    pushTransform(graphics2D, g -> {
-      final var nodes =
-        flattenNodes(renderNode).toList();
+    this.prepare(graphics2D);
+    this.renderNodeTree(graphics2D, renderNode);
+  }
+
+  /**
+   * Configure the graphics context state shared by all primitives. This
+   * must be called before any calls to {@link #renderPrimitive}.
+   *
+   * @param graphics2D The graphics context
+   */
+
+  void prepare(
+    final Graphics2D graphics2D)
+  {
+    graphics2D.setComposite(AlphaComposite.SrcOver);
+
+    if (this.textAntialias) {
+      graphics2D.setRenderingHint(
+        RenderingHints.KEY_TEXT_ANTIALIASING,
+        RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+      );
+    } else {
+      graphics2D.setRenderingHint(
+        RenderingHints.KEY_TEXT_ANTIALIASING,
+        RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
+      );
+    }
+  }
 
-      for (final var node : nodes) {
-        pushTransform(g, g2 -> {
-          final var position = node.position();
-          g2.translate(position.x(), position.y());
-          this.renderNodePrimitive(g2, node);
-        });
+  /**
+   * Render a single primitive at the current origin of the graphics
+   * context. The paint of the graphics context is undefined after this
+   * method returns.
+   *
+   * @param graphics2D The graphics context
+   * @param primitive  The primitive
+   */
+
+  void renderPrimitive(
+    final Graphics2D graphics2D,
+    final SyRenderNodePrimitiveType primitive)
+  {
+    this.renderNodePrimitive(graphics2D, primitive);
+  }
+
+  private void renderNodeTree(
+    final Graphics2D graphics2D,
+    final SyRenderNodeType renderNode)
+  {
+    switch (renderNode) {
+      case final SyRenderNodeComposite composite -> {
+        final var nodes = composite.nodes();
+        final var count = nodes.size();
+        for (int index = 0; index < count; ++index) {
+          this.renderNodeTree(graphics2D, nodes.get(index));
+        }
       }
-    });
+      case final SyRenderNodePrimitiveType primitive -> {
+        final var position = primitive.position();
+        final var x = position.x();
+        final var y = position.y();
+
+        /*
+         * Primitives are positioned with integer translations, and so
+         * can be undone exactly without saving and restoring a copy of the
+         * current transform.
+         */
+
+        graphics2D.translate(x, y);
+        try {
+          this.renderNodePrimitive(graphics2D, primitive);
+        } finally {
+          graphics2D.translate(-x, -y);
+        }
+      }
+    }
   }
 
   private void renderNodePrimitive(
     final Graphics2D g,
     final SyRenderNodePrimitiveType node)
   {
-    g.setComposite(AlphaComposite.SrcOver);
-
     switch (node) {
       case final SyRenderNodeImage n -> {
         this.renderNodeImage(g, n);
       }
+      case final SyRenderNodeImageTiled n -> {
+        this.drawImageTiled(g, n.image(), n.size().sizeX(), n.size().sizeY());
+      }
       case final SyRenderNodeNoop n -> {
 
+      }
+      case final SyRenderNodeRaster n -> {
+        this.drawRaster(
+          g, n.raster(), n.scrollX(), n.size().sizeX(), n.size().sizeY());
       }
       case final SyRenderNodeShape n -> {
         renderNodeShape(g, n);
       }
       case final SyRenderNodeText n -> {
-        this.renderNodeText(g, this.fontDirectory, n);
+        this.renderNodeText(g, n);
       }
     }
 
@@ -398,34 +575,79 @@ public final class SyAWTNodeRenderer
     }
   }
 
-  private static Stream<SyRenderNodePrimitiveType> flattenNodes(
-    final SyRenderNodeType renderNode)
+  private void renderNodeImage(
+    final Graphics2D g,
+    final SyRenderNodeImage image)
   {
-    return Stream.of(renderNode)
-      .flatMap(n -> {
-        return switch (n) {
-          case final SyRenderNodeComposite m ->
-            m.nodes().stream().flatMap(SyAWTNodeRenderer::flattenNodes);
-          case final SyRenderNodeImage m -> Stream.of(m);
-          case final SyRenderNodeNoop m -> Stream.of(m);
-          case final SyRenderNodeShape m -> Stream.of(m);
-          case final SyRenderNodeText m -> Stream.of(m);
-        };
-      });
+    this.drawImage(
+      g,
+      image.image(),
+      image.size().sizeX(),
+      image.size().sizeY()
+    );
   }
 
-  private void renderNodeImage(
+  /**
+   * Draw an image at the current origin of the graphics context.
+   *
+   * @param g     The graphics context
+   * @param image The image
+   * @param sizeX The width of the image node
+   * @param sizeY The height of the image node
+   */
+
+  void drawImage(
     final Graphics2D g,
-    final SyRenderNodeImage image)
+    final URI image,
+    final int sizeX,
+    final int sizeY)
   {
     final var request =
-      new SyAWTImageRequest(
-        image.image(),
-        image.size().sizeX(),
-        image.size().sizeY()
-      );
+      new SyAWTImageRequest(image, sizeX, sizeY);
 
     final var imageData = this.imageLoader.load(request);
+    if (this.imageLoader.isLoadingPlaceholder(imageData)) {
+      this.imagesPending.placeholderDrawn(
+        request, g, 0, 0, sizeX, sizeY);
+    }
     g.drawImage(imageData, 0, 0, null);
   }
+
+  /**
+   * Draw a tiled image at the current origin of the graphics context.
+   *
+   * @param g     The graphics context
+   * @param image The image
+   * @param sizeX The width of the image node
+   * @param sizeY The height of the image node
+   */
+
+  void drawImageTiled(
+    final Graphics2D g,
+    final URI image,
+    final int sizeX,
+    final int sizeY)
+  {
+    this.imagesTiled.draw(g, image, sizeX, sizeY);
+  }
+
+  /**
+   * Draw a raster at the current origin of the graphics context.
+   *
+   * @param g      The graphics context
+   * @param raster  The raster
+   * @param scrollX The raster column drawn at the left edge of the node
+   * @param sizeX   The width of the raster node
+   * @param sizeY   The height of the raster node
+   */
+
+  void drawRaster(
+    final Graphics2D g,
+    final SyRaster raster,
+    final int scrollX,
+    final int sizeX,
+    final int sizeY)
+  {
+    this.rasterCache.draw(g, raster, scrollX, sizeX, sizeY);
+  }
 }
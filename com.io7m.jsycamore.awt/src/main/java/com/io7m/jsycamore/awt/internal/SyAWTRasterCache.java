@@ -0,0 +1,305 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jsycamore.api.rendering.SyRaster;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * <p>A cache of the images used to draw application-owned rasters.</p>
+ *
+ * <p>Each raster is wrapped in a {@link BufferedImage} that shares the
+ * raster's pixel array, so the application's pixels are never copied
+ * wholesale. Because Java2D cannot accelerate images whose pixel arrays are
+ * held by application code, each raster also has a device-compatible image
+ * that is drawn to the screen. Only the regions that the application has
+ * marked as dirty are transferred from the shared image to the compatible
+ * image, so a raster that has not changed costs a single accelerated image
+ * draw.</p>
+ *
+ * <p>Snapshots of a raster (see {@link SyRaster#snapshot()}) share the
+ * entry of the raster from which they were taken. If the snapshot being
+ * drawn directly follows the snapshot that was last drawn, only the regions
+ * that differ between the two are transferred; otherwise, the whole
+ * snapshot is transferred.</p>
+ *
+ * <p>Entries are held weakly, and are discarded when the application
+ * discards the raster.</p>
+ */
+
+public final class SyAWTRasterCache
+{
+  private static final DirectColorModel COLOR_MODEL_ARGB_PRE =
+    new DirectColorModel(
+      ColorSpace.getInstance(ColorSpace.CS_sRGB),
+      32,
+      0x00ff0000,
+      0x0000ff00,
+      0x000000ff,
+      0xff000000,
+      true,
+      DataBuffer.TYPE_INT
+    );
+
+  private final WeakHashMap<SyRaster, Entry> entries;
+  private final int[] dirty;
+  private long regionsUploaded;
+  private long pixelsUploaded;
+
+  /**
+   * A cache of the images used to draw application-owned rasters.
+   */
+
+  public SyAWTRasterCache()
+  {
+    this.entries = new WeakHashMap<>();
+    this.dirty = new int[SyRaster.DIRTY_REGIONS_MAXIMUM * 4];
+  }
+
+  /**
+   * Wrap the pixels of the given raster in an image, without copying them.
+   *
+   * @param raster The raster
+   *
+   * @return An image sharing the raster's pixel array
+   */
+
+  public static BufferedImage wrap(
+    final SyRaster raster)
+  {
+    Objects.requireNonNull(raster, "raster");
+
+    final var sizeX = raster.width();
+    final var sizeY = raster.height();
+    final var buffer =
+      new DataBufferInt(raster.pixels(), sizeX * sizeY);
+    final var awtRaster =
+      Raster.createPackedRaster(
+        buffer,
+        sizeX,
+        sizeY,
+        sizeX,
+        COLOR_MODEL_ARGB_PRE.getMasks(),
+        null
+      );
+
+    return new BufferedImage(COLOR_MODEL_ARGB_PRE, awtRaster, true, null);
+  }
+
+  /**
+   * @return The number of dirty regions transferred since the cache was
+   * created
+   */
+
+  public long regionsUploaded()
+  {
+    return this.regionsUploaded;
+  }
+
+  /**
+   * @return The number of pixels transferred since the cache was created
+   */
+
+  public long pixelsUploaded()
+  {
+    return this.pixelsUploaded;
+  }
+
+  /**
+   * @return The number of rasters currently cached
+   */
+
+  public int size()
+  {
+    return this.entries.size();
+  }
+
+  /**
+   * Draw the given raster at the current origin of the graphics context,
+   * scaled to the given size. The raster wraps horizontally: column
+   * {@code scrollX} of the raster is drawn at the left edge, and the
+   * columns to the left of it are drawn after the rightmost column.
+   *
+   * @param g       The graphics context
+   * @param raster  The raster
+   * @param scrollX The raster column drawn at the left edge of the node
+   * @param sizeX   The width of the raster node
+   * @param sizeY   The height of the raster node
+   */
+
+  public void draw(
+    final Graphics2D g,
+    final SyRaster raster,
+    final int scrollX,
+    final int sizeX,
+    final int sizeY)
+  {
+    final var origin = raster.origin();
+    var entry = this.entries.get(origin);
+    if (entry == null) {
+      entry = this.entryCreate(g, raster);
+      this.entries.put(origin, entry);
+    }
+
+    this.upload(raster, entry);
+
+    final var image = entry.compatible;
+    if (scrollX == 0) {
+      g.drawImage(image, 0, 0, sizeX, sizeY, null);
+      return;
+    }
+
+    /*
+     * Draw the columns from the scroll offset to the right edge of the
+     * raster, and then the columns before the scroll offset, with the
+     * split scaled to the size of the node.
+     */
+
+    final var width = raster.width();
+    final var height = raster.height();
+    final var split =
+      (int) ((long) (width - scrollX) * (long) sizeX / (long) width);
+
+    g.drawImage(
+      image, 0, 0, split, sizeY, scrollX, 0, width, height, null);
+    g.drawImage(
+      image, split, 0, sizeX, sizeY, 0, 0, scrollX, height, null);
+  }
+
+  private Entry entryCreate(
+    final Graphics2D g,
+    final SyRaster raster)
+  {
+    final var compatible =
+      g.getDeviceConfiguration()
+        .createCompatibleImage(
+          raster.width(),
+          raster.height(),
+          Transparency.TRANSLUCENT
+        );
+
+    return new Entry(compatible);
+  }
+
+  private void upload(
+    final SyRaster raster,
+    final Entry entry)
+  {
+    /*
+     * Each snapshot has its own pixel array. The pixel array, rather than
+     * the raster, is compared so that the entry does not strongly refer to
+     * the raster that is its key.
+     */
+
+    if (entry.sharedPixels != raster.pixels()) {
+      entry.sharedPixels = raster.pixels();
+      entry.shared = wrap(raster);
+    }
+
+    final var regions = this.dirty;
+    int count;
+    if (raster.isSnapshot()) {
+      if (entry.version == raster.version()) {
+        return;
+      }
+      if (entry.version == raster.snapshotBase()) {
+        count = raster.dirtySinceSnapshotBase(regions);
+      } else {
+        count = regionAll(raster, regions);
+      }
+    } else {
+      count = raster.dirtyTake(regions);
+      if (entry.version == -1L) {
+        count = regionAll(raster, regions);
+      }
+    }
+
+    entry.version = raster.version();
+    this.uploadRegions(entry, regions, count);
+  }
+
+  /**
+   * A new image holds none of the raster's pixels, regardless of what the
+   * raster considers to be dirty.
+   */
+
+  private static int regionAll(
+    final SyRaster raster,
+    final int[] regions)
+  {
+    regions[0] = 0;
+    regions[1] = 0;
+    regions[2] = raster.width();
+    regions[3] = raster.height();
+    return 1;
+  }
+
+  private void uploadRegions(
+    final Entry entry,
+    final int[] regions,
+    final int count)
+  {
+    if (count == 0) {
+      return;
+    }
+
+    final var target = entry.compatible.createGraphics();
+    try {
+      target.setComposite(AlphaComposite.Src);
+      for (int index = 0; index < count; ++index) {
+        final var base = index * 4;
+        final var x0 = regions[base];
+        final var y0 = regions[base + 1];
+        final var x1 = regions[base + 2];
+        final var y1 = regions[base + 3];
+        target.drawImage(
+          entry.shared, x0, y0, x1, y1, x0, y0, x1, y1, null);
+        this.pixelsUploaded += (long) (x1 - x0) * (long) (y1 - y0);
+      }
+      this.regionsUploaded += count;
+    } finally {
+      target.dispose();
+    }
+  }
+
+  private static final class Entry
+  {
+    private final BufferedImage compatible;
+    private int[] sharedPixels;
+    private BufferedImage shared;
+    private long version;
+
+    Entry(
+      final BufferedImage inCompatible)
+    {
+      this.compatible = inCompatible;
+      this.version = -1L;
+    }
+  }
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jsycamore.api.rendering.SyPaintFlat;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeComposite;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRenderNodePrimitiveType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeShape;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeSinkType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
+import com.io7m.jsycamore.api.rendering.SyShapeRectangle;
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>A batch of flattened primitives for a single window.</p>
+ *
+ * <p>Primitives are recorded in window-relative coordinates along with the
+ * clip region in effect for each primitive. When the batch is flushed, the
+ * primitives are drawn in the order in which they were recorded (so that
+ * overlapping primitives are composed exactly as they would be without
+ * batching), but with the following reductions:</p>
+ *
+ * <ul>
+ *   <li>Rectangles with a flat fill and no edge are clipped when they are
+ *   recorded, and are then drawn directly at their window-relative
+ *   coordinates without changing the translation or clip region.</li>
+ *   <li>Consecutive flat rectangles with identical paint that share a
+ *   complete edge are merged into a single fill.</li>
+ *   <li>The paint, clip region, and translation are only changed when they
+ *   differ from the values most recently applied.</li>
+ * </ul>
+ */
+
+public final class SyAWTRenderBatch implements SyRenderNodeSinkType
+{
+  private static final int KIND_RECTANGLE = 0;
+  private static final int KIND_PRIMITIVE = 1;
+
+  private final SyAWTRenderStatistics statistics;
+  private int[] kinds;
+  private int[] x;
+  private int[] y;
+  private int[] sizeX;
+  private int[] sizeY;
+  private int[] clipMinX;
+  private int[] clipMinY;
+  private int[] clipMaxX;
+  private int[] clipMaxY;
+  private SyRenderNodePrimitiveType[] primitives;
+  private SyPaintFlat[] paints;
+  private int size;
+  private boolean rectanglesBatched;
+  private int windowClipMinX;
+  private int windowClipMinY;
+  private int windowClipMaxX;
+  private int windowClipMaxY;
+
+  private SyPaintFlat appliedPaint;
+  private int appliedX;
+  private int appliedY;
+  private int appliedClipMinX;
+  private int appliedClipMinY;
+  private int appliedClipMaxX;
+  private int appliedClipMaxY;
+
+  /**
+   * A batch of flattened primitives.
+   *
+   * @param inStatistics The statistics updated by the batch
+   */
+
+  public SyAWTRenderBatch(
+    final SyAWTRenderStatistics inStatistics)
+  {
+    this.statistics =
+      Objects.requireNonNull(inStatistics, "statistics");
+    this.rectanglesBatched = true;
+    this.allocate(256);
+  }
+
+  /**
+   * Enable or disable the special handling of flat rectangles. When
+   * disabled, every primitive is drawn by the node renderer.
+   *
+   * @param enabled {@code true} if flat rectangles should be batched
+   */
+
+  public void setRectanglesBatched(
+    final boolean enabled)
+  {
+    this.rectanglesBatched = enabled;
+  }
+
+  /**
+   * Clear the batch and begin a new window.
+   *
+   * @param inClipMinX The window-relative minimum X clip of the window
+   * @param inClipMinY The window-relative minimum Y clip of the window
+   * @param inClipMaxX The window-relative maximum X clip (exclusive)
+   * @param inClipMaxY The window-relative maximum Y clip (exclusive)
+   */
+
+  public void begin(
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    this.clear();
+    this.windowClipMinX = inClipMinX;
+    this.windowClipMinY = inClipMinY;
+    this.windowClipMaxX = inClipMaxX;
+    this.windowClipMaxY = inClipMaxY;
+  }
+
+  /**
+   * Clear the batch.
+   */
+
+  public void clear()
+  {
+    Arrays.fill(this.primitives, 0, this.size, null);
+    Arrays.fill(this.paints, 0, this.size, null);
+    this.size = 0;
+  }
+
+  /**
+   * @return The number of primitives in the batch
+   */
+
+  public int size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public void add(
+    final SyRenderNodeType node,
+    final int originX,
+    final int originY,
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    switch (node) {
+      case final SyRenderNodeComposite composite -> {
+        final var nodes = composite.nodes();
+        final var count = nodes.size();
+        for (int index = 0; index < count; ++index) {
+          this.add(
+            nodes.get(index),
+            originX,
+            originY,
+            inClipMinX,
+            inClipMinY,
+            inClipMaxX,
+            inClipMaxY
+          );
+        }
+      }
+      case final SyRenderNodeNoop noop -> {
+
+      }
+      case final SyRenderNodePrimitiveType primitive -> {
+        this.addPrimitive(
+          primitive,
+          originX,
+          originY,
+          inClipMinX,
+          inClipMinY,
+          inClipMaxX,
+          inClipMaxY
+        );
+      }
+    }
+  }
+
+  private void addPrimitive(
+    final SyRenderNodePrimitiveType primitive,
+    final int originX,
+    final int originY,
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    if (this.size == this.kinds.length) {
+      this.allocate(this.kinds.length * 2);
+    }
+
+    this.statistics.onPrimitive();
+
+    final var index = this.size;
+    final var position = primitive.position();
+    final var px = originX + position.x();
+    final var py = originY + position.y();
+
+    final var flat = this.flatRectangleFill(primitive);
+    if (flat != null) {
+      final var shape = (SyRenderNodeShape) primitive;
+      final var rectangle = (SyShapeRectangle<?>) shape.shape();
+
+      /*
+       * Filling an axis-aligned rectangle under a rectangular clip region
+       * is equivalent to filling the intersection of the two under any
+       * larger clip region. The rectangle is therefore clipped here, and
+       * drawn under the window's clip region, which allows rectangles
+       * belonging to different components to be merged.
+       */
+
+      final var area = rectangle.area();
+      final var minX = Math.max(inClipMinX, px + area.minimumX());
+      final var minY = Math.max(inClipMinY, py + area.minimumY());
+      final var maxX = Math.min(inClipMaxX, px + area.maximumX());
+      final var maxY = Math.min(inClipMaxY, py + area.maximumY());
+      if (minX >= maxX || minY >= maxY) {
+        return;
+      }
+
+      this.kinds[index] = KIND_RECTANGLE;
+      this.x[index] = minX;
+      this.y[index] = minY;
+      this.sizeX[index] = maxX - minX;
+      this.sizeY[index] = maxY - minY;
+      this.clipMinX[index] = this.windowClipMinX;
+      this.clipMinY[index] = this.windowClipMinY;
+      this.clipMaxX[index] = this.windowClipMaxX;
+      this.clipMaxY[index] = this.windowClipMaxY;
+      this.paints[index] = flat;
+      this.primitives[index] = null;
+    } else {
+      this.clipMinX[index] = inClipMinX;
+      this.clipMinY[index] = inClipMinY;
+      this.clipMaxX[index] = inClipMaxX;
+      this.clipMaxY[index] = inClipMaxY;
+      this.kinds[index] = KIND_PRIMITIVE;
+      this.x[index] = px;
+      this.y[index] = py;
+      this.sizeX[index] = 0;
+      this.sizeY[index] = 0;
+      this.paints[index] = null;
+      this.primitives[index] = primitive;
+    }
+
+    ++this.size;
+  }
+
+  /**
+   * @return The flat fill of the given primitive, if the primitive is a
+   * rectangle that should be batched, or {@code null} otherwise
+   */
+
+  private SyPaintFlat flatRectangleFill(
+    final SyRenderNodePrimitiveType primitive)
+  {
+    if (!this.rectanglesBatched) {
+      return null;
+    }
+    if (!(primitive instanceof final SyRenderNodeShape shape)) {
+      return null;
+    }
+    if (shape.edgePaint().isPresent()) {
+      return null;
+    }
+    if (!(shape.shape() instanceof SyShapeRectangle<?>)) {
+      return null;
+    }
+    if (shape.fillPaint().orElse(null) instanceof final SyPaintFlat flat) {
+      return flat;
+    }
+    return null;
+  }
+
+  /**
+   * Draw the contents of the batch, and then clear the batch. The graphics
+   * context is assumed to be translated to the window origin, and clipped
+   * to the window clip region given to {@link #begin(int, int, int, int)}.
+   * On return, the translation of the graphics context is restored to the
+   * window origin.
+   *
+   * @param g            The graphics context
+   * @param nodeRenderer The node renderer used for primitives other than
+   *                     flat rectangles
+   */
+
+  public void flush(
+    final Graphics2D g,
+    final SyAWTNodeRenderer nodeRenderer)
+  {
+    this.appliedPaint = null;
+    this.appliedX = 0;
+    this.appliedY = 0;
+    this.appliedClipMinX = this.windowClipMinX;
+    this.appliedClipMinY = this.windowClipMinY;
+    this.appliedClipMaxX = this.windowClipMaxX;
+    this.appliedClipMaxY = this.windowClipMaxY;
+
+    try {
+      if (this.size > 0) {
+        nodeRenderer.prepare(g);
+      }
+
+      var index = 0;
+      while (index < this.size) {
+        this.applyClip(g, index);
+
+        switch (this.kinds[index]) {
+          case KIND_RECTANGLE -> {
+            index = this.flushRectangles(g, index);
+          }
+          default -> {
+            this.applyTranslation(g, this.x[index], this.y[index]);
+            nodeRenderer.renderPrimitive(g, this.primitives[index]);
+            this.appliedPaint = null;
+          }
+        }
+        ++index;
+      }
+    } finally {
+      if (this.appliedX != 0 || this.appliedY != 0) {
+        g.translate(-this.appliedX, -this.appliedY);
+      }
+      this.appliedX = 0;
+      this.appliedY = 0;
+      this.appliedPaint = null;
+      this.clear();
+    }
+  }
+
+  /**
+   * Fill the rectangle at {@code start}, merging as many of the
+   * immediately following rectangles as possible into it.
+   *
+   * @return The index of the last rectangle consumed
+   */
+
+  private int flushRectangles(
+    final Graphics2D g,
+    final int start)
+  {
+    final var paint = this.paints[start];
+    final var rx = this.x[start];
+    final var ry = this.y[start];
+    var rw = this.sizeX[start];
+    var rh = this.sizeY[start];
+
+    var last = start;
+    for (int next = start + 1; next < this.size; ++next) {
+      if (this.kinds[next] != KIND_RECTANGLE
+          || !this.sameClip(start, next)
+          || !paint.equals(this.paints[next])) {
+        break;
+      }
+
+      final var nx = this.x[next];
+      final var ny = this.y[next];
+      final var nw = this.sizeX[next];
+      final var nh = this.sizeY[next];
+
+      if (ry == ny && rh == nh && rx + rw == nx) {
+        rw += nw;
+      } else if (rx == nx && rw == nw && ry + rh == ny) {
+        rh += nh;
+      } else {
+        break;
+      }
+
+      this.statistics.onRectangleMerged();
+      last = next;
+    }
+
+    if (!paint.equals(this.appliedPaint)) {
+      g.setPaint(SyAWTNodeRenderer.flatColor(paint));
+      this.appliedPaint = paint;
+      this.statistics.onPaintChange();
+    }
+
+    g.fillRect(rx - this.appliedX, ry - this.appliedY, rw, rh);
+    this.statistics.onFill();
+    return last;
+  }
+
+  private boolean sameClip(
+    final int a,
+    final int b)
+  {
+    return this.clipMinX[a] == this.clipMinX[b]
+           && this.clipMinY[a] == this.clipMinY[b]
+           && this.clipMaxX[a] == this.clipMaxX[b]
+           && this.clipMaxY[a] == this.clipMaxY[b];
+  }
+
+  private void applyTranslation(
+    final Graphics2D g,
+    final int newX,
+    final int newY)
+  {
+    if (newX != this.appliedX || newY != this.appliedY) {
+      g.translate(newX - this.appliedX, newY - this.appliedY);
+      this.appliedX = newX;
+      this.appliedY = newY;
+      this.statistics.onTranslation();
+    }
+  }
+
+  private void applyClip(
+    final Graphics2D g,
+    final int index)
+  {
+    final var newMinX = this.clipMinX[index];
+    final var newMinY = this.clipMinY[index];
+    final var newMaxX = this.clipMaxX[index];
+    final var newMaxY = this.clipMaxY[index];
+
+    final var clipChanged =
+      newMinX != this.appliedClipMinX
+      || newMinY != this.appliedClipMinY
+      || newMaxX != this.appliedClipMaxX
+      || newMaxY != this.appliedClipMaxY;
+
+    if (!clipChanged) {
+      return;
+    }
+
+    /*
+     * The clip region is specified relative to the current translation.
+     */
+
+    g.setClip(
+      newMinX - this.appliedX,
+      newMinY - this.appliedY,
+      Math.max(0, newMaxX - newMinX),
+      Math.max(0, newMaxY - newMinY)
+    );
+
+    this.appliedClipMinX = newMinX;
+    this.appliedClipMinY = newMinY;
+    this.appliedClipMaxX = newMaxX;
+    this.appliedClipMaxY = newMaxY;
+    this.statistics.onClipChange();
+  }
+
+  private void allocate(
+    final int capacity)
+  {
+    this.kinds = grow(this.kinds, capacity, this.size);
+    this.x = grow(this.x, capacity, this.size);
+    this.y = grow(this.y, capacity, this.size);
+    this.sizeX = grow(this.sizeX, capacity, this.size);
+    this.sizeY = grow(this.sizeY, capacity, this.size);
+    this.clipMinX = grow(this.clipMinX, capacity, this.size);
+    this.clipMinY = grow(this.clipMinY, capacity, this.size);
+    this.clipMaxX = grow(this.clipMaxX, capacity, this.size);
+    this.clipMaxY = grow(this.clipMaxY, capacity, this.size);
+
+    final var newPrimitives = new SyRenderNodePrimitiveType[capacity];
+    final var newPaints = new SyPaintFlat[capacity];
+    if (this.primitives != null) {
+      System.arraycopy(this.primitives, 0, newPrimitives, 0, this.size);
+      System.arraycopy(this.paints, 0, newPaints, 0, this.size);
+    }
+    this.primitives = newPrimitives;
+    this.paints = newPaints;
+  }
+
+  private static int[] grow(
+    final int[] array,
+    final int capacity,
+    final int size)
+  {
+    final var result = new int[capacity];
+    if (array != null) {
+      System.arraycopy(array, 0, result, 0, size);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.awt.internal;
+
+/**
+ * Counters describing the work performed by an AWT renderer. The counters
+ * accumulate until {@link #reset()} is called.
+ */
+
+public final class SyAWTRenderStatistics
+{
+  private long primitives;
+  private long rectanglesMerged;
+  private long fills;
+  private long paintChanges;
+  private long clipChanges;
+  private long translations;
+
+  /**
+   * Counters describing the work performed by an AWT renderer.
+   */
+
+  public SyAWTRenderStatistics()
+  {
+
+  }
+
+  /**
+   * Reset all counters to zero.
+   */
+
+  public void reset()
+  {
+    this.primitives = 0L;
+    this.rectanglesMerged = 0L;
+    this.fills = 0L;
+    this.paintChanges = 0L;
+    this.clipChanges = 0L;
+    this.translations = 0L;
+  }
+
+  /**
+   * @return The number of primitives submitted for rendering
+   */
+
+  public long primitives()
+  {
+    return this.primitives;
+  }
+
+  /**
+   * @return The number of rectangles that were merged into an adjacent
+   * rectangle instead of being filled separately
+   */
+
+  public long rectanglesMerged()
+  {
+    return this.rectanglesMerged;
+  }
+
+  /**
+   * @return The number of batched rectangle fills issued
+   */
+
+  public long fills()
+  {
+    return this.fills;
+  }
+
+  /**
+   * @return The number of times the paint was changed for batched
+   * rectangle fills
+   */
+
+  public long paintChanges()
+  {
+    return this.paintChanges;
+  }
+
+  /**
+   * @return The number of times the clip region was changed
+   */
+
+  public long clipChanges()
+  {
+    return this.clipChanges;
+  }
+
+  /**
+   * @return The number of times the translation was changed
+   */
+
+  public long translations()
+  {
+    return this.translations;
+  }
+
+  void onPrimitive()
+  {
+    ++this.primitives;
+  }
+
+  void onRectangleMerged()
+  {
+    ++this.rectanglesMerged;
+  }
+
+  void onFill()
+  {
+    ++this.fills;
+  }
+
+  void onPaintChange()
+  {
+    ++this.paintChanges;
+  }
+
+  void onClipChange()
+  {
+    ++this.clipChanges;
+  }
+
+  void onTranslation()
+  {
+    ++this.translations;
+  }
+}
@@ -16,26 +16,33 @@
 
 package com.io7m.jsycamore.awt.internal;
 
-import com.io7m.jorchard.core.JOTreeNodeReadableType;
-import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.rendering.SyRenderTraversal;
+import com.io7m.jsycamore.api.rendering.SySceneSnapshot;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.services.SyServiceDirectoryReadableType;
 import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
 import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jsycamore.api.windows.SyWindowOcclusion;
 import com.io7m.jsycamore.api.windows.SyWindowType;
 
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
 import java.util.Objects;
 
 /**
  * An AWT renderer.
  */
 
-public final class SyAWTRenderer implements SyRendererType
+public final class SyAWTRenderer implements SyRendererType, AutoCloseable
 {
   private final ThemeContext themeContext;
   private final SyAWTNodeRenderer nodeRenderer;
+  private final SyRenderTraversal traversal;
+  private final SyWindowOcclusion occlusion;
+  private final ArrayList<SyWindowType> windowsUnoccluded;
+  private final SyAWTRenderStatistics statistics;
+  private final SyAWTRenderBatch batch;
 
   /**
    * An AWT renderer.
@@ -54,6 +61,37 @@ public final class SyAWTRenderer implements SyRendererType
       new SyAWTNodeRenderer(inImageLoader, inFonts);
     this.themeContext =
       new ThemeContext(inServices);
+    this.traversal =
+      new SyRenderTraversal();
+    this.occlusion =
+      new SyWindowOcclusion();
+    this.windowsUnoccluded =
+      new ArrayList<>();
+    this.statistics =
+      new SyAWTRenderStatistics();
+    this.batch =
+      new SyAWTRenderBatch(this.statistics);
+  }
+
+  /**
+   * Stop listening to the image loader.
+   *
+   * @see SyAWTNodeRenderer#close()
+   */
+
+  @Override
+  public void close()
+  {
+    this.nodeRenderer.close();
+  }
+
+  /**
+   * @return The statistics accumulated by this renderer
+   */
+
+  public SyAWTRenderStatistics statistics()
+  {
+    return this.statistics;
   }
 
   /**
@@ -65,62 +103,189 @@ public final class SyAWTRenderer implements SyRendererType
     return this.nodeRenderer;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Windows that are completely hidden behind windows that the theme
+   * declares to be opaque are not rendered. Each call begins a new frame,
+   * as with {@link SyAWTNodeRenderer#frameBegin()}.</p>
+   */
+
+  @Override
+  public void render(
+    final Graphics2D g,
+    final SyScreenType screen)
+  {
+    final var windows = this.windowsUnoccluded;
+
+    try {
+      this.nodeRenderer.frameBegin();
+      this.collectWindowsUnoccluded(screen);
+      for (int index = windows.size() - 1; index >= 0; --index) {
+        this.render(g, screen, windows.get(index));
+      }
+    } finally {
+      windows.clear();
+    }
+  }
+
+  /**
+   * Record the visible windows of the given screen into a display list,
+   * instead of rendering them. The display list can be replayed later
+   * with a {@link SyDisplayListPlayer}. As with
+   * {@link #render(Graphics2D, SyScreenType)}, windows that are
+   * completely hidden behind opaque windows are not recorded.
+   *
+   * @param screen  The screen
+   * @param encoder The encoder
+   *
+   * @return A display list
+   */
+
+  public SyDisplayList record(
+    final SyScreenType screen,
+    final SyDisplayListEncoder encoder)
+  {
+    final var windows = this.windowsUnoccluded;
+    final var theme = screen.theme();
+    final var screenSize = screen.size().get();
+
+    try {
+      encoder.begin();
+      this.collectWindowsUnoccluded(screen);
+      for (int index = windows.size() - 1; index >= 0; --index) {
+        final var window = windows.get(index);
+        if (!this.traversal.windowBegin(screenSize, window)) {
+          continue;
+        }
+
+        final var bounds = window.boundingArea();
+        encoder.windowBegin(
+          bounds.minimumX(),
+          bounds.minimumY(),
+          this.traversal.windowClipMinX(),
+          this.traversal.windowClipMinY(),
+          this.traversal.windowClipMaxX(),
+          this.traversal.windowClipMaxY()
+        );
+        this.traversal.windowCollect(theme, this.themeContext, window, encoder);
+      }
+      return encoder.finish();
+    } finally {
+      windows.clear();
+    }
+  }
+
+  private void collectWindowsUnoccluded(
+    final SyScreenType screen)
+  {
+    this.windowsUnoccluded.clear();
+    this.occlusion.windowsUnoccluded(
+      screen.theme(),
+      screen.size().get(),
+      screen.windowService().windowsVisibleOrdered(),
+      this.windowsUnoccluded
+    );
+  }
+
   @Override
   public void render(
     final Graphics2D g,
     final SyScreenType screen,
     final SyWindowType window)
   {
+    if (!this.traversal.windowBegin(screen.size().get(), window)) {
+      return;
+    }
+
+    final var bounds = window.boundingArea();
+    final var clipMinX = this.traversal.windowClipMinX();
+    final var clipMinY = this.traversal.windowClipMinY();
+    final var clipMaxX = this.traversal.windowClipMaxX();
+    final var clipMaxY = this.traversal.windowClipMaxY();
+
     final var oldTransform = g.getTransform();
     final var oldClip = g.getClip();
 
     try {
-      final var bounds = window.boundingArea();
-      g.setTransform(
-        AffineTransform.getTranslateInstance(
+      final var primitives =
+        this.windowBatchBegin(
+          g,
           bounds.minimumX(),
-          bounds.minimumY())
-      );
-      g.setClip(0, 0, bounds.sizeX(), bounds.sizeY());
+          bounds.minimumY(),
+          clipMinX,
+          clipMinY,
+          clipMaxX,
+          clipMaxY
+        );
 
-      final var root = window.rootNodeReadable();
-      this.renderComponent(g, screen, root);
+      this.traversal.windowCollect(
+        screen.theme(),
+        this.themeContext,
+        window,
+        primitives
+      );
+      primitives.flush(g, this.nodeRenderer);
     } finally {
       g.setTransform(oldTransform);
       g.setClip(oldClip);
     }
   }
 
-  private void renderComponent(
+  /**
+   * Render a scene snapshot. This does not touch the screen that produced
+   * the snapshot, and so may be called on a different thread to the one
+   * updating the screen.
+   *
+   * @param g        The graphics context
+   * @param snapshot The snapshot
+   */
+
+  public void render(
     final Graphics2D g,
-    final SyScreenType gui,
-    final JOTreeNodeReadableType<SyComponentReadableType> node)
+    final SySceneSnapshot snapshot)
   {
-    final var component = node.value();
-    if (!component.isVisible()) {
-      return;
-    }
+    Objects.requireNonNull(g, "g");
+    Objects.requireNonNull(snapshot, "snapshot");
 
     final var oldTransform = g.getTransform();
     final var oldClip = g.getClip();
 
     try {
-      final var bounds = component.boundingArea();
-      g.translate(bounds.minimumX(), bounds.minimumY());
-      g.clipRect(0, 0, bounds.sizeX() + 1, bounds.sizeY() + 1);
-
-      final var componentTheme =
-        gui.theme().findForComponent(component);
-      final var renderNode =
-        componentTheme.render(this.themeContext, component);
+      this.nodeRenderer.frameBegin();
+      final var windows = snapshot.windows();
+      final var windowCount = windows.size();
+      for (int index = 0; index < windowCount; ++index) {
+        final var window = windows.get(index);
+        final var bounds = window.bounds();
+        final var clip = window.clip();
 
-      this.nodeRenderer.renderNode(g, renderNode);
+        final var primitives =
+          this.windowBatchBegin(
+            g,
+            bounds.minimumX(),
+            bounds.minimumY(),
+            clip.minimumX(),
+            clip.minimumY(),
+            clip.maximumX(),
+            clip.maximumY()
+          );
 
-      final var children =
-        node.childrenReadable();
-
-      for (final var child : children) {
-        this.renderComponent(g, gui, child);
+        final var nodes = window.nodes();
+        final var nodeCount = nodes.size();
+        for (int n = 0; n < nodeCount; ++n) {
+          final var node = nodes.get(n);
+          primitives.add(
+            node.node(),
+            node.originX(),
+            node.originY(),
+            node.clipMinX(),
+            node.clipMinY(),
+            node.clipMaxX(),
+            node.clipMaxY()
+          );
+        }
+        primitives.flush(g, this.nodeRenderer);
       }
     } finally {
       g.setTransform(oldTransform);
@@ -128,6 +293,25 @@ public final class SyAWTRenderer implements SyRendererType
     }
   }
 
+  private SyAWTRenderBatch windowBatchBegin(
+    final Graphics2D g,
+    final int windowX,
+    final int windowY,
+    final int clipMinX,
+    final int clipMinY,
+    final int clipMaxX,
+    final int clipMaxY)
+  {
+    g.setTransform(AffineTransform.getTranslateInstance(windowX, windowY));
+    g.setClip(clipMinX, clipMinY, clipMaxX - clipMinX, clipMaxY - clipMinY);
+
+    final var primitives = this.batch;
+    primitives.begin(clipMinX, clipMinY, clipMaxX, clipMaxY);
+    primitives.setRectanglesBatched(
+      !this.nodeRenderer.isDebugBoundsRendering());
+    return primitives;
+  }
+
   private static final class ThemeContext implements SyThemeContextType
   {
     private final SyServiceDirectoryReadableType services;
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.text.SyFontDescription;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>A compact display list produced by a {@link SyDisplayListEncoder}.</p>
+ *
+ * <p>A display list consists of a flat array of integer code words
+ * (opcodes followed by their operands, with colors packed into single
+ * ARGB words) along with tables of the strings, fonts, images, and rasters
+ * that the code refers to by index. Display lists are immutable, and two display
+ * lists are equal if they would produce the same output; comparing the
+ * display lists of successive frames is a cheap way to determine whether
+ * anything on the screen has changed.</p>
+ */
+
+public final class SyDisplayList
+{
+  static final int OP_WINDOW = 1;
+  static final int OP_CLIP = 2;
+  static final int OP_ORIGIN = 3;
+  static final int OP_RECTANGLE_FILL = 4;
+  static final int OP_RECTANGLE_EDGE = 5;
+  static final int OP_POLYGON_FILL = 6;
+  static final int OP_POLYGON_EDGE = 7;
+  static final int OP_TEXT = 8;
+  static final int OP_IMAGE = 9;
+  static final int OP_RASTER = 10;
+  static final int OP_IMAGE_TILED = 11;
+
+  static final int PAINT_FLAT = 1;
+  static final int PAINT_GRADIENT_LINEAR = 2;
+
+  private final int[] code;
+  private final List<String> strings;
+  private final List<SyFontDescription> fonts;
+  private final List<URI> images;
+  private final List<SyRaster> rasters;
+
+  SyDisplayList(
+    final int[] inCode,
+    final List<String> inStrings,
+    final List<SyFontDescription> inFonts,
+    final List<URI> inImages,
+    final List<SyRaster> inRasters)
+  {
+    this.code =
+      Objects.requireNonNull(inCode, "code");
+    this.strings =
+      List.copyOf(inStrings);
+    this.fonts =
+      List.copyOf(inFonts);
+    this.images =
+      List.copyOf(inImages);
+    this.rasters =
+      List.copyOf(inRasters);
+  }
+
+  /**
+   * @return The number of code words in the display list
+   */
+
+  public int codeSize()
+  {
+    return this.code.length;
+  }
+
+  /**
+   * @return The interned strings referenced by the display list
+   */
+
+  public List<String> strings()
+  {
+    return this.strings;
+  }
+
+  /**
+   * @return The interned fonts referenced by the display list
+   */
+
+  public List<SyFontDescription> fonts()
+  {
+    return this.fonts;
+  }
+
+  /**
+   * @return The interned images referenced by the display list
+   */
+
+  public List<URI> images()
+  {
+    return this.images;
+  }
+
+  /**
+   * @return The interned rasters referenced by the display list
+   */
+
+  public List<SyRaster> rasters()
+  {
+    return this.rasters;
+  }
+
+  int codeAt(
+    final int index)
+  {
+    return this.code[index];
+  }
+
+  @Override
+  public boolean equals(
+    final Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || !this.getClass().equals(o.getClass())) {
+      return false;
+    }
+    final var that = (SyDisplayList) o;
+    return Arrays.equals(this.code, that.code)
+           && this.strings.equals(that.strings)
+           && this.fonts.equals(that.fonts)
+           && this.images.equals(that.images)
+           && this.rasters.equals(that.rasters);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(
+      Integer.valueOf(Arrays.hashCode(this.code)),
+      this.strings,
+      this.fonts,
+      this.images,
+      this.rasters
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[SyDisplayList %d words, %d strings, %d fonts, %d images, %d rasters]",
+      Integer.valueOf(this.code.length),
+      Integer.valueOf(this.strings.size()),
+      Integer.valueOf(this.fonts.size()),
+      Integer.valueOf(this.images.size()),
+      Integer.valueOf(this.rasters.size())
+    );
+  }
+}
@@ -0,0 +1,488 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jsycamore.api.rendering.SyPaintEdgeType;
+import com.io7m.jsycamore.api.rendering.SyPaintFillType;
+import com.io7m.jsycamore.api.rendering.SyPaintFlat;
+import com.io7m.jsycamore.api.rendering.SyPaintGradientLinear;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeComposite;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeImage;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeImageTiled;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRenderNodePrimitiveType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeShape;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeSinkType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeText;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
+import com.io7m.jsycamore.api.rendering.SyShapeComposite;
+import com.io7m.jsycamore.api.rendering.SyShapePolygon;
+import com.io7m.jsycamore.api.rendering.SyShapeRectangle;
+import com.io7m.jsycamore.api.text.SyFontDescription;
+import com.io7m.junreachable.UnimplementedCodeException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_CLIP;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_IMAGE;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_IMAGE_TILED;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_ORIGIN;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_POLYGON_EDGE;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_POLYGON_FILL;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_RASTER;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_RECTANGLE_EDGE;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_RECTANGLE_FILL;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_TEXT;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_WINDOW;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.PAINT_FLAT;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.PAINT_GRADIENT_LINEAR;
+
+/**
+ * <p>An encoder that flattens the render nodes of a frame into a
+ * {@link SyDisplayList}.</p>
+ *
+ * <p>Primitives are encoded in the order in which they are received. The
+ * clip region and origin are only encoded when they change. Strings, fonts,
+ * images, and rasters are interned, so the same frame always produces an
+ * equal display list. Rasters are encoded along with their current version,
+ * so a frame in which a raster has changed does not compare equal to an
+ * earlier frame. Encoders are not thread-safe, and are intended to be reused
+ * between frames.</p>
+ */
+
+public final class SyDisplayListEncoder implements SyRenderNodeSinkType
+{
+  private final ArrayList<String> strings;
+  private final Map<String, Integer> stringIndices;
+  private final ArrayList<SyFontDescription> fonts;
+  private final Map<SyFontDescription, Integer> fontIndices;
+  private final ArrayList<URI> images;
+  private final Map<URI, Integer> imageIndices;
+  private final ArrayList<SyRaster> rasters;
+  private final Map<SyRaster, Integer> rasterIndices;
+  private int[] code;
+  private int size;
+  private int clipMinX;
+  private int clipMinY;
+  private int clipMaxX;
+  private int clipMaxY;
+  private int originX;
+  private int originY;
+
+  /**
+   * An encoder that flattens the render nodes of a frame into a display
+   * list.
+   */
+
+  public SyDisplayListEncoder()
+  {
+    this.strings = new ArrayList<>();
+    this.stringIndices = new HashMap<>();
+    this.fonts = new ArrayList<>();
+    this.fontIndices = new HashMap<>();
+    this.images = new ArrayList<>();
+    this.imageIndices = new HashMap<>();
+    this.rasters = new ArrayList<>();
+    this.rasterIndices = new HashMap<>();
+    this.code = new int[1024];
+  }
+
+  /**
+   * Begin encoding a new frame, discarding anything encoded so far.
+   */
+
+  public void begin()
+  {
+    this.size = 0;
+    this.strings.clear();
+    this.stringIndices.clear();
+    this.fonts.clear();
+    this.fontIndices.clear();
+    this.images.clear();
+    this.imageIndices.clear();
+    this.rasters.clear();
+    this.rasterIndices.clear();
+  }
+
+  /**
+   * Begin encoding a window. Subsequent primitives are encoded relative
+   * to the window.
+   *
+   * @param windowX    The viewport-relative X position of the window
+   * @param windowY    The viewport-relative Y position of the window
+   * @param inClipMinX The window-relative minimum X clip of the window
+   * @param inClipMinY The window-relative minimum Y clip of the window
+   * @param inClipMaxX The window-relative maximum X clip (exclusive)
+   * @param inClipMaxY The window-relative maximum Y clip (exclusive)
+   */
+
+  public void windowBegin(
+    final int windowX,
+    final int windowY,
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    this.emit(OP_WINDOW);
+    this.emit(windowX);
+    this.emit(windowY);
+    this.emit(inClipMinX);
+    this.emit(inClipMinY);
+    this.emit(inClipMaxX);
+    this.emit(inClipMaxY);
+
+    this.clipMinX = inClipMinX;
+    this.clipMinY = inClipMinY;
+    this.clipMaxX = inClipMaxX;
+    this.clipMaxY = inClipMaxY;
+    this.originX = 0;
+    this.originY = 0;
+  }
+
+  /**
+   * Finish encoding the current frame.
+   *
+   * @return The display list
+   */
+
+  public SyDisplayList finish()
+  {
+    return new SyDisplayList(
+      Arrays.copyOf(this.code, this.size),
+      this.strings,
+      this.fonts,
+      this.images,
+      this.rasters
+    );
+  }
+
+  @Override
+  public void add(
+    final SyRenderNodeType node,
+    final int inOriginX,
+    final int inOriginY,
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    switch (node) {
+      case final SyRenderNodeComposite composite -> {
+        final var nodes = composite.nodes();
+        final var count = nodes.size();
+        for (int index = 0; index < count; ++index) {
+          this.add(
+            nodes.get(index),
+            inOriginX,
+            inOriginY,
+            inClipMinX,
+            inClipMinY,
+            inClipMaxX,
+            inClipMaxY
+          );
+        }
+      }
+      case final SyRenderNodeNoop noop -> {
+
+      }
+      case final SyRenderNodePrimitiveType primitive -> {
+        final var position = primitive.position();
+        this.setClip(inClipMinX, inClipMinY, inClipMaxX, inClipMaxY);
+        this.setOrigin(inOriginX + position.x(), inOriginY + position.y());
+        this.encodePrimitive(primitive);
+      }
+    }
+  }
+
+  private void encodePrimitive(
+    final SyRenderNodePrimitiveType primitive)
+  {
+    switch (primitive) {
+      case final SyRenderNodeImage image -> {
+        this.emit(OP_IMAGE);
+        this.emit(image.size().sizeX());
+        this.emit(image.size().sizeY());
+        this.emit(this.internImage(image.image()));
+      }
+      case final SyRenderNodeImageTiled image -> {
+        this.emit(OP_IMAGE_TILED);
+        this.emit(image.size().sizeX());
+        this.emit(image.size().sizeY());
+        this.emit(this.internImage(image.image()));
+      }
+      case final SyRenderNodeNoop noop -> {
+
+      }
+      case final SyRenderNodeRaster raster -> {
+        this.emit(OP_RASTER);
+        this.emit(raster.size().sizeX());
+        this.emit(raster.size().sizeY());
+        this.emit(this.internRaster(raster.raster()));
+        this.emit((int) raster.raster().version());
+        this.emit(raster.scrollX());
+      }
+      case final SyRenderNodeShape shape -> {
+        this.encodeShape(shape);
+      }
+      case final SyRenderNodeText text -> {
+        this.encodeText(text);
+      }
+    }
+  }
+
+  private void encodeText(
+    final SyRenderNodeText text)
+  {
+    final var value = text.text();
+    if (value.value().isEmpty()) {
+      return;
+    }
+
+    final var area = text.boundingArea();
+    this.emit(OP_TEXT);
+    this.emit(text.size().sizeX());
+    this.emit(text.size().sizeY());
+    this.emit(this.internString(value.value()));
+    this.emit(this.internFont(text.font().description()));
+    this.emit(value.direction().ordinal());
+    this.emit(area.minimumX());
+    this.emit(area.minimumY());
+    this.emit(area.sizeX());
+    this.emit(area.sizeY());
+    this.encodeFill(text.fillPaint());
+  }
+
+  private void encodeShape(
+    final SyRenderNodeShape shape)
+  {
+    final var fill = shape.fillPaint();
+    final var edge = shape.edgePaint();
+
+    switch (shape.shape()) {
+      case final SyShapeRectangle<?> rectangle -> {
+        final var area = rectangle.area();
+        if (fill.isPresent()) {
+          this.emit(OP_RECTANGLE_FILL);
+          this.emit(area.minimumX());
+          this.emit(area.minimumY());
+          this.emit(area.sizeX());
+          this.emit(area.sizeY());
+          this.encodeFill(fill.get());
+        }
+        if (edge.isPresent()) {
+          this.emit(OP_RECTANGLE_EDGE);
+          this.emit(area.minimumX());
+          this.emit(area.minimumY());
+          this.emit(area.sizeX());
+          this.emit(area.sizeY());
+          this.encodeEdge(edge.get());
+        }
+      }
+      case final SyShapePolygon<?> polygon -> {
+        if (fill.isPresent()) {
+          this.emit(OP_POLYGON_FILL);
+          this.encodePolygon(polygon);
+          this.encodeFill(fill.get());
+        }
+        if (edge.isPresent()) {
+          this.emit(OP_POLYGON_EDGE);
+          this.encodePolygon(polygon);
+          this.encodeEdge(edge.get());
+        }
+      }
+      case final SyShapeComposite<?> composite -> {
+
+      }
+    }
+  }
+
+  private void encodePolygon(
+    final SyShapePolygon<?> polygon)
+  {
+    final var area = polygon.boundingArea();
+    this.emit(area.minimumX());
+    this.emit(area.minimumY());
+    this.emit(area.sizeX());
+    this.emit(area.sizeY());
+
+    final var points = polygon.points();
+    final var count = points.size();
+    this.emit(count);
+    for (int index = 0; index < count; ++index) {
+      final var point = points.get(index);
+      this.emit(point.x());
+      this.emit(point.y());
+    }
+  }
+
+  private void encodeFill(
+    final SyPaintFillType paint)
+  {
+    switch (paint) {
+      case final SyPaintFlat flat -> {
+        this.encodeFlat(flat);
+      }
+      case final SyPaintGradientLinear linear -> {
+        this.encodeGradientLinear(linear);
+      }
+    }
+  }
+
+  private void encodeEdge(
+    final SyPaintEdgeType paint)
+  {
+    switch (paint) {
+      case final SyPaintFlat flat -> {
+        this.encodeFlat(flat);
+      }
+      case final SyPaintGradientLinear linear -> {
+        throw new UnimplementedCodeException();
+      }
+    }
+  }
+
+  private void encodeFlat(
+    final SyPaintFlat flat)
+  {
+    this.emit(PAINT_FLAT);
+    this.emit(SyAWTNodeRenderer.flatColor(flat).getRGB());
+  }
+
+  private void encodeGradientLinear(
+    final SyPaintGradientLinear linear)
+  {
+    this.emit(PAINT_GRADIENT_LINEAR);
+    this.emitDouble(linear.point0().x());
+    this.emitDouble(linear.point0().y());
+    this.emitDouble(linear.point1().x());
+    this.emitDouble(linear.point1().y());
+
+    final var colors = linear.colors();
+    final var distribution = linear.distribution();
+    final var count = colors.size();
+    this.emit(count);
+    for (int index = 0; index < count; ++index) {
+      this.emit(Float.floatToIntBits(distribution.get(index).floatValue()));
+      this.emit(SyAWTNodeRenderer.color(colors.get(index)).getRGB());
+    }
+  }
+
+  private void setClip(
+    final int inClipMinX,
+    final int inClipMinY,
+    final int inClipMaxX,
+    final int inClipMaxY)
+  {
+    final var clipChanged =
+      inClipMinX != this.clipMinX
+      || inClipMinY != this.clipMinY
+      || inClipMaxX != this.clipMaxX
+      || inClipMaxY != this.clipMaxY;
+
+    if (clipChanged) {
+      this.emit(OP_CLIP);
+      this.emit(inClipMinX);
+      this.emit(inClipMinY);
+      this.emit(inClipMaxX);
+      this.emit(inClipMaxY);
+      this.clipMinX = inClipMinX;
+      this.clipMinY = inClipMinY;
+      this.clipMaxX = inClipMaxX;
+      this.clipMaxY = inClipMaxY;
+    }
+  }
+
+  private void setOrigin(
+    final int x,
+    final int y)
+  {
+    if (x != this.originX || y != this.originY) {
+      this.emit(OP_ORIGIN);
+      this.emit(x);
+      this.emit(y);
+      this.originX = x;
+      this.originY = y;
+    }
+  }
+
+  private int internString(
+    final String value)
+  {
+    return intern(this.strings, this.stringIndices, value);
+  }
+
+  private int internFont(
+    final SyFontDescription value)
+  {
+    return intern(this.fonts, this.fontIndices, value);
+  }
+
+  private int internImage(
+    final URI value)
+  {
+    return intern(this.images, this.imageIndices, value);
+  }
+
+  private int internRaster(
+    final SyRaster value)
+  {
+    return intern(this.rasters, this.rasterIndices, value);
+  }
+
+  private static <T> int intern(
+    final List<T> values,
+    final Map<T, Integer> indices,
+    final T value)
+  {
+    final var existing = indices.get(value);
+    if (existing != null) {
+      return existing.intValue();
+    }
+
+    final var index = values.size();
+    values.add(value);
+    indices.put(value, Integer.valueOf(index));
+    return index;
+  }
+
+  private void emitDouble(
+    final double value)
+  {
+    final var bits = Double.doubleToLongBits(value);
+    this.emit((int) (bits >>> 32));
+    this.emit((int) bits);
+  }
+
+  private void emit(
+    final int word)
+  {
+    if (this.size == this.code.length) {
+      this.code = Arrays.copyOf(this.code, this.code.length * 2);
+    }
+    this.code[this.size] = word;
+    ++this.size;
+  }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.awt.internal;
+
+import com.io7m.jsycamore.api.text.SyTextDirection;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.geom.AffineTransform;
+import java.util.Objects;
+
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_CLIP;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_IMAGE;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_IMAGE_TILED;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_ORIGIN;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_POLYGON_EDGE;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_POLYGON_FILL;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_RASTER;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_RECTANGLE_EDGE;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_RECTANGLE_FILL;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_TEXT;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.OP_WINDOW;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.PAINT_FLAT;
+import static com.io7m.jsycamore.awt.internal.SyDisplayList.PAINT_GRADIENT_LINEAR;
+
+/**
+ * <p>A player that renders {@link SyDisplayList} values to a graphics
+ * context.</p>
+ *
+ * <p>Playing a display list produces the same output as the renderer
+ * that recorded it, without consulting any components or themes. Text and
+ * images are drawn using the fonts and image loader of the given node
+ * renderer. Players are not thread-safe.</p>
+ */
+
+public final class SyDisplayListPlayer
+{
+  private static final SyTextDirection[] TEXT_DIRECTIONS =
+    SyTextDirection.values();
+
+  private final SyAWTNodeRenderer nodeRenderer;
+  private SyDisplayList list;
+  private int pc;
+  private int appliedX;
+  private int appliedY;
+  private int lastColorARGB;
+  private Color lastColor;
+
+  /**
+   * A player that renders display lists to a graphics context.
+   *
+   * @param inNodeRenderer The node renderer used to draw text and images
+   */
+
+  public SyDisplayListPlayer(
+    final SyAWTNodeRenderer inNodeRenderer)
+  {
+    this.nodeRenderer =
+      Objects.requireNonNull(inNodeRenderer, "nodeRenderer");
+  }
+
+  /**
+   * Render the given display list. The transform and clip region of the
+   * graphics context are restored on return.
+   *
+   * @param g           The graphics context
+   * @param displayList The display list
+   */
+
+  public void play(
+    final Graphics2D g,
+    final SyDisplayList displayList)
+  {
+    Objects.requireNonNull(g, "g");
+    this.list = Objects.requireNonNull(displayList, "displayList");
+    this.pc = 0;
+    this.lastColor = null;
+
+    final var oldTransform = g.getTransform();
+    final var oldClip = g.getClip();
+
+    try {
+      this.nodeRenderer.frameBegin();
+      final var size = displayList.codeSize();
+      while (this.pc < size) {
+        this.step(g);
+      }
+    } finally {
+      g.setTransform(oldTransform);
+      g.setClip(oldClip);
+      this.list = null;
+      this.lastColor = null;
+    }
+  }
+
+  private void step(
+    final Graphics2D g)
+  {
+    final var op = this.next();
+    switch (op) {
+      case OP_WINDOW -> this.opWindow(g);
+      case OP_CLIP -> this.opClip(g);
+      case OP_ORIGIN -> this.opOrigin(g);
+      case OP_RECTANGLE_FILL -> this.opRectangle(g, true);
+      case OP_RECTANGLE_EDGE -> this.opRectangle(g, false);
+      case OP_POLYGON_FILL -> this.opPolygon(g, true);
+      case OP_POLYGON_EDGE -> this.opPolygon(g, false);
+      case OP_TEXT -> this.opText(g);
+      case OP_IMAGE -> this.opImage(g);
+      case OP_RASTER -> this.opRaster(g);
+      case OP_IMAGE_TILED -> this.opImageTiled(g);
+      default -> throw new UnreachableCodeException();
+    }
+  }
+
+  private void opWindow(
+    final Graphics2D g)
+  {
+    final var windowX = this.next();
+    final var windowY = this.next();
+    final var clipMinX = this.next();
+    final var clipMinY = this.next();
+    final var clipMaxX = this.next();
+    final var clipMaxY = this.next();
+
+    g.setTransform(AffineTransform.getTranslateInstance(windowX, windowY));
+    g.setClip(clipMinX, clipMinY, clipMaxX - clipMinX, clipMaxY - clipMinY);
+    this.appliedX = 0;
+    this.appliedY = 0;
+    this.nodeRenderer.prepare(g);
+  }
+
+  private void opClip(
+    final Graphics2D g)
+  {
+    final var clipMinX = this.next();
+    final var clipMinY = this.next();
+    final var clipMaxX = this.next();
+    final var clipMaxY = this.next();
+
+    g.setClip(
+      clipMinX - this.appliedX,
+      clipMinY - this.appliedY,
+      Math.max(0, clipMaxX - clipMinX),
+      Math.max(0, clipMaxY - clipMinY)
+    );
+  }
+
+  private void opOrigin(
+    final Graphics2D g)
+  {
+    final var x = this.next();
+    final var y = this.next();
+    g.translate(x - this.appliedX, y - this.appliedY);
+    this.appliedX = x;
+    this.appliedY = y;
+  }
+
+  private void opRectangle(
+    final Graphics2D g,
+    final boolean fill)
+  {
+    final var x = this.next();
+    final var y = this.next();
+    final var w = this.next();
+    final var h = this.next();
+
+    g.setPaint(this.paint(x, y, w, h));
+    if (fill) {
+      g.fillRect(x, y, w, h);
+    } else {
+      g.drawRect(x, y, w, h);
+    }
+  }
+
+  private void opPolygon(
+    final Graphics2D g,
+    final boolean fill)
+  {
+    final var areaX = this.next();
+    final var areaY = this.next();
+    final var areaW = this.next();
+    final var areaH = this.next();
+
+    final var count = this.next();
+    final var xs = new int[count];
+    final var ys = new int[count];
+    for (int index = 0; index < count; ++index) {
+      xs[index] = this.next();
+      ys[index] = this.next();
+    }
+
+    final var polygon = new Polygon(xs, ys, count);
+    g.setPaint(this.paint(areaX, areaY, areaW, areaH));
+    if (fill) {
+      g.fillPolygon(polygon);
+    } else {
+      g.drawPolygon(polygon);
+    }
+  }
+
+  private void opText(
+    final Graphics2D g)
+  {
+    final var sizeX = this.next();
+    final var sizeY = this.next();
+    final var text = this.list.strings().get(this.next());
+    final var font = this.list.fonts().get(this.next());
+    final var direction = TEXT_DIRECTIONS[this.next()];
+    final var areaX = this.next();
+    final var areaY = this.next();
+    final var areaW = this.next();
+    final var areaH = this.next();
+    final var paint = this.paint(areaX, areaY, areaW, areaH);
+
+    this.nodeRenderer.drawText(
+      g, font, text, direction, sizeX, sizeY, paint);
+  }
+
+  private void opImage(
+    final Graphics2D g)
+  {
+    final var sizeX = this.next();
+    final var sizeY = this.next();
+    final var image = this.list.images().get(this.next());
+    this.nodeRenderer.drawImage(g, image, sizeX, sizeY);
+  }
+
+  private void opImageTiled(
+    final Graphics2D g)
+  {
+    final var sizeX = this.next();
+    final var sizeY = this.next();
+    final var image = this.list.images().get(this.next());
+    this.nodeRenderer.drawImageTiled(g, image, sizeX, sizeY);
+  }
+
+  private void opRaster(
+    final Graphics2D g)
+  {
+    final var sizeX = this.next();
+    final var sizeY = this.next();
+    final var raster = this.list.rasters().get(this.next());
+    this.next();
+    final var scrollX = this.next();
+    this.nodeRenderer.drawRaster(g, raster, scrollX, sizeX, sizeY);
+  }
+
+  private Paint paint(
+    final int areaX,
+    final int areaY,
+    final int areaSizeX,
+    final int areaSizeY)
+  {
+    final var kind = this.next();
+    return switch (kind) {
+      case PAINT_FLAT -> this.paintFlat();
+      case PAINT_GRADIENT_LINEAR ->
+        this.paintGradientLinear(areaX, areaY, areaSizeX, areaSizeY);
+      default -> throw new UnreachableCodeException();
+    };
+  }
+
+  private Paint paintFlat()
+  {
+    final var argb = this.next();
+    if (this.lastColor == null || this.lastColorARGB != argb) {
+      this.lastColor = new Color(argb, true);
+      this.lastColorARGB = argb;
+    }
+    return this.lastColor;
+  }
+
+  private Paint paintGradientLinear(
+    final int areaX,
+    final int areaY,
+    final int areaSizeX,
+    final int areaSizeY)
+  {
+    final var p0x = this.nextDouble();
+    final var p0y = this.nextDouble();
+    final var p1x = this.nextDouble();
+    final var p1y = this.nextDouble();
+
+    final var count = this.next();
+    final var fractions = new float[count];
+    final var colors = new Color[count];
+    for (int index = 0; index < count; ++index) {
+      fractions[index] = Float.intBitsToFloat(this.next());
+      colors[index] = new Color(this.next(), true);
+    }
+
+    return SyAWTNodeRenderer.gradientPaint(
+      areaX,
+      areaY,
+      areaSizeX,
+      areaSizeY,
+      p0x,
+      p0y,
+      p1x,
+      p1y,
+      fractions,
+      colors
+    );
+  }
+
+  private double nextDouble()
+  {
+    final var high = (long) this.next();
+    final var low = (long) this.next() & 0xffffffffL;
+    return Double.longBitsToDouble((high << 32) | low);
+  }
+
+  private int next()
+  {
+    final var word = this.list.codeAt(this.pc);
+    ++this.pc;
+    return word;
+  }
+}
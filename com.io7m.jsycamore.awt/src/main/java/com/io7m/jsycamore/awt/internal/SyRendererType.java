@@ -40,4 +40,26 @@ public interface SyRendererType
     Graphics2D g,
     SyScreenType screen,
     SyWindowType window);
+
+  /**
+   * Render all the visible windows on the given screen, in depth order, such
+   * that windows nearer to the viewer are rendered over the top of windows
+   * further away. Implementations may skip windows that cannot contribute
+   * to the final image.
+   *
+   * @param g      The graphics context
+   * @param screen The screen
+   */
+
+  default void render(
+    final Graphics2D g,
+    final SyScreenType screen)
+  {
+    final var windows =
+      screen.windowService().windowsVisibleOrdered();
+
+    for (int index = windows.size() - 1; index >= 0; --index) {
+      this.render(g, screen, windows.get(index));
+    }
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard;
+
+import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jsycamore.api.components.SyCanvasType;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+
+/**
+ * A canvas displaying an application-owned raster.
+ */
+
+public final class SyCanvas
+  extends SyComponentAbstract implements SyCanvasType
+{
+  private final AttributeType<Optional<SyRaster>> raster;
+
+  /**
+   * A canvas displaying an application-owned raster.
+   *
+   * @param inScreen            The screen that owns the component
+   * @param inThemeClassesExtra The extra theme classes, if any
+   */
+
+  public SyCanvas(
+    final SyScreenType inScreen,
+    final List<SyThemeClassNameType> inThemeClassesExtra)
+  {
+    super(
+      inScreen,
+      inThemeClassesExtra,
+      SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
+    );
+    final var attributes = SyComponentAttributes.get();
+    this.raster = attributes.create(Optional.empty());
+  }
+
+  /**
+   * A canvas displaying an application-owned raster.
+   *
+   * @param inScreen The screen that owns the component
+   */
+
+  @ConvenienceConstructor
+  public SyCanvas(final SyScreenType inScreen)
+  {
+    this(inScreen, List.of());
+  }
+
+  @Override
+  protected SyEventConsumed onEventInput(
+    final SyEventInputType event)
+  {
+    return EVENT_NOT_CONSUMED;
+  }
+
+  @Override
+  public AttributeType<Optional<SyRaster>> raster()
+  {
+    return this.raster;
+  }
+}
@@ -49,6 +49,7 @@ import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 
 import static com.io7m.jsycamore.api.active.SyActive.ACTIVE;
+import static com.io7m.jsycamore.api.active.SyActive.INACTIVE;
 import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_CONSUMED;
 import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
 import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_VISIBLE;
@@ -71,8 +72,10 @@ public abstract class SyComponentAbstract implements SyComponentType
   private final SyScreenType screen;
   private volatile boolean mouseOver;
   private volatile boolean mouseAcceptQuery = true;
+  private volatile boolean mouseMoveSubscribed;
   private Optional<SyWindowType> window;
   private final AttributeType<SyKeyboardFocusBehavior> focusBehavior;
+  private SyComponentType parentCached;
 
   /**
    * A convenient abstract implementation of a component, to make it easier to
@@ -112,12 +115,33 @@ public abstract class SyComponentAbstract implements SyComponentType
       attributes.create(PAreaSizeI.of(Integer.MAX_VALUE, Integer.MAX_VALUE));
     this.position =
       attributes.create(PVector2I.of(0, 0));
+
+    /*
+     * The tree consults the detach check whenever the node is about to
+     * leave its parent, including when the node is moved directly to a new
+     * parent. The check is therefore also used to tell the window that is
+     * losing the component that its tree has changed, and to discard the
+     * cached parent.
+     */
+
     this.node =
-      JOTreeNode.createWithDetachCheck(this, inNodeDetachCheck);
+      JOTreeNode.createWithDetachCheck(this, () -> {
+        final var allowed = inNodeDetachCheck.getAsBoolean();
+        if (allowed) {
+          this.onComponentTreeChanged();
+        }
+        this.parentCached = null;
+        return allowed;
+      });
     this.window =
       Optional.empty();
     this.focusBehavior =
       attributes.create(inFocusBehavior);
+    this.focusBehavior.subscribe((oldValue, newValue) -> {
+      if (oldValue != newValue) {
+        this.onComponentTreeChanged();
+      }
+    });
   }
 
   @ConvenienceConstructor
@@ -136,6 +160,47 @@ public abstract class SyComponentAbstract implements SyComponentType
     return (JOTreeNodeType<TR>) o;
   }
 
+  /*
+   * Return the parent of the given component, or null if there isn't one.
+   * The parents of abstract components are cached, because asking the tree
+   * node allocates an Optional each time.
+   */
+
+  private static SyComponentType parentOf(
+    final SyComponentType component)
+  {
+    if (component instanceof final SyComponentAbstract componentAbstract) {
+      return componentAbstract.parentOrNull();
+    }
+
+    final var parentOpt = component.node().parent();
+    if (parentOpt.isPresent()) {
+      return parentOpt.get().value();
+    }
+    return null;
+  }
+
+  private SyComponentType parentOrNull()
+  {
+    final var cached = this.parentCached;
+    if (cached != null) {
+      return cached;
+    }
+
+    /*
+     * Only a present parent is cached. A component without a parent only
+     * gains one by being attached, and the empty Optional is not allocated.
+     */
+
+    final var parentOpt = this.node.parent();
+    if (parentOpt.isPresent()) {
+      final var parent = parentOpt.get().value();
+      this.parentCached = parent;
+      return parent;
+    }
+    return null;
+  }
+
   private static boolean isOverlappingComponent(
     final int viewportMinX,
     final int viewportMinY,
@@ -205,6 +270,19 @@ public abstract class SyComponentAbstract implements SyComponentType
     this.mouseAcceptQuery = accepting;
   }
 
+  @Override
+  public final boolean isMouseMoveSubscribed()
+  {
+    return this.mouseMoveSubscribed;
+  }
+
+  @Override
+  public final void setMouseMoveSubscribed(
+    final boolean subscribed)
+  {
+    this.mouseMoveSubscribed = subscribed;
+  }
+
   @Override
   public final boolean isMouseOver()
   {
@@ -232,12 +310,23 @@ public abstract class SyComponentAbstract implements SyComponentType
   @Override
   public final Optional<SyWindowType> window()
   {
-    final var parentOpt =
-      this.node.parent();
-    if (parentOpt.isEmpty()) {
-      return this.window;
+    /*
+     * The window is held by the root of the tree. The root is found with
+     * a loop over the cached parents rather than by recursion, and so
+     * finding the window does not allocate.
+     */
+
+    SyComponentType root = this;
+    var parent = parentOf(root);
+    while (parent != null) {
+      root = parent;
+      parent = parentOf(root);
     }
-    return parentOpt.get().value().window();
+
+    if (root instanceof final SyComponentAbstract rootAbstract) {
+      return rootAbstract.window;
+    }
+    return root.window();
   }
 
   @Override
@@ -267,13 +356,64 @@ public abstract class SyComponentAbstract implements SyComponentType
   @Override
   public final SyEventConsumed eventSend(
     final SyEventInputType event)
+  {
+    /*
+     * Deliver the event to this component and then, for as long as the
+     * event remains unconsumed, to each ancestor in turn. The ancestors are
+     * visited with a loop rather than by recursion so that deep component
+     * trees do not produce deep stacks.
+     *
+     * A component is active only if all of its ancestors are active. Rather
+     * than having each component on the path walk back up to the root to
+     * find out, the distance to the most distant inactive component on the
+     * path is found once, up front.
+     */
+
+    final var inactiveDistance = this.inactiveDistance();
+
+    SyComponentType target = this;
+    int distance = 0;
+    while (target instanceof final SyComponentAbstract component) {
+      final var consumed =
+        component.eventReceive(event, distance > inactiveDistance);
+      if (consumed == EVENT_CONSUMED) {
+        return EVENT_CONSUMED;
+      }
+
+      target = component.parentOrNull();
+      if (target == null) {
+        return EVENT_NOT_CONSUMED;
+      }
+      ++distance;
+    }
+    return target.eventSend(event);
+  }
+
+  private int inactiveDistance()
+  {
+    int inactiveDistance = -1;
+    int distance = 0;
+    SyComponentType current = this;
+    while (current != null) {
+      if (current.activity().get() == INACTIVE) {
+        inactiveDistance = distance;
+      }
+      current = parentOf(current);
+      ++distance;
+    }
+    return inactiveDistance;
+  }
+
+  private SyEventConsumed eventReceive(
+    final SyEventInputType event,
+    final boolean active)
   {
     /*
      * Only deliver the event to this component if it is active.
      */
 
     SyEventConsumed consumed = EVENT_CONSUMED;
-    if (this.isActive()) {
+    if (active) {
       consumed = this.onEventInput(event);
     }
 
@@ -289,19 +429,6 @@ public abstract class SyComponentAbstract implements SyComponentType
       this.setMouseOver(false);
     }
 
-    /*
-     * If this component didn't consume the event, try to deliver it to
-     * the parent component instead.
-     */
-
-    if (consumed == EVENT_NOT_CONSUMED) {
-      final var parentOpt = this.node.parent();
-      if (parentOpt.isPresent()) {
-        final SyComponentType parent = parentOpt.get().value();
-        return parent.eventSend(event);
-      }
-    }
-
     return consumed;
   }
 
@@ -326,59 +453,94 @@ public abstract class SyComponentAbstract implements SyComponentType
     Objects.requireNonNull(context, "context");
     Objects.requireNonNull(query, "query");
 
+    return Optional.ofNullable(
+      this.componentAtWindowRelative(
+        windowPosition.x(),
+        windowPosition.y(),
+        context.minimumX(),
+        context.minimumY(),
+        query
+      )
+    );
+  }
+
+  @Override
+  public final SyComponentType componentAtWindowRelative(
+    final int targetX,
+    final int targetY,
+    final int originX,
+    final int originY,
+    final SyComponentQuery query)
+  {
     /*
      * If this component is invisible, then none of the children are
      * visible either and so there's no point returning them.
      */
 
     if (!this.isVisible()) {
-      return Optional.empty();
+      return null;
     }
+    return this.componentAtWindowRelativeVisible(
+      targetX, targetY, originX, originY, query);
+  }
 
-    try {
-      context.accumulate(this.boundingArea());
-
-      final var minimumX = context.minimumX();
-      final var minimumY = context.minimumY();
-      final var maximumX = context.maximumX();
-      final var maximumY = context.maximumY();
-      final var targetX = windowPosition.x();
-      final var targetY = windowPosition.y();
-
-      if (isOverlappingComponent(
-        minimumX,
-        minimumY,
-        maximumX,
-        maximumY,
-        targetX,
-        targetY)) {
-
-        final var children = this.node.children();
-        for (final var childNode : children) {
-          final var child =
-            childNode.value();
-          final var childOpt =
-            child.componentForWindowRelative(windowPosition, context, query);
-          if (childOpt.isPresent()) {
-            return childOpt;
-          }
-        }
+  /*
+   * Find the component under the given position, assuming that this
+   * component's ancestors are visible. Visibility is therefore established
+   * once per level on the way down, rather than by having every component
+   * walk back up to the root.
+   */
 
-        return switch (query) {
-          case FIND_SPATIALLY -> Optional.of(this);
-          case FIND_FOR_MOUSE_CURSOR -> {
-            if (this.isMouseQueryAccepting()) {
-              yield Optional.of(this);
-            }
-            yield Optional.empty();
-          }
-        };
-      }
+  private SyComponentType componentAtWindowRelativeVisible(
+    final int targetX,
+    final int targetY,
+    final int originX,
+    final int originY,
+    final SyComponentQuery query)
+  {
+    if (!this.isVisibleIfAncestorsVisible()) {
+      return null;
+    }
 
-      return Optional.empty();
-    } finally {
-      context.restore();
+    final var currentPosition = this.position.get();
+    final var currentSize = this.size.get();
+    final var minimumX = Math.addExact(originX, currentPosition.x());
+    final var minimumY = Math.addExact(originY, currentPosition.y());
+    final var maximumX = Math.addExact(minimumX, currentSize.sizeX());
+    final var maximumY = Math.addExact(minimumY, currentSize.sizeY());
+
+    if (!isOverlappingComponent(
+      minimumX,
+      minimumY,
+      maximumX,
+      maximumY,
+      targetX,
+      targetY)) {
+      return null;
     }
+
+    final var children = this.node.children();
+    final var childCount = children.size();
+    for (int index = 0; index < childCount; ++index) {
+      final var child =
+        children.get(index).value();
+      final SyComponentType found;
+      if (child instanceof final SyComponentAbstract childAbstract) {
+        found = childAbstract.componentAtWindowRelativeVisible(
+          targetX, targetY, minimumX, minimumY, query);
+      } else {
+        found = child.componentAtWindowRelative(
+          targetX, targetY, minimumX, minimumY, query);
+      }
+      if (found != null) {
+        return found;
+      }
+    }
+
+    return switch (query) {
+      case FIND_SPATIALLY -> this;
+      case FIND_FOR_MOUSE_CURSOR -> this.isMouseQueryAccepting() ? this : null;
+    };
   }
 
   @Override
@@ -18,6 +18,7 @@
 package com.io7m.jsycamore.components.standard;
 
 import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jsycamore.api.components.SyImageViewScaling;
 import com.io7m.jsycamore.api.components.SyImageViewType;
 import com.io7m.jsycamore.api.events.SyEventConsumed;
 import com.io7m.jsycamore.api.events.SyEventInputType;
@@ -39,6 +40,7 @@ public final class SyImageView
   extends SyComponentAbstract implements SyImageViewType
 {
   private final AttributeType<Optional<URI>> imageURI;
+  private final AttributeType<SyImageViewScaling> scaling;
 
   /**
    * An image view.
@@ -58,6 +60,7 @@ public final class SyImageView
     );
     final var attributes = SyComponentAttributes.get();
     this.imageURI = attributes.create(Optional.empty());
+    this.scaling = attributes.create(SyImageViewScaling.IMAGE_SCALED);
   }
 
   /**
@@ -84,4 +87,10 @@ public final class SyImageView
   {
     return this.imageURI;
   }
+
+  @Override
+  public AttributeType<SyImageViewScaling> scaling()
+  {
+    return this.scaling;
+  }
 }
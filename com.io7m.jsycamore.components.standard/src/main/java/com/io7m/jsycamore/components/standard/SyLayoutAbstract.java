@@ -16,14 +16,24 @@
 
 package com.io7m.jsycamore.components.standard;
 
+import com.io7m.jattribute.core.AttributeType;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyConstraints;
 import com.io7m.jsycamore.api.components.SyContainerType;
 import com.io7m.jsycamore.api.events.SyEventConsumed;
 import com.io7m.jsycamore.api.events.SyEventInputType;
 import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
 
 import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
 
@@ -35,6 +45,16 @@ public abstract class SyLayoutAbstract
   extends SyComponentAbstract
   implements SyContainerType
 {
+  /**
+   * The parallel layout threshold value that disables parallel layout.
+   */
+
+  public static final int PARALLEL_LAYOUT_DISABLED = Integer.MAX_VALUE;
+
+  private final AttributeType<Integer> parallelLayoutThreshold;
+  private final ArrayList<SyComponentType> childrenVisibleList;
+  private PAreaSizeI<SySpaceParentRelativeType>[] childSizes;
+
   protected SyLayoutAbstract(
     final SyScreenType inScreen,
     final List<SyThemeClassNameType> inThemeClassesExtra)
@@ -46,6 +66,243 @@ public abstract class SyLayoutAbstract
       SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
     );
     this.setMouseQueryAccepting(false);
+    this.parallelLayoutThreshold =
+      SyComponentAttributes.get().create(PARALLEL_LAYOUT_DISABLED);
+    this.childrenVisibleList =
+      new ArrayList<>();
+    this.childSizes =
+      newSizeArray(0);
+  }
+
+  /**
+   * The number of visible children at or above which the children of this
+   * container are laid out in parallel on the layout pool (see
+   * {@link SyLayoutContextType#layoutPool()}). Below the threshold, children
+   * are laid out sequentially on the calling thread. The result of a layout
+   * operation is identical either way, but parallel layout requires that the
+   * children only modify their own subtrees when laid out. The default value
+   * is {@link #PARALLEL_LAYOUT_DISABLED}.
+   *
+   * @return The parallel layout threshold
+   */
+
+  public final AttributeType<Integer> parallelLayoutThreshold()
+  {
+    return this.parallelLayoutThreshold;
+  }
+
+  /**
+   * Collect the visible children of this container into a list owned by the
+   * container. The list is reused on every call, and so this does not
+   * allocate once the list has grown to the number of children. The
+   * returned list is only valid until the next call.
+   *
+   * @return The visible children, in child order
+   *
+   * @see SyComponentType#collectChildrenVisible(List)
+   */
+
+  protected final List<SyComponentType> childrenVisible()
+  {
+    return this.collectChildrenVisible(this.childrenVisibleList);
+  }
+
+  /**
+   * Lay out the given children, each with the given constraints. If the
+   * number of children meets the parallel layout threshold, the children are
+   * laid out in parallel. The size returned by each child can be retrieved
+   * afterwards with {@link #childSize(int)}.
+   *
+   * @param layoutContext The layout context
+   * @param children      The children
+   * @param constraints   The constraints for every child
+   *
+   * @see #parallelLayoutThreshold()
+   */
+
+  protected final void layoutChildren(
+    final SyLayoutContextType layoutContext,
+    final List<SyComponentType> children,
+    final SyConstraints constraints)
+  {
+    Objects.requireNonNull(constraints, "constraints");
+    this.layoutChildrenWith(layoutContext, children, constraints, null);
+  }
+
+  /**
+   * Lay out the given children, each with the constraints that the given
+   * function returns for its index. If the number of children meets the
+   * parallel layout threshold, the children are laid out in parallel, and
+   * the function may be called from several threads at once; it should only
+   * read values that were computed before this method was called. The size
+   * returned by each child can be retrieved afterwards with
+   * {@link #childSize(int)}.
+   *
+   * <p>Containers should retain the function in a field rather than passing
+   * a new lambda on each layout pass, so that layout does not allocate.</p>
+   *
+   * @param layoutContext The layout context
+   * @param children      The children
+   * @param constraints   A function from child indices to constraints
+   *
+   * @see #parallelLayoutThreshold()
+   */
+
+  protected final void layoutChildren(
+    final SyLayoutContextType layoutContext,
+    final List<SyComponentType> children,
+    final IntFunction<SyConstraints> constraints)
+  {
+    Objects.requireNonNull(constraints, "constraints");
+    this.layoutChildrenWith(layoutContext, children, null, constraints);
+  }
+
+  private void layoutChildrenWith(
+    final SyLayoutContextType layoutContext,
+    final List<SyComponentType> children,
+    final SyConstraints constraintsAll,
+    final IntFunction<SyConstraints> constraintsEach)
+  {
+    final var childCount = children.size();
+    if (this.childSizes.length < childCount) {
+      this.childSizes = newSizeArray(childCount);
+    }
+
+    if (childCount < this.parallelLayoutThreshold.get().intValue()) {
+      for (int index = 0; index < childCount; ++index) {
+        this.layoutChild(
+          layoutContext, children, constraintsAll, constraintsEach, index);
+      }
+    } else {
+      final var pool = layoutContext.layoutPool();
+      final var grain =
+        Math.max(1, childCount / (pool.getParallelism() * 4));
+
+      pool.invoke(
+        new ChildLayoutAction(
+          this,
+          layoutContext,
+          children,
+          constraintsAll,
+          constraintsEach,
+          grain,
+          0,
+          childCount
+        )
+      );
+    }
+  }
+
+  /**
+   * @param index The child index
+   *
+   * @return The size returned by the child at the given index during the most
+   * recent call to one of the {@code layoutChildren} methods
+   */
+
+  protected final PAreaSizeI<SySpaceParentRelativeType> childSize(
+    final int index)
+  {
+    return this.childSizes[index];
+  }
+
+  private void layoutChild(
+    final SyLayoutContextType layoutContext,
+    final List<SyComponentType> children,
+    final SyConstraints constraintsAll,
+    final IntFunction<SyConstraints> constraintsEach,
+    final int index)
+  {
+    final var constraints =
+      constraintsAll != null ? constraintsAll : constraintsEach.apply(index);
+
+    this.childSizes[index] =
+      children.get(index).layout(layoutContext, constraints);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static PAreaSizeI<SySpaceParentRelativeType>[] newSizeArray(
+    final int count)
+  {
+    return (PAreaSizeI<SySpaceParentRelativeType>[]) new PAreaSizeI<?>[count];
+  }
+
+  /**
+   * A task that lays out a range of children, splitting the range in half
+   * until it is no larger than the grain size. Each child writes only to its
+   * own slot in the result array, so the result does not depend on the order
+   * in which tasks execute.
+   */
+
+  private static final class ChildLayoutAction extends RecursiveAction
+  {
+    private final SyLayoutAbstract owner;
+    private final SyLayoutContextType layoutContext;
+    private final List<SyComponentType> children;
+    private final SyConstraints constraintsAll;
+    private final IntFunction<SyConstraints> constraintsEach;
+    private final int grain;
+    private final int start;
+    private final int end;
+
+    ChildLayoutAction(
+      final SyLayoutAbstract inOwner,
+      final SyLayoutContextType inLayoutContext,
+      final List<SyComponentType> inChildren,
+      final SyConstraints inConstraintsAll,
+      final IntFunction<SyConstraints> inConstraintsEach,
+      final int inGrain,
+      final int inStart,
+      final int inEnd)
+    {
+      this.owner = inOwner;
+      this.layoutContext = inLayoutContext;
+      this.children = inChildren;
+      this.constraintsAll = inConstraintsAll;
+      this.constraintsEach = inConstraintsEach;
+      this.grain = inGrain;
+      this.start = inStart;
+      this.end = inEnd;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.end - this.start <= this.grain) {
+        for (int index = this.start; index < this.end; ++index) {
+          this.owner.layoutChild(
+            this.layoutContext,
+            this.children,
+            this.constraintsAll,
+            this.constraintsEach,
+            index
+          );
+        }
+        return;
+      }
+
+      final var middle = (this.start + this.end) >>> 1;
+      invokeAll(
+        new ChildLayoutAction(
+          this.owner,
+          this.layoutContext,
+          this.children,
+          this.constraintsAll,
+          this.constraintsEach,
+          this.grain,
+          this.start,
+          middle),
+        new ChildLayoutAction(
+          this.owner,
+          this.layoutContext,
+          this.children,
+          this.constraintsAll,
+          this.constraintsEach,
+          this.grain,
+          middle,
+          this.end)
+      );
+    }
   }
 
   @Override
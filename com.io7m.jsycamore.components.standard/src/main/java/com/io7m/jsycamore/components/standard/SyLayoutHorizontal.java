@@ -23,10 +23,10 @@ import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import static com.io7m.jsycamore.components.standard.SyAlignmentVertical.ALIGN_VERTICAL_CENTER;
 import static java.lang.Math.min;
@@ -40,6 +40,10 @@ public final class SyLayoutHorizontal extends SyLayoutAbstract
 {
   private final AttributeType<Integer> paddingBetween;
   private final AttributeType<SyAlignmentVertical> alignVertical;
+  private final IntFunction<SyConstraints> childConstraints;
+  private SyConstraints constraintsEdge;
+  private SyConstraints constraintsInner;
+  private int childCountLaidOut;
 
   /**
    * A simple container that distributes child objects horizontally with a
@@ -54,6 +58,7 @@ public final class SyLayoutHorizontal extends SyLayoutAbstract
     final List<SyThemeClassNameType> themeClasses)
   {
     super(screen, themeClasses);
+    this.childConstraints = this::childConstraintsFor;
     final var attributes = SyComponentAttributes.get();
     this.paddingBetween = attributes.create(0);
     this.alignVertical = attributes.create(ALIGN_VERTICAL_CENTER);
@@ -89,14 +94,8 @@ public final class SyLayoutHorizontal extends SyLayoutAbstract
     Objects.requireNonNull(layoutContext, "layoutContext");
     Objects.requireNonNull(constraints, "constraints");
 
-    final var childNodes =
-      this.node().children();
-
     final var childrenVisible =
-      childNodes.stream()
-        .filter(n -> n.value().isVisible())
-        .toList();
-
+      this.childrenVisible();
     final var childCount =
       childrenVisible.size();
 
@@ -113,6 +112,32 @@ public final class SyLayoutHorizontal extends SyLayoutAbstract
       final var paddingHalf =
         this.paddingBetween.get() / 2;
 
+      /*
+       * The first and last children are padded on one side, and all other
+       * children are padded on both sides. The constraints are retained
+       * between layout passes and only replaced if they change.
+       */
+
+      this.constraintsEdge =
+        SyConstraints.reusing(
+          this.constraintsEdge,
+          0,
+          constraints.sizeMinimumY(),
+          regionSize - paddingHalf,
+          containerSizeY
+        );
+      this.constraintsInner =
+        SyConstraints.reusing(
+          this.constraintsInner,
+          0,
+          constraints.sizeMinimumY(),
+          regionSize - (paddingHalf * 2),
+          containerSizeY
+        );
+      this.childCountLaidOut = childCount;
+      this.layoutChildren(
+        layoutContext, childrenVisible, this.childConstraints);
+
       var offsetX = 0;
       for (int index = 0; index < childCount; ++index) {
         var spaceL = 0;
@@ -126,29 +151,29 @@ public final class SyLayoutHorizontal extends SyLayoutAbstract
           spaceR = paddingHalf;
         }
 
-        final var child = childrenVisible.get(index).value();
+        final var child = childrenVisible.get(index);
         final var shrunkSize = regionSize - (spaceL + spaceR);
 
-        child.layout(layoutContext, new SyConstraints(
-          0,
-          constraints.sizeMinimumY(),
-          shrunkSize,
-          containerSizeY
-        ));
-
         final var childSizeY = child.size().get().sizeY();
         final var offsetY = (containerSizeY / 2) - (childSizeY / 2);
 
         offsetX += spaceL;
-        child.position().set(PVector2I.of(offsetX, offsetY));
+        child.setPosition(offsetX, offsetY);
         offsetX += shrunkSize;
         offsetX += spaceR;
       }
     }
 
-    final PAreaSizeI<SySpaceParentRelativeType> newSize =
-      PAreaSizeI.of(containerSizeX, containerSizeY);
-    this.setSize(newSize);
-    return newSize;
+    this.setSize(containerSizeX, containerSizeY);
+    return this.size().get();
+  }
+
+  private SyConstraints childConstraintsFor(
+    final int index)
+  {
+    if (index == 0 || index + 1 == this.childCountLaidOut) {
+      return this.constraintsEdge;
+    }
+    return this.constraintsInner;
   }
 }
@@ -23,10 +23,10 @@ import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import static java.lang.Math.min;
 
@@ -38,6 +38,10 @@ import static java.lang.Math.min;
 public final class SyLayoutVertical extends SyLayoutAbstract
 {
   private final AttributeType<Integer> paddingBetween;
+  private final IntFunction<SyConstraints> childConstraints;
+  private SyConstraints constraintsEdge;
+  private SyConstraints constraintsInner;
+  private int childCountLaidOut;
 
   /**
    * A simple container that distributes child objects vertically with a
@@ -52,6 +56,7 @@ public final class SyLayoutVertical extends SyLayoutAbstract
     final List<SyThemeClassNameType> themeClasses)
   {
     super(screen, themeClasses);
+    this.childConstraints = this::childConstraintsFor;
     this.paddingBetween = SyComponentAttributes.get().create(0);
   }
 
@@ -86,14 +91,8 @@ public final class SyLayoutVertical extends SyLayoutAbstract
     Objects.requireNonNull(layoutContext, "layoutContext");
     Objects.requireNonNull(constraints, "constraints");
 
-    final var childNodes =
-      this.node().children();
-
     final var childrenVisible =
-      childNodes.stream()
-        .filter(n -> n.value().isVisible())
-        .toList();
-
+      this.childrenVisible();
     final var childCount =
       childrenVisible.size();
 
@@ -110,6 +109,32 @@ public final class SyLayoutVertical extends SyLayoutAbstract
       final var paddingHalf =
         this.paddingBetween.get() / 2;
 
+      /*
+       * The first and last children are padded on one side, and all other
+       * children are padded on both sides. The constraints are retained
+       * between layout passes and only replaced if they change.
+       */
+
+      this.constraintsEdge =
+        SyConstraints.reusing(
+          this.constraintsEdge,
+          constraints.sizeMinimumX(),
+          0,
+          containerSizeX,
+          regionSize - paddingHalf
+        );
+      this.constraintsInner =
+        SyConstraints.reusing(
+          this.constraintsInner,
+          constraints.sizeMinimumX(),
+          0,
+          containerSizeX,
+          regionSize - (paddingHalf * 2)
+        );
+      this.childCountLaidOut = childCount;
+      this.layoutChildren(
+        layoutContext, childrenVisible, this.childConstraints);
+
       var offsetY = 0;
       for (int index = 0; index < childCount; ++index) {
         var spaceT = 0;
@@ -123,25 +148,26 @@ public final class SyLayoutVertical extends SyLayoutAbstract
           spaceB = paddingHalf;
         }
 
-        final var child = childrenVisible.get(index).value();
+        final var child = childrenVisible.get(index);
         final var shrunkSize = regionSize - (spaceT + spaceB);
-        child.layout(layoutContext, new SyConstraints(
-          constraints.sizeMinimumX(),
-          0,
-          containerSizeX,
-          shrunkSize
-        ));
 
         offsetY += spaceT;
-        child.position().set(PVector2I.of(0, offsetY));
+        child.setPosition(0, offsetY);
         offsetY += shrunkSize;
         offsetY += spaceB;
       }
     }
 
-    final PAreaSizeI<SySpaceParentRelativeType> newSize =
-      PAreaSizeI.of(containerSizeX, containerSizeY);
-    this.setSize(newSize);
-    return newSize;
+    this.setSize(containerSizeX, containerSizeY);
+    return this.size().get();
+  }
+
+  private SyConstraints childConstraintsFor(
+    final int index)
+  {
+    if (index == 0 || index + 1 == this.childCountLaidOut) {
+      return this.constraintsEdge;
+    }
+    return this.constraintsInner;
   }
 }
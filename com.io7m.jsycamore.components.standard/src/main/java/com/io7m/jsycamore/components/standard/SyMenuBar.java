@@ -32,6 +32,7 @@ import com.io7m.jsycamore.api.menus.SyMenuBarType;
 import com.io7m.jsycamore.api.menus.SyMenuSelected;
 import com.io7m.jsycamore.api.menus.SyMenuType;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnHeld;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
@@ -279,6 +280,7 @@ public final class SyMenuBar
         }
         case final SyKeyEventType e -> EVENT_NOT_CONSUMED;
         case final SyMouseEventOnHeld e -> EVENT_NOT_CONSUMED;
+        case final SyMouseEventOnMoved e -> EVENT_NOT_CONSUMED;
         case final SyMouseEventOnNoLongerOver e -> EVENT_NOT_CONSUMED;
         case final SyMouseEventOnReleased e -> EVENT_NOT_CONSUMED;
       };
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard;
+
+import com.io7m.jsycamore.api.components.SyMeterType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.internal.meters.SyMeter;
+
+import java.util.List;
+
+/**
+ * Functions to create meters.
+ */
+
+public final class SyMeters
+{
+  private static final int SAMPLE_CAPACITY_DEFAULT = 1024;
+
+  private SyMeters()
+  {
+
+  }
+
+  /**
+   * Create a meter.
+   *
+   * @param screen            The screen that owns the component
+   * @param themeClassesExtra The extra theme classes
+   * @param sampleCapacity    The maximum number of samples that can be
+   *                          submitted between layouts before samples are
+   *                          discarded; must be a power of two
+   *
+   * @return A meter
+   */
+
+  public static SyMeterType create(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClassesExtra,
+    final int sampleCapacity)
+  {
+    return new SyMeter(screen, themeClassesExtra, sampleCapacity);
+  }
+
+  /**
+   * Create a meter.
+   *
+   * @param screen            The screen that owns the component
+   * @param themeClassesExtra The extra theme classes
+   *
+   * @return A meter
+   */
+
+  public static SyMeterType create(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClassesExtra)
+  {
+    return create(screen, themeClassesExtra, SAMPLE_CAPACITY_DEFAULT);
+  }
+
+  /**
+   * Create a meter.
+   *
+   * @param screen The screen that owns the component
+   *
+   * @return A meter
+   */
+
+  public static SyMeterType create(
+    final SyScreenType screen)
+  {
+    return create(screen, List.of());
+  }
+}
@@ -24,7 +24,6 @@ import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.List;
 import java.util.Objects;
@@ -43,6 +42,7 @@ public final class SyPackHorizontal extends SyLayoutAbstract
   private final AttributeType<Integer> paddingBetween;
   private final AttributeType<SyAlignmentVertical> alignVertical;
   private final AttributeType<SyResizeBehaviour> childSizeYBehaviour;
+  private SyConstraints childConstraints;
 
   /**
    * A simple container that distributes child objects horizontally with a
@@ -129,13 +129,8 @@ public final class SyPackHorizontal extends SyLayoutAbstract
     Objects.requireNonNull(layoutContext, "layoutContext");
     Objects.requireNonNull(constraints, "constraints");
 
-    final var childNodes =
-      this.node().children();
-
     final var childrenVisible =
-      childNodes.stream()
-        .filter(n -> n.value().isVisible())
-        .toList();
+      this.childrenVisible();
 
     final var sizeLimit =
       this.sizeUpperLimit().get();
@@ -149,8 +144,9 @@ public final class SyPackHorizontal extends SyLayoutAbstract
     final var padding = this.paddingBetween.get().intValue();
     final var alignV = this.alignVertical.get();
 
-    final var childConstraints =
-      new SyConstraints(
+    this.childConstraints =
+      SyConstraints.reusing(
+        this.childConstraints,
         0,
         switch (this.childSizeYBehaviour.get()) {
           case PRESERVE -> 0;
@@ -160,10 +156,12 @@ public final class SyPackHorizontal extends SyLayoutAbstract
         containerSizeY
       );
 
-    for (final var childNode : childrenVisible) {
-      final var child = childNode.value();
-      child.layout(layoutContext, childConstraints);
+    this.layoutChildren(
+      layoutContext, childrenVisible, this.childConstraints);
 
+    final var childCount = childrenVisible.size();
+    for (int index = 0; index < childCount; ++index) {
+      final var child = childrenVisible.get(index);
       final var childSize = child.size().get();
       final var childSizeY = childSize.sizeY();
       maximumY = Math.max(maximumY, childSizeY);
@@ -174,15 +172,17 @@ public final class SyPackHorizontal extends SyLayoutAbstract
         case ALIGN_VERTICAL_CENTER -> (containerSizeY / 2) - (childSizeY / 2);
       };
 
-      child.position().set(PVector2I.of(offsetX, offsetY));
+      child.setPosition(offsetX, offsetY);
       offsetX += childSize.sizeX();
       offsetX += padding;
     }
 
-    final var totalSize =
-      constraints.<SySpaceParentRelativeType>sizeWithin(offsetX, maximumY);
-
-    this.setSize(totalSize);
-    return totalSize;
+    this.setSize(
+      Math.clamp(
+        offsetX, constraints.sizeMinimumX(), constraints.sizeMaximumX()),
+      Math.clamp(
+        maximumY, constraints.sizeMinimumY(), constraints.sizeMaximumY())
+    );
+    return this.size().get();
   }
 }
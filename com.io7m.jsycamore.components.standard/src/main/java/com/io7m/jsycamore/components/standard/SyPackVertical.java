@@ -24,7 +24,6 @@ import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.List;
 import java.util.Objects;
@@ -43,6 +42,7 @@ public final class SyPackVertical extends SyLayoutAbstract
   private final AttributeType<Integer> paddingBetween;
   private final AttributeType<SyAlignmentHorizontal> alignHorizontal;
   private final AttributeType<SyResizeBehaviour> childSizeXBehaviour;
+  private SyConstraints childConstraints;
 
   /**
    * A simple container that distributes child objects vertically with a
@@ -128,13 +128,8 @@ public final class SyPackVertical extends SyLayoutAbstract
     Objects.requireNonNull(layoutContext, "layoutContext");
     Objects.requireNonNull(constraints, "constraints");
 
-    final var childNodes =
-      this.node().children();
-
     final var childrenVisible =
-      childNodes.stream()
-        .filter(n -> n.value().isVisible())
-        .toList();
+      this.childrenVisible();
 
     final var sizeLimit =
       this.sizeUpperLimit().get();
@@ -148,8 +143,9 @@ public final class SyPackVertical extends SyLayoutAbstract
     final var padding = this.paddingBetween.get().intValue();
     final var alignH = this.alignHorizontal.get();
 
-    final var childConstraints =
-      new SyConstraints(
+    this.childConstraints =
+      SyConstraints.reusing(
+        this.childConstraints,
         switch (this.childSizeXBehaviour.get()) {
           case PRESERVE -> 0;
           case FILL_SPACE -> containerSizeX;
@@ -159,10 +155,13 @@ public final class SyPackVertical extends SyLayoutAbstract
         containerSizeY
       );
 
-    for (final var childNode : childrenVisible) {
-      final var child = childNode.value();
-      final var childSize =
-        child.layout(layoutContext, childConstraints);
+    this.layoutChildren(
+      layoutContext, childrenVisible, this.childConstraints);
+
+    final var childCount = childrenVisible.size();
+    for (int index = 0; index < childCount; ++index) {
+      final var child = childrenVisible.get(index);
+      final var childSize = this.childSize(index);
 
       final var childSizeX = childSize.sizeX();
       maximumX = Math.max(maximumX, childSizeX);
@@ -173,15 +172,17 @@ public final class SyPackVertical extends SyLayoutAbstract
         case ALIGN_HORIZONTAL_CENTER -> (containerSizeY / 2) - (childSizeX / 2);
       };
 
-      child.position().set(PVector2I.of(offsetX, offsetY));
+      child.setPosition(offsetX, offsetY);
       offsetY += childSize.sizeY();
       offsetY += padding;
     }
 
-    final var totalSize =
-      constraints.<SySpaceParentRelativeType>sizeWithin(maximumX, offsetY);
-
-    this.setSize(totalSize);
-    return totalSize;
+    this.setSize(
+      Math.clamp(
+        maximumX, constraints.sizeMinimumX(), constraints.sizeMaximumX()),
+      Math.clamp(
+        offsetY, constraints.sizeMinimumY(), constraints.sizeMaximumY())
+    );
+    return this.size().get();
   }
 }
@@ -34,6 +34,9 @@ import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.CONTAINER;
 
 public final class SySpace extends SyComponentAbstract
 {
+  private static final List<SyThemeClassNameType> THEME_CLASSES =
+    List.of(CONTAINER);
+
   /**
    * An empty space element.
    *
@@ -68,7 +71,7 @@ public final class SySpace extends SyComponentAbstract
   @Override
   public List<SyThemeClassNameType> themeClassesDefaultForComponent()
   {
-    return List.of(CONTAINER);
+    return THEME_CLASSES;
   }
 
   @Override
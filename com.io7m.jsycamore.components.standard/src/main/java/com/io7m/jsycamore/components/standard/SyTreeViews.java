@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard;
+
+import com.io7m.jsycamore.api.components.SyTreeViewType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.internal.treeviews.SyTreeView;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Functions to create tree views.
+ */
+
+public final class SyTreeViews
+{
+  private SyTreeViews()
+  {
+
+  }
+
+  /**
+   * Create a tree view.
+   *
+   * @param screen            The screen that owns the component
+   * @param themeClassesExtra The extra theme classes
+   * @param clock             The clock used to decide when the children
+   *                          of collapsed nodes are discarded
+   *
+   * @return A tree view
+   */
+
+  public static SyTreeViewType create(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClassesExtra,
+    final Clock clock)
+  {
+    return new SyTreeView(screen, themeClassesExtra, clock);
+  }
+
+  /**
+   * Create a tree view.
+   *
+   * @param screen            The screen that owns the component
+   * @param themeClassesExtra The extra theme classes
+   *
+   * @return A tree view
+   */
+
+  public static SyTreeViewType create(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClassesExtra)
+  {
+    return create(screen, themeClassesExtra, Clock.systemUTC());
+  }
+
+  /**
+   * Create a tree view.
+   *
+   * @param screen The screen that owns the component
+   *
+   * @return A tree view
+   */
+
+  public static SyTreeViewType create(
+    final SyScreenType screen)
+  {
+    return create(screen, List.of());
+  }
+}
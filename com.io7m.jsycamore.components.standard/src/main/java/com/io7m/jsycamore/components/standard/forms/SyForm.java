@@ -24,7 +24,6 @@ import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 import com.io7m.jsycamore.components.standard.ConvenienceConstructor;
 import com.io7m.jsycamore.components.standard.SyLayoutAbstract;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.List;
 import java.util.Objects;
@@ -38,6 +37,7 @@ import static java.lang.Math.min;
 public final class SyForm extends SyLayoutAbstract
 {
   private final SyFormColumnsConfiguration columnConfiguration;
+  private SyConstraints childConstraints;
 
   /**
    * A vertical form layout consisting of rows of columns.
@@ -93,13 +93,8 @@ public final class SyForm extends SyLayoutAbstract
     Objects.requireNonNull(layoutContext, "layoutContext");
     Objects.requireNonNull(constraints, "constraints");
 
-    final var childNodes =
-      this.node().children();
-
     final var childrenVisible =
-      childNodes.stream()
-        .filter(n -> n.value().isVisible())
-        .toList();
+      this.childrenVisible();
 
     final var sizeLimit =
       this.sizeUpperLimit().get();
@@ -111,30 +106,36 @@ public final class SyForm extends SyLayoutAbstract
     var maximumX = 0;
     var offsetY = 0;
 
-    final var childConstraints =
-      new SyConstraints(
+    this.childConstraints =
+      SyConstraints.reusing(
+        this.childConstraints,
         containerSizeX,
         0,
         containerSizeX,
         containerSizeY
       );
 
-    for (final var childNode : childrenVisible) {
-      final var child = childNode.value();
-      final var childSize =
-        child.layout(layoutContext, childConstraints);
+    this.layoutChildren(
+      layoutContext, childrenVisible, this.childConstraints);
+
+    final var childCount = childrenVisible.size();
+    for (int index = 0; index < childCount; ++index) {
+      final var child = childrenVisible.get(index);
+      final var childSize = this.childSize(index);
 
       final var childSizeX = childSize.sizeX();
       maximumX = Math.max(maximumX, childSizeX);
 
-      child.position().set(PVector2I.of(0, offsetY));
+      child.setPosition(0, offsetY);
       offsetY += childSize.sizeY();
     }
 
-    final var totalSize =
-      constraints.<SySpaceParentRelativeType>sizeWithin(maximumX, offsetY);
-
-    this.setSize(totalSize);
-    return totalSize;
+    this.setSize(
+      Math.clamp(
+        maximumX, constraints.sizeMinimumX(), constraints.sizeMaximumX()),
+      Math.clamp(
+        offsetY, constraints.sizeMinimumY(), constraints.sizeMaximumY())
+    );
+    return this.size().get();
   }
 }
@@ -18,19 +18,28 @@ package com.io7m.jsycamore.components.standard.forms;
 
 import com.io7m.junreachable.UnimplementedCodeException;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 /**
- * The configuration values for the columns of a form row.
+ * <p>The configuration values for the columns of a form row.</p>
+ *
+ * <p>A configuration is typically shared by all of the rows of a form, and
+ * the rows may be laid out concurrently. Evaluated sizes are therefore
+ * published as a single immutable value.</p>
  */
 
 public final class SyFormColumnsConfiguration
 {
   private final List<SyFormColumnSizeType> sizes;
-  private final ArrayList<Integer> evaluatedSizes;
-  private int evaluatedSizeLast;
+  private volatile Evaluated evaluated;
+
+  private record Evaluated(
+    int sizeX,
+    int[] sizes)
+  {
+
+  }
 
   /**
    * Create a configuration based on the given size constraints.
@@ -44,13 +53,8 @@ public final class SyFormColumnsConfiguration
     this.sizes =
       List.copyOf(Objects.requireNonNull(inSizes, "sizes"));
 
-    this.evaluatedSizes = new ArrayList<>(this.sizes.size());
-    for (int index = 0; index < this.sizes.size(); ++index) {
-      this.evaluatedSizes.add(0);
-    }
-
-    this.evaluatedSizeLast =
-      Integer.MIN_VALUE;
+    this.evaluated =
+      new Evaluated(Integer.MIN_VALUE, new int[this.sizes.size()]);
   }
 
   /**
@@ -79,11 +83,11 @@ public final class SyFormColumnsConfiguration
   public int sizeFor(
     final int index)
   {
-    try {
-      return this.evaluatedSizes.get(index);
-    } catch (final IndexOutOfBoundsException e) {
-      return 0;
+    final var evaluatedSizes = this.evaluated.sizes;
+    if (index >= 0 && index < evaluatedSizes.length) {
+      return evaluatedSizes[index];
     }
+    return 0;
   }
 
   /**
@@ -95,7 +99,7 @@ public final class SyFormColumnsConfiguration
   public void evaluateSizes(
     final int sizeX)
   {
-    if (this.evaluatedSizeLast == sizeX) {
+    if (this.evaluated.sizeX == sizeX) {
       return;
     }
 
@@ -119,17 +123,18 @@ public final class SyFormColumnsConfiguration
       flexible = 0;
     }
 
+    final var evaluatedSizes = new int[this.sizes.size()];
     for (int index = 0; index < this.sizes.size(); ++index) {
       final var size = this.sizes.get(index);
       if (size instanceof SyFormColumnSizeExact exact) {
-        this.evaluatedSizes.set(index, exact.size());
+        evaluatedSizes[index] = exact.size();
       } else if (size instanceof SyFormColumnSizeFlexible) {
-        this.evaluatedSizes.set(index, flexible);
+        evaluatedSizes[index] = flexible;
       } else {
         throw new UnimplementedCodeException();
       }
     }
 
-    this.evaluatedSizeLast = sizeX;
+    this.evaluated = new Evaluated(sizeX, evaluatedSizes);
   }
 }
@@ -25,8 +25,8 @@ import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 import com.io7m.jsycamore.components.standard.ConvenienceConstructor;
 import com.io7m.jsycamore.components.standard.SyLayoutAbstract;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -39,6 +39,7 @@ import static java.lang.Math.min;
 public final class SyFormRow extends SyLayoutAbstract
 {
   private final SyFormColumnsConfiguration configuration;
+  private SyConstraints[] columnConstraints;
 
   /**
    * A row within a form.
@@ -56,6 +57,8 @@ public final class SyFormRow extends SyLayoutAbstract
     super(screen, themeClasses);
     this.configuration =
       Objects.requireNonNull(inConfiguration, "configuration");
+    this.columnConstraints =
+      new SyConstraints[0];
   }
 
   /**
@@ -90,31 +93,34 @@ public final class SyFormRow extends SyLayoutAbstract
     final var containerSizeY =
       min(constraints.sizeMaximumY(), sizeLimit.sizeY());
 
-    int index = 0;
-    var offsetX = 0;
     final var childNodes = this.node().children();
-    for (final var childNode : childNodes) {
+    final var childCount = childNodes.size();
+    if (this.columnConstraints.length < childCount) {
+      this.columnConstraints =
+        Arrays.copyOf(this.columnConstraints, childCount);
+    }
+
+    var offsetX = 0;
+    for (int index = 0; index < childCount; ++index) {
       final var size = this.configuration.sizeFor(index);
 
       final var childConstraints =
-        new SyConstraints(
+        SyConstraints.reusing(
+          this.columnConstraints[index],
           size,
           constraints.sizeMinimumY(),
           size,
           containerSizeY
         );
+      this.columnConstraints[index] = childConstraints;
 
-      final var child = childNode.value();
+      final var child = childNodes.get(index).value();
       child.layout(layoutContext, childConstraints);
-      child.setPosition(PVector2I.of(offsetX, 0));
-
+      child.setPosition(offsetX, 0);
       offsetX += size;
-      ++index;
     }
 
-    final PAreaSizeI<SySpaceParentRelativeType> newSize =
-      PAreaSizeI.of(containerSizeX, containerSizeY);
-    this.setSize(newSize);
-    return newSize;
+    this.setSize(containerSizeX, containerSizeY);
+    return this.size().get();
   }
 }
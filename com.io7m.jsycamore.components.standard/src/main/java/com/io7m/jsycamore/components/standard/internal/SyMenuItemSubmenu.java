@@ -30,6 +30,7 @@ import com.io7m.jsycamore.api.menus.SyMenuItemSubmenuType;
 import com.io7m.jsycamore.api.menus.SyMenuItemType;
 import com.io7m.jsycamore.api.menus.SyMenuType;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnHeld;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
@@ -238,6 +239,9 @@ public final class SyMenuItemSubmenu
       case final SyMouseEventOnHeld e -> {
         yield EVENT_NOT_CONSUMED;
       }
+      case final SyMouseEventOnMoved e -> {
+        yield EVENT_NOT_CONSUMED;
+      }
       case final SyMouseEventOnNoLongerOver e -> {
         yield EVENT_NOT_CONSUMED;
       }
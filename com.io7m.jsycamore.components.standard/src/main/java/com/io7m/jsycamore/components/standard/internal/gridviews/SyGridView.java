@@ -0,0 +1,532 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.gridviews;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.components.SyGridViewCellFactoryType;
+import com.io7m.jsycamore.api.components.SyGridViewDataType;
+import com.io7m.jsycamore.api.components.SyGridViewType;
+import com.io7m.jsycamore.api.components.SyScrollBarHorizontalType;
+import com.io7m.jsycamore.api.components.SyScrollBarVerticalType;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.components.standard.SyScrollBarsHorizontal;
+import com.io7m.jsycamore.components.standard.SyScrollBarsVertical;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+
+/**
+ * <p>The main grid view implementation.</p>
+ *
+ * <p>The viewport is divided into four regions: the frozen corner (frozen
+ * rows and frozen columns), the frozen header rows, the frozen header
+ * columns, and the scrolling body. Each region realizes only the cells that
+ * intersect it, and recycles its cells as the grid is scrolled.</p>
+ */
+
+public final class SyGridView
+  extends SyComponentAbstract implements SyGridViewType
+{
+  private static final int ROW_HEIGHT_DEFAULT = 16;
+  private static final int COLUMN_WIDTH_DEFAULT = 64;
+
+  private final SyScrollBarHorizontalType scrollH;
+  private final SyScrollBarVerticalType scrollV;
+  private final SyGridViewRegion regionCorner;
+  private final SyGridViewRegion regionHeader;
+  private final SyGridViewRegion regionLeft;
+  private final SyGridViewRegion regionBody;
+  private final SyGridViewColumns columns;
+  private SyGridViewItems<?> items;
+  private int rowHeight;
+  private int frozenRows;
+  private int frozenColumns;
+  private int generation;
+  private int scrollTargetRow;
+  private int scrollTargetColumn;
+  private long scrollRegionX;
+  private long scrollRegionY;
+
+  /**
+   * The main grid view implementation.
+   *
+   * @param screen       The screen that owns the component
+   * @param themeClasses The extra classes
+   */
+
+  public SyGridView(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClasses)
+  {
+    super(
+      screen,
+      themeClasses,
+      SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
+    );
+
+    this.scrollH =
+      SyScrollBarsHorizontal.create(screen);
+    this.scrollV =
+      SyScrollBarsVertical.create(screen);
+    this.regionCorner =
+      new SyGridViewRegion(screen);
+    this.regionHeader =
+      new SyGridViewRegion(screen);
+    this.regionLeft =
+      new SyGridViewRegion(screen);
+    this.regionBody =
+      new SyGridViewRegion(screen);
+    this.columns =
+      new SyGridViewColumns(COLUMN_WIDTH_DEFAULT);
+    this.items =
+      SyGridViewItems.EMPTY;
+    this.rowHeight =
+      ROW_HEIGHT_DEFAULT;
+    this.scrollTargetRow =
+      -1;
+    this.scrollTargetColumn =
+      -1;
+
+    this.childAdd(this.regionBody);
+    this.childAdd(this.regionLeft);
+    this.childAdd(this.regionHeader);
+    this.childAdd(this.regionCorner);
+    this.childAdd(this.scrollH);
+    this.childAdd(this.scrollV);
+
+    this.scrollH.setOnClickLeftListener(this::doScrollClickLeft);
+    this.scrollH.setOnClickRightListener(this::doScrollClickRight);
+    this.scrollV.setOnClickUpListener(this::doScrollClickUp);
+    this.scrollV.setOnClickDownListener(this::doScrollClickDown);
+  }
+
+  @Override
+  public PAreaSizeI<SySpaceParentRelativeType> layout(
+    final SyLayoutContextType layoutContext,
+    final SyConstraints constraints)
+  {
+    Objects.requireNonNull(layoutContext, "layoutContext");
+    Objects.requireNonNull(constraints, "constraints");
+
+    /*
+     * Resize this main component to the maximum size allowed by the
+     * constraints.
+     */
+
+    final var limitedConstraints =
+      layoutContext.deriveThemeConstraints(constraints, this)
+        .deriveLimitedBy(this.sizeUpperLimit().get());
+
+    final var sizeX = limitedConstraints.sizeMaximumX();
+    final var sizeY = limitedConstraints.sizeMaximumY();
+    this.setSize(sizeX, sizeY);
+
+    /*
+     * Lay out the scroll bars in the same manner as scroll panes: each
+     * scroll bar is shortened by the thickness of the other.
+     */
+
+    this.scrollH.layout(layoutContext, limitedConstraints);
+    this.scrollV.layout(layoutContext, limitedConstraints);
+    this.scrollH.layout(
+      layoutContext,
+      limitedConstraints.deriveSubtractMaximumWidth(
+        this.scrollV.size().get().sizeX())
+    );
+    this.scrollV.layout(
+      layoutContext,
+      limitedConstraints.deriveSubtractMaximumHeight(
+        this.scrollH.size().get().sizeY())
+    );
+
+    final var viewportX =
+      Math.max(0, sizeX - this.scrollV.size().get().sizeX());
+    final var viewportY =
+      Math.max(0, sizeY - this.scrollH.size().get().sizeY());
+
+    this.scrollH.setPosition(0, viewportY);
+    this.scrollV.setPosition(viewportX, 0);
+    this.layoutCells(layoutContext, viewportX, viewportY);
+    return this.size().get();
+  }
+
+  private void layoutCells(
+    final SyLayoutContextType layoutContext,
+    final int viewportX,
+    final int viewportY)
+  {
+    final var data = this.items.data();
+    final var rowCount = data.rowCount();
+    final var columnCount = data.columnCount();
+    this.columns.setCount(columnCount);
+
+    final var rowsFrozen = Math.min(this.frozenRows, rowCount);
+    final var columnsFrozen = Math.min(this.frozenColumns, columnCount);
+    final var frozenY = (long) rowsFrozen * (long) this.rowHeight;
+    final var frozenX = this.columns.offsetOf(columnsFrozen);
+    final var totalY = (long) rowCount * (long) this.rowHeight;
+    final var totalX = this.columns.total();
+
+    this.scrollRegionX = Math.max(0L, totalX - viewportX);
+    this.scrollRegionY = Math.max(0L, totalY - viewportY);
+
+    if (this.scrollTargetRow >= 0) {
+      this.scrollToTarget(rowCount, frozenX, frozenY);
+    }
+
+    final var scrollX =
+      Math.round(this.scrollH.scrollPosition() * this.scrollRegionX);
+    final var scrollY =
+      Math.round(this.scrollV.scrollPosition() * this.scrollRegionY);
+
+    /*
+     * Determine the scrolling rows and columns that intersect the body.
+     */
+
+    var rowFirst = rowsFrozen;
+    var rowEnd = rowsFrozen;
+    if (rowCount > rowsFrozen && viewportY > frozenY) {
+      rowFirst = (int) Math.max(
+        rowsFrozen, (frozenY + scrollY) / this.rowHeight);
+      rowEnd = (int) Math.min(
+        rowCount, (viewportY + scrollY - 1L) / this.rowHeight + 1L);
+    }
+
+    var columnFirst = columnsFrozen;
+    var columnEnd = columnsFrozen;
+    if (columnCount > columnsFrozen && viewportX > frozenX) {
+      columnFirst = Math.max(
+        columnsFrozen, this.columns.indexAt(frozenX + scrollX));
+      columnEnd = Math.min(
+        columnCount, this.columns.indexAt(viewportX + scrollX - 1L) + 1);
+    }
+
+    final var cornerX = (int) Math.min(frozenX, viewportX);
+    final var cornerY = (int) Math.min(frozenY, viewportY);
+    final var bodyX = viewportX - cornerX;
+    final var bodyY = viewportY - cornerY;
+
+    final var corner = this.regionCorner;
+    corner.setPosition(0, 0);
+    corner.setSize(cornerX, cornerY);
+    corner.cellsBind(
+      this.items, this.generation, 0, rowsFrozen, 0, columnsFrozen);
+    corner.cellsLayout(
+      layoutContext, this.columns, this.rowHeight, 0L, 0L);
+
+    final var header = this.regionHeader;
+    header.setPosition(cornerX, 0);
+    header.setSize(bodyX, cornerY);
+    header.cellsBind(
+      this.items, this.generation, 0, rowsFrozen, columnFirst, columnEnd);
+    header.cellsLayout(
+      layoutContext, this.columns, this.rowHeight, frozenX + scrollX, 0L);
+
+    final var left = this.regionLeft;
+    left.setPosition(0, cornerY);
+    left.setSize(cornerX, bodyY);
+    left.cellsBind(
+      this.items, this.generation, rowFirst, rowEnd, 0, columnsFrozen);
+    left.cellsLayout(
+      layoutContext, this.columns, this.rowHeight, 0L, frozenY + scrollY);
+
+    final var body = this.regionBody;
+    body.setPosition(cornerX, cornerY);
+    body.setSize(bodyX, bodyY);
+    body.cellsBind(
+      this.items, this.generation, rowFirst, rowEnd, columnFirst, columnEnd);
+    body.cellsLayout(
+      layoutContext,
+      this.columns,
+      this.rowHeight,
+      frozenX + scrollX,
+      frozenY + scrollY
+    );
+
+    this.updateScrollBars(viewportX, viewportY, totalX, totalY);
+  }
+
+  private void updateScrollBars(
+    final int viewportX,
+    final int viewportY,
+    final long totalX,
+    final long totalY)
+  {
+    /*
+     * Clamp the results to [0, 1]. This has the effect of stamping out any
+     * NaN values if the grid is empty.
+     */
+
+    this.scrollH.setScrollAmountShown(
+      Math.clamp((double) viewportX / (double) totalX, 0.0, 1.0));
+    this.scrollV.setScrollAmountShown(
+      Math.clamp((double) viewportY / (double) totalY, 0.0, 1.0));
+  }
+
+  private void scrollToTarget(
+    final int rowCount,
+    final long frozenX,
+    final long frozenY)
+  {
+    final var row =
+      Math.min(this.scrollTargetRow, Math.max(0, rowCount - 1));
+    final var column =
+      Math.min(this.scrollTargetColumn, Math.max(0, this.columns.count() - 1));
+
+    final var targetY =
+      (long) row * (long) this.rowHeight - frozenY;
+    final var targetX =
+      this.columns.offsetOf(column) - frozenX;
+
+    this.scrollV.setScrollPosition(
+      scrollPositionFor(targetY, this.scrollRegionY));
+    this.scrollH.setScrollPosition(
+      scrollPositionFor(targetX, this.scrollRegionX));
+
+    this.scrollTargetRow = -1;
+    this.scrollTargetColumn = -1;
+  }
+
+  private static double scrollPositionFor(
+    final long offset,
+    final long region)
+  {
+    if (region == 0L) {
+      return 0.0;
+    }
+    return (double) offset / (double) region;
+  }
+
+  private void scrollByPixels(
+    final long pixelsX,
+    final long pixelsY)
+  {
+    if (this.scrollRegionX > 0L) {
+      this.scrollH.setScrollPosition(
+        this.scrollH.scrollPosition()
+        + ((double) pixelsX / (double) this.scrollRegionX)
+      );
+    }
+    if (this.scrollRegionY > 0L) {
+      this.scrollV.setScrollPosition(
+        this.scrollV.scrollPosition()
+        + ((double) pixelsY / (double) this.scrollRegionY)
+      );
+    }
+  }
+
+  private void doScrollClickLeft()
+  {
+    this.scrollByPixels(-this.columns.widthDefault(), 0L);
+  }
+
+  private void doScrollClickRight()
+  {
+    this.scrollByPixels(this.columns.widthDefault(), 0L);
+  }
+
+  private void doScrollClickUp()
+  {
+    this.scrollByPixels(0L, -this.rowHeight);
+  }
+
+  private void doScrollClickDown()
+  {
+    this.scrollByPixels(0L, this.rowHeight);
+  }
+
+  @Override
+  protected SyEventConsumed onEventInput(
+    final SyEventInputType event)
+  {
+    return EVENT_NOT_CONSUMED;
+  }
+
+  @Override
+  public <T> void setItems(
+    final SyGridViewDataType<T> data,
+    final SyGridViewCellFactoryType<T> cells)
+  {
+    final var newItems = new SyGridViewItems<>(data, cells);
+
+    this.regionCorner.cellsClear();
+    this.regionHeader.cellsClear();
+    this.regionLeft.cellsClear();
+    this.regionBody.cellsClear();
+    this.items = newItems;
+    this.scrollTargetRow = -1;
+    this.scrollTargetColumn = -1;
+    this.scrollH.setScrollPosition(0.0);
+    this.scrollV.setScrollPosition(0.0);
+    this.itemsChanged();
+  }
+
+  @Override
+  public void itemsChanged()
+  {
+    ++this.generation;
+  }
+
+  @Override
+  public void setRowHeight(
+    final int height)
+  {
+    this.rowHeight =
+      Preconditions.checkPreconditionI(
+        height, height > 0, i -> "Row height must be > 0");
+  }
+
+  @Override
+  public void setColumnWidthDefault(
+    final int width)
+  {
+    this.columns.setWidthDefault(
+      Preconditions.checkPreconditionI(
+        width, width > 0, i -> "Column width must be > 0"));
+  }
+
+  @Override
+  public void setColumnWidth(
+    final int column,
+    final int width)
+  {
+    Preconditions.checkPreconditionI(
+      column, column >= 0, i -> "Column index must be non-negative");
+    Preconditions.checkPreconditionI(
+      width, width > 0, i -> "Column width must be > 0");
+    this.columns.setWidth(column, width);
+  }
+
+  @Override
+  public void setFrozenRows(
+    final int rows)
+  {
+    this.frozenRows =
+      Preconditions.checkPreconditionI(
+        rows, rows >= 0, i -> "Frozen rows must be non-negative");
+  }
+
+  @Override
+  public void setFrozenColumns(
+    final int columnCount)
+  {
+    this.frozenColumns =
+      Preconditions.checkPreconditionI(
+        columnCount,
+        columnCount >= 0,
+        i -> "Frozen columns must be non-negative"
+      );
+  }
+
+  @Override
+  public void scrollToCell(
+    final int row,
+    final int column)
+  {
+    this.scrollTargetRow =
+      Preconditions.checkPreconditionI(
+        row, row >= 0, i -> "Row index must be non-negative");
+    this.scrollTargetColumn =
+      Preconditions.checkPreconditionI(
+        column, column >= 0, i -> "Column index must be non-negative");
+  }
+
+  @Override
+  public SyScrollBarHorizontalType scrollBarHorizontal()
+  {
+    return this.scrollH;
+  }
+
+  @Override
+  public SyScrollBarVerticalType scrollBarVertical()
+  {
+    return this.scrollV;
+  }
+
+  @Override
+  public int rowCount()
+  {
+    return this.items.data().rowCount();
+  }
+
+  @Override
+  public int columnCount()
+  {
+    return this.items.data().columnCount();
+  }
+
+  @Override
+  public int rowHeight()
+  {
+    return this.rowHeight;
+  }
+
+  @Override
+  public int columnWidthDefault()
+  {
+    return this.columns.widthDefault();
+  }
+
+  @Override
+  public int columnWidth(
+    final int column)
+  {
+    return this.columns.width(column);
+  }
+
+  @Override
+  public int frozenRows()
+  {
+    return this.frozenRows;
+  }
+
+  @Override
+  public int frozenColumns()
+  {
+    return this.frozenColumns;
+  }
+
+  @Override
+  public int cellsCreated()
+  {
+    return this.regionCorner.cellsCreated()
+           + this.regionHeader.cellsCreated()
+           + this.regionLeft.cellsCreated()
+           + this.regionBody.cellsCreated();
+  }
+
+  @Override
+  public int cellsBoundCount()
+  {
+    return this.regionCorner.cellsBoundCount()
+           + this.regionHeader.cellsBoundCount()
+           + this.regionLeft.cellsBoundCount()
+           + this.regionBody.cellsBoundCount();
+  }
+}
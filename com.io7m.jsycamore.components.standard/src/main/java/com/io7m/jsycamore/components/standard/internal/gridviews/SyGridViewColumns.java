@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.gridviews;
+
+import java.util.Arrays;
+
+/**
+ * <p>The widths and horizontal offsets of the columns in a grid view.</p>
+ *
+ * <p>The offset of each column is cached, and the cache is only rebuilt
+ * when a column width or the number of columns changes. Finding the column
+ * at a given offset is a binary search over the cached offsets.</p>
+ */
+
+final class SyGridViewColumns
+{
+  private static final int[] WIDTHS_EMPTY = new int[0];
+
+  private int count;
+  private int widthDefault;
+  private int[] widths;
+  private long[] offsets;
+  private boolean offsetsValid;
+
+  SyGridViewColumns(
+    final int inWidthDefault)
+  {
+    this.widthDefault = inWidthDefault;
+    this.widths = WIDTHS_EMPTY;
+    this.offsets = new long[1];
+  }
+
+  /**
+   * Set the number of columns.
+   *
+   * @param columnCount The number of columns
+   */
+
+  void setCount(
+    final int columnCount)
+  {
+    if (this.count != columnCount) {
+      this.count = columnCount;
+      this.offsets = new long[columnCount + 1];
+      this.offsetsValid = false;
+    }
+  }
+
+  int count()
+  {
+    return this.count;
+  }
+
+  int widthDefault()
+  {
+    return this.widthDefault;
+  }
+
+  void setWidthDefault(
+    final int width)
+  {
+    this.widthDefault = width;
+    this.offsetsValid = false;
+  }
+
+  /**
+   * Set the width of a column. Widths may be set for columns that do not
+   * (yet) exist; the widths are retained if the number of columns grows.
+   *
+   * @param column The column
+   * @param width  The width
+   */
+
+  void setWidth(
+    final int column,
+    final int width)
+  {
+    if (column >= this.widths.length) {
+      final var capacity = Math.max(column + 1, this.widths.length * 2);
+      this.widths = Arrays.copyOf(this.widths, capacity);
+    }
+    this.widths[column] = width;
+    this.offsetsValid = false;
+  }
+
+  int width(
+    final int column)
+  {
+    if (column < this.widths.length) {
+      final var width = this.widths[column];
+      if (width > 0) {
+        return width;
+      }
+    }
+    return this.widthDefault;
+  }
+
+  /**
+   * @param column The column index in the range {@code [0, count()]}
+   *
+   * @return The sum of the widths of all columns before the given column
+   */
+
+  long offsetOf(
+    final int column)
+  {
+    return this.offsetsUpdated()[column];
+  }
+
+  /**
+   * @return The sum of the widths of all columns
+   */
+
+  long total()
+  {
+    return this.offsetsUpdated()[this.count];
+  }
+
+  /**
+   * @param offset The offset
+   *
+   * @return The index of the column that contains the given offset, clamped
+   * to the range of existing columns
+   */
+
+  int indexAt(
+    final long offset)
+  {
+    if (this.count == 0) {
+      return 0;
+    }
+
+    final var offsetsNow = this.offsetsUpdated();
+    var low = 0;
+    var high = this.count - 1;
+    while (low < high) {
+      final var middle = (low + high + 1) >>> 1;
+      if (offsetsNow[middle] <= offset) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private long[] offsetsUpdated()
+  {
+    final var offsetsNow = this.offsets;
+    if (!this.offsetsValid) {
+      long offset = 0L;
+      for (int column = 0; column < this.count; ++column) {
+        offsetsNow[column] = offset;
+        offset += this.width(column);
+      }
+      offsetsNow[this.count] = offset;
+      this.offsetsValid = true;
+    }
+    return offsetsNow;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.gridviews;
+
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyGridViewCellFactoryType;
+import com.io7m.jsycamore.api.components.SyGridViewDataType;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.util.Objects;
+
+/**
+ * The items displayed by a grid view, and the factory for its cells.
+ *
+ * @param data  The items
+ * @param cells The cell factory
+ * @param <T>   The type of items
+ */
+
+record SyGridViewItems<T>(
+  SyGridViewDataType<T> data,
+  SyGridViewCellFactoryType<T> cells)
+{
+  static final SyGridViewItems<Object> EMPTY =
+    new SyGridViewItems<>(Empty.EMPTY, Empty.EMPTY);
+
+  SyGridViewItems
+  {
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(cells, "cells");
+  }
+
+  SyComponentType cellCreate()
+  {
+    return this.cells.cellCreate();
+  }
+
+  void cellBind(
+    final SyComponentType cell,
+    final int row,
+    final int column)
+  {
+    this.cells.cellBind(cell, row, column, this.data.itemAt(row, column));
+  }
+
+  private enum Empty
+    implements SyGridViewDataType<Object>, SyGridViewCellFactoryType<Object>
+  {
+    EMPTY;
+
+    @Override
+    public int rowCount()
+    {
+      return 0;
+    }
+
+    @Override
+    public int columnCount()
+    {
+      return 0;
+    }
+
+    @Override
+    public Object itemAt(
+      final int row,
+      final int column)
+    {
+      throw new IndexOutOfBoundsException(row);
+    }
+
+    @Override
+    public SyComponentType cellCreate()
+    {
+      throw new UnreachableCodeException();
+    }
+
+    @Override
+    public void cellBind(
+      final SyComponentType cell,
+      final int row,
+      final int column,
+      final Object item)
+    {
+      throw new UnreachableCodeException();
+    }
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.gridviews;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.SCROLLPANE_CONTENT_AREA_VIEWPORT;
+import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_INVISIBLE;
+import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_VISIBLE;
+
+/**
+ * <p>One of the four regions of a grid view: the frozen corner, the frozen
+ * header rows, the frozen header columns, and the scrolling body.</p>
+ *
+ * <p>A region displays the cells in a rectangular window of rows and columns.
+ * Cells that leave the window are hidden and returned to a free list rather
+ * than being detached, and are rebound to cells that enter the window. The
+ * region clips its cells to its own bounds, and so cells that scroll
+ * underneath a frozen region are not drawn over it.</p>
+ */
+
+final class SyGridViewRegion extends SyComponentAbstract
+{
+  private static final List<SyThemeClassNameType> THEME_CLASSES =
+    List.of(SCROLLPANE_CONTENT_AREA_VIEWPORT);
+
+  private static final Cell[] CELLS_EMPTY = new Cell[0];
+
+  private final ArrayList<Cell> cellsFree;
+  private Cell[] cells;
+  private Cell[] cellsNext;
+  private int rowFirst;
+  private int rowEnd;
+  private int columnFirst;
+  private int columnEnd;
+  private int cellsCreated;
+
+  SyGridViewRegion(
+    final SyScreenType inScreen)
+  {
+    super(
+      inScreen,
+      List.of(),
+      SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
+    );
+
+    this.cellsFree = new ArrayList<>();
+    this.cells = CELLS_EMPTY;
+    this.cellsNext = CELLS_EMPTY;
+  }
+
+  /**
+   * Regions are sized, and their cells laid out, by the owning grid view.
+   *
+   * @param layoutContext The current layout context
+   * @param constraints   The size constraints
+   *
+   * @return The current size of the region
+   */
+
+  @Override
+  public PAreaSizeI<SySpaceParentRelativeType> layout(
+    final SyLayoutContextType layoutContext,
+    final SyConstraints constraints)
+  {
+    Objects.requireNonNull(layoutContext, "layoutContext");
+    Objects.requireNonNull(constraints, "constraints");
+    return this.size().get();
+  }
+
+  @Override
+  public List<SyThemeClassNameType> themeClassesDefaultForComponent()
+  {
+    return THEME_CLASSES;
+  }
+
+  @Override
+  protected SyEventConsumed onEventInput(
+    final SyEventInputType event)
+  {
+    return EVENT_NOT_CONSUMED;
+  }
+
+  int cellsCreated()
+  {
+    return this.cellsCreated;
+  }
+
+  int cellsBoundCount()
+  {
+    return (this.rowEnd - this.rowFirst) * (this.columnEnd - this.columnFirst);
+  }
+
+  /**
+   * Discard all cells.
+   */
+
+  void cellsClear()
+  {
+    this.childrenClear();
+    this.cellsFree.clear();
+    this.cells = CELLS_EMPTY;
+    this.cellsNext = CELLS_EMPTY;
+    this.rowFirst = 0;
+    this.rowEnd = 0;
+    this.columnFirst = 0;
+    this.columnEnd = 0;
+    this.cellsCreated = 0;
+  }
+
+  /**
+   * Bind cells to the window of rows {@code [newRowFirst, newRowEnd)} and
+   * columns {@code [newColumnFirst, newColumnEnd)}. Cells that are already
+   * bound to a cell within the window in the current generation are kept.
+   */
+
+  void cellsBind(
+    final SyGridViewItems<?> items,
+    final int generation,
+    final int newRowFirst,
+    final int newRowEnd,
+    final int newColumnFirst,
+    final int newColumnEnd)
+  {
+    final var rows = Math.max(0, newRowEnd - newRowFirst);
+    final var columns = Math.max(0, newColumnEnd - newColumnFirst);
+    final var count = rows * columns;
+
+    if (this.cellsNext.length < count) {
+      this.cellsNext = new Cell[count];
+    }
+
+    final var previous = this.cells;
+    final var previousColumns = this.columnEnd - this.columnFirst;
+    final var previousCount = this.cellsBoundCount();
+    final var next = this.cellsNext;
+
+    /*
+     * Move any cells that can be kept into the new window.
+     */
+
+    for (int row = 0; row < rows; ++row) {
+      final var rowIndex = newRowFirst + row;
+      final var rowKept =
+        rowIndex >= this.rowFirst && rowIndex < this.rowEnd;
+
+      for (int column = 0; column < columns; ++column) {
+        final var columnIndex = newColumnFirst + column;
+        final var slot = row * columns + column;
+        next[slot] = null;
+
+        if (rowKept
+            && columnIndex >= this.columnFirst
+            && columnIndex < this.columnEnd) {
+          final var previousSlot =
+            (rowIndex - this.rowFirst) * previousColumns
+            + (columnIndex - this.columnFirst);
+          final var cell = previous[previousSlot];
+          if (cell.generation == generation) {
+            next[slot] = cell;
+            previous[previousSlot] = null;
+          }
+        }
+      }
+    }
+
+    /*
+     * Release everything that was not kept, and then bind cells to the
+     * remaining empty slots.
+     */
+
+    for (int slot = 0; slot < previousCount; ++slot) {
+      final var cell = previous[slot];
+      if (cell != null) {
+        cell.component.setVisible(VISIBILITY_INVISIBLE);
+        this.cellsFree.add(cell);
+        previous[slot] = null;
+      }
+    }
+
+    for (int row = 0; row < rows; ++row) {
+      for (int column = 0; column < columns; ++column) {
+        final var slot = row * columns + column;
+        if (next[slot] == null) {
+          next[slot] =
+            this.cellAcquire(
+              items,
+              generation,
+              newRowFirst + row,
+              newColumnFirst + column
+            );
+        }
+      }
+    }
+
+    this.cellsNext = previous;
+    this.cells = next;
+    this.rowFirst = newRowFirst;
+    this.rowEnd = newRowFirst + rows;
+    this.columnFirst = newColumnFirst;
+    this.columnEnd = newColumnFirst + columns;
+  }
+
+  private Cell cellAcquire(
+    final SyGridViewItems<?> items,
+    final int generation,
+    final int row,
+    final int column)
+  {
+    final Cell cell;
+    if (this.cellsFree.isEmpty()) {
+      cell = new Cell(items.cellCreate());
+      this.childAdd(cell.component);
+      ++this.cellsCreated;
+    } else {
+      cell = this.cellsFree.removeLast();
+      cell.component.setVisible(VISIBILITY_VISIBLE);
+    }
+
+    cell.generation = generation;
+    items.cellBind(cell.component, row, column);
+    return cell;
+  }
+
+  /**
+   * Lay out and position the bound cells. The origin is the position,
+   * in the coordinate space of the entire grid, of the top left corner of
+   * this region.
+   */
+
+  void cellsLayout(
+    final SyLayoutContextType layoutContext,
+    final SyGridViewColumns columns,
+    final int rowHeight,
+    final long originX,
+    final long originY)
+  {
+    final var cellsNow = this.cells;
+    final var columnCount = this.columnEnd - this.columnFirst;
+
+    for (int row = this.rowFirst; row < this.rowEnd; ++row) {
+      final var y = (long) row * (long) rowHeight - originY;
+      final var slotBase = (row - this.rowFirst) * columnCount;
+
+      for (int column = this.columnFirst; column < this.columnEnd; ++column) {
+        final var cell = cellsNow[slotBase + column - this.columnFirst];
+        final var width = columns.width(column);
+
+        cell.constraints =
+          SyConstraints.reusing(
+            cell.constraints, width, rowHeight, width, rowHeight);
+
+        cell.component.layout(layoutContext, cell.constraints);
+        cell.component.setPosition(
+          (int) (columns.offsetOf(column) - originX),
+          (int) y
+        );
+      }
+    }
+  }
+
+  private static final class Cell
+  {
+    private final SyComponentType component;
+    private SyConstraints constraints;
+    private int generation;
+
+    Cell(
+      final SyComponentType inComponent)
+    {
+      this.component =
+        Objects.requireNonNull(inComponent, "component");
+    }
+  }
+}
@@ -0,0 +1,596 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.listviews;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.components.SyListViewDataType;
+import com.io7m.jsycamore.api.components.SyListViewRowFactoryType;
+import com.io7m.jsycamore.api.components.SyListViewRowHeightEstimated;
+import com.io7m.jsycamore.api.components.SyListViewRowHeightFixed;
+import com.io7m.jsycamore.api.components.SyListViewRowHeightType;
+import com.io7m.jsycamore.api.components.SyListViewType;
+import com.io7m.jsycamore.api.components.SyScrollBarVerticalType;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.components.standard.SyScrollBarsVertical;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_INVISIBLE;
+import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_VISIBLE;
+
+/**
+ * <p>The main list view implementation.</p>
+ *
+ * <p>Only the rows that intersect the viewport (plus a configurable number
+ * of overscan rows) are bound to items. Rows that scroll out of view are
+ * hidden and returned to a free list rather than being detached, and are
+ * rebound to other items as they scroll into view. The component tree is
+ * therefore not modified while scrolling, and the number of row components
+ * is bounded by the number of rows that fit in the viewport.</p>
+ */
+
+public final class SyListView
+  extends SyComponentAbstract implements SyListViewType
+{
+  private static final int OVERSCAN_DEFAULT = 2;
+  private static final int ROW_HEIGHT_DEFAULT = 16;
+
+  /*
+   * Rows with estimated heights may turn out to be shorter than estimated,
+   * in which case more rows are needed to fill the viewport. The range of
+   * bound rows is recomputed until it is stable, up to this many times.
+   */
+
+  private static final int MEASURE_PASSES_MAXIMUM = 16;
+
+  private static final Items<Object> ITEMS_EMPTY =
+    new Items<>(ItemsEmpty.ITEMS_EMPTY, ItemsEmpty.ITEMS_EMPTY);
+
+  private final SyScrollBarVerticalType scrollV;
+  private final SyListViewViewport viewport;
+  private final SyListViewRowOffsets offsets;
+  private final ArrayList<Row> rowsFree;
+  private ArrayList<Row> rowsBound;
+  private ArrayList<Row> rowsBoundNext;
+  private Items<?> items;
+  private SyListViewRowHeightType rowHeight;
+  private SyConstraints viewportConstraints;
+  private SyConstraints rowConstraints;
+  private boolean offsetsValid;
+  private int overscan;
+  private int rowsCreated;
+  private int generation;
+  private int scrollTarget;
+  private long scrollRegion;
+
+  /**
+   * The main list view implementation.
+   *
+   * @param screen       The screen that owns the component
+   * @param themeClasses The extra classes
+   */
+
+  public SyListView(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClasses)
+  {
+    super(
+      screen,
+      themeClasses,
+      SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
+    );
+
+    this.scrollV =
+      SyScrollBarsVertical.create(screen);
+    this.viewport =
+      new SyListViewViewport(screen);
+    this.offsets =
+      new SyListViewRowOffsets();
+    this.rowsFree =
+      new ArrayList<>();
+    this.rowsBound =
+      new ArrayList<>();
+    this.rowsBoundNext =
+      new ArrayList<>();
+    this.items =
+      ITEMS_EMPTY;
+    this.rowHeight =
+      SyListViewRowHeightType.fixed(ROW_HEIGHT_DEFAULT);
+    this.overscan =
+      OVERSCAN_DEFAULT;
+    this.scrollTarget =
+      -1;
+
+    this.childAdd(this.viewport);
+    this.childAdd(this.scrollV);
+
+    this.scrollV.setOnClickUpListener(this::doScrollClickUp);
+    this.scrollV.setOnClickDownListener(this::doScrollClickDown);
+  }
+
+  @Override
+  public PAreaSizeI<SySpaceParentRelativeType> layout(
+    final SyLayoutContextType layoutContext,
+    final SyConstraints constraints)
+  {
+    Objects.requireNonNull(layoutContext, "layoutContext");
+    Objects.requireNonNull(constraints, "constraints");
+
+    /*
+     * Resize this main component to the maximum size allowed by the
+     * constraints.
+     */
+
+    final var limitedConstraints =
+      layoutContext.deriveThemeConstraints(constraints, this)
+        .deriveLimitedBy(this.sizeUpperLimit().get());
+
+    final var sizeX = limitedConstraints.sizeMaximumX();
+    final var sizeY = limitedConstraints.sizeMaximumY();
+    this.setSize(sizeX, sizeY);
+
+    /*
+     * The scroll bar sits on the right edge, and the viewport takes up
+     * the remaining space.
+     */
+
+    this.scrollV.layout(layoutContext, limitedConstraints);
+    final var scrollSizeX = this.scrollV.size().get().sizeX();
+    this.scrollV.setPosition(sizeX - scrollSizeX, 0);
+
+    this.viewportConstraints =
+      SyConstraints.reusing(
+        this.viewportConstraints,
+        0,
+        0,
+        Math.max(0, sizeX - scrollSizeX),
+        sizeY
+      );
+
+    this.viewport.layout(layoutContext, this.viewportConstraints);
+    this.viewport.setPosition(0, 0);
+
+    final var viewportSize = this.viewport.size().get();
+    this.layoutRows(
+      layoutContext,
+      viewportSize.sizeX(),
+      viewportSize.sizeY()
+    );
+    return this.size().get();
+  }
+
+  private void layoutRows(
+    final SyLayoutContextType layoutContext,
+    final int viewportX,
+    final int viewportY)
+  {
+    final var offsetsNow = this.offsetsUpdated();
+    final var count = offsetsNow.count();
+
+    if (offsetsNow.isFixed()) {
+      final var height = offsetsNow.heightOf(0);
+      this.rowConstraints =
+        SyConstraints.reusing(
+          this.rowConstraints, viewportX, height, viewportX, height);
+    } else {
+      this.rowConstraints =
+        SyConstraints.reusing(
+          this.rowConstraints, viewportX, 0, viewportX, viewportY);
+    }
+
+    if (this.scrollTarget >= 0) {
+      this.scrollToTarget(viewportY);
+    }
+
+    long scrollOffset = 0L;
+    for (int pass = 0; pass < MEASURE_PASSES_MAXIMUM; ++pass) {
+      this.scrollRegion =
+        Math.max(0L, offsetsNow.total() - viewportY);
+      scrollOffset =
+        Math.round(this.scrollV.scrollPosition() * this.scrollRegion);
+
+      var first = 0;
+      var end = 0;
+      if (count > 0 && viewportY > 0) {
+        final long top =
+          offsetsNow.indexAt(scrollOffset);
+        final long bottom =
+          offsetsNow.indexAt(scrollOffset + viewportY - 1L);
+        first = (int) Math.max(0L, top - this.overscan);
+        end = (int) Math.min(count, bottom + 1L + this.overscan);
+      }
+
+      if (pass > 0 && this.rowsBoundMatch(first, end)) {
+        break;
+      }
+
+      this.rowsBind(first, end);
+      this.rowsMeasure(layoutContext);
+
+      if (offsetsNow.isFixed()) {
+        break;
+      }
+    }
+
+    final var rows = this.rowsBound;
+    final var rowCount = rows.size();
+    for (int index = 0; index < rowCount; ++index) {
+      final var row = rows.get(index);
+      final var y = offsetsNow.offsetOf(row.index) - scrollOffset;
+      row.component.setPosition(0, (int) y);
+    }
+
+    /*
+     * Clamp the result to [0, 1]. This has the effect of stamping out any
+     * NaN values if the list is empty.
+     */
+
+    this.scrollV.setScrollAmountShown(
+      Math.clamp((double) viewportY / (double) offsetsNow.total(), 0.0, 1.0)
+    );
+  }
+
+  private SyListViewRowOffsets offsetsUpdated()
+  {
+    final var itemCountNow = this.items.data().size();
+    if (!this.offsetsValid || this.offsets.count() != itemCountNow) {
+      this.offsets.reset(itemCountNow, this.rowHeight);
+      this.offsetsValid = true;
+    }
+    return this.offsets;
+  }
+
+  private void scrollToTarget(
+    final int viewportY)
+  {
+    final var offsetsNow = this.offsets;
+    final var count = offsetsNow.count();
+    final var index = Math.min(this.scrollTarget, Math.max(0, count - 1));
+    final var region = Math.max(0L, offsetsNow.total() - viewportY);
+
+    if (region == 0L) {
+      this.scrollV.setScrollPosition(0.0);
+    } else {
+      this.scrollV.setScrollPosition(
+        (double) offsetsNow.offsetOf(index) / (double) region);
+    }
+    this.scrollTarget = -1;
+  }
+
+  private boolean rowsBoundMatch(
+    final int first,
+    final int end)
+  {
+    final var rows = this.rowsBound;
+    if (rows.isEmpty()) {
+      return first == end;
+    }
+    return rows.getFirst().index == first
+           && rows.getLast().index + 1 == end;
+  }
+
+  private void rowsMeasure(
+    final SyLayoutContextType layoutContext)
+  {
+    final var offsetsNow = this.offsets;
+    final var rows = this.rowsBound;
+    final var rowCount = rows.size();
+    for (int index = 0; index < rowCount; ++index) {
+      final var row = rows.get(index);
+      final var size = row.component.layout(layoutContext, this.rowConstraints);
+      offsetsNow.setHeight(row.index, Math.max(1, size.sizeY()));
+    }
+  }
+
+  /**
+   * Bind rows to the items in the range {@code [first, end)}. The currently
+   * bound rows always cover a contiguous range of items, and so the rows
+   * that can be kept also cover a contiguous range. New rows are bound
+   * before and after the kept rows as necessary.
+   */
+
+  private void rowsBind(
+    final int first,
+    final int end)
+  {
+    final var bound = this.rowsBound;
+    final var boundCount = bound.size();
+
+    var keptFirst = end;
+    var keptEnd = end;
+    var keptAny = false;
+
+    for (int index = 0; index < boundCount; ++index) {
+      final var row = bound.get(index);
+      row.kept =
+        row.generation == this.generation
+        && row.index >= first
+        && row.index < end;
+
+      if (row.kept) {
+        if (!keptAny) {
+          keptFirst = row.index;
+          keptAny = true;
+        }
+        keptEnd = row.index + 1;
+      } else {
+        this.rowRelease(row);
+      }
+    }
+
+    final var next = this.rowsBoundNext;
+    next.clear();
+
+    for (int index = first; index < keptFirst; ++index) {
+      next.add(this.rowAcquire(index));
+    }
+    for (int index = 0; index < boundCount; ++index) {
+      final var row = bound.get(index);
+      if (row.kept) {
+        next.add(row);
+      }
+    }
+    for (int index = keptEnd; index < end; ++index) {
+      next.add(this.rowAcquire(index));
+    }
+
+    bound.clear();
+    this.rowsBoundNext = bound;
+    this.rowsBound = next;
+  }
+
+  private Row rowAcquire(
+    final int index)
+  {
+    final Row row;
+    if (this.rowsFree.isEmpty()) {
+      row = new Row(this.items.rows().rowCreate());
+      this.viewport.childAdd(row.component);
+      ++this.rowsCreated;
+    } else {
+      row = this.rowsFree.removeLast();
+      row.component.setVisible(VISIBILITY_VISIBLE);
+    }
+
+    row.index = index;
+    row.generation = this.generation;
+    this.items.bind(row.component, index);
+    return row;
+  }
+
+  private void rowRelease(
+    final Row row)
+  {
+    row.index = -1;
+    row.component.setVisible(VISIBILITY_INVISIBLE);
+    this.rowsFree.add(row);
+  }
+
+  private int rowStep()
+  {
+    return switch (this.rowHeight) {
+      case final SyListViewRowHeightFixed fixed -> fixed.height();
+      case final SyListViewRowHeightEstimated estimated -> estimated.estimate();
+    };
+  }
+
+  private void doScrollClickUp()
+  {
+    this.scrollByPixels(-this.rowStep());
+  }
+
+  private void doScrollClickDown()
+  {
+    this.scrollByPixels(this.rowStep());
+  }
+
+  private void scrollByPixels(
+    final int pixels)
+  {
+    if (this.scrollRegion > 0L) {
+      this.scrollV.setScrollPosition(
+        this.scrollV.scrollPosition()
+        + ((double) pixels / (double) this.scrollRegion)
+      );
+    }
+  }
+
+  @Override
+  protected SyEventConsumed onEventInput(
+    final SyEventInputType event)
+  {
+    return EVENT_NOT_CONSUMED;
+  }
+
+  @Override
+  public <T> void setItems(
+    final SyListViewDataType<T> data,
+    final SyListViewRowFactoryType<T> rows)
+  {
+    final var newItems = new Items<>(data, rows);
+
+    this.viewport.childrenClear();
+    this.rowsBound.clear();
+    this.rowsBoundNext.clear();
+    this.rowsFree.clear();
+    this.rowsCreated = 0;
+    this.items = newItems;
+    this.scrollTarget = -1;
+    this.scrollV.setScrollPosition(0.0);
+    this.itemsChanged();
+  }
+
+  @Override
+  public void itemsChanged()
+  {
+    ++this.generation;
+    this.offsetsValid = false;
+  }
+
+  @Override
+  public void setRowHeight(
+    final SyListViewRowHeightType newRowHeight)
+  {
+    this.rowHeight =
+      Objects.requireNonNull(newRowHeight, "rowHeight");
+    this.offsetsValid = false;
+  }
+
+  @Override
+  public void setOverscan(
+    final int rows)
+  {
+    this.overscan =
+      Preconditions.checkPreconditionI(
+        rows, rows >= 0, i -> "Overscan must be non-negative");
+  }
+
+  @Override
+  public void scrollToItem(
+    final int index)
+  {
+    this.scrollTarget =
+      Preconditions.checkPreconditionI(
+        index, index >= 0, i -> "Item index must be non-negative");
+  }
+
+  @Override
+  public SyScrollBarVerticalType scrollBarVertical()
+  {
+    return this.scrollV;
+  }
+
+  @Override
+  public int itemCount()
+  {
+    return this.items.data().size();
+  }
+
+  @Override
+  public SyListViewRowHeightType rowHeight()
+  {
+    return this.rowHeight;
+  }
+
+  @Override
+  public int overscan()
+  {
+    return this.overscan;
+  }
+
+  @Override
+  public int rowsCreated()
+  {
+    return this.rowsCreated;
+  }
+
+  @Override
+  public int rowsBoundFirst()
+  {
+    final var rows = this.rowsBound;
+    return rows.isEmpty() ? 0 : rows.getFirst().index;
+  }
+
+  @Override
+  public int rowsBoundCount()
+  {
+    return this.rowsBound.size();
+  }
+
+  private static final class Row
+  {
+    private final SyComponentType component;
+    private int index;
+    private int generation;
+    private boolean kept;
+
+    Row(
+      final SyComponentType inComponent)
+    {
+      this.component =
+        Objects.requireNonNull(inComponent, "component");
+      this.index = -1;
+    }
+  }
+
+  private record Items<T>(
+    SyListViewDataType<T> data,
+    SyListViewRowFactoryType<T> rows)
+  {
+    private Items
+    {
+      Objects.requireNonNull(data, "data");
+      Objects.requireNonNull(rows, "rows");
+    }
+
+    void bind(
+      final SyComponentType row,
+      final int index)
+    {
+      this.rows.rowBind(row, index, this.data.itemAt(index));
+    }
+  }
+
+  private enum ItemsEmpty
+    implements SyListViewDataType<Object>, SyListViewRowFactoryType<Object>
+  {
+    ITEMS_EMPTY;
+
+    @Override
+    public int size()
+    {
+      return 0;
+    }
+
+    @Override
+    public Object itemAt(
+      final int index)
+    {
+      throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public SyComponentType rowCreate()
+    {
+      throw new UnreachableCodeException();
+    }
+
+    @Override
+    public void rowBind(
+      final SyComponentType row,
+      final int index,
+      final Object item)
+    {
+      throw new UnreachableCodeException();
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.listviews;
+
+import com.io7m.jsycamore.api.components.SyListViewRowHeightEstimated;
+import com.io7m.jsycamore.api.components.SyListViewRowHeightFixed;
+import com.io7m.jsycamore.api.components.SyListViewRowHeightType;
+
+import java.util.Arrays;
+
+/**
+ * <p>The vertical offsets of the rows in a list view.</p>
+ *
+ * <p>If rows have a fixed height, offsets are computed arithmetically and no
+ * per-row storage is required. If rows have estimated heights, the height of
+ * each row is held in a Fenwick tree so that the offset of any row, the row
+ * at any offset, and the update of a single row height are all logarithmic
+ * in the number of rows.</p>
+ */
+
+final class SyListViewRowOffsets
+{
+  private static final int[] HEIGHTS_EMPTY = new int[0];
+  private static final long[] TREE_EMPTY = new long[1];
+
+  private int count;
+  private int heightFixed;
+  private int[] heights;
+  private long[] tree;
+  private long total;
+
+  SyListViewRowOffsets()
+  {
+    this.heights = HEIGHTS_EMPTY;
+    this.tree = TREE_EMPTY;
+    this.heightFixed = 1;
+  }
+
+  /**
+   * Reset the offsets for the given number of rows. Any measured heights
+   * are discarded.
+   *
+   * @param rowCount  The number of rows
+   * @param rowHeight The row height policy
+   */
+
+  void reset(
+    final int rowCount,
+    final SyListViewRowHeightType rowHeight)
+  {
+    this.count = rowCount;
+
+    switch (rowHeight) {
+      case final SyListViewRowHeightFixed fixed -> {
+        this.heightFixed = fixed.height();
+        this.heights = HEIGHTS_EMPTY;
+        this.tree = TREE_EMPTY;
+        this.total = (long) rowCount * (long) fixed.height();
+      }
+      case final SyListViewRowHeightEstimated estimated -> {
+        this.heightFixed = 0;
+        this.resetEstimated(rowCount, estimated.estimate());
+      }
+    }
+  }
+
+  private void resetEstimated(
+    final int rowCount,
+    final int estimate)
+  {
+    if (this.heights.length != rowCount) {
+      this.heights = new int[rowCount];
+      this.tree = new long[rowCount + 1];
+    }
+
+    final var treeNow = this.tree;
+    Arrays.fill(this.heights, estimate);
+    Arrays.fill(treeNow, 0L);
+
+    /*
+     * Build the tree in linear time by pushing each partial sum to its
+     * immediate parent.
+     */
+
+    for (int node = 1; node <= rowCount; ++node) {
+      treeNow[node] += estimate;
+      final var parent = node + (node & -node);
+      if (parent <= rowCount) {
+        treeNow[parent] += treeNow[node];
+      }
+    }
+
+    this.total = (long) rowCount * (long) estimate;
+  }
+
+  /**
+   * @return The number of rows
+   */
+
+  int count()
+  {
+    return this.count;
+  }
+
+  /**
+   * @return {@code true} if rows have a fixed height
+   */
+
+  boolean isFixed()
+  {
+    return this.heightFixed > 0;
+  }
+
+  /**
+   * @return The sum of the heights of all rows
+   */
+
+  long total()
+  {
+    return this.total;
+  }
+
+  /**
+   * @param index The row index
+   *
+   * @return The current height of the given row
+   */
+
+  int heightOf(
+    final int index)
+  {
+    if (this.heightFixed > 0) {
+      return this.heightFixed;
+    }
+    return this.heights[index];
+  }
+
+  /**
+   * @param index The row index in the range {@code [0, count()]}
+   *
+   * @return The sum of the heights of all rows before the given row
+   */
+
+  long offsetOf(
+    final int index)
+  {
+    if (this.heightFixed > 0) {
+      return (long) index * (long) this.heightFixed;
+    }
+
+    final var treeNow = this.tree;
+    long sum = 0L;
+    for (int node = index; node > 0; node -= node & -node) {
+      sum += treeNow[node];
+    }
+    return sum;
+  }
+
+  /**
+   * @param offset The offset
+   *
+   * @return The index of the row that contains the given offset, clamped to
+   * the range of existing rows
+   */
+
+  int indexAt(
+    final long offset)
+  {
+    if (this.count == 0) {
+      return 0;
+    }
+    if (this.heightFixed > 0) {
+      final var index = offset / this.heightFixed;
+      return (int) Math.clamp(index, 0L, this.count - 1L);
+    }
+
+    /*
+     * Descend the tree, finding the number of rows whose combined height
+     * does not exceed the offset.
+     */
+
+    final var treeNow = this.tree;
+    var position = 0;
+    var remaining = offset;
+    for (int step = Integer.highestOneBit(this.count); step > 0; step >>= 1) {
+      final var next = position + step;
+      if (next <= this.count && treeNow[next] <= remaining) {
+        position = next;
+        remaining -= treeNow[next];
+      }
+    }
+    return Math.clamp(position, 0, this.count - 1);
+  }
+
+  /**
+   * Record the height of a row. This has no effect if rows have a fixed
+   * height.
+   *
+   * @param index  The row index
+   * @param height The row height
+   */
+
+  void setHeight(
+    final int index,
+    final int height)
+  {
+    if (this.heightFixed > 0) {
+      return;
+    }
+
+    final var delta = height - this.heights[index];
+    if (delta == 0) {
+      return;
+    }
+
+    this.heights[index] = height;
+    this.total += delta;
+
+    final var treeNow = this.tree;
+    for (int node = index + 1; node <= this.count; node += node & -node) {
+      treeNow[node] += delta;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.meters;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.components.SyMeterSampleSinkType;
+import com.io7m.jsycamore.api.components.SyMeterStyle;
+import com.io7m.jsycamore.api.components.SyMeterType;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.spaces.SySpaceRGBAPreType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jtensors.core.parameterized.vectors.PVector4D;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.jsycamore.api.components.SyMeterStyle.METER_SPARKLINE;
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+
+/**
+ * <p>The main meter implementation.</p>
+ *
+ * <p>Samples are submitted to a lock-free ring buffer from any thread, and
+ * are collected into the meter's column history each time the meter is laid
+ * out. The history holds one column per pixel of the meter's width.</p>
+ *
+ * <p>When the meter uses the sparkline style, the column history is drawn
+ * into a retained raster during layout, so that themes can render the
+ * meter without drawing anything themselves.</p>
+ */
+
+public final class SyMeter
+  extends SyComponentAbstract implements SyMeterType
+{
+  private static final int DRAIN_BATCH = 256;
+  private static final PVector4D<SySpaceRGBAPreType> FOREGROUND_DEFAULT =
+    PVector4D.of(1.0, 1.0, 1.0, 1.0);
+
+  private final SyMeterRingBuffer buffer;
+  private final SyMeterColumns columns;
+  private final double[] drained;
+  private final SyMeterSparkline sparkline;
+  private final int sampleCapacity;
+  private SyMeterStyle style;
+  private double valueMinimum;
+  private double valueMaximum;
+  private double valueLatest;
+  private long samplesCollected;
+
+  /**
+   * The main meter implementation.
+   *
+   * @param screen           The screen that owns the component
+   * @param themeClasses     The extra classes
+   * @param inSampleCapacity The maximum number of samples held between
+   *                         layouts; must be a power of two
+   */
+
+  public SyMeter(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClasses,
+    final int inSampleCapacity)
+  {
+    super(
+      screen,
+      themeClasses,
+      SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
+    );
+
+    this.sampleCapacity = inSampleCapacity;
+    this.buffer = new SyMeterRingBuffer(inSampleCapacity);
+    this.columns = new SyMeterColumns();
+    this.drained = new double[DRAIN_BATCH];
+    this.sparkline = new SyMeterSparkline();
+    this.style = METER_SPARKLINE;
+    this.valueMinimum = 0.0;
+    this.valueMaximum = 1.0;
+    this.valueLatest = Double.NaN;
+  }
+
+  @Override
+  public PAreaSizeI<SySpaceParentRelativeType> layout(
+    final SyLayoutContextType layoutContext,
+    final SyConstraints constraints)
+  {
+    final var size =
+      SyMeterType.super.layout(layoutContext, constraints);
+
+    this.columns.setCapacity(size.sizeX());
+    this.collect();
+
+    if (this.style == METER_SPARKLINE
+        && size.sizeX() > 0
+        && size.sizeY() > 0) {
+      final var foreground =
+        layoutContext.themeCurrent()
+          .findForComponent(this)
+          .foreground(layoutContext, this)
+          .orElse(FOREGROUND_DEFAULT);
+
+      this.sparkline.update(this, foreground, size.sizeX(), size.sizeY());
+    }
+    return size;
+  }
+
+  /**
+   * Collect the samples that are available now. Collection is bounded by
+   * the capacity of the ring buffer, so that producers that submit samples
+   * continuously cannot stall the layout.
+   */
+
+  private void collect()
+  {
+    final var output = this.drained;
+    var remaining = this.sampleCapacity;
+
+    while (remaining > 0) {
+      final var count = this.buffer.drain(output);
+      for (int index = 0; index < count; ++index) {
+        this.columns.sample(output[index]);
+      }
+      if (count > 0) {
+        this.valueLatest = output[count - 1];
+        this.samplesCollected += count;
+      }
+      if (count < output.length) {
+        break;
+      }
+      remaining -= count;
+    }
+  }
+
+  @Override
+  protected SyEventConsumed onEventInput(
+    final SyEventInputType event)
+  {
+    return EVENT_NOT_CONSUMED;
+  }
+
+  @Override
+  public SyMeterSampleSinkType samples()
+  {
+    return this.buffer;
+  }
+
+  @Override
+  public void setRange(
+    final double minimum,
+    final double maximum)
+  {
+    Preconditions.checkPreconditionD(
+      maximum,
+      maximum > minimum,
+      x -> "Maximum must be greater than the minimum"
+    );
+
+    this.valueMinimum = minimum;
+    this.valueMaximum = maximum;
+  }
+
+  @Override
+  public void setStyle(
+    final SyMeterStyle newStyle)
+  {
+    this.style = Objects.requireNonNull(newStyle, "style");
+  }
+
+  @Override
+  public void setSamplesPerColumn(
+    final int samples)
+  {
+    this.columns.setSamplesPerColumn(
+      Preconditions.checkPreconditionI(
+        samples, samples > 0, i -> "Samples per column must be > 0")
+    );
+  }
+
+  @Override
+  public SyMeterStyle style()
+  {
+    return this.style;
+  }
+
+  @Override
+  public double valueMinimum()
+  {
+    return this.valueMinimum;
+  }
+
+  @Override
+  public double valueMaximum()
+  {
+    return this.valueMaximum;
+  }
+
+  @Override
+  public double valueLatest()
+  {
+    return this.valueLatest;
+  }
+
+  @Override
+  public int samplesPerColumn()
+  {
+    return this.columns.samplesPerColumn();
+  }
+
+  @Override
+  public long samplesCollected()
+  {
+    return this.samplesCollected;
+  }
+
+  @Override
+  public long samplesDiscarded()
+  {
+    return this.buffer.discarded();
+  }
+
+  @Override
+  public int columnCount()
+  {
+    return this.columns.count();
+  }
+
+  @Override
+  public long columnsAppended()
+  {
+    return this.columns.appended();
+  }
+
+  @Override
+  public Optional<SyRaster> sparkline()
+  {
+    return Optional.ofNullable(this.sparkline.raster());
+  }
+
+  @Override
+  public int sparklineScrollX()
+  {
+    return this.sparkline.scrollX();
+  }
+
+  @Override
+  public double columnMinimum(
+    final int column)
+  {
+    return this.columns.minimum(
+      Objects.checkIndex(column, this.columns.count()));
+  }
+
+  @Override
+  public double columnMaximum(
+    final int column)
+  {
+    return this.columns.maximum(
+      Objects.checkIndex(column, this.columns.count()));
+  }
+}
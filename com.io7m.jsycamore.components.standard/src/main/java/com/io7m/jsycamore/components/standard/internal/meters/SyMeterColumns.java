@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.meters;
+
+/**
+ * <p>The history of a meter, as a ring of pixel columns.</p>
+ *
+ * <p>Samples are folded into a pending column, and the pending column is
+ * appended to the history once it has received the configured number of
+ * samples. Appending a column to a full history overwrites the oldest
+ * column and advances the start of the ring: the existing columns are not
+ * recomputed or moved, and so only the newly scrolled-in column costs
+ * anything.</p>
+ */
+
+final class SyMeterColumns
+{
+  private static final double[] EMPTY = new double[0];
+
+  private double[] minimums;
+  private double[] maximums;
+  private int start;
+  private int count;
+  private int samplesPerColumn;
+  private int pendingCount;
+  private double pendingMinimum;
+  private double pendingMaximum;
+  private long appended;
+
+  SyMeterColumns()
+  {
+    this.minimums = EMPTY;
+    this.maximums = EMPTY;
+    this.samplesPerColumn = 1;
+  }
+
+  int count()
+  {
+    return this.count;
+  }
+
+  long appended()
+  {
+    return this.appended;
+  }
+
+  int samplesPerColumn()
+  {
+    return this.samplesPerColumn;
+  }
+
+  void setSamplesPerColumn(
+    final int samples)
+  {
+    this.samplesPerColumn = samples;
+    this.pendingCount = Math.min(this.pendingCount, samples - 1);
+  }
+
+  /**
+   * Set the number of columns of history retained. The most recent columns
+   * are preserved.
+   *
+   * @param capacity The number of columns
+   */
+
+  void setCapacity(
+    final int capacity)
+  {
+    if (capacity == this.minimums.length) {
+      return;
+    }
+
+    final var retained = Math.min(this.count, capacity);
+    final var newMinimums = new double[capacity];
+    final var newMaximums = new double[capacity];
+    final var skipped = this.count - retained;
+    for (int column = 0; column < retained; ++column) {
+      newMinimums[column] = this.minimum(skipped + column);
+      newMaximums[column] = this.maximum(skipped + column);
+    }
+
+    this.minimums = newMinimums;
+    this.maximums = newMaximums;
+    this.start = 0;
+    this.count = retained;
+  }
+
+  /**
+   * Fold a sample into the pending column.
+   *
+   * @param value The sample
+   */
+
+  void sample(
+    final double value)
+  {
+    if (this.pendingCount == 0) {
+      this.pendingMinimum = value;
+      this.pendingMaximum = value;
+    } else {
+      this.pendingMinimum = Math.min(this.pendingMinimum, value);
+      this.pendingMaximum = Math.max(this.pendingMaximum, value);
+    }
+
+    ++this.pendingCount;
+    if (this.pendingCount >= this.samplesPerColumn) {
+      this.append(this.pendingMinimum, this.pendingMaximum);
+      this.pendingCount = 0;
+    }
+  }
+
+  private void append(
+    final double minimum,
+    final double maximum)
+  {
+    final var capacity = this.minimums.length;
+    if (capacity == 0) {
+      return;
+    }
+
+    final int slot;
+    if (this.count < capacity) {
+      slot = (this.start + this.count) % capacity;
+      ++this.count;
+    } else {
+      slot = this.start;
+      this.start = (this.start + 1) % capacity;
+    }
+
+    this.minimums[slot] = minimum;
+    this.maximums[slot] = maximum;
+    ++this.appended;
+  }
+
+  double minimum(
+    final int column)
+  {
+    return this.minimums[(this.start + column) % this.minimums.length];
+  }
+
+  double maximum(
+    final int column)
+  {
+    return this.maximums[(this.start + column) % this.maximums.length];
+  }
+}
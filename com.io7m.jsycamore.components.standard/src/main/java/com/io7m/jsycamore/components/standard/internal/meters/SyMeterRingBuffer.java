@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.meters;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jsycamore.api.components.SyMeterSampleSinkType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A bounded, lock-free, multiple-producer single-consumer ring buffer of
+ * samples.</p>
+ *
+ * <p>Each slot carries a sequence number that indicates whether the slot is
+ * free for the producer claiming that position, or full and ready for the
+ * consumer. Producers claim positions with a compare-and-set on the tail
+ * counter, and publish each sample with a release store of the slot's
+ * sequence number. The single consumer (the thread laying out the meter)
+ * reads samples with an acquire load of the sequence number, and frees the
+ * slot for the next lap of producers. Samples are held as primitive
+ * doubles, and neither producers nor the consumer allocate.</p>
+ */
+
+final class SyMeterRingBuffer implements SyMeterSampleSinkType
+{
+  private final int mask;
+  private final double[] values;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail;
+  private final AtomicLong discarded;
+  private long head;
+
+  /**
+   * Create a ring buffer.
+   *
+   * @param capacity The capacity, which must be a power of two
+   */
+
+  SyMeterRingBuffer(
+    final int capacity)
+  {
+    Preconditions.checkPreconditionI(
+      capacity,
+      capacity > 0 && Integer.bitCount(capacity) == 1,
+      i -> "Capacity must be a positive power of two"
+    );
+
+    this.mask = capacity - 1;
+    this.values = new double[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int index = 0; index < capacity; ++index) {
+      this.sequences.set(index, index);
+    }
+    this.tail = new AtomicLong(0L);
+    this.discarded = new AtomicLong(0L);
+  }
+
+  @Override
+  public boolean sampleAdd(
+    final double value)
+  {
+    var position = this.tail.get();
+
+    while (true) {
+      final var index = (int) (position & this.mask);
+      final var difference = this.sequences.getAcquire(index) - position;
+
+      if (difference == 0L) {
+        if (this.tail.compareAndSet(position, position + 1L)) {
+          this.values[index] = value;
+          this.sequences.setRelease(index, position + 1L);
+          return true;
+        }
+        position = this.tail.get();
+      } else if (difference < 0L) {
+        this.discarded.getAndIncrement();
+        return false;
+      } else {
+        position = this.tail.get();
+      }
+    }
+  }
+
+  /**
+   * Move as many samples as are available (up to the size of the output
+   * array) into the output array. This method must only be called from a
+   * single consumer thread.
+   *
+   * @param output The output array
+   *
+   * @return The number of samples written to the output array
+   */
+
+  int drain(
+    final double[] output)
+  {
+    var count = 0;
+    while (count < output.length) {
+      final var position = this.head;
+      final var index = (int) (position & this.mask);
+      if (this.sequences.getAcquire(index) != position + 1L) {
+        break;
+      }
+
+      output[count] = this.values[index];
+      this.sequences.setRelease(index, position + this.mask + 1L);
+      this.head = position + 1L;
+      ++count;
+    }
+    return count;
+  }
+
+  /**
+   * @return The number of samples discarded because the buffer was full
+   */
+
+  long discarded()
+  {
+    return this.discarded.get();
+  }
+}
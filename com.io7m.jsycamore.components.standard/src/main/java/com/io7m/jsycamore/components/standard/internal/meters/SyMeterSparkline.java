@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.components.standard.internal.meters;
+
+import com.io7m.jsycamore.api.components.SyMeterReadableType;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.spaces.SySpaceRGBAPreType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector4D;
+
+import java.util.Arrays;
+
+/**
+ * <p>The retained sparkline of a single meter.</p>
+ *
+ * <p>The sparkline is drawn into a raster that holds one pixel column per
+ * column of meter history. The raster wraps horizontally, and a scroll
+ * offset identifies the raster column drawn at the left edge of the
+ * meter. When new columns arrive, only those columns
+ * are written and marked dirty, and the scroll offset advances: the
+ * existing columns are neither redrawn nor moved. The whole raster is
+ * redrawn only when the size, range, or color of the meter changes, or
+ * when more columns arrive than the meter can display.</p>
+ *
+ * <p>The sparkline is updated when the meter is laid out, on the thread
+ * that updates the screen. Themes only read the raster and the scroll
+ * offset.</p>
+ */
+
+final class SyMeterSparkline
+{
+  private SyRaster raster;
+  private int sizeX;
+  private int sizeY;
+  private double valueMinimum;
+  private double valueMaximum;
+  private int color;
+  private long appended;
+  private int scrollX;
+
+  SyMeterSparkline()
+  {
+
+  }
+
+  /**
+   * @return The raster, or {@code null} if the sparkline has not been drawn
+   */
+
+  SyRaster raster()
+  {
+    return this.raster;
+  }
+
+  /**
+   * @return The raster column drawn at the left edge of the meter
+   */
+
+  int scrollX()
+  {
+    return this.scrollX;
+  }
+
+  private static double normalized(
+    final SyMeterReadableType meter,
+    final double value)
+  {
+    final var minimum = meter.valueMinimum();
+    final var range = meter.valueMaximum() - minimum;
+    return Math.clamp((value - minimum) / range, 0.0, 1.0);
+  }
+
+  private static int heightOf(
+    final SyMeterReadableType meter,
+    final double value,
+    final int sizeY)
+  {
+    return (int) Math.round((1.0 - normalized(meter, value)) * (sizeY - 1));
+  }
+
+  private static int channel(
+    final double value)
+  {
+    return (int) Math.round(Math.clamp(value, 0.0, 1.0) * 255.0);
+  }
+
+  /**
+   * Pack a premultiplied color into the ARGB format used by rasters.
+   */
+
+  private static int pack(
+    final PVector4D<SySpaceRGBAPreType> color)
+  {
+    return (channel(color.w()) << 24)
+           | (channel(color.x()) << 16)
+           | (channel(color.y()) << 8)
+           | channel(color.z());
+  }
+
+  /**
+   * Update the sparkline of the given meter, drawing any columns that have
+   * arrived since the last update.
+   *
+   * @param meter      The meter
+   * @param foreground The sparkline color
+   * @param newSizeX   The width of the meter
+   * @param newSizeY   The height of the meter
+   */
+
+  void update(
+    final SyMeterReadableType meter,
+    final PVector4D<SySpaceRGBAPreType> foreground,
+    final int newSizeX,
+    final int newSizeY)
+  {
+    final var packed = pack(foreground);
+    final var fresh = meter.columnsAppended() - this.appended;
+
+    if (this.isStale(meter, packed, newSizeX, newSizeY)
+        || fresh >= newSizeX) {
+      this.redrawAll(meter, packed, newSizeX, newSizeY);
+    } else if (fresh > 0) {
+      this.redrawFresh(meter, (int) fresh);
+    }
+
+    this.appended = meter.columnsAppended();
+  }
+
+  /**
+   * @return {@code true} if the raster does not exist, or was drawn with a
+   * size, range, or color that differs from the current ones
+   */
+
+  private boolean isStale(
+    final SyMeterReadableType meter,
+    final int packed,
+    final int newSizeX,
+    final int newSizeY)
+  {
+    if (this.raster == null) {
+      return true;
+    }
+    if (newSizeX != this.sizeX || newSizeY != this.sizeY) {
+      return true;
+    }
+    if (Double.compare(meter.valueMinimum(), this.valueMinimum) != 0) {
+      return true;
+    }
+    if (Double.compare(meter.valueMaximum(), this.valueMaximum) != 0) {
+      return true;
+    }
+    return packed != this.color;
+  }
+
+  private void redrawAll(
+    final SyMeterReadableType meter,
+    final int packed,
+    final int newSizeX,
+    final int newSizeY)
+  {
+    if (this.raster == null
+        || newSizeX != this.sizeX
+        || newSizeY != this.sizeY) {
+      this.raster = new SyRaster(newSizeX, newSizeY);
+    }
+
+    this.sizeX = newSizeX;
+    this.sizeY = newSizeY;
+    this.valueMinimum = meter.valueMinimum();
+    this.valueMaximum = meter.valueMaximum();
+    this.color = packed;
+    this.scrollX = 0;
+
+    Arrays.fill(this.raster.pixels(), 0);
+
+    final var columnCount = meter.columnCount();
+    final var count = Math.min(columnCount, newSizeX);
+    final var first = columnCount - count;
+    final var originX = newSizeX - count;
+    for (int index = 0; index < count; ++index) {
+      this.drawColumn(meter, first + index, originX + index);
+    }
+    this.raster.markDirtyAll();
+  }
+
+  /**
+   * Append the newest {@code fresh} columns at the right edge of the
+   * sparkline. Each new column advances the scroll offset by one, and is
+   * written into the raster column that has just scrolled out at the left
+   * edge. The written columns are contiguous, modulo the raster width.
+   */
+
+  private void redrawFresh(
+    final SyMeterReadableType meter,
+    final int fresh)
+  {
+    final var width = this.raster.width();
+    final var height = this.raster.height();
+    final var first = meter.columnCount() - fresh;
+    final var startX = this.scrollX;
+
+    for (int index = 0; index < fresh; ++index) {
+      this.drawColumn(meter, first + index, (startX + index) % width);
+    }
+    this.scrollX = (startX + fresh) % width;
+
+    final var untilEdge = Math.min(fresh, width - startX);
+    this.raster.markDirty(startX, 0, untilEdge, height);
+    if (untilEdge < fresh) {
+      this.raster.markDirty(0, 0, fresh - untilEdge, height);
+    }
+  }
+
+  private void drawColumn(
+    final SyMeterReadableType meter,
+    final int column,
+    final int x)
+  {
+    final var pixels = this.raster.pixels();
+    final var width = this.raster.width();
+    final var height = this.raster.height();
+    final var top =
+      heightOf(meter, meter.columnMaximum(column), height);
+    final var bottom =
+      heightOf(meter, meter.columnMinimum(column), height) + 1;
+
+    for (int y = 0; y < height; ++y) {
+      pixels[y * width + x] = (y >= top && y < bottom) ? this.color : 0;
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.io7m.jsycamore.api.events.SyEventInputType;
 import com.io7m.jsycamore.api.keyboard.SyKeyEventType;
 import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnHeld;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
@@ -149,6 +150,10 @@ final class SyScrollBarVButtonThumb
         };
       }
 
+      case final SyMouseEventOnMoved e -> {
+        yield EVENT_NOT_CONSUMED;
+      }
+
       case final SyMouseEventOnNoLongerOver e -> {
         yield EVENT_NOT_CONSUMED;
       }
@@ -36,8 +36,6 @@ import com.io7m.jsycamore.components.standard.SyComponentAbstract;
 import com.io7m.jsycamore.components.standard.SyComponentAttributes;
 import com.io7m.jsycamore.components.standard.SyScrollBarsHorizontal;
 import com.io7m.jsycamore.components.standard.SyScrollBarsVertical;
-import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
-import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
 
 import java.util.List;
 
@@ -56,6 +54,7 @@ public final class SyScrollPane
   private final SyScrollPaneContentArea contentArea;
   private final SyScrollPaneContentAreaViewport contentAreaViewport;
   private final AttributeType<PAreaSizeI<SySpaceParentRelativeType>> contentAreaSize;
+  private SyConstraints contentAreaConstraints;
 
   /**
    * The main scroll pane implementation.
@@ -92,6 +91,7 @@ public final class SyScrollPane
     this.childAdd(this.scrollH);
     this.childAdd(this.scrollV);
     this.childAdd(this.contentAreaViewport);
+    this.contentAreaViewport.childAdd(this.contentArea);
 
     this.scrollH.setOnClickLeftListener(
       this.onScrollClickLeftListener());
@@ -201,14 +201,9 @@ public final class SyScrollPane
      * the content viewport. If either of the scrollbars aren't enabled, then
      * the viewport is sized such that it overlaps them.
      *
-     * Therefore, to set their sizes independently:
-     *
-     * 1. Detach the content area from the viewport.
-     * 2. Lay out the viewport.
-     * 3. Lay out the content area.
-     * 4. Re-attach the content area to the viewport.
-     * 5. Position the content area so that the correct area is seen through
-     *    the viewport.
+     * The viewport does not lay out its children, and so the content area
+     * and the viewport can be laid out independently, each with their own
+     * constraints, without detaching the content area from the viewport.
      */
 
     final var contentViewportConstraints =
@@ -220,30 +215,24 @@ public final class SyScrollPane
     final var contentAreaSizeNow =
       this.contentAreaSize.get();
 
-    final var contentAreaConstraints =
-      new SyConstraints(
+    this.contentAreaConstraints =
+      SyConstraints.reusing(
+        this.contentAreaConstraints,
         0,
         0,
         contentAreaSizeNow.sizeX(),
         contentAreaSizeNow.sizeY()
       );
 
-    this.contentAreaViewport.childRemove(this.contentArea);
-    this.contentArea.layout(layoutContext, contentAreaConstraints);
-
+    this.contentArea.layout(layoutContext, this.contentAreaConstraints);
     this.contentAreaViewport.layout(layoutContext, contentViewportConstraints);
-    this.contentAreaViewport.childAdd(this.contentArea);
-    this.contentAreaViewport.setPosition(PVectors2I.zero());
+    this.contentAreaViewport.setPosition(0, 0);
 
     final var contentViewportSizeNow =
       this.contentAreaViewport.size().get();
 
-    this.scrollH.setPosition(
-      PVector2I.of(0, contentViewportSizeNow.sizeY())
-    );
-    this.scrollV.setPosition(
-      PVector2I.of(contentViewportSizeNow.sizeX(), 0)
-    );
+    this.scrollH.setPosition(0, contentViewportSizeNow.sizeY());
+    this.scrollV.setPosition(contentViewportSizeNow.sizeX(), 0);
 
     /*
      * The content area is offset by a proportion of the scrollable region
@@ -260,7 +249,7 @@ public final class SyScrollPane
     final var contentAreaY =
       (int) -(this.scrollV.scrollPosition() * scrollRegionY);
 
-    this.contentArea.setPosition(PVector2I.of(contentAreaX, contentAreaY));
+    this.contentArea.setPosition(contentAreaX, contentAreaY);
     return newSize;
   }
 
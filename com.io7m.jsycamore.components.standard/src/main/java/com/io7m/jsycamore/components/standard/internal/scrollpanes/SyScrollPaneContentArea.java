@@ -37,6 +37,7 @@ final class SyScrollPaneContentArea extends SyComponentAbstract
     super(
       inScreen,
       List.of(),
+      () -> false,
       SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
     );
   }
@@ -17,14 +17,19 @@
 
 package com.io7m.jsycamore.components.standard.internal.scrollpanes;
 
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyConstraints;
 import com.io7m.jsycamore.api.events.SyEventConsumed;
 import com.io7m.jsycamore.api.events.SyEventInputType;
 import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 import com.io7m.jsycamore.components.standard.SyComponentAbstract;
 
 import java.util.List;
+import java.util.Objects;
 
 import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
 import static com.io7m.jsycamore.api.themes.SyThemeClassNameStandard.SCROLLPANE_CONTENT_AREA_VIEWPORT;
@@ -41,6 +46,37 @@ final class SyScrollPaneContentAreaViewport extends SyComponentAbstract
     );
   }
 
+  /**
+   * Size the viewport to the maximum size allowed by the constraints. The
+   * content area within the viewport is deliberately not laid out here: it
+   * is laid out by the owning scroll pane according to the content area
+   * size, which may be far larger than the viewport.
+   *
+   * @param layoutContext The current layout context
+   * @param constraints   The size constraints
+   *
+   * @return The size of the viewport
+   */
+
+  @Override
+  public PAreaSizeI<SySpaceParentRelativeType> layout(
+    final SyLayoutContextType layoutContext,
+    final SyConstraints constraints)
+  {
+    Objects.requireNonNull(layoutContext, "layoutContext");
+    Objects.requireNonNull(constraints, "constraints");
+
+    final var limitedConstraints =
+      layoutContext.deriveThemeConstraints(constraints, this)
+        .deriveLimitedBy(this.sizeUpperLimit().get());
+
+    this.setSize(
+      limitedConstraints.sizeMaximumX(),
+      limitedConstraints.sizeMaximumY()
+    );
+    return this.size().get();
+  }
+
   @Override
   public List<SyThemeClassNameType> themeClassesDefaultForComponent()
   {
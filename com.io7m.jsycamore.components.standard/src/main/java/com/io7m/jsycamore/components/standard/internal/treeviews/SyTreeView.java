@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.treeviews;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.components.SyListViewType;
+import com.io7m.jsycamore.api.components.SyTreeViewProviderType;
+import com.io7m.jsycamore.api.components.SyTreeViewRowFactoryType;
+import com.io7m.jsycamore.api.components.SyTreeViewType;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.components.standard.SyListViews;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+
+/**
+ * <p>The main tree view implementation.</p>
+ *
+ * <p>The visible nodes of the tree are flattened into rows and presented
+ * through a virtualized list view, so only the rows that are on screen
+ * have components. Children are requested from the provider when a node
+ * is first expanded, and the results are collected each time the tree
+ * view is laid out.</p>
+ */
+
+public final class SyTreeView
+  extends SyComponentAbstract implements SyTreeViewType
+{
+  private static final Duration DISCARD_DELAY_DEFAULT =
+    Duration.ofSeconds(30L);
+
+  private final SyListViewType list;
+  private final Clock clock;
+  private SyTreeViewModel<?> model;
+  private Duration discardDelay;
+
+  /**
+   * The main tree view implementation.
+   *
+   * @param screen       The screen that owns the component
+   * @param themeClasses The extra classes
+   * @param inClock      The clock used to time collapsed nodes
+   */
+
+  public SyTreeView(
+    final SyScreenType screen,
+    final List<SyThemeClassNameType> themeClasses,
+    final Clock inClock)
+  {
+    super(
+      screen,
+      themeClasses,
+      SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL
+    );
+
+    this.clock =
+      Objects.requireNonNull(inClock, "clock");
+    this.list =
+      SyListViews.create(screen);
+    this.model =
+      SyTreeViewModel.empty(inClock);
+    this.discardDelay =
+      DISCARD_DELAY_DEFAULT;
+
+    this.childAdd(this.list);
+  }
+
+  @Override
+  public PAreaSizeI<SySpaceParentRelativeType> layout(
+    final SyLayoutContextType layoutContext,
+    final SyConstraints constraints)
+  {
+    Objects.requireNonNull(layoutContext, "layoutContext");
+    Objects.requireNonNull(constraints, "constraints");
+
+    final var limitedConstraints =
+      layoutContext.deriveThemeConstraints(constraints, this)
+        .deriveLimitedBy(this.sizeUpperLimit().get());
+
+    final var sizeX = limitedConstraints.sizeMaximumX();
+    final var sizeY = limitedConstraints.sizeMaximumY();
+    this.setSize(sizeX, sizeY);
+
+    /*
+     * Apply any children that have arrived since the last layout, and
+     * rebuild the visible rows before the list view binds them.
+     */
+
+    if (this.model.update(this.discardDelay)) {
+      this.list.itemsChanged();
+    }
+
+    this.list.layout(layoutContext, limitedConstraints);
+    this.list.setPosition(0, 0);
+    return this.size().get();
+  }
+
+  @Override
+  protected SyEventConsumed onEventInput(
+    final SyEventInputType event)
+  {
+    return EVENT_NOT_CONSUMED;
+  }
+
+  @Override
+  public <T> void setRoot(
+    final T root,
+    final SyTreeViewProviderType<T> provider,
+    final SyTreeViewRowFactoryType<T> rows)
+  {
+    final var newModel =
+      new SyTreeViewModel<>(root, provider, rows, this.clock);
+
+    this.model = newModel;
+    this.list.setItems(newModel, newModel);
+  }
+
+  @Override
+  public void setCollapsedDiscardDelay(
+    final Duration delay)
+  {
+    Objects.requireNonNull(delay, "delay");
+    this.discardDelay =
+      Preconditions.checkPrecondition(
+        delay, !delay.isNegative(), d -> "Discard delay must be >= 0");
+  }
+
+  @Override
+  public SyListViewType listView()
+  {
+    return this.list;
+  }
+
+  @Override
+  public int rowCount()
+  {
+    return this.model.size();
+  }
+
+  @Override
+  public int nodesRealized()
+  {
+    return this.model.nodesRealized();
+  }
+
+  @Override
+  public Duration collapsedDiscardDelay()
+  {
+    return this.discardDelay;
+  }
+}
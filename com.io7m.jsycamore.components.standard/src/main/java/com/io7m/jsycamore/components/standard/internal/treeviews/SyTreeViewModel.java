@@ -0,0 +1,360 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.treeviews;
+
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyListViewDataType;
+import com.io7m.jsycamore.api.components.SyListViewRowFactoryType;
+import com.io7m.jsycamore.api.components.SyTreeViewNodeType;
+import com.io7m.jsycamore.api.components.SyTreeViewProviderType;
+import com.io7m.jsycamore.api.components.SyTreeViewRowFactoryType;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_FAILED;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_LOADED;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_LOADING;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_UNLOADED;
+
+/**
+ * <p>The model of a tree view: the realized nodes, and the flattened list of
+ * visible rows that is presented to the underlying list view.</p>
+ *
+ * <p>Requests for children may complete on any thread. Completions are
+ * placed on a concurrent queue, and are applied to the nodes only when the
+ * model is updated on the thread that owns the screen.</p>
+ *
+ * @param <T> The type of items
+ */
+
+final class SyTreeViewModel<T>
+  implements SyListViewDataType<SyTreeViewNode<T>>,
+  SyListViewRowFactoryType<SyTreeViewNode<T>>
+{
+  private final SyTreeViewProviderType<T> provider;
+  private final SyTreeViewRowFactoryType<T> rows;
+  private final Clock clock;
+  private final SyTreeViewNode<T> root;
+  private final ConcurrentLinkedQueue<Completion<T>> completions;
+  private final ArrayList<SyTreeViewNode<T>> collapsed;
+  private final ArrayList<SyTreeViewNode<T>> flat;
+  private final BitSet placeholders;
+  private boolean structureChanged;
+  private int nodesRealized;
+
+  SyTreeViewModel(
+    final T inRoot,
+    final SyTreeViewProviderType<T> inProvider,
+    final SyTreeViewRowFactoryType<T> inRows,
+    final Clock inClock)
+  {
+    this.provider =
+      Objects.requireNonNull(inProvider, "provider");
+    this.rows =
+      Objects.requireNonNull(inRows, "rows");
+    this.clock =
+      Objects.requireNonNull(inClock, "clock");
+
+    this.completions = new ConcurrentLinkedQueue<>();
+    this.collapsed = new ArrayList<>();
+    this.flat = new ArrayList<>();
+    this.placeholders = new BitSet();
+    this.root = new SyTreeViewNode<>(this, inRoot, -1, false);
+    this.root.expand();
+  }
+
+  static SyTreeViewModel<Object> empty(
+    final Clock clock)
+  {
+    return new SyTreeViewModel<>(
+      new Object(),
+      Empty.EMPTY,
+      Empty.EMPTY,
+      clock
+    );
+  }
+
+  int nodesRealized()
+  {
+    return this.nodesRealized;
+  }
+
+  void structureChanged()
+  {
+    this.structureChanged = true;
+  }
+
+  void load(
+    final SyTreeViewNode<T> node)
+  {
+    final var generation = node.loadGenerationNext();
+    final var future = this.provider.children(node.item());
+    node.setState(NODE_LOADING);
+    node.setLoading(future);
+
+    future.whenComplete((children, error) -> {
+      this.completions.add(
+        new Completion<>(node, generation, children, error));
+    });
+  }
+
+  void collapsed(
+    final SyTreeViewNode<T> node)
+  {
+    node.setCollapsedAt(this.clock.millis());
+    this.collapsed.add(node);
+  }
+
+  /**
+   * Apply any completed requests, discard the children of nodes that have
+   * been collapsed for longer than the given delay, and rebuild the list of
+   * visible rows if necessary.
+   *
+   * @param discardDelay The discard delay
+   *
+   * @return {@code true} if the visible rows changed
+   */
+
+  boolean update(
+    final Duration discardDelay)
+  {
+    while (true) {
+      final var completion = this.completions.poll();
+      if (completion == null) {
+        break;
+      }
+      this.complete(completion);
+    }
+
+    this.sweepCollapsed(discardDelay.toMillis());
+
+    if (this.structureChanged) {
+      this.flat.clear();
+      this.placeholders.clear();
+      this.flatten(this.root);
+      this.structureChanged = false;
+      return true;
+    }
+    return false;
+  }
+
+  private void complete(
+    final Completion<T> completion)
+  {
+    final var node = completion.node;
+    if (node.loadGeneration() != completion.generation) {
+      return;
+    }
+
+    node.setLoading(null);
+    if (completion.error != null || completion.children == null) {
+      node.setState(NODE_FAILED);
+      this.structureChanged = true;
+      return;
+    }
+
+    final var items = completion.children;
+    final var depth = node.depth() + 1;
+    final var children = new ArrayList<SyTreeViewNode<T>>(items.size());
+    for (final var item : items) {
+      children.add(
+        new SyTreeViewNode<>(this, item, depth, this.provider.isLeaf(item)));
+    }
+
+    node.setChildren(Collections.unmodifiableList(children));
+    node.setState(NODE_LOADED);
+    this.nodesRealized += children.size();
+    this.structureChanged = true;
+  }
+
+  private void sweepCollapsed(
+    final long discardDelayMillis)
+  {
+    final var nodes = this.collapsed;
+    if (nodes.isEmpty()) {
+      return;
+    }
+
+    final var now = this.clock.millis();
+    var kept = 0;
+    final var count = nodes.size();
+    for (int index = 0; index < count; ++index) {
+      final var node = nodes.get(index);
+      if (node.isExpanded()) {
+        continue;
+      }
+      if (now - node.collapsedAt() >= discardDelayMillis) {
+        this.discard(node);
+        continue;
+      }
+      nodes.set(kept, node);
+      ++kept;
+    }
+    nodes.subList(kept, count).clear();
+  }
+
+  /**
+   * Discard the realized descendants of a collapsed node, and abandon any
+   * request that is in progress for the node or for any of its descendants.
+   */
+
+  private void discard(
+    final SyTreeViewNode<T> node)
+  {
+    final var stack = new ArrayDeque<SyTreeViewNode<T>>(node.children());
+    var discarded = 0;
+    while (!stack.isEmpty()) {
+      final var descendant = stack.pop();
+      ++discarded;
+      stack.addAll(descendant.children());
+      abandon(descendant);
+    }
+
+    abandon(node);
+    this.nodesRealized -= discarded;
+  }
+
+  /**
+   * Cancel any request in progress for the given node, and ensure that the
+   * request is ignored if it completes anyway.
+   */
+
+  private static <T> void abandon(
+    final SyTreeViewNode<T> node)
+  {
+    final var loading = node.loading();
+    if (loading != null) {
+      loading.cancel(false);
+    }
+
+    node.loadGenerationNext();
+    node.setLoading(null);
+    node.setChildren(List.of());
+    node.setState(NODE_UNLOADED);
+  }
+
+  private void flatten(
+    final SyTreeViewNode<T> node)
+  {
+    if (node.state() == NODE_LOADING) {
+      this.placeholders.set(this.flat.size());
+      this.flat.add(node);
+      return;
+    }
+
+    for (final var child : node.children()) {
+      this.flat.add(child);
+      if (child.isExpanded()) {
+        this.flatten(child);
+      }
+    }
+  }
+
+  @Override
+  public int size()
+  {
+    return this.flat.size();
+  }
+
+  @Override
+  public SyTreeViewNode<T> itemAt(
+    final int index)
+  {
+    return this.flat.get(index);
+  }
+
+  @Override
+  public SyComponentType rowCreate()
+  {
+    return this.rows.rowCreate();
+  }
+
+  @Override
+  public void rowBind(
+    final SyComponentType row,
+    final int index,
+    final SyTreeViewNode<T> item)
+  {
+    if (this.placeholders.get(index)) {
+      this.rows.rowBindPlaceholder(row, item);
+    } else {
+      this.rows.rowBind(row, item);
+    }
+  }
+
+  private record Completion<T>(
+    SyTreeViewNode<T> node,
+    int generation,
+    List<T> children,
+    Throwable error)
+  {
+
+  }
+
+  private enum Empty
+    implements SyTreeViewProviderType<Object>, SyTreeViewRowFactoryType<Object>
+  {
+    EMPTY;
+
+    @Override
+    public boolean isLeaf(
+      final Object item)
+    {
+      return true;
+    }
+
+    @Override
+    public CompletableFuture<List<Object>> children(
+      final Object item)
+    {
+      return CompletableFuture.completedFuture(List.of());
+    }
+
+    @Override
+    public SyComponentType rowCreate()
+    {
+      throw new UnreachableCodeException();
+    }
+
+    @Override
+    public void rowBind(
+      final SyComponentType row,
+      final SyTreeViewNodeType<Object> node)
+    {
+      throw new UnreachableCodeException();
+    }
+
+    @Override
+    public void rowBindPlaceholder(
+      final SyComponentType row,
+      final SyTreeViewNodeType<Object> parent)
+    {
+      throw new UnreachableCodeException();
+    }
+  }
+}
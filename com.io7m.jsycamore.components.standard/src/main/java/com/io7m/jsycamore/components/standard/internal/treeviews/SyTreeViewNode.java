@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.components.standard.internal.treeviews;
+
+import com.io7m.jsycamore.api.components.SyTreeViewNodeState;
+import com.io7m.jsycamore.api.components.SyTreeViewNodeType;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_FAILED;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_UNLOADED;
+
+/**
+ * A node in a tree view.
+ *
+ * @param <T> The type of items
+ */
+
+final class SyTreeViewNode<T> implements SyTreeViewNodeType<T>
+{
+  private final SyTreeViewModel<T> model;
+  private final T item;
+  private final int depth;
+  private final boolean leaf;
+  private List<SyTreeViewNode<T>> children;
+  private SyTreeViewNodeState state;
+  private CompletableFuture<List<T>> loading;
+  private int loadGeneration;
+  private boolean expanded;
+  private long collapsedAt;
+
+  SyTreeViewNode(
+    final SyTreeViewModel<T> inModel,
+    final T inItem,
+    final int inDepth,
+    final boolean inLeaf)
+  {
+    this.model = Objects.requireNonNull(inModel, "model");
+    this.item = inItem;
+    this.depth = inDepth;
+    this.leaf = inLeaf;
+    this.children = List.of();
+    this.state = NODE_UNLOADED;
+  }
+
+  @Override
+  public T item()
+  {
+    return this.item;
+  }
+
+  @Override
+  public int depth()
+  {
+    return this.depth;
+  }
+
+  @Override
+  public boolean isLeaf()
+  {
+    return this.leaf;
+  }
+
+  @Override
+  public boolean isExpanded()
+  {
+    return this.expanded;
+  }
+
+  @Override
+  public SyTreeViewNodeState state()
+  {
+    return this.state;
+  }
+
+  @Override
+  public void expand()
+  {
+    if (this.leaf || this.expanded) {
+      return;
+    }
+
+    this.expanded = true;
+    if (this.state == NODE_UNLOADED || this.state == NODE_FAILED) {
+      this.model.load(this);
+    }
+    this.model.structureChanged();
+  }
+
+  @Override
+  public void collapse()
+  {
+    if (!this.expanded) {
+      return;
+    }
+
+    this.expanded = false;
+    this.model.collapsed(this);
+    this.model.structureChanged();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[SyTreeViewNode %s %s %s]",
+      this.item,
+      this.state,
+      this.expanded ? "expanded" : "collapsed"
+    );
+  }
+
+  List<SyTreeViewNode<T>> children()
+  {
+    return this.children;
+  }
+
+  void setChildren(
+    final List<SyTreeViewNode<T>> newChildren)
+  {
+    this.children = newChildren;
+  }
+
+  void setState(
+    final SyTreeViewNodeState newState)
+  {
+    this.state = newState;
+  }
+
+  CompletableFuture<List<T>> loading()
+  {
+    return this.loading;
+  }
+
+  void setLoading(
+    final CompletableFuture<List<T>> future)
+  {
+    this.loading = future;
+  }
+
+  int loadGeneration()
+  {
+    return this.loadGeneration;
+  }
+
+  int loadGenerationNext()
+  {
+    return ++this.loadGeneration;
+  }
+
+  long collapsedAt()
+  {
+    return this.collapsedAt;
+  }
+
+  void setCollapsedAt(
+    final long time)
+  {
+    this.collapsedAt = time;
+  }
+}
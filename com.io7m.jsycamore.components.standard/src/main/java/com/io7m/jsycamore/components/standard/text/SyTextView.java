@@ -26,6 +26,7 @@ import com.io7m.jsycamore.api.keyboard.SyKeyEventType;
 import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
 import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnHeld;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
@@ -174,6 +175,10 @@ public final class SyTextView
         .textSelectionService();
 
     return switch (event) {
+      case final SyMouseEventOnMoved e -> {
+        yield EVENT_NOT_CONSUMED;
+      }
+
       case final SyMouseEventOnNoLongerOver e -> {
         yield EVENT_NOT_CONSUMED;
       }
@@ -0,0 +1,603 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.areas.PAreasI;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeImage;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.awt.internal.SyAWTImageCacheConfiguration;
+import com.io7m.jsycamore.awt.internal.SyAWTImageLoader;
+import com.io7m.jsycamore.awt.internal.SyAWTImageRequest;
+import com.io7m.jsycamore.awt.internal.SyAWTNodeRenderer;
+import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyAWTImageLoaderTest
+{
+  private Path directory;
+  private URI imageURI;
+  private SyAWTImageLoader loader;
+  private ArrayDeque<Runnable> tasks;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory =
+      SyTestDirectories.createTempDirectory();
+    this.loader =
+      new SyAWTImageLoader();
+    this.tasks =
+      new ArrayDeque<>();
+
+    final var image = new BufferedImage(512, 512, TYPE_INT_ARGB);
+    final var graphics = image.createGraphics();
+    try {
+      graphics.setPaint(Color.BLUE);
+      graphics.fillRect(0, 0, 512, 512);
+    } finally {
+      graphics.dispose();
+    }
+
+    final var file = this.directory.resolve("image.png");
+    ImageIO.write(image, "PNG", file.toFile());
+    this.imageURI = file.toUri();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    SyTestDirectories.deleteDirectory(this.directory);
+  }
+
+  private BufferedImage load(
+    final int width,
+    final int height)
+    throws Exception
+  {
+    return this.loader.loadAsync(
+      new SyAWTImageRequest(this.imageURI, width, height)
+    ).get();
+  }
+
+  /**
+   * Requesting an image at several sizes decodes the source once.
+   */
+
+  @Test
+  public void testSizesShareSource()
+    throws Exception
+  {
+    assertEquals(512, this.load(512, 512).getWidth());
+    assertEquals(400, this.load(400, 400).getWidth());
+    assertEquals(200, this.load(300, 200).getHeight());
+
+    assertEquals(1L, this.loader.sourcesDecoded());
+    assertEquals(512L * 512L, this.loader.sourcePixelsDecoded());
+  }
+
+  /**
+   * Loading an image whose size is not yet known opens the source once,
+   * reading the size and decoding the image together.
+   */
+
+  @Test
+  public void testSourceOpenedOnce()
+    throws Exception
+  {
+    assertEquals(16, this.load(16, 16).getWidth());
+    assertEquals(1L, this.loader.sourcesOpened());
+    assertEquals(1L, this.loader.sourcesDecoded());
+
+    assertEquals(16, this.load(16, 16).getWidth());
+    assertEquals(12, this.load(12, 12).getWidth());
+    assertEquals(1L, this.loader.sourcesOpened());
+    assertEquals(1L, this.loader.sourcesDecoded());
+
+    assertEquals(100, this.load(100, 100).getWidth());
+    assertEquals(2L, this.loader.sourcesOpened());
+    assertEquals(2L, this.loader.sourcesDecoded());
+  }
+
+  /**
+   * Small images are subsampled as they are decoded.
+   */
+
+  @Test
+  public void testSmallSubsampled()
+    throws Exception
+  {
+    final var image = this.load(16, 16);
+    assertEquals(16, image.getWidth());
+    assertEquals(16, image.getHeight());
+    assertEquals(Color.BLUE.getRGB(), image.getRGB(8, 8));
+
+    assertEquals(1L, this.loader.sourcesDecoded());
+    assertEquals(16L * 16L, this.loader.sourcePixelsDecoded());
+
+    /*
+     * Sizes that round to the same subsampling factor share a source.
+     */
+
+    assertEquals(100, this.load(100, 100).getWidth());
+    assertEquals(120, this.load(120, 120).getWidth());
+    assertEquals(2L, this.loader.sourcesDecoded());
+    assertEquals(16L * 16L + 128L * 128L, this.loader.sourcePixelsDecoded());
+  }
+
+  /**
+   * Missing images fail.
+   */
+
+  @Test
+  public void testMissingFails()
+  {
+    final var request =
+      new SyAWTImageRequest(
+        this.directory.resolve("missing.png").toUri(),
+        16,
+        16
+      );
+
+    assertThrows(
+      ExecutionException.class,
+      () -> this.loader.loadAsync(request).get()
+    );
+    assertEquals(0L, this.loader.sourcesDecoded());
+  }
+
+  private void runTasks()
+  {
+    while (!this.tasks.isEmpty()) {
+      this.tasks.poll().run();
+    }
+  }
+
+  /**
+   * Completion listeners are called for successful and failed loads.
+   */
+
+  @Test
+  public void testCompletionListeners()
+  {
+    final var loaderManual = new SyAWTImageLoader(this.tasks::add);
+    final var completed = new ArrayList<SyAWTImageRequest>();
+    loaderManual.addCompletionListener(completed::add);
+
+    final var requestOK =
+      new SyAWTImageRequest(this.imageURI, 16, 16);
+    final var requestMissing =
+      new SyAWTImageRequest(
+        this.directory.resolve("missing.png").toUri(),
+        16,
+        16
+      );
+
+    final var futureOK = loaderManual.loadAsync(requestOK);
+    final var futureMissing = loaderManual.loadAsync(requestMissing);
+    assertEquals(List.of(), completed);
+
+    this.runTasks();
+    assertTrue(futureOK.isDone());
+    assertTrue(futureMissing.isCompletedExceptionally());
+    assertEquals(List.of(requestOK, requestMissing), completed);
+  }
+
+  /**
+   * Closed completion listener subscriptions are not called.
+   */
+
+  @Test
+  public void testCompletionListenerClosed()
+  {
+    final var loaderManual = new SyAWTImageLoader(this.tasks::add);
+    final var completed = new ArrayList<SyAWTImageRequest>();
+    final var subscription =
+      loaderManual.addCompletionListener(completed::add);
+
+    final var request0 = new SyAWTImageRequest(this.imageURI, 16, 16);
+    loaderManual.loadAsync(request0);
+    this.runTasks();
+    assertEquals(List.of(request0), completed);
+
+    subscription.close();
+    subscription.close();
+
+    loaderManual.loadAsync(new SyAWTImageRequest(this.imageURI, 32, 32));
+    this.runTasks();
+    assertEquals(List.of(request0), completed);
+  }
+
+  /**
+   * Regions that showed loading placeholders become ready to redraw when
+   * their images load.
+   */
+
+  @Test
+  public void testPendingRegionsReady()
+    throws Exception
+  {
+    final var loaderManual =
+      new SyAWTImageLoader(this.tasks::add);
+    final var nodeRenderer =
+      new SyAWTNodeRenderer(
+        loaderManual,
+        SyAWTFontDirectoryService.createFromServiceLoader()
+      );
+    final var pending =
+      nodeRenderer.imagesPending();
+    final var readyCalls =
+      new AtomicInteger();
+
+    pending.setOnReadyListener(readyCalls::incrementAndGet);
+
+    final var node =
+      new SyRenderNodeImage(
+        "Image",
+        this.imageURI,
+        PVectors2I.zero(),
+        PAreaSizeI.of(16, 16)
+      );
+
+    final var target = new BufferedImage(128, 128, TYPE_INT_ARGB);
+    final var g = target.createGraphics();
+    g.translate(10, 20);
+
+    nodeRenderer.renderNode(g, node);
+    nodeRenderer.renderNode(g, node);
+    assertEquals(1, pending.pendingCount());
+    assertEquals(List.of(), pending.takeReady());
+    assertEquals(0, readyCalls.get());
+
+    this.runTasks();
+    assertEquals(1, readyCalls.get());
+    assertEquals(0, pending.pendingCount());
+    assertEquals(
+      List.of(PAreasI.create(10, 20, 16, 16)),
+      pending.takeReady()
+    );
+
+    nodeRenderer.renderNode(g, node);
+    assertEquals(0, pending.pendingCount());
+    assertEquals(Color.BLUE.getRGB(), target.getRGB(18, 28));
+    g.dispose();
+    nodeRenderer.close();
+  }
+
+  /**
+   * Closed node renderers no longer listen to the image loader.
+   */
+
+  @Test
+  public void testPendingRegionsClosed()
+  {
+    final var loaderManual =
+      new SyAWTImageLoader(this.tasks::add);
+    final var nodeRenderer =
+      new SyAWTNodeRenderer(
+        loaderManual,
+        SyAWTFontDirectoryService.createFromServiceLoader()
+      );
+    final var pending =
+      nodeRenderer.imagesPending();
+    final var readyCalls =
+      new AtomicInteger();
+
+    pending.setOnReadyListener(readyCalls::incrementAndGet);
+
+    final var target = new BufferedImage(128, 128, TYPE_INT_ARGB);
+    final var g = target.createGraphics();
+    try {
+      nodeRenderer.renderNode(
+        g,
+        new SyRenderNodeImage(
+          "Image",
+          this.imageURI,
+          PVectors2I.zero(),
+          PAreaSizeI.of(16, 16)
+        )
+      );
+    } finally {
+      g.dispose();
+    }
+
+    assertEquals(1, pending.pendingCount());
+    nodeRenderer.close();
+
+    this.runTasks();
+    assertEquals(0, readyCalls.get());
+    assertEquals(1, pending.pendingCount());
+    assertEquals(List.of(), pending.takeReady());
+  }
+
+  /**
+   * Loads of visible images start before prefetches.
+   */
+
+  @Test
+  public void testVisibleBeforePrefetch()
+  {
+    final var loaderManual = new SyAWTImageLoader(this.tasks::add);
+    final var completed = new ArrayList<SyAWTImageRequest>();
+    loaderManual.addCompletionListener(completed::add);
+
+    final var r0 = new SyAWTImageRequest(this.imageURI, 16, 16);
+    final var r1 = new SyAWTImageRequest(this.imageURI, 32, 32);
+    final var r2 = new SyAWTImageRequest(this.imageURI, 64, 64);
+
+    loaderManual.prefetch(r0);
+    loaderManual.prefetch(r1);
+    loaderManual.loadAsync(r2);
+    assertEquals(2, loaderManual.prefetchesQueued());
+
+    this.runTasks();
+    assertEquals(List.of(r2, r0, r1), completed);
+    assertEquals(0, loaderManual.prefetchesQueued());
+  }
+
+  /**
+   * Displaying an image that is queued for prefetching promotes it.
+   */
+
+  @Test
+  public void testPrefetchPromoted()
+  {
+    final var loaderManual = new SyAWTImageLoader(this.tasks::add);
+    final var completed = new ArrayList<SyAWTImageRequest>();
+    loaderManual.addCompletionListener(completed::add);
+
+    final var r0 = new SyAWTImageRequest(this.imageURI, 16, 16);
+    final var r1 = new SyAWTImageRequest(this.imageURI, 32, 32);
+
+    loaderManual.prefetch(r0);
+    final var future1 = loaderManual.prefetch(r1);
+    assertEquals(future1, loaderManual.loadAsync(r1));
+    assertEquals(1, loaderManual.prefetchesQueued());
+    assertFalse(loaderManual.prefetchCancel(r1));
+
+    this.runTasks();
+    assertEquals(List.of(r1, r0), completed);
+  }
+
+  /**
+   * Promoted prefetches are neither promoted again nor cancelled, and are
+   * loaded once.
+   */
+
+  @Test
+  public void testPrefetchPromotedRepeatedly()
+  {
+    final var loaderManual = new SyAWTImageLoader(this.tasks::add);
+
+    final var r0 = new SyAWTImageRequest(this.imageURI, 16, 16);
+    final var r1 = new SyAWTImageRequest(this.imageURI, 32, 32);
+    final var r2 = new SyAWTImageRequest(this.imageURI, 64, 64);
+
+    final var f0 = loaderManual.prefetch(r0);
+    final var f1 = loaderManual.prefetch(r1);
+    final var f2 = loaderManual.prefetch(r2);
+    for (int index = 0; index < 3; ++index) {
+      assertEquals(f1, loaderManual.loadAsync(r1));
+    }
+    assertEquals(2, loaderManual.prefetchesQueued());
+    assertFalse(loaderManual.prefetchCancel(r1));
+
+    assertTrue(loaderManual.prefetchCancel(r0));
+    assertEquals(1, loaderManual.prefetchesQueued());
+    assertEquals(1, loaderManual.prefetchCancelAll());
+    assertEquals(0, loaderManual.prefetchesQueued());
+    assertTrue(f0.isCancelled());
+    assertTrue(f2.isCancelled());
+
+    this.runTasks();
+    assertTrue(f1.isDone());
+    assertFalse(f1.isCompletedExceptionally());
+    assertEquals(1L, loaderManual.sourcesDecoded());
+  }
+
+  /**
+   * Prefetches that have not started can be cancelled.
+   */
+
+  @Test
+  public void testPrefetchCancel()
+  {
+    final var loaderManual = new SyAWTImageLoader(this.tasks::add);
+
+    final var r0 = new SyAWTImageRequest(this.imageURI, 16, 16);
+    final var r1 = new SyAWTImageRequest(this.imageURI, 32, 32);
+    final var r2 = new SyAWTImageRequest(this.imageURI, 64, 64);
+    final var r3 = new SyAWTImageRequest(this.imageURI, 128, 128);
+
+    final var f0 = loaderManual.prefetch(r0);
+    final var f1 = loaderManual.prefetch(r1);
+    final var f2 = loaderManual.prefetch(r2);
+    final var f3 = loaderManual.prefetch(r3);
+
+    assertTrue(loaderManual.prefetchCancel(r0));
+    assertFalse(loaderManual.prefetchCancel(r0));
+    assertTrue(f0.isCancelled());
+
+    this.tasks.poll().run();
+    assertTrue(f1.isDone());
+    assertEquals(2, loaderManual.prefetchCancelAll());
+    assertTrue(f2.isCancelled());
+    assertTrue(f3.isCancelled());
+
+    this.runTasks();
+    assertFalse(f1.isCompletedExceptionally());
+    assertEquals(1L, loaderManual.sourcesDecoded());
+
+    /*
+     * A cancelled prefetch does not stay in the cache.
+     */
+
+    final var f0Again = loaderManual.prefetch(r0);
+    assertFalse(f0Again.isDone());
+    this.runTasks();
+    assertFalse(f0Again.isCompletedExceptionally());
+  }
+
+  /**
+   * Images evicted from the heap are demoted to off-heap memory and then
+   * to the scratch file, and are restored from there without being decoded
+   * again.
+   */
+
+  @Test
+  public void testTiersDemoteAndRestore()
+    throws Exception
+  {
+    final var configuration =
+      new SyAWTImageCacheConfiguration(
+        40_000L,
+        40_000L,
+        1_000_000L,
+        0L,
+        Optional.of(this.directory)
+      );
+
+    try (var tiered = new SyAWTImageLoader(Runnable::run, configuration)) {
+      for (int width = 100; width > 96; --width) {
+        tiered.loadAsync(new SyAWTImageRequest(this.imageURI, width, 100))
+          .get();
+      }
+
+      assertEquals(1, tiered.imagesOffHeap());
+      assertEquals(2, tiered.imagesSpilled());
+      assertEquals(1L, tiered.sourcesDecoded());
+
+      for (int width = 100; width > 96; --width) {
+        final var image =
+          tiered.loadAsync(new SyAWTImageRequest(this.imageURI, width, 100))
+            .get();
+        assertEquals(width, image.getWidth());
+        assertEquals(100, image.getHeight());
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(50, 50));
+      }
+
+      assertTrue(
+        tiered.imagesRestoredOffHeap() + tiered.imagesRestoredSpilled() >= 3L);
+      assertEquals(1L, tiered.sourcesDecoded());
+    }
+  }
+
+  /**
+   * The scratch file is a ring that overwrites the oldest spilled images.
+   */
+
+  @Test
+  public void testTiersSpillWraps()
+    throws Exception
+  {
+    final var configuration =
+      new SyAWTImageCacheConfiguration(
+        0L,
+        0L,
+        100_000L,
+        0L,
+        Optional.of(this.directory)
+      );
+
+    try (var tiered = new SyAWTImageLoader(Runnable::run, configuration)) {
+      for (int width = 100; width > 90; --width) {
+        tiered.loadAsync(new SyAWTImageRequest(this.imageURI, width, 100))
+          .get();
+        assertTrue(tiered.imagesSpilled() <= 2);
+      }
+
+      assertEquals(0, tiered.imagesOffHeap());
+      assertEquals(2, tiered.imagesSpilled());
+
+      final var image =
+        tiered.loadAsync(new SyAWTImageRequest(this.imageURI, 91, 100))
+          .get();
+      assertEquals(91, image.getWidth());
+      assertEquals(Color.BLUE.getRGB(), image.getRGB(50, 50));
+      assertEquals(1L, tiered.imagesRestoredSpilled());
+      assertEquals(1, tiered.imagesSpilled());
+    }
+  }
+
+  /**
+   * Images evicted after the loader is closed are not demoted, and no new
+   * scratch file is created.
+   */
+
+  @Test
+  public void testTiersClosed()
+    throws Exception
+  {
+    final var spillDirectory =
+      Files.createDirectories(this.directory.resolve("spill"));
+    final var configuration =
+      new SyAWTImageCacheConfiguration(
+        0L,
+        0L,
+        100_000L,
+        0L,
+        Optional.of(spillDirectory)
+      );
+
+    final var tiered = new SyAWTImageLoader(Runnable::run, configuration);
+    tiered.loadAsync(new SyAWTImageRequest(this.imageURI, 100, 100)).get();
+    assertEquals(1, tiered.imagesSpilled());
+    tiered.close();
+
+    try (var files = Files.list(spillDirectory)) {
+      assertEquals(0L, files.count());
+    }
+
+    for (int width = 100; width > 95; --width) {
+      final var image =
+        tiered.loadAsync(new SyAWTImageRequest(this.imageURI, width, 100))
+          .get();
+      assertEquals(width, image.getWidth());
+    }
+
+    assertEquals(0, tiered.imagesSpilled());
+    assertEquals(0, tiered.imagesOffHeap());
+    assertEquals(0L, tiered.imagesRestoredSpilled());
+    try (var files = Files.list(spillDirectory)) {
+      assertEquals(0L, files.count());
+    }
+  }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeImageTiled;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.awt.internal.SyAWTImageCacheConfiguration;
+import com.io7m.jsycamore.awt.internal.SyAWTImageLoader;
+import com.io7m.jsycamore.awt.internal.SyAWTImageRequest;
+import com.io7m.jsycamore.awt.internal.SyAWTNodeRenderer;
+import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Optional;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyAWTImageTiledTest
+{
+  private static final long TILE_BYTES = 256L * 256L * 4L;
+
+  private Path directory;
+  private URI imageURI;
+  private ArrayDeque<Runnable> tasks;
+  private SyAWTImageLoader loader;
+  private SyAWTNodeRenderer renderer;
+  private BufferedImage target;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory =
+      SyTestDirectories.createTempDirectory();
+    this.tasks =
+      new ArrayDeque<>();
+
+    final var image = new BufferedImage(2048, 2048, TYPE_INT_ARGB);
+    final var graphics = image.createGraphics();
+    try {
+      graphics.setPaint(Color.RED);
+      graphics.fillRect(0, 0, 1024, 1024);
+      graphics.setPaint(Color.GREEN);
+      graphics.fillRect(1024, 0, 1024, 1024);
+      graphics.setPaint(Color.YELLOW);
+      graphics.fillRect(0, 1024, 1024, 1024);
+      graphics.setPaint(Color.BLUE);
+      graphics.fillRect(1024, 1024, 1024, 1024);
+    } finally {
+      graphics.dispose();
+    }
+
+    final var file = this.directory.resolve("large.png");
+    ImageIO.write(image, "PNG", file.toFile());
+    this.imageURI = file.toUri();
+
+    this.loader =
+      new SyAWTImageLoader(
+        this.tasks::add,
+        new SyAWTImageCacheConfiguration(
+          1_000_000L,
+          0L,
+          0L,
+          4L * TILE_BYTES,
+          Optional.empty()
+        )
+      );
+    this.renderer =
+      new SyAWTNodeRenderer(
+        this.loader,
+        SyAWTFontDirectoryService.createFromServiceLoader()
+      );
+    this.target =
+      new BufferedImage(300, 300, TYPE_INT_ARGB);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.renderer.close();
+    this.loader.close();
+    SyTestDirectories.deleteDirectory(this.directory);
+  }
+
+  private void runTasks()
+  {
+    while (!this.tasks.isEmpty()) {
+      this.tasks.poll().run();
+    }
+  }
+
+  private void render(
+    final int size,
+    final int x,
+    final int y)
+  {
+    this.renderer.frameBegin();
+
+    final var g = this.target.createGraphics();
+    try {
+      g.setBackground(new Color(0, 0, 0, 0));
+      g.clearRect(0, 0, 300, 300);
+      g.translate(-x, -y);
+      g.setClip(x, y, 300, 300);
+      this.renderer.renderNode(
+        g,
+        new SyRenderNodeImageTiled(
+          "Image",
+          this.imageURI,
+          PVectors2I.zero(),
+          PAreaSizeI.of(size, size)
+        )
+      );
+    } finally {
+      g.dispose();
+    }
+  }
+
+  /**
+   * Only the tiles that intersect the clip region are loaded.
+   */
+
+  @Test
+  public void testVisibleTilesOnly()
+  {
+    this.render(2048, 0, 0);
+    assertEquals(0L, this.loader.tilesDecoded());
+    assertEquals(1, this.renderer.imagesPending().pendingCount());
+    this.runTasks();
+
+    this.render(2048, 0, 0);
+    assertEquals(4, this.renderer.imagesPending().pendingCount());
+    this.runTasks();
+    assertEquals(4L, this.loader.tilesDecoded());
+    assertEquals(0, this.renderer.imagesPending().pendingCount());
+
+    this.render(2048, 0, 0);
+    assertEquals(4L, this.loader.tilesDecoded());
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(10, 10));
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(290, 290));
+  }
+
+  /**
+   * Zooming out loads tiles from a coarser level of the pyramid.
+   */
+
+  @Test
+  public void testZoomOut()
+  {
+    this.render(512, 0, 0);
+    this.runTasks();
+    this.render(512, 0, 0);
+    this.runTasks();
+    assertEquals(4L, this.loader.tilesDecoded());
+
+    this.render(512, 0, 0);
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(10, 10));
+    assertEquals(Color.GREEN.getRGB(), this.target.getRGB(290, 10));
+    assertEquals(Color.YELLOW.getRGB(), this.target.getRGB(10, 290));
+    assertEquals(Color.BLUE.getRGB(), this.target.getRGB(290, 290));
+  }
+
+  /**
+   * Tiles that have not loaded are drawn from coarser tiles, and tiles are
+   * evicted when the cache is full.
+   */
+
+  @Test
+  public void testZoomInCoarseAndEviction()
+  {
+    this.render(512, 0, 0);
+    this.runTasks();
+    this.render(512, 0, 0);
+    this.runTasks();
+    assertEquals(4, this.loader.tilesCached());
+
+    this.render(2048, 1100, 1100);
+    assertEquals(4, this.renderer.imagesPending().pendingCount());
+    assertEquals(Color.BLUE.getRGB(), this.target.getRGB(50, 50));
+
+    this.runTasks();
+    assertEquals(8L, this.loader.tilesDecoded());
+    assertEquals(4, this.loader.tilesCached());
+
+    this.render(2048, 1100, 1100);
+    assertEquals(0, this.renderer.imagesPending().pendingCount());
+    assertEquals(Color.BLUE.getRGB(), this.target.getRGB(50, 50));
+    assertEquals(Color.BLUE.getRGB(), this.target.getRGB(299, 299));
+  }
+
+  /**
+   * Tiles are loaded before prefetches.
+   */
+
+  @Test
+  public void testTilesBeforePrefetches()
+  {
+    this.loader.prefetch(new SyAWTImageRequest(this.imageURI, 64, 64));
+    this.render(2048, 0, 0);
+    assertEquals(1, this.renderer.imagesPending().pendingCount());
+    this.runUntilPrefetchesStarted();
+    assertEquals(0, this.renderer.imagesPending().pendingCount());
+    this.runTasks();
+
+    this.loader.prefetch(new SyAWTImageRequest(this.imageURI, 32, 32));
+    this.render(2048, 0, 0);
+    assertEquals(4, this.renderer.imagesPending().pendingCount());
+    this.runUntilPrefetchesStarted();
+    assertEquals(4L, this.loader.tilesDecoded());
+    assertEquals(0, this.renderer.imagesPending().pendingCount());
+  }
+
+  private void runUntilPrefetchesStarted()
+  {
+    while (this.loader.prefetchesQueued() > 0) {
+      this.tasks.poll().run();
+    }
+  }
+
+  /**
+   * The loads of tiles that are scrolled out of view before they start are
+   * dropped.
+   */
+
+  @Test
+  public void testScrolledOutTilesDropped()
+  {
+    this.render(2048, 0, 0);
+    this.runTasks();
+
+    this.render(2048, 0, 0);
+    assertEquals(4, this.renderer.imagesPending().pendingCount());
+
+    this.render(2048, 1100, 1100);
+    assertEquals(8, this.renderer.imagesPending().pendingCount());
+
+    this.render(2048, 1100, 1100);
+    assertEquals(4, this.renderer.imagesPending().pendingCount());
+
+    this.runTasks();
+    assertEquals(4L, this.loader.tilesDecoded());
+    assertEquals(0, this.renderer.imagesPending().pendingCount());
+
+    this.render(2048, 1100, 1100);
+    assertEquals(Color.BLUE.getRGB(), this.target.getRGB(50, 50));
+
+    this.render(2048, 0, 0);
+    assertEquals(4, this.renderer.imagesPending().pendingCount());
+    this.runTasks();
+    assertEquals(8L, this.loader.tilesDecoded());
+  }
+
+  /**
+   * Images that cannot be read are drawn as failed images.
+   */
+
+  @Test
+  public void testMissing()
+  {
+    this.imageURI = this.directory.resolve("missing.png").toUri();
+    this.render(512, 0, 0);
+    this.runTasks();
+    this.render(512, 0, 0);
+    assertEquals(0, this.renderer.imagesPending().pendingCount());
+    assertEquals(0L, this.loader.tilesDecoded());
+    assertTrue(this.tasks.isEmpty());
+  }
+}
@@ -85,6 +85,7 @@ public final class SyAWTNodeRendererTest
   public void tearDown()
     throws Exception
   {
+    this.nodeRenderer.close();
     SyTestDirectories.deleteDirectory(this.directory);
   }
 
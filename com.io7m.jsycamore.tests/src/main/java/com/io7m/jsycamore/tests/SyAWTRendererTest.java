@@ -17,17 +17,43 @@
 
 package com.io7m.jsycamore.tests;
 
+import com.io7m.jregions.core.parameterized.areas.PAreasI;
 import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.colors.SyColors;
+import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.rendering.SyPaintFillType;
+import com.io7m.jsycamore.api.rendering.SyPaintFlat;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeShape;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
+import com.io7m.jsycamore.api.rendering.SyShapeRectangle;
 import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
+import com.io7m.jsycamore.api.text.SyFontType;
+import com.io7m.jsycamore.api.themes.SyThemeComponentType;
+import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jsycamore.api.themes.SyThemeType;
+import com.io7m.jsycamore.api.themes.SyThemeValuesType;
+import com.io7m.jsycamore.api.themes.SyThemeableReadableType;
+import com.io7m.jsycamore.api.windows.SyWindowDecorationComponent;
+import com.io7m.jsycamore.api.windows.SyWindowReadableType;
 import com.io7m.jsycamore.api.windows.SyWindowType;
 import com.io7m.jsycamore.awt.internal.SyAWTFont;
 import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
 import com.io7m.jsycamore.awt.internal.SyAWTImageLoader;
 import com.io7m.jsycamore.awt.internal.SyAWTRenderer;
+import com.io7m.jsycamore.components.standard.SyLayoutVertical;
+import com.io7m.jsycamore.components.standard.SyScrollPanes;
+import com.io7m.jsycamore.components.standard.SySpace;
 import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
 import com.io7m.jsycamore.vanilla.SyScreenFactory;
 import com.io7m.jsycamore.vanilla.internal.SyLayoutContext;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,14 +66,20 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.PixelGrabber;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 import static com.io7m.jsycamore.api.text.SyText.text;
 import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_INVISIBLE;
 import static java.awt.image.BufferedImage.TYPE_4BYTE_ABGR_PRE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public final class SyAWTRendererTest
@@ -364,6 +396,262 @@ public final class SyAWTRendererTest
     this.renderAndCompare(screen, window, "testWindow_NoCloseNoMenu.png");
   }
 
+  /**
+   * Traversing a large component tree produces no garbage.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTraversalAllocationFree()
+    throws Exception
+  {
+    final var theme =
+      new FixedRenderingTheme(
+        new SyThemePrimalFactory().create(),
+        c -> SyRenderNodeNoop.noop()
+      );
+    final var screen =
+      this.screens.create(theme, this.fonts, PAreaSizeI.of(512, 512));
+    final var layoutContext =
+      new SyLayoutContext(screen.services(), this.fonts, theme);
+
+    final var windowService =
+      screen.windowService();
+    final var window =
+      windowService.windowCreate(512, 512);
+
+    final var container = new SyLayoutVertical(screen);
+    for (int index = 0; index < 10_000; ++index) {
+      container.childAdd(new SySpace(screen));
+    }
+    window.contentArea().childAdd(container);
+    window.layout(layoutContext);
+
+    final var renderer =
+      new SyAWTRenderer(screen.services(), this.fonts, this.imageLoader);
+
+    for (int index = 0; index < 10; ++index) {
+      renderer.render(this.graphics, screen, window);
+    }
+
+    final var threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    final var before = threads.getCurrentThreadAllocatedBytes();
+    renderer.render(this.graphics, screen, window);
+    final var after = threads.getCurrentThreadAllocatedBytes();
+    final var allocated = after - before;
+
+    LOG.debug("allocated {} bytes", Long.valueOf(allocated));
+
+    /*
+     * The render call allocates a small fixed number of objects when saving
+     * and restoring the graphics state for the window. None of the
+     * allocations should be proportional to the number of components.
+     */
+
+    assertTrue(
+      allocated < 10_000L,
+      "Allocated %d bytes".formatted(Long.valueOf(allocated))
+    );
+  }
+
+  /**
+   * Components that lie outside the visible region of a scroll pane are
+   * not rendered.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testClipCullingScrollPane()
+    throws Exception
+  {
+    final var theme =
+      new CountingTheme(new SyThemePrimalFactory().create());
+    final var screen =
+      this.screens.create(theme, this.fonts, PAreaSizeI.of(512, 512));
+    final var layoutContext =
+      new SyLayoutContext(screen.services(), this.fonts, theme);
+
+    final var windowService =
+      screen.windowService();
+    final var window =
+      windowService.windowCreate(512, 512);
+
+    final var rowCount = 5_000;
+    final var rowHeight = 20;
+
+    final var scrollPane = SyScrollPanes.create(screen);
+    scrollPane.setContentAreaSize(PAreaSizeI.of(400, rowCount * rowHeight));
+
+    final var container = new SyLayoutVertical(screen);
+    for (int index = 0; index < rowCount; ++index) {
+      container.childAdd(new SySpace(screen));
+    }
+    scrollPane.contentArea().childAdd(container);
+    window.contentArea().childAdd(scrollPane);
+    window.layout(layoutContext);
+
+    final var renderer =
+      new SyAWTRenderer(screen.services(), this.fonts, this.imageLoader);
+
+    renderer.render(this.graphics, screen, window);
+
+    final var rendered = theme.renderCount(SySpace.class);
+    LOG.debug("rendered {} rows", Integer.valueOf(rendered));
+
+    final var viewportRows =
+      scrollPane.contentViewport().size().get().sizeY() / rowHeight;
+
+    assertTrue(
+      rendered > 0,
+      "Rendered %d rows".formatted(Integer.valueOf(rendered))
+    );
+    assertTrue(
+      rendered <= viewportRows + 2,
+      "Rendered %d rows".formatted(Integer.valueOf(rendered))
+    );
+  }
+
+  /**
+   * Windows hidden behind opaque windows are not rendered.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testOcclusionCulling()
+    throws Exception
+  {
+    final var theme =
+      new CountingTheme(new SyThemePrimalFactory().create());
+    final var screen =
+      this.screens.create(theme, this.fonts, PAreaSizeI.of(512, 512));
+
+    final var windowService =
+      screen.windowService();
+    final var windowBack =
+      windowService.windowCreate(100, 100);
+    final var windowLeft =
+      windowService.windowCreate(200, 300);
+    final var windowRight =
+      windowService.windowCreate(200, 300);
+
+    windowBack.contentArea().childAdd(new SySpace(screen));
+    windowBack.setPosition(PVector2I.of(150, 50));
+    windowLeft.setPosition(PVector2I.of(0, 0));
+    windowRight.setPosition(PVector2I.of(200, 0));
+
+    windowService.windowFocus(windowLeft);
+    windowService.windowFocus(windowRight);
+    screen.update();
+
+    final var renderer =
+      new SyAWTRenderer(screen.services(), this.fonts, this.imageLoader);
+
+    /*
+     * The back window is covered by the union of two opaque windows.
+     */
+
+    theme.setOpaque(true);
+    theme.reset();
+    renderer.render(this.graphics, screen);
+    assertEquals(0, theme.renderCount(SySpace.class));
+
+    /*
+     * Moving the back window so that it protrudes below the front windows
+     * makes it visible.
+     */
+
+    windowBack.setPosition(PVector2I.of(150, 250));
+    theme.reset();
+    renderer.render(this.graphics, screen);
+    assertEquals(1, theme.renderCount(SySpace.class));
+
+    /*
+     * Windows that are not opaque hide nothing.
+     */
+
+    windowBack.setPosition(PVector2I.of(150, 50));
+    theme.setOpaque(false);
+    theme.reset();
+    renderer.render(this.graphics, screen);
+    assertEquals(1, theme.renderCount(SySpace.class));
+  }
+
+  /**
+   * Adjacent rectangles with identical flat paint are drawn with a single
+   * fill and a single paint change.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBatchingMergesRectangles()
+    throws Exception
+  {
+    final var fill =
+      Optional.<SyPaintFillType>of(new SyPaintFlat(SyColors.whiteOpaque()));
+
+    final var theme =
+      new FixedRenderingTheme(
+        new SyThemePrimalFactory().create(),
+        c -> {
+          if (c instanceof SySpace) {
+            final var size = c.size().get();
+            return new SyRenderNodeShape(
+              "Row",
+              PVectors2I.zero(),
+              Optional.empty(),
+              fill,
+              new SyShapeRectangle<>(
+                PAreasI.create(0, 0, size.sizeX(), size.sizeY()))
+            );
+          }
+          return SyRenderNodeNoop.noop();
+        }
+      );
+
+    final var screen =
+      this.screens.create(theme, this.fonts, PAreaSizeI.of(512, 512));
+    final var layoutContext =
+      new SyLayoutContext(screen.services(), this.fonts, theme);
+
+    final var windowService =
+      screen.windowService();
+    final var window =
+      windowService.windowCreate(512, 512);
+
+    final var rowCount = 100;
+    final var container = new SyLayoutVertical(screen);
+    for (int index = 0; index < rowCount; ++index) {
+      container.childAdd(new SySpace(screen));
+    }
+    window.contentArea().childAdd(container);
+    window.layout(layoutContext);
+
+    final var renderer =
+      new SyAWTRenderer(screen.services(), this.fonts, this.imageLoader);
+
+    renderer.render(this.graphics, screen, window);
+
+    final var statistics = renderer.statistics();
+    LOG.debug(
+      "primitives {} merged {} fills {} paint changes {}",
+      Long.valueOf(statistics.primitives()),
+      Long.valueOf(statistics.rectanglesMerged()),
+      Long.valueOf(statistics.fills()),
+      Long.valueOf(statistics.paintChanges())
+    );
+
+    assertEquals(rowCount, statistics.primitives());
+    assertEquals(rowCount - 1, statistics.rectanglesMerged());
+    assertEquals(1L, statistics.fills());
+    assertEquals(1L, statistics.paintChanges());
+  }
+
   private void renderAndCompare(
     final SyScreenType screen,
     final SyWindowType window,
@@ -385,4 +673,177 @@ public final class SyAWTRendererTest
     this.saveImage();
     this.compareImages(imageName);
   }
+
+  /**
+   * A theme that delegates to an existing theme, but renders every component
+   * with the given function and does not allocate when looking up theme
+   * components.
+   */
+
+  private static final class FixedRenderingTheme implements SyThemeType
+  {
+    private final SyThemeType delegate;
+    private final SyThemeComponentType noop;
+
+    FixedRenderingTheme(
+      final SyThemeType inDelegate,
+      final Function<SyComponentReadableType, SyRenderNodeType> inRender)
+    {
+      this.delegate = inDelegate;
+      this.noop = new SyThemeComponentType()
+      {
+        @Override
+        public SyRenderNodeType render(
+          final SyThemeContextType context,
+          final SyComponentReadableType c)
+        {
+          return inRender.apply(c);
+        }
+
+        @Override
+        public SyFontType font(
+          final SyThemeContextType context,
+          final SyComponentReadableType c)
+        {
+          return inDelegate.findForComponent(c).font(context, c);
+        }
+      };
+    }
+
+    @Override
+    public SyThemeComponentType findForComponent(
+      final SyThemeableReadableType component)
+    {
+      return this.noop;
+    }
+
+    @Override
+    public SyThemeValuesType values()
+    {
+      return this.delegate.values();
+    }
+
+    @Override
+    public int zOrderForWindowDecorationComponent(
+      final SyWindowDecorationComponent component)
+    {
+      return this.delegate.zOrderForWindowDecorationComponent(component);
+    }
+
+    @Override
+    public void layoutWindowComponents(
+      final SyLayoutContextType layoutContext,
+      final SyConstraints windowConstraints,
+      final Map<SyWindowDecorationComponent, SyComponentType> windowComponents)
+    {
+      this.delegate.layoutWindowComponents(
+        layoutContext, windowConstraints, windowComponents);
+    }
+  }
+
+  /**
+   * A theme that delegates to an existing theme, counting the number of
+   * times that components of each class are rendered.
+   */
+
+  private static final class CountingTheme implements SyThemeType
+  {
+    private final SyThemeType delegate;
+    private final Map<Class<?>, Integer> renders;
+    private boolean opaque;
+
+    CountingTheme(
+      final SyThemeType inDelegate)
+    {
+      this.delegate = inDelegate;
+      this.renders = new HashMap<>();
+    }
+
+    void setOpaque(
+      final boolean inOpaque)
+    {
+      this.opaque = inOpaque;
+    }
+
+    void reset()
+    {
+      this.renders.clear();
+    }
+
+    int renderCount(
+      final Class<?> clazz)
+    {
+      return this.renders.getOrDefault(clazz, Integer.valueOf(0)).intValue();
+    }
+
+    @Override
+    public SyThemeComponentType findForComponent(
+      final SyThemeableReadableType component)
+    {
+      final var base = this.delegate.findForComponent(component);
+      return new SyThemeComponentType()
+      {
+        @Override
+        public SyRenderNodeType render(
+          final SyThemeContextType context,
+          final SyComponentReadableType c)
+        {
+          CountingTheme.this.renders.merge(
+            c.getClass(), Integer.valueOf(1), Integer::sum);
+          return base.render(context, c);
+        }
+
+        @Override
+        public SyFontType font(
+          final SyThemeContextType context,
+          final SyComponentReadableType c)
+        {
+          return base.font(context, c);
+        }
+
+        @Override
+        public Optional<PAreaSizeI<SySpaceParentRelativeType>> size(
+          final SyThemeContextType context,
+          final SyComponentReadableType c)
+        {
+          return base.size(context, c);
+        }
+      };
+    }
+
+    @Override
+    public SyThemeValuesType values()
+    {
+      return this.delegate.values();
+    }
+
+    @Override
+    public int zOrderForWindowDecorationComponent(
+      final SyWindowDecorationComponent component)
+    {
+      return this.delegate.zOrderForWindowDecorationComponent(component);
+    }
+
+    @Override
+    public void layoutWindowComponents(
+      final SyLayoutContextType layoutContext,
+      final SyConstraints windowConstraints,
+      final Map<SyWindowDecorationComponent, SyComponentType> windowComponents)
+    {
+      this.delegate.layoutWindowComponents(
+        layoutContext, windowConstraints, windowComponents);
+    }
+
+    @Override
+    public boolean windowIsOpaque(
+      final SyWindowReadableType window)
+    {
+      /*
+       * The screen's menu overlay is undecorated and covers the entire
+       * screen, but draws nothing outside the open menus.
+       */
+
+      return this.opaque && window.decorated().get().booleanValue();
+    }
+  }
 }
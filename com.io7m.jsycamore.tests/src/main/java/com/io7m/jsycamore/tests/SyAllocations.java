@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.tests;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Functions to measure the allocations made by the current thread.
+ */
+
+final class SyAllocations
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SyAllocations.class);
+
+  private SyAllocations()
+  {
+
+  }
+
+  /**
+   * @param runnable The function
+   *
+   * @return The number of bytes allocated by the current thread while
+   * running the given function
+   */
+
+  static long allocatedBytesDuring(
+    final Runnable runnable)
+  {
+    final var threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    threads.getCurrentThreadAllocatedBytes();
+    final var before = threads.getCurrentThreadAllocatedBytes();
+    runnable.run();
+    final var after = threads.getCurrentThreadAllocatedBytes();
+    return after - before;
+  }
+
+  /**
+   * Run the given function repeatedly so that it reaches a steady state,
+   * and then check that running it once more produces no garbage.
+   *
+   * @param name     The name used in log messages
+   * @param warmups  The number of times to run the function beforehand
+   * @param runnable The function
+   */
+
+  static void checkAllocationFree(
+    final String name,
+    final int warmups,
+    final Runnable runnable)
+  {
+    for (int index = 0; index < warmups; ++index) {
+      runnable.run();
+    }
+
+    final var allocated = allocatedBytesDuring(runnable);
+    LOG.debug("{}: allocated {} bytes", name, Long.valueOf(allocated));
+
+    /*
+     * The function should not allocate at all, but the measurement
+     * tolerates a small fixed amount of allocation introduced by the test
+     * environment (such as coverage instrumentation). An allocation per
+     * component or per event would exceed the tolerance many times over.
+     */
+
+    assertTrue(
+      allocated < 10_000L,
+      "Allocated %d bytes".formatted(Long.valueOf(allocated))
+    );
+  }
+}
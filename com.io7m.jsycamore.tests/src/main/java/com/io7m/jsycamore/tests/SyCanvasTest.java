@@ -0,0 +1,360 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyCanvasType;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
+import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.awt.internal.SyAWTImageLoader;
+import com.io7m.jsycamore.awt.internal.SyAWTNodeRenderer;
+import com.io7m.jsycamore.awt.internal.SyAWTRasterCache;
+import com.io7m.jsycamore.awt.internal.SyDisplayListEncoder;
+import com.io7m.jsycamore.components.standard.SyCanvas;
+import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB_PRE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyCanvasTest extends SyComponentContract<SyCanvasType>
+{
+  private static final int RED = 0xffff0000;
+  private static final int GREEN = 0xff00ff00;
+
+  @Override
+  protected SyCanvasType newComponent()
+  {
+    return new SyCanvas(this.screen());
+  }
+
+  private static int[] takeAll(
+    final SyRaster raster)
+  {
+    final var output = new int[SyRaster.DIRTY_REGIONS_MAXIMUM * 4];
+    final var count = raster.dirtyTake(output);
+    final var result = new int[count * 4];
+    System.arraycopy(output, 0, result, 0, result.length);
+    return result;
+  }
+
+  private static void fill(
+    final SyRaster raster,
+    final int color)
+  {
+    Arrays.fill(raster.pixels(), color);
+  }
+
+  /**
+   * A new raster is entirely dirty.
+   */
+
+  @Test
+  public void testRasterInitiallyDirty()
+  {
+    final var raster = new SyRaster(8, 4);
+    assertArrayEquals(new int[]{0, 0, 8, 4}, takeAll(raster));
+    assertEquals(0, raster.dirtyCount());
+  }
+
+  /**
+   * Dirty regions are clipped to the raster, and regions inside existing
+   * regions are not recorded twice.
+   */
+
+  @Test
+  public void testRasterDirtyClipped()
+  {
+    final var raster = new SyRaster(8, 4);
+    takeAll(raster);
+
+    final var version = raster.version();
+    raster.markDirty(-2, -2, 4, 4);
+    raster.markDirty(1, 1, 1, 1);
+    raster.markDirty(6, 2, 100, 100);
+    raster.markDirty(20, 20, 1, 1);
+    raster.markDirty(0, 0, 0, 3);
+
+    assertEquals(version + 3, raster.version());
+    assertArrayEquals(new int[]{0, 0, 2, 2, 6, 2, 8, 4}, takeAll(raster));
+  }
+
+  /**
+   * Marking more regions than are tracked merges them into one region.
+   */
+
+  @Test
+  public void testRasterDirtyOverflowMerges()
+  {
+    final var raster = new SyRaster(64, 64);
+    takeAll(raster);
+
+    for (int index = 0; index <= SyRaster.DIRTY_REGIONS_MAXIMUM; ++index) {
+      raster.markDirty(index * 2, index, 1, 1);
+    }
+
+    assertArrayEquals(
+      new int[]{0, 0, SyRaster.DIRTY_REGIONS_MAXIMUM * 2 + 1, 17},
+      takeAll(raster)
+    );
+  }
+
+  /**
+   * The theme renders a canvas as a raster node of the canvas's size.
+   */
+
+  @Test
+  public void testRenderRaster()
+  {
+    final var canvas = this.newComponent();
+    final var theme = this.screen().theme().findForComponent(canvas);
+    final var context = Mockito.mock(SyThemeContextType.class);
+
+    canvas.setSizeUpperLimit(PAreaSizeI.of(64, 32));
+    this.windowContentArea().childAdd(canvas);
+    this.window().layout(this.layoutContext);
+
+    assertInstanceOf(SyRenderNodeNoop.class, theme.render(context, canvas));
+
+    final var raster = new SyRaster(16, 8);
+    canvas.setRaster(raster);
+
+    final var node =
+      assertInstanceOf(SyRenderNodeRaster.class, theme.render(context, canvas));
+    assertSame(raster, node.raster());
+    assertEquals(64, node.size().sizeX());
+    assertEquals(32, node.size().sizeY());
+  }
+
+  /**
+   * Snapshots of rasters are immutable copies that are taken only when the
+   * raster has changed, and that record the regions changed since the
+   * previous snapshot.
+   */
+
+  @Test
+  public void testRasterSnapshot()
+  {
+    final var raster = new SyRaster(8, 4);
+    fill(raster, RED);
+
+    final var snapshot0 = raster.snapshot();
+    assertTrue(snapshot0.isSnapshot());
+    assertSame(raster, snapshot0.origin());
+    assertSame(snapshot0, snapshot0.snapshot());
+    assertSame(snapshot0, raster.snapshot());
+    assertEquals(-1L, snapshot0.snapshotBase());
+    assertNotSame(raster.pixels(), snapshot0.pixels());
+
+    fill(raster, GREEN);
+    raster.markDirty(1, 1, 2, 2);
+    assertEquals(RED, snapshot0.pixels()[0]);
+
+    final var snapshot1 = raster.snapshot();
+    assertNotSame(snapshot0, snapshot1);
+    assertEquals(GREEN, snapshot1.pixels()[0]);
+    assertEquals(snapshot0.version(), snapshot1.snapshotBase());
+
+    final var output = new int[SyRaster.DIRTY_REGIONS_MAXIMUM * 4];
+    assertEquals(1, snapshot1.dirtySinceSnapshotBase(output));
+    assertArrayEquals(
+      new int[]{1, 1, 3, 3},
+      Arrays.copyOf(output, 4)
+    );
+
+    assertThrows(
+      PreconditionViolationException.class,
+      () -> snapshot1.markDirty(0, 0, 1, 1));
+  }
+
+  /**
+   * Wrapping a raster shares its pixels rather than copying them.
+   */
+
+  @Test
+  public void testAWTWrapShares()
+  {
+    final var raster = new SyRaster(4, 4);
+    final var image = SyAWTRasterCache.wrap(raster);
+
+    raster.pixels()[5] = RED;
+    assertEquals(RED, image.getRGB(1, 1));
+  }
+
+  /**
+   * The AWT renderer transfers only the dirty regions of a raster.
+   */
+
+  @Test
+  public void testAWTDrawsDirtyOnly()
+    throws Exception
+  {
+    final var nodeRenderer =
+      new SyAWTNodeRenderer(
+        new SyAWTImageLoader(),
+        SyAWTFontDirectoryService.createFromServiceLoader()
+      );
+    final var cache = nodeRenderer.rasterCache();
+    final var target = new BufferedImage(32, 32, TYPE_INT_ARGB_PRE);
+    final var g = target.createGraphics();
+
+    final var raster = new SyRaster(32, 32);
+    fill(raster, RED);
+
+    final var node =
+      new SyRenderNodeRaster(
+        "Raster",
+        raster,
+        PVectors2I.zero(),
+        PAreaSizeI.of(32, 32)
+      );
+
+    nodeRenderer.renderNode(g, node);
+    assertEquals(32L * 32L, cache.pixelsUploaded());
+    assertEquals(RED, target.getRGB(31, 31));
+
+    nodeRenderer.renderNode(g, node);
+    assertEquals(32L * 32L, cache.pixelsUploaded());
+
+    fill(raster, GREEN);
+    raster.markDirty(4, 4, 2, 3);
+    nodeRenderer.renderNode(g, node);
+    assertEquals(32L * 32L + 6L, cache.pixelsUploaded());
+    assertEquals(GREEN, target.getRGB(5, 6));
+    assertEquals(RED, target.getRGB(6, 6));
+    assertEquals(1, cache.size());
+    g.dispose();
+  }
+
+  /**
+   * The AWT renderer wraps scrolled rasters horizontally.
+   */
+
+  @Test
+  public void testAWTDrawsScrolled()
+    throws Exception
+  {
+    final var nodeRenderer =
+      new SyAWTNodeRenderer(
+        new SyAWTImageLoader(),
+        SyAWTFontDirectoryService.createFromServiceLoader()
+      );
+    final var target = new BufferedImage(32, 32, TYPE_INT_ARGB_PRE);
+    final var g = target.createGraphics();
+
+    final var raster = new SyRaster(32, 32);
+    fill(raster, RED);
+    for (int y = 0; y < 32; ++y) {
+      Arrays.fill(raster.pixels(), y * 32, y * 32 + 8, GREEN);
+    }
+
+    nodeRenderer.renderNode(
+      g,
+      new SyRenderNodeRaster(
+        "Raster",
+        raster,
+        PVectors2I.zero(),
+        PAreaSizeI.of(32, 32),
+        8
+      )
+    );
+
+    assertEquals(RED, target.getRGB(0, 0));
+    assertEquals(RED, target.getRGB(23, 16));
+    assertEquals(GREEN, target.getRGB(24, 16));
+    assertEquals(GREEN, target.getRGB(31, 31));
+    g.dispose();
+  }
+
+  /**
+   * Display lists change when a raster's scroll offset changes.
+   */
+
+  @Test
+  public void testDisplayListScrolled()
+  {
+    final var raster = new SyRaster(4, 4);
+    final var encoder = new SyDisplayListEncoder();
+    encoder.begin();
+    encoder.windowBegin(0, 0, 0, 0, 4, 4);
+    encoder.add(
+      new SyRenderNodeRaster(
+        "Raster", raster, PVectors2I.zero(), PAreaSizeI.of(4, 4), 1),
+      0, 0, 0, 0, 4, 4);
+    final var list0 = encoder.finish();
+
+    encoder.begin();
+    encoder.windowBegin(0, 0, 0, 0, 4, 4);
+    encoder.add(
+      new SyRenderNodeRaster(
+        "Raster", raster, PVectors2I.zero(), PAreaSizeI.of(4, 4), 2),
+      0, 0, 0, 0, 4, 4);
+    assertNotEquals(list0, encoder.finish());
+  }
+
+  /**
+   * Display lists change when a raster's contents change.
+   */
+
+  @Test
+  public void testDisplayListVersioned()
+  {
+    final var raster = new SyRaster(4, 4);
+    final var node =
+      new SyRenderNodeRaster(
+        "Raster",
+        raster,
+        PVectors2I.zero(),
+        PAreaSizeI.of(4, 4)
+      );
+
+    final var encoder = new SyDisplayListEncoder();
+    encoder.begin();
+    encoder.windowBegin(0, 0, 0, 0, 4, 4);
+    encoder.add(node, 0, 0, 0, 0, 4, 4);
+    final var list0 = encoder.finish();
+
+    encoder.begin();
+    encoder.windowBegin(0, 0, 0, 0, 4, 4);
+    encoder.add(node, 0, 0, 0, 0, 4, 4);
+    assertEquals(list0, encoder.finish());
+
+    raster.markDirty(0, 0, 1, 1);
+    encoder.begin();
+    encoder.windowBegin(0, 0, 0, 0, 4, 4);
+    encoder.add(node, 0, 0, 0, 0, 4, 4);
+    final var list1 = encoder.finish();
+    assertNotEquals(list0, list1);
+    assertEquals(1, list1.rasters().size());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
+import com.io7m.jsycamore.awt.internal.SyAWTFont;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.awt.internal.SyAWTImageLoader;
+import com.io7m.jsycamore.awt.internal.SyAWTRenderer;
+import com.io7m.jsycamore.awt.internal.SyDisplayListEncoder;
+import com.io7m.jsycamore.awt.internal.SyDisplayListPlayer;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.io7m.jsycamore.api.text.SyText.text;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyDisplayListTest
+{
+  private SyFontDirectoryServiceType<SyAWTFont> fonts;
+  private SyAWTImageLoader imageLoader;
+  private SyScreenType screen;
+  private SyAWTRenderer renderer;
+  private SyDisplayListEncoder encoder;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.fonts =
+      SyAWTFontDirectoryService.createFromServiceLoader();
+    this.imageLoader =
+      new SyAWTImageLoader();
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          this.fonts,
+          PAreaSizeI.of(512, 512)
+        );
+    this.renderer =
+      new SyAWTRenderer(this.screen.services(), this.fonts, this.imageLoader);
+    this.encoder =
+      new SyDisplayListEncoder();
+
+    final var windowService = this.screen.windowService();
+    final var window0 = windowService.windowCreate(300, 200);
+    window0.title().set(text("Window 0"));
+    final var window1 = windowService.windowCreate(300, 200);
+    window1.title().set(text("Window 1"));
+    window1.setPosition(PVector2I.of(100, 150));
+    this.screen.update();
+
+    /*
+     * Render once and wait, so that the images used by the window
+     * decorations are loaded.
+     */
+
+    final var image = SyTestImages.createImage();
+    final var graphics = image.createGraphics();
+    this.renderer.render(graphics, this.screen);
+    graphics.dispose();
+    Thread.sleep(500L);
+  }
+
+  /**
+   * Playing a recorded display list produces exactly the same image as
+   * rendering directly.
+   */
+
+  @Test
+  public void testPlaybackMatchesRendering()
+  {
+    final var imageRendered = SyTestImages.createImage();
+    final var graphicsRendered = imageRendered.createGraphics();
+    this.renderer.render(graphicsRendered, this.screen);
+    graphicsRendered.dispose();
+
+    final var list =
+      this.renderer.record(this.screen, this.encoder);
+    assertTrue(list.codeSize() > 0);
+    assertTrue(list.strings().contains("Window 0"));
+    assertTrue(list.strings().contains("Window 1"));
+
+    final var imagePlayed = SyTestImages.createImage();
+    final var graphicsPlayed = imagePlayed.createGraphics();
+    new SyDisplayListPlayer(this.renderer.nodeRenderer())
+      .play(graphicsPlayed, list);
+    graphicsPlayed.dispose();
+
+    assertArrayEquals(SyTestImages.pixels(imageRendered), SyTestImages.pixels(imagePlayed));
+  }
+
+  /**
+   * Recording the same frame twice produces equal display lists, and
+   * changing the screen produces a different display list.
+   */
+
+  @Test
+  public void testFramesCompare()
+  {
+    final var list0 =
+      this.renderer.record(this.screen, this.encoder);
+    final var list1 =
+      this.renderer.record(this.screen, this.encoder);
+
+    assertEquals(list0, list1);
+    assertEquals(list0.hashCode(), list1.hashCode());
+
+    final var window =
+      this.screen.windowService().windowsVisibleOrdered().get(1);
+    window.title().set(text("Changed"));
+
+    final var list2 =
+      this.renderer.record(this.screen, this.encoder);
+    assertNotEquals(list0, list2);
+  }
+}
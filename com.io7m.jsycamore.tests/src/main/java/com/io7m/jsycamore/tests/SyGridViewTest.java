@@ -0,0 +1,339 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyGridViewCellFactoryType;
+import com.io7m.jsycamore.api.components.SyGridViewDataType;
+import com.io7m.jsycamore.api.components.SyGridViewType;
+import com.io7m.jsycamore.components.standard.SyGridViews;
+import com.io7m.jsycamore.components.standard.SySpace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyGridViewTest extends SyComponentContract<SyGridViewType>
+{
+  private static final int ROW_HEIGHT = 20;
+  private static final int COLUMN_WIDTH = 80;
+
+  private Map<SyComponentType, Cell> bindings;
+  private int bindCount;
+
+  @BeforeEach
+  public void setupBindings()
+  {
+    this.bindings = new IdentityHashMap<>();
+    this.bindCount = 0;
+  }
+
+  @Override
+  protected SyGridViewType newComponent()
+  {
+    return SyGridViews.create(this.screen());
+  }
+
+  private SyGridViewType newGrid(
+    final int rows,
+    final int columns)
+  {
+    final var grid = this.newComponent();
+    grid.setSizeUpperLimit(PAreaSizeI.of(400, 300));
+    grid.setRowHeight(ROW_HEIGHT);
+    grid.setColumnWidthDefault(COLUMN_WIDTH);
+    grid.setItems(new Data(rows, columns), new Cells());
+    this.windowContentArea().childAdd(grid);
+    return grid;
+  }
+
+  private void layout()
+  {
+    this.window().layout(this.layoutContext);
+  }
+
+  private static int viewportX(
+    final SyGridViewType grid)
+  {
+    return grid.size().get().sizeX()
+           - grid.scrollBarVertical().size().get().sizeX();
+  }
+
+  private static int viewportY(
+    final SyGridViewType grid)
+  {
+    return grid.size().get().sizeY()
+           - grid.scrollBarHorizontal().size().get().sizeY();
+  }
+
+  private static int cellX(
+    final SyComponentType cell)
+  {
+    final var region = cell.node().parent().orElseThrow().value();
+    return region.position().get().x() + cell.position().get().x();
+  }
+
+  private static int cellY(
+    final SyComponentType cell)
+  {
+    final var region = cell.node().parent().orElseThrow().value();
+    return region.position().get().y() + cell.position().get().y();
+  }
+
+  /**
+   * Check that every visible cell is positioned according to the item it
+   * is bound to, the frozen rows and columns, and the scroll position.
+   */
+
+  private void checkCells(
+    final SyGridViewType grid)
+  {
+    final var scrollRegionX =
+      Math.max(0L, (long) grid.columnCount() * COLUMN_WIDTH - viewportX(grid));
+    final var scrollRegionY =
+      Math.max(0L, (long) grid.rowCount() * ROW_HEIGHT - viewportY(grid));
+    final var scrollX =
+      Math.round(grid.scrollBarHorizontal().scrollPosition() * scrollRegionX);
+    final var scrollY =
+      Math.round(grid.scrollBarVertical().scrollPosition() * scrollRegionY);
+
+    var visible = 0;
+    for (final var entry : this.bindings.entrySet()) {
+      final var component = entry.getKey();
+      if (!component.isVisibleIfAncestorsVisible()) {
+        continue;
+      }
+
+      ++visible;
+      final var cell = entry.getValue();
+      final var expectedX =
+        (long) cell.column * COLUMN_WIDTH
+        - (cell.column < grid.frozenColumns() ? 0L : scrollX);
+      final var expectedY =
+        (long) cell.row * ROW_HEIGHT
+        - (cell.row < grid.frozenRows() ? 0L : scrollY);
+
+      assertEquals(expectedX, cellX(component), cell.toString());
+      assertEquals(expectedY, cellY(component), cell.toString());
+      assertEquals(
+        PAreaSizeI.of(COLUMN_WIDTH, ROW_HEIGHT),
+        component.size().get()
+      );
+    }
+    assertEquals(grid.cellsBoundCount(), visible);
+  }
+
+  /**
+   * A large grid only realizes the cells that are visible.
+   */
+
+  @Test
+  public void testLargeGrid()
+  {
+    final var grid = this.newGrid(10_000, 200);
+    grid.setFrozenRows(1);
+    grid.setFrozenColumns(1);
+    this.layout();
+
+    final var rows = (viewportY(grid) - 1) / ROW_HEIGHT + 1;
+    final var columns = (viewportX(grid) - 1) / COLUMN_WIDTH + 1;
+
+    assertEquals(10_000, grid.rowCount());
+    assertEquals(200, grid.columnCount());
+    assertEquals(rows * columns, grid.cellsBoundCount());
+    assertEquals(rows * columns, grid.cellsCreated());
+    this.checkCells(grid);
+  }
+
+  /**
+   * Scrolling in both directions recycles cells, and frozen rows and
+   * columns stay in place.
+   */
+
+  @Test
+  public void testScrollRecycles()
+  {
+    final var grid = this.newGrid(10_000, 200);
+    grid.setFrozenRows(2);
+    grid.setFrozenColumns(1);
+    this.layout();
+
+    final var rowsMaximum = viewportY(grid) / ROW_HEIGHT + 2;
+    final var columnsMaximum = viewportX(grid) / COLUMN_WIDTH + 2;
+
+    for (int step = 1; step <= 100; ++step) {
+      grid.scrollBarHorizontal().setScrollPosition(step / 100.0);
+      grid.scrollBarVertical().setScrollPosition((step * 7 % 100) / 100.0);
+      this.layout();
+      this.checkCells(grid);
+      assertTrue(grid.cellsCreated() <= rowsMaximum * columnsMaximum);
+    }
+  }
+
+  /**
+   * Columns may have individual widths.
+   */
+
+  @Test
+  public void testColumnWidths()
+  {
+    final var grid = this.newGrid(100, 100);
+    grid.setColumnWidth(1, 120);
+    this.layout();
+
+    assertEquals(120, grid.columnWidth(1));
+    assertEquals(COLUMN_WIDTH, grid.columnWidth(2));
+
+    for (final var entry : this.bindings.entrySet()) {
+      final var component = entry.getKey();
+      final var cell = entry.getValue();
+      switch (cell.column) {
+        case 1 -> {
+          assertEquals(120, component.size().get().sizeX());
+          assertEquals(COLUMN_WIDTH, cellX(component));
+        }
+        case 2 -> {
+          assertEquals(COLUMN_WIDTH, component.size().get().sizeX());
+          assertEquals(COLUMN_WIDTH + 120, cellX(component));
+        }
+        default -> {
+
+        }
+      }
+    }
+  }
+
+  /**
+   * Changing the items rebinds the visible cells without creating new ones.
+   */
+
+  @Test
+  public void testItemsChanged()
+  {
+    final var grid = this.newGrid(10_000, 200);
+    this.layout();
+
+    final var created = grid.cellsCreated();
+    final var bound = this.bindCount;
+    this.layout();
+    assertEquals(bound, this.bindCount);
+
+    grid.itemsChanged();
+    this.layout();
+    assertEquals(created, grid.cellsCreated());
+    assertEquals(bound * 2, this.bindCount);
+  }
+
+  /**
+   * Scrolling to a cell places it at the top left of the scrolling region.
+   */
+
+  @Test
+  public void testScrollToCell()
+  {
+    final var grid = this.newGrid(10_000, 200);
+    grid.setFrozenRows(1);
+    grid.setFrozenColumns(1);
+    this.layout();
+
+    grid.scrollToCell(5000, 100);
+    this.layout();
+    this.checkCells(grid);
+
+    var found = false;
+    for (final var entry : this.bindings.entrySet()) {
+      final var component = entry.getKey();
+      final var cell = entry.getValue();
+      if (component.isVisibleIfAncestorsVisible()
+          && cell.row == 5000 && cell.column == 100) {
+        assertEquals(COLUMN_WIDTH, cellX(component));
+        assertEquals(ROW_HEIGHT, cellY(component));
+        found = true;
+      }
+    }
+    assertTrue(found);
+  }
+
+  /**
+   * An empty grid binds no cells.
+   */
+
+  @Test
+  public void testEmpty()
+  {
+    final var grid = this.newGrid(0, 0);
+    grid.setFrozenRows(1);
+    grid.setFrozenColumns(1);
+    this.layout();
+
+    assertEquals(0, grid.cellsBoundCount());
+    assertEquals(0, grid.cellsCreated());
+  }
+
+  private record Data(
+    int rowCount,
+    int columnCount)
+    implements SyGridViewDataType<Cell>
+  {
+    @Override
+    public Cell itemAt(
+      final int row,
+      final int column)
+    {
+      return new Cell(row, column);
+    }
+  }
+
+  private record Cell(
+    int row,
+    int column)
+  {
+
+  }
+
+  private final class Cells implements SyGridViewCellFactoryType<Cell>
+  {
+    Cells()
+    {
+
+    }
+
+    @Override
+    public SyComponentType cellCreate()
+    {
+      return new SySpace(SyGridViewTest.this.screen());
+    }
+
+    @Override
+    public void cellBind(
+      final SyComponentType cell,
+      final int row,
+      final int column,
+      final Cell item)
+    {
+      assertEquals(new Cell(row, column), item);
+      SyGridViewTest.this.bindings.put(cell, item);
+      ++SyGridViewTest.this.bindCount;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.windows.SyWindowType;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyLayoutVertical;
+import com.io7m.jsycamore.components.standard.SySpace;
+import com.io7m.jsycamore.components.standard.buttons.SyButton;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static com.io7m.jsycamore.api.components.SyComponentQuery.FIND_FOR_MOUSE_CURSOR;
+import static com.io7m.jsycamore.api.components.SyComponentQuery.FIND_SPATIALLY;
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyInputAllocationTest
+{
+  private SyScreenType screen;
+  private SyWindowType window;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          SyAWTFontDirectoryService.createFromServiceLoader(),
+          PAreaSizeI.of(1024, 1024)
+        );
+
+    this.window =
+      this.screen.windowService().windowCreate(512, 512);
+    this.window.setPosition(PVector2I.of(100, 100));
+
+    final var layout = new SyLayoutVertical(this.screen);
+    for (int index = 0; index < 20; ++index) {
+      layout.childAdd(SyButton.button(this.screen));
+    }
+    this.window.contentArea().childAdd(layout);
+    this.screen.update();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.screen.close();
+  }
+
+  /**
+   * Moving the mouse within a component, once the cursor has entered it,
+   * produces no garbage.
+   */
+
+  @Test
+  public void testMouseMoveSteadyStateAllocationFree()
+  {
+    final PVector2I<SySpaceViewportType> p0 = PVector2I.of(300, 300);
+    final PVector2I<SySpaceViewportType> p1 = PVector2I.of(301, 301);
+
+    final var target =
+      this.window.componentForViewportPosition(p0, FIND_FOR_MOUSE_CURSOR)
+        .orElseThrow();
+    assertSame(
+      target,
+      this.window.componentAtViewportPosition(301, 301, FIND_FOR_MOUSE_CURSOR)
+    );
+
+    SyAllocations.checkAllocationFree("mouseMoved", 20, () -> {
+      for (int index = 0; index < 10_000; ++index) {
+        this.screen.mouseMoved(p0);
+        this.screen.mouseMoved(p1);
+      }
+    });
+
+    assertTrue(target.isMouseOver());
+    assertEquals(p1, this.screen.mousePosition().get());
+  }
+
+  /**
+   * Events bubble iteratively through deep trees without allocating, and
+   * every component along the path observes the event.
+   */
+
+  @Test
+  public void testBubbleDeepAllocationFree()
+  {
+    final var path = new ArrayList<SyComponentType>();
+    SyComponentType parent = new SyLayoutVertical(this.screen);
+    path.add(parent);
+    for (int index = 0; index < 1000; ++index) {
+      final var child = new SyLayoutVertical(this.screen);
+      parent.childAdd(child);
+      path.add(child);
+      parent = child;
+    }
+
+    final var leaf = new SySpace(this.screen);
+    parent.childAdd(leaf);
+    path.add(leaf);
+
+    final var event =
+      new SyMouseEventOnOver(PVector2I.of(0, 0), leaf);
+
+    assertEquals(EVENT_NOT_CONSUMED, leaf.eventSend(event));
+    for (final var component : path) {
+      assertTrue(component.isMouseOver());
+    }
+
+    SyAllocations.checkAllocationFree("eventSend", 20, () -> {
+      for (int index = 0; index < 100; ++index) {
+        leaf.eventSend(event);
+      }
+    });
+  }
+
+  /**
+   * Events bubble to the current parent of a component after the component
+   * has been moved, and the window is found through the current parent.
+   */
+
+  @Test
+  public void testBubbleAfterReparent()
+  {
+    final var first = new SyLayoutVertical(this.screen);
+    final var second = new SyLayoutVertical(this.screen);
+    final var leaf = new SySpace(this.screen);
+
+    first.childAdd(leaf);
+    leaf.eventSend(new SyMouseEventOnOver(PVector2I.of(0, 0), leaf));
+    assertTrue(first.isMouseOver());
+    assertTrue(leaf.window().isEmpty());
+
+    second.childAdd(leaf);
+    this.window.contentArea().childAdd(second);
+    leaf.eventSend(new SyMouseEventOnNoLongerOver());
+    assertTrue(first.isMouseOver());
+    assertFalse(second.isMouseOver());
+    assertEquals(this.window, leaf.window().orElseThrow());
+
+    first.childAdd(leaf);
+    assertTrue(leaf.window().isEmpty());
+  }
+
+  /**
+   * The allocation-free component queries agree with the optional-returning
+   * queries across the whole viewport.
+   */
+
+  @Test
+  public void testComponentQueriesAgree()
+  {
+    for (int y = 0; y < 1024; y += 7) {
+      for (int x = 0; x < 1024; x += 7) {
+        final PVector2I<SySpaceViewportType> position = PVector2I.of(x, y);
+        assertEquals(
+          this.window.componentForViewportPosition(position, FIND_SPATIALLY)
+            .orElse(null),
+          this.window.componentAtViewportPosition(x, y, FIND_SPATIALLY)
+        );
+        assertEquals(
+          this.window.componentForViewportPosition(
+              position, FIND_FOR_MOUSE_CURSOR)
+            .orElse(null),
+          this.window.componentAtViewportPosition(
+            x, y, FIND_FOR_MOUSE_CURSOR)
+        );
+      }
+    }
+
+    assertNotNull(
+      this.window.componentAtViewportPosition(300, 300, FIND_SPATIALLY));
+  }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventPressed;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventReleased;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusServiceType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.api.windows.SyWindowType;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_CONSUMED;
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+import static com.io7m.jsycamore.api.keyboard.SyKeyCode.SY_KEY_E;
+import static com.io7m.jsycamore.api.keyboard.SyKeyCode.SY_KEY_TAB;
+import static com.io7m.jsycamore.api.keyboard.SyKeyModifier.SY_MODIFIER_SHIFT_LEFT;
+import static com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL;
+import static com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_STOPS_TRAVERSAL;
+import static com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior.RECEIVES_FOCUS_AND_CONTINUES_TRAVERSAL;
+import static com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior.RECEIVES_FOCUS_AND_STOPS_TRAVERSAL;
+import static com.io7m.jsycamore.api.mouse.SyMouseButton.MOUSE_BUTTON_LEFT;
+import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_INVISIBLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SyKeyboardFocusTest
+{
+  private SyScreenType screen;
+  private SyKeyboardFocusServiceType focus;
+  private SyWindowType window;
+  private Node a;
+  private Node group;
+  private Node b;
+  private Node c;
+  private Node blocked;
+  private Node hidden;
+  private Node parent;
+  private Node d;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          SyAWTFontDirectoryService.createFromServiceLoader(),
+          PAreaSizeI.of(1024, 1024)
+        );
+
+    this.focus = this.screen.keyboardFocusService();
+    this.window = this.screen.windowService().windowCreate(512, 512);
+    this.window.decorated().set(false);
+
+    this.a = new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+    this.group = new Node(this.screen, IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL);
+    this.b = new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+    this.c = new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+    this.blocked = new Node(this.screen, IGNORES_FOCUS_AND_STOPS_TRAVERSAL);
+    this.hidden = new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+    this.parent = new Node(this.screen, RECEIVES_FOCUS_AND_CONTINUES_TRAVERSAL);
+    this.d = new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+
+    final var content = this.window.contentArea();
+    content.childAdd(this.a);
+    content.childAdd(this.group);
+    this.group.childAdd(this.b);
+    this.group.childAdd(this.c);
+    content.childAdd(this.blocked);
+    this.blocked.childAdd(this.hidden);
+    content.childAdd(this.parent);
+    this.parent.childAdd(this.d);
+    this.screen.update();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.screen.close();
+  }
+
+  private List<SyComponentType> tabs(
+    final int count)
+  {
+    final var results = new ArrayList<SyComponentType>();
+    for (int index = 0; index < count; ++index) {
+      this.screen.keyPressed(SY_KEY_TAB);
+      this.screen.keyReleased(SY_KEY_TAB);
+      results.add(this.focus.focused().orElseThrow());
+    }
+    return results;
+  }
+
+  /**
+   * Tab visits focusable components depth-first, respecting the traversal
+   * behavior of containers, and wraps around.
+   */
+
+  @Test
+  public void testTraversalOrder()
+  {
+    assertEquals(Optional.empty(), this.focus.focused());
+    assertEquals(
+      List.of(this.a, this.b, this.c, this.parent, this.d, this.a),
+      this.tabs(6)
+    );
+  }
+
+  /**
+   * Shift-tab visits focusable components in reverse.
+   */
+
+  @Test
+  public void testTraversalReverse()
+  {
+    this.screen.keyModifierPressed(SY_MODIFIER_SHIFT_LEFT);
+    assertEquals(
+      List.of(this.d, this.parent, this.c, this.b, this.a, this.d),
+      this.tabs(6)
+    );
+  }
+
+  /**
+   * Key events are delivered to the focused component only.
+   */
+
+  @Test
+  public void testKeysDeliveredToFocused()
+  {
+    this.focus.focus(this.b);
+    this.screen.keyPressed(SY_KEY_E);
+    this.screen.keyReleased(SY_KEY_E);
+
+    assertEquals(
+      List.of(
+        new SyKeyEventPressed(SY_KEY_E),
+        new SyKeyEventReleased(SY_KEY_E)
+      ),
+      this.b.events
+    );
+    assertEquals(List.of(), this.a.events);
+    assertEquals(List.of(), this.c.events);
+  }
+
+  /**
+   * A focused component that consumes the tab key keeps the focus.
+   */
+
+  @Test
+  public void testTabConsumed()
+  {
+    this.focus.focus(this.c);
+    this.c.consumes = true;
+    this.tabs(3);
+    assertEquals(Optional.of(this.c), this.focus.focused());
+  }
+
+  /**
+   * Components that can't be reached by traversal can't be focused.
+   */
+
+  @Test
+  public void testFocusUnreachable()
+  {
+    assertThrows(Exception.class, () -> this.focus.focus(this.hidden));
+    assertThrows(Exception.class, () -> this.focus.focus(this.group));
+  }
+
+  /**
+   * Changes to the component tree and to focus behaviors are reflected in
+   * the traversal order.
+   */
+
+  @Test
+  public void testTreeChanges()
+  {
+    this.focus.focus(this.c);
+
+    final var e = new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+    this.group.childAdd(e);
+    assertEquals(List.of(e, this.parent), this.tabs(2));
+
+    this.parent.keyboardFocusBehavior()
+      .set(IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL);
+    this.blocked.keyboardFocusBehavior()
+      .set(IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL);
+    this.focus.focus(this.a);
+    assertEquals(List.of(this.b, this.c, e, this.hidden, this.d), this.tabs(5));
+
+    this.group.childRemove(this.b);
+    this.window.contentArea().childRemove(this.parent);
+    assertEquals(Optional.empty(), this.focus.focused());
+    assertEquals(List.of(this.a, this.c, e, this.hidden), this.tabs(4));
+  }
+
+  /**
+   * Moving a focused component to another window removes it from the
+   * traversal order of the window it left, and it stops receiving keys.
+   */
+
+  @Test
+  public void testFocusedMovedToOtherWindow()
+  {
+    final var other =
+      this.screen.windowService().windowCreate(100, 100);
+    final var otherNode =
+      new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+    other.contentArea().childAdd(otherNode);
+
+    this.screen.windowService().windowFocus(this.window);
+    this.focus.focus(this.c);
+    assertEquals(Optional.of(this.c), this.focus.focused());
+
+    other.contentArea().childAdd(this.c);
+    assertEquals(Optional.empty(), this.focus.focused());
+
+    this.screen.keyPressed(SY_KEY_E);
+    this.screen.keyReleased(SY_KEY_E);
+    assertEquals(List.of(), this.c.events);
+
+    assertEquals(
+      List.of(this.a, this.b, this.parent, this.d, this.a),
+      this.tabs(5)
+    );
+
+    this.screen.windowService().windowFocus(other);
+    assertEquals(List.of(otherNode, this.c, otherNode), this.tabs(3));
+  }
+
+  /**
+   * Invisible components are skipped, and lose focus.
+   */
+
+  @Test
+  public void testInvisibleSkipped()
+  {
+    this.focus.focus(this.a);
+    this.group.setVisible(VISIBILITY_INVISIBLE);
+    assertEquals(List.of(this.parent), this.tabs(1));
+
+    this.parent.setVisible(VISIBILITY_INVISIBLE);
+    assertEquals(Optional.empty(), this.focus.focused());
+    assertEquals(List.of(this.a, this.a), this.tabs(2));
+  }
+
+  /**
+   * Clicking a component focuses the nearest component that can receive
+   * focus.
+   */
+
+  @Test
+  public void testClickFocuses()
+  {
+    final var clickWindow =
+      this.screen.windowService().windowCreate(100, 100);
+    clickWindow.decorated().set(false);
+    clickWindow.setPosition(PVector2I.of(600, 0));
+
+    final var field =
+      new Node(this.screen, RECEIVES_FOCUS_AND_CONTINUES_TRAVERSAL);
+    final var inner =
+      new Node(this.screen, IGNORES_FOCUS_AND_STOPS_TRAVERSAL);
+    clickWindow.contentArea().childAdd(field);
+    field.childAdd(inner);
+    this.screen.update();
+
+    this.screen.mouseDown(PVector2I.of(610, 10), MOUSE_BUTTON_LEFT);
+    this.screen.mouseUp(PVector2I.of(610, 10), MOUSE_BUTTON_LEFT);
+    assertEquals(Optional.of(field), this.focus.focused());
+  }
+
+  /**
+   * Traversal over a large form visits every field in order.
+   */
+
+  @Test
+  public void testLargeForm()
+  {
+    final var form =
+      this.screen.windowService().windowCreate(100, 100);
+    final var column =
+      new Node(this.screen, IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL);
+    form.contentArea().childAdd(column);
+
+    final var fields = new ArrayList<Node>();
+    for (int index = 0; index < 5000; ++index) {
+      final var row =
+        new Node(this.screen, IGNORES_FOCUS_AND_CONTINUES_TRAVERSAL);
+      final var field =
+        new Node(this.screen, RECEIVES_FOCUS_AND_STOPS_TRAVERSAL);
+      row.childAdd(field);
+      column.childAdd(row);
+      fields.add(field);
+    }
+
+    final var visited = this.tabs(5001);
+    assertEquals(fields, visited.subList(0, 5000));
+    assertEquals(fields.get(0), visited.get(5000));
+  }
+
+  private static final class Node extends SyComponentAbstract
+  {
+    private final ArrayList<SyEventInputType> events;
+    private boolean consumes;
+
+    Node(
+      final SyScreenType inScreen,
+      final SyKeyboardFocusBehavior behavior)
+    {
+      super(inScreen, List.of(), behavior);
+      this.events = new ArrayList<>();
+    }
+
+    @Override
+    protected SyEventConsumed onEventInput(
+      final SyEventInputType event)
+    {
+      this.events.add(event);
+      return this.consumes ? EVENT_CONSUMED : EVENT_NOT_CONSUMED;
+    }
+
+    @Override
+    public List<SyThemeClassNameType> themeClassesDefaultForComponent()
+    {
+      return List.of();
+    }
+  }
+}
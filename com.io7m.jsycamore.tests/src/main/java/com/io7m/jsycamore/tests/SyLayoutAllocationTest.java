@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
+import com.io7m.jsycamore.awt.internal.SyAWTFont;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyLayoutAbstract;
+import com.io7m.jsycamore.components.standard.SyLayoutHorizontal;
+import com.io7m.jsycamore.components.standard.SyLayoutVertical;
+import com.io7m.jsycamore.components.standard.SyPackHorizontal;
+import com.io7m.jsycamore.components.standard.SyPackVertical;
+import com.io7m.jsycamore.components.standard.SySpace;
+import com.io7m.jsycamore.components.standard.forms.SyForm;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jsycamore.vanilla.internal.SyLayoutContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static com.io7m.jsycamore.api.visibility.SyVisibility.VISIBILITY_INVISIBLE;
+import static com.io7m.jsycamore.components.standard.forms.SyFormColumnSizeType.exact;
+import static com.io7m.jsycamore.components.standard.forms.SyFormColumnSizeType.flexible;
+import static com.io7m.jsycamore.components.standard.forms.SyFormColumnsConfiguration.columns;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public final class SyLayoutAllocationTest
+{
+  private static final int CHILD_COUNT = 1000;
+
+  private SyFontDirectoryServiceType<SyAWTFont> fonts;
+  private SyScreenType screen;
+  private SyLayoutContext layoutContext;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.fonts =
+      SyAWTFontDirectoryService.createFromServiceLoader();
+
+    final var theme =
+      new SyThemePrimalFactory().create();
+
+    this.screen =
+      new SyScreenFactory()
+        .create(theme, this.fonts, PAreaSizeI.of(1024, 1024));
+    this.layoutContext =
+      new SyLayoutContext(this.screen.services(), this.fonts, theme);
+  }
+
+  private void checkSteadyStateAllocationFree(
+    final SyLayoutAbstract container)
+  {
+    final var constraints =
+      new SyConstraints(0, 0, 1024, 1024);
+
+    container.layout(this.layoutContext, constraints);
+    final var sizeBefore = container.size().get();
+
+    SyAllocations.checkAllocationFree(
+      container.getClass().getSimpleName(),
+      100,
+      () -> {
+        for (int index = 0; index < 10; ++index) {
+          container.layout(this.layoutContext, constraints);
+        }
+      }
+    );
+
+    assertEquals(sizeBefore, container.size().get());
+  }
+
+  /**
+   * Repeatedly laying out an unchanged tree produces no garbage.
+   *
+   * @return The tests
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testLayoutSteadyStateAllocationFree()
+  {
+    final Map<String, Function<SyScreenType, SyLayoutAbstract>> containers =
+      Map.of(
+        "SyLayoutVertical", SyLayoutVertical::new,
+        "SyLayoutHorizontal", SyLayoutHorizontal::new,
+        "SyPackVertical", SyPackVertical::new,
+        "SyPackHorizontal", SyPackHorizontal::new,
+        "SyForm", s -> new SyForm(s, columns(exact(32), flexible()))
+      );
+
+    return containers.entrySet()
+      .stream()
+      .sorted(Map.Entry.comparingByKey())
+      .map(entry -> {
+        return dynamicTest(entry.getKey(), () -> {
+          final var container = entry.getValue().apply(this.screen);
+          for (int index = 0; index < CHILD_COUNT; ++index) {
+            if (container instanceof final SyForm form) {
+              final var row = form.addRow();
+              row.childAdd(new SySpace(this.screen));
+              row.childAdd(new SySpace(this.screen));
+            } else {
+              container.childAdd(new SySpace(this.screen));
+            }
+          }
+          this.checkSteadyStateAllocationFree(container);
+        });
+      });
+  }
+
+  /**
+   * Invisible children are excluded from layout without allocating.
+   */
+
+  @Test
+  public void testLayoutInvisibleChildrenAllocationFree()
+  {
+    final var container = new SyLayoutVertical(this.screen);
+    final var children = new ArrayList<SySpace>();
+    for (int index = 0; index < 100; ++index) {
+      final var space = new SySpace(this.screen);
+      container.childAdd(space);
+      children.add(space);
+    }
+    for (int index = 0; index < 100; index += 2) {
+      children.get(index).setVisible(VISIBILITY_INVISIBLE);
+    }
+
+    this.checkSteadyStateAllocationFree(container);
+
+    for (int index = 0; index < 100; ++index) {
+      final var child = children.get(index);
+      if (index % 2 == 0) {
+        assertEquals(PAreaSizeI.of(0, 0), child.size().get());
+      } else {
+        assertEquals(PAreaSizeI.of(1024, 20), child.size().get());
+      }
+    }
+  }
+
+  /**
+   * The visible children of a component are collected in order into the
+   * given list.
+   */
+
+  @Test
+  public void testCollectChildrenVisible()
+  {
+    final var container = new SyLayoutVertical(this.screen);
+    final var a = new SySpace(this.screen);
+    final var b = new SySpace(this.screen);
+    final var c = new SySpace(this.screen);
+    container.childAdd(a);
+    container.childAdd(b);
+    container.childAdd(c);
+    b.setVisible(VISIBILITY_INVISIBLE);
+
+    final var output = new ArrayList<SyComponentType>();
+    output.add(container);
+    assertEquals(List.of(a, c), container.collectChildrenVisible(output));
+
+    container.setVisible(VISIBILITY_INVISIBLE);
+    assertEquals(List.of(), container.collectChildrenVisible(output));
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyListViewDataType;
+import com.io7m.jsycamore.api.components.SyListViewRowFactoryType;
+import com.io7m.jsycamore.api.components.SyListViewRowHeightType;
+import com.io7m.jsycamore.api.components.SyListViewType;
+import com.io7m.jsycamore.components.standard.SyListViews;
+import com.io7m.jsycamore.components.standard.SySpace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyListViewTest extends SyComponentContract<SyListViewType>
+{
+  private static final int VIEWPORT_HEIGHT = 200;
+
+  private Map<SyComponentType, Integer> bindings;
+  private int bindCount;
+
+  @BeforeEach
+  public void setupBindings()
+  {
+    this.bindings = new IdentityHashMap<>();
+    this.bindCount = 0;
+  }
+
+  @Override
+  protected SyListViewType newComponent()
+  {
+    return SyListViews.create(this.screen());
+  }
+
+  private SyListViewType newList(
+    final int size,
+    final int rowHeightOfItem)
+  {
+    final var list = this.newComponent();
+    list.setSizeUpperLimit(PAreaSizeI.of(300, VIEWPORT_HEIGHT));
+    list.setItems(new Data(size), new Rows(rowHeightOfItem));
+    this.windowContentArea().childAdd(list);
+    return list;
+  }
+
+  private void layout()
+  {
+    this.window().layout(this.layoutContext);
+  }
+
+  /**
+   * Check that every bound row is visible, bound to the expected item, and
+   * positioned at the expected offset.
+   */
+
+  private void checkRows(
+    final SyListViewType list,
+    final int rowHeight,
+    final long scrollOffset)
+  {
+    final var first = list.rowsBoundFirst();
+    final var count = list.rowsBoundCount();
+    var visible = 0;
+
+    for (final var entry : this.bindings.entrySet()) {
+      final var row = entry.getKey();
+      if (!row.isVisibleIfAncestorsVisible()) {
+        continue;
+      }
+
+      ++visible;
+      final int index = entry.getValue();
+      assertTrue(index >= first && index < first + count);
+      assertEquals(
+        (long) index * rowHeight - scrollOffset,
+        row.position().get().y()
+      );
+      assertEquals(rowHeight, row.size().get().sizeY());
+    }
+    assertEquals(count, visible);
+  }
+
+  /**
+   * A list of a million items creates only enough rows to fill the viewport.
+   */
+
+  @Test
+  public void testMillionRows()
+  {
+    final var list = this.newList(1_000_000, 20);
+    list.setRowHeight(SyListViewRowHeightType.fixed(20));
+    this.layout();
+
+    assertEquals(1_000_000, list.itemCount());
+    assertEquals(0, list.rowsBoundFirst());
+    assertEquals(VIEWPORT_HEIGHT / 20 + list.overscan(), list.rowsBoundCount());
+    assertEquals(list.rowsBoundCount(), list.rowsCreated());
+    this.checkRows(list, 20, 0L);
+  }
+
+  /**
+   * Scrolling rebinds existing rows rather than creating new ones.
+   */
+
+  @Test
+  public void testScrollRecycles()
+  {
+    final var list = this.newList(1_000_000, 20);
+    list.setRowHeight(SyListViewRowHeightType.fixed(20));
+    list.setOverscan(0);
+    this.layout();
+
+    final var created = list.rowsCreated();
+    for (int step = 1; step <= 100; ++step) {
+      list.scrollBarVertical().setScrollPosition(step / 100.0);
+      this.layout();
+      assertTrue(list.rowsCreated() <= created + 1);
+    }
+
+    final var region = 1_000_000L * 20L - VIEWPORT_HEIGHT;
+    assertEquals(1_000_000 - VIEWPORT_HEIGHT / 20, list.rowsBoundFirst());
+    assertEquals(list.rowsCreated(), this.bindings.size());
+    this.checkRows(list, 20, region);
+  }
+
+  /**
+   * Scrolling to an item places it at the top of the viewport.
+   */
+
+  @Test
+  public void testScrollToItem()
+  {
+    final var list = this.newList(1_000_000, 20);
+    list.setRowHeight(SyListViewRowHeightType.fixed(20));
+    list.setOverscan(1);
+    this.layout();
+
+    list.scrollToItem(500_000);
+    this.layout();
+
+    assertEquals(500_000 - 1, list.rowsBoundFirst());
+    this.checkRows(list, 20, 500_000L * 20L);
+  }
+
+  /**
+   * Rows with estimated heights are measured as they are laid out, and
+   * enough rows are bound to fill the viewport.
+   */
+
+  @Test
+  public void testEstimatedHeights()
+  {
+    final var list = this.newList(1_000_000, 10);
+    list.setRowHeight(SyListViewRowHeightType.estimated(40));
+    list.setOverscan(0);
+    this.layout();
+
+    assertEquals(0, list.rowsBoundFirst());
+    assertEquals(VIEWPORT_HEIGHT / 10, list.rowsBoundCount());
+    this.checkRows(list, 10, 0L);
+  }
+
+  /**
+   * Changing the items rebinds the visible rows without creating new ones.
+   */
+
+  @Test
+  public void testItemsChanged()
+  {
+    final var list = this.newList(1000, 20);
+    list.setRowHeight(SyListViewRowHeightType.fixed(20));
+    this.layout();
+
+    final var created = list.rowsCreated();
+    final var bound = this.bindCount;
+    this.layout();
+    assertEquals(bound, this.bindCount);
+
+    list.itemsChanged();
+    this.layout();
+    assertEquals(created, list.rowsCreated());
+    assertEquals(bound * 2, this.bindCount);
+  }
+
+  /**
+   * An empty list binds no rows.
+   */
+
+  @Test
+  public void testEmpty()
+  {
+    final var list = this.newList(0, 20);
+    this.layout();
+
+    assertEquals(0, list.itemCount());
+    assertEquals(0, list.rowsBoundCount());
+    assertEquals(0, list.rowsCreated());
+  }
+
+  private record Data(int size)
+    implements SyListViewDataType<Integer>
+  {
+    @Override
+    public Integer itemAt(
+      final int index)
+    {
+      return Integer.valueOf(index);
+    }
+  }
+
+  private final class Rows implements SyListViewRowFactoryType<Integer>
+  {
+    private final int height;
+
+    Rows(
+      final int inHeight)
+    {
+      this.height = inHeight;
+    }
+
+    @Override
+    public SyComponentType rowCreate()
+    {
+      final var row = new SySpace(SyListViewTest.this.screen());
+      row.setSizeUpperLimit(PAreaSizeI.of(Integer.MAX_VALUE, this.height));
+      return row;
+    }
+
+    @Override
+    public void rowBind(
+      final SyComponentType row,
+      final int index,
+      final Integer item)
+    {
+      assertEquals(index, item.intValue());
+      SyListViewTest.this.bindings.put(row, item);
+      ++SyListViewTest.this.bindCount;
+    }
+  }
+}
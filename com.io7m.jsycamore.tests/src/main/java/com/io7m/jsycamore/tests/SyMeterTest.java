@@ -0,0 +1,347 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyMeterType;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeComposite;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeShape;
+import com.io7m.jsycamore.api.rendering.SyShapeRectangle;
+import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jsycamore.components.standard.SyMeters;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.io7m.jsycamore.api.components.SyMeterStyle.METER_BAR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyMeterTest extends SyComponentContract<SyMeterType>
+{
+  @Override
+  protected SyMeterType newComponent()
+  {
+    return SyMeters.create(this.screen());
+  }
+
+  private SyMeterType newMeter(
+    final int capacity)
+  {
+    final var meter =
+      SyMeters.create(this.screen(), List.of(), capacity);
+    meter.setSizeUpperLimit(PAreaSizeI.of(50, 20));
+    this.windowContentArea().childAdd(meter);
+    return meter;
+  }
+
+  private void layout()
+  {
+    this.window().layout(this.layoutContext);
+  }
+
+  /**
+   * Samples are collected into one column each by default.
+   */
+
+  @Test
+  public void testSamplesCollected()
+  {
+    final var meter = this.newMeter(1024);
+    assertTrue(Double.isNaN(meter.valueLatest()));
+
+    for (int index = 0; index < 30; ++index) {
+      assertTrue(meter.samples().sampleAdd(index));
+    }
+    this.layout();
+
+    assertEquals(30L, meter.samplesCollected());
+    assertEquals(29.0, meter.valueLatest());
+    assertEquals(30, meter.columnCount());
+    assertEquals(0.0, meter.columnMinimum(0));
+    assertEquals(29.0, meter.columnMaximum(29));
+  }
+
+  /**
+   * Samples are aggregated into columns.
+   */
+
+  @Test
+  public void testSamplesPerColumn()
+  {
+    final var meter = this.newMeter(1024);
+    meter.setSamplesPerColumn(10);
+
+    for (int index = 0; index < 105; ++index) {
+      meter.samples().sampleAdd(index);
+    }
+    this.layout();
+
+    assertEquals(10, meter.columnCount());
+    for (int column = 0; column < 10; ++column) {
+      assertEquals(column * 10.0, meter.columnMinimum(column));
+      assertEquals(column * 10.0 + 9.0, meter.columnMaximum(column));
+    }
+  }
+
+  /**
+   * The history holds one column per pixel, and old columns scroll out.
+   */
+
+  @Test
+  public void testHistoryScrolls()
+  {
+    final var meter = this.newMeter(1024);
+    for (int round = 0; round < 4; ++round) {
+      for (int index = 0; index < 20; ++index) {
+        meter.samples().sampleAdd(round * 20 + index);
+      }
+      this.layout();
+    }
+
+    assertEquals(50, meter.columnCount());
+    assertEquals(30.0, meter.columnMinimum(0));
+    assertEquals(79.0, meter.columnMaximum(49));
+  }
+
+  /**
+   * Samples are discarded when the sink is full.
+   */
+
+  @Test
+  public void testDiscard()
+  {
+    final var meter = this.newMeter(16);
+    for (int index = 0; index < 20; ++index) {
+      meter.samples().sampleAdd(index);
+    }
+    assertFalse(meter.samples().sampleAdd(20.0));
+    assertEquals(5L, meter.samplesDiscarded());
+
+    this.layout();
+    assertEquals(16L, meter.samplesCollected());
+    assertEquals(15.0, meter.valueLatest());
+    assertTrue(meter.samples().sampleAdd(21.0));
+  }
+
+  /**
+   * Samples may be submitted from many threads while the meter is being
+   * laid out, and every sample is either collected or discarded.
+   */
+
+  @Test
+  public void testConcurrentProducers()
+    throws Exception
+  {
+    final var meter = this.newMeter(256);
+    final var producers = 4;
+    final var samples = 100_000;
+    final var start = new CountDownLatch(1);
+    final var threads = new ArrayList<Thread>();
+
+    for (int index = 0; index < producers; ++index) {
+      final var thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int sample = 0; sample < samples; ++sample) {
+          meter.samples().sampleAdd(1.0);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    while (threads.stream().anyMatch(Thread::isAlive)) {
+      this.layout();
+    }
+    for (final var thread : threads) {
+      thread.join();
+    }
+    this.layout();
+
+    assertEquals(
+      (long) producers * samples,
+      meter.samplesCollected() + meter.samplesDiscarded()
+    );
+    assertEquals(1.0, meter.valueLatest());
+  }
+
+  private SyRenderNodeRaster renderSparkline(
+    final SyMeterType meter)
+  {
+    final var node =
+      this.screen()
+        .theme()
+        .findForComponent(meter)
+        .render(Mockito.mock(SyThemeContextType.class), meter);
+
+    final var composite = assertInstanceOf(SyRenderNodeComposite.class, node);
+    return assertInstanceOf(SyRenderNodeRaster.class, composite.nodes().get(1));
+  }
+
+  /**
+   * Meters draw sparklines into a raster with one pixel column per column
+   * of history, with the newest column at the right edge.
+   */
+
+  @Test
+  public void testRenderSparkline()
+  {
+    final var meter = this.newMeter(1024);
+    for (int index = 0; index < 10; ++index) {
+      meter.samples().sampleAdd(index / 10.0);
+    }
+    this.layout();
+
+    final var node = this.renderSparkline(meter);
+    final var raster = node.raster();
+    assertEquals(50, raster.width());
+    assertEquals(20, raster.height());
+    assertEquals(0, node.scrollX());
+
+    final var pixels = raster.pixels();
+    assertNotEquals(0, pixels[2 * 50 + 49]);
+    assertEquals(0, pixels[1 * 50 + 49]);
+    assertNotEquals(0, pixels[19 * 50 + 40]);
+    for (int y = 0; y < 20; ++y) {
+      assertEquals(0, pixels[y * 50 + 39]);
+    }
+  }
+
+  /**
+   * Laying out a sparkline again writes only the columns that have arrived
+   * since the last layout, and scrolls the raster rather than moving the
+   * existing pixels.
+   */
+
+  @Test
+  public void testRenderSparklineIncremental()
+  {
+    final var meter = this.newMeter(1024);
+    for (int index = 0; index < 10; ++index) {
+      meter.samples().sampleAdd(index / 10.0);
+    }
+    this.layout();
+
+    final var regions = new int[SyRaster.DIRTY_REGIONS_MAXIMUM * 4];
+    final var raster = this.renderSparkline(meter).raster();
+    raster.dirtyTake(regions);
+
+    final var version = raster.version();
+    final var unchanged = this.renderSparkline(meter);
+    assertSame(raster, unchanged.raster());
+    assertEquals(0, unchanged.scrollX());
+    assertEquals(version, raster.version());
+    assertEquals(0, raster.dirtyCount());
+
+    meter.samples().sampleAdd(1.0);
+    meter.samples().sampleAdd(0.5);
+    meter.samples().sampleAdd(0.0);
+    this.layout();
+
+    final var scrolled = this.renderSparkline(meter);
+    assertSame(raster, scrolled.raster());
+    assertEquals(3, scrolled.scrollX());
+    assertEquals(1, raster.dirtyTake(regions));
+    assertEquals(0, regions[0]);
+    assertEquals(0, regions[1]);
+    assertEquals(3, regions[2]);
+    assertEquals(20, regions[3]);
+
+    final var pixels = raster.pixels();
+    assertNotEquals(0, pixels[19 * 50 + 2]);
+    assertNotEquals(0, pixels[0]);
+    assertEquals(0, pixels[1 * 50]);
+    assertNotEquals(0, pixels[2 * 50 + 49]);
+  }
+
+  /**
+   * Changing the range of a meter redraws the whole sparkline when the
+   * meter is next laid out. Rendering alone never writes to the raster.
+   */
+
+  @Test
+  public void testRenderSparklineRangeChanged()
+  {
+    final var meter = this.newMeter(1024);
+    meter.samples().sampleAdd(0.5);
+    this.layout();
+
+    final var regions = new int[SyRaster.DIRTY_REGIONS_MAXIMUM * 4];
+    final var raster = this.renderSparkline(meter).raster();
+    raster.dirtyTake(regions);
+
+    final var version = raster.version();
+    meter.setRange(0.0, 2.0);
+    this.renderSparkline(meter);
+    this.renderSparkline(meter);
+    assertEquals(version, raster.version());
+    assertEquals(0, raster.dirtyCount());
+
+    this.layout();
+    final var node = this.renderSparkline(meter);
+    assertSame(raster, node.raster());
+    assertNotEquals(version, raster.version());
+    assertEquals(0, node.scrollX());
+    assertEquals(1, raster.dirtyTake(regions));
+    assertEquals(50, regions[2]);
+    assertEquals(20, regions[3]);
+  }
+
+  /**
+   * The theme renders bars as a rectangle proportional to the latest value.
+   */
+
+  @Test
+  public void testRenderBar()
+  {
+    final var meter = this.newMeter(1024);
+    meter.setStyle(METER_BAR);
+    meter.setRange(0.0, 100.0);
+    meter.samples().sampleAdd(50.0);
+    this.layout();
+
+    final var node =
+      this.screen()
+        .theme()
+        .findForComponent(meter)
+        .render(Mockito.mock(SyThemeContextType.class), meter);
+
+    final var composite = assertInstanceOf(SyRenderNodeComposite.class, node);
+    final var bar =
+      assertInstanceOf(SyRenderNodeShape.class, composite.nodes().get(1));
+    final var rectangle =
+      assertInstanceOf(SyShapeRectangle.class, bar.shape());
+    assertEquals(25, rectangle.area().sizeX());
+    assertEquals(20, rectangle.area().sizeY());
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jorchard.core.JOTreeNodeReadableType;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.layout.SyLayoutContextType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
+import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.awt.internal.SyAWTFont;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.components.standard.SyLayoutAbstract;
+import com.io7m.jsycamore.components.standard.SyLayoutHorizontal;
+import com.io7m.jsycamore.components.standard.SyLayoutVertical;
+import com.io7m.jsycamore.components.standard.SyPackHorizontal;
+import com.io7m.jsycamore.components.standard.SyPackVertical;
+import com.io7m.jsycamore.components.standard.buttons.SyButton;
+import com.io7m.jsycamore.components.standard.forms.SyForm;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jsycamore.vanilla.internal.SyLayoutContext;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+import static com.io7m.jsycamore.api.text.SyText.text;
+import static com.io7m.jsycamore.components.standard.forms.SyFormColumnSizeType.exact;
+import static com.io7m.jsycamore.components.standard.forms.SyFormColumnSizeType.flexible;
+import static com.io7m.jsycamore.components.standard.forms.SyFormColumnsConfiguration.columns;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public final class SyParallelLayoutTest
+{
+  private static final int WINDOW_COUNT = 16;
+  private static final int ROW_COUNT = 100;
+
+  private SyFontDirectoryServiceType<SyAWTFont> fonts;
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.fonts =
+      SyAWTFontDirectoryService.createFromServiceLoader();
+    this.pool =
+      new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.pool.shutdown();
+    this.pool.awaitTermination(5L, TimeUnit.SECONDS);
+  }
+
+  private SyScreenType createScreen()
+  {
+    final var screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          this.fonts,
+          PAreaSizeI.of(2048, 2048)
+        );
+
+    final var windowService = screen.windowService();
+    for (int w = 0; w < WINDOW_COUNT; ++w) {
+      final var window = windowService.windowCreate(300 + w, 400 + w);
+      window.title().set(text("Window " + w));
+      window.setPosition(PVector2I.of(w * 100, w * 100));
+
+      final var rows = new SyLayoutVertical(screen);
+      for (int r = 0; r < ROW_COUNT; ++r) {
+        rows.childAdd(SyButton.button(screen, text("Row " + r)));
+      }
+      window.contentArea().childAdd(rows);
+    }
+    return screen;
+  }
+
+  private static void populate(
+    final SyScreenType screen,
+    final SyLayoutAbstract container)
+  {
+    for (int r = 0; r < 2000; ++r) {
+      if (container instanceof SyForm form) {
+        final var row = form.addRow();
+        row.childAdd(new ThreadRecorder(screen));
+        row.childAdd(SyButton.button(screen, text("Row " + r)));
+      } else {
+        container.childAdd(new ThreadRecorder(screen));
+      }
+    }
+  }
+
+  private static List<String> geometryOf(
+    final SyLayoutAbstract container)
+  {
+    final var results = new ArrayList<String>();
+    geometryOf(container.node(), results);
+    return results;
+  }
+
+  private static List<String> geometry(
+    final SyScreenType screen)
+  {
+    final var results = new ArrayList<String>();
+    for (final var window : screen.windowService().windowsVisibleOrdered()) {
+      geometryOf(window.rootNodeReadable(), results);
+    }
+    return results;
+  }
+
+  private static void geometryOf(
+    final JOTreeNodeReadableType<? extends SyComponentReadableType> node,
+    final List<String> results)
+  {
+    final var component = node.value();
+    results.add(
+      String.format(
+        "%s %s",
+        component.position().get(),
+        component.size().get())
+    );
+    for (final var child : node.childrenReadable()) {
+      geometryOf(child, results);
+    }
+  }
+
+  /**
+   * Laying out windows in parallel produces exactly the same results as
+   * laying them out sequentially.
+   */
+
+  @Test
+  public void testParallelMatchesSequential()
+  {
+    try (var sequential = this.createScreen();
+         var parallel = this.createScreen()) {
+      parallel.setLayoutPool(this.pool);
+      parallel.setParallelLayoutEnabled(true);
+
+      sequential.update();
+      parallel.update();
+
+      final var expected = geometry(sequential);
+      final var received = geometry(parallel);
+      assertTrue(expected.size() > WINDOW_COUNT * ROW_COUNT);
+      assertEquals(expected, received);
+    }
+  }
+
+  /**
+   * Parallel layout can be switched off again.
+   */
+
+  @Test
+  public void testParallelDisabled()
+  {
+    try (var sequential = this.createScreen();
+         var toggled = this.createScreen()) {
+      toggled.setLayoutPool(this.pool);
+      toggled.setParallelLayoutEnabled(true);
+      toggled.update();
+      toggled.setParallelLayoutEnabled(false);
+
+      for (final var window : toggled.windowService().windowsVisibleOrdered()) {
+        window.setPosition(PVector2I.of(10, 10));
+      }
+      for (final var window : sequential.windowService().windowsVisibleOrdered()) {
+        window.setPosition(PVector2I.of(10, 10));
+      }
+
+      sequential.update();
+      toggled.update();
+      assertEquals(geometry(sequential), geometry(toggled));
+    }
+  }
+
+  /**
+   * Containers above the parallel layout threshold lay out their children
+   * on the layout pool, and produce exactly the same results as sequential
+   * layout.
+   *
+   * @return The tests
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testContainerParallelMatchesSequential()
+  {
+    final Map<String, Function<SyScreenType, SyLayoutAbstract>> containers =
+      Map.of(
+        "SyLayoutVertical", SyLayoutVertical::new,
+        "SyLayoutHorizontal", SyLayoutHorizontal::new,
+        "SyPackVertical", SyPackVertical::new,
+        "SyPackHorizontal", SyPackHorizontal::new,
+        "SyForm", s -> new SyForm(s, columns(exact(32), flexible()))
+      );
+
+    return containers.entrySet()
+      .stream()
+      .map(e -> dynamicTest(
+        "testContainerParallelMatchesSequential_" + e.getKey(),
+        () -> this.checkContainerParallel(e.getValue())));
+  }
+
+  private void checkContainerParallel(
+    final Function<SyScreenType, SyLayoutAbstract> constructor)
+  {
+    try (var screen = this.createScreen()) {
+      final var theme = screen.theme();
+      final var layoutContext =
+        new SyLayoutContext(screen.services(), this.fonts, theme);
+      layoutContext.setLayoutPool(this.pool);
+
+      final var sequential = constructor.apply(screen);
+      populate(screen, sequential);
+      final var parallel = constructor.apply(screen);
+      populate(screen, parallel);
+      parallel.parallelLayoutThreshold().set(64);
+
+      final var constraints =
+        new SyConstraints(0, 0, 4000, 4000);
+
+      ThreadRecorder.THREADS.clear();
+      sequential.layout(layoutContext, constraints);
+      assertEquals(Set.of(Thread.currentThread()), ThreadRecorder.THREADS);
+
+      ThreadRecorder.THREADS.clear();
+      parallel.layout(layoutContext, constraints);
+      assertTrue(
+        ThreadRecorder.THREADS.stream()
+          .anyMatch(t -> t != Thread.currentThread()),
+        "Children must have been laid out on the pool"
+      );
+
+      assertEquals(geometryOf(sequential), geometryOf(parallel));
+    }
+  }
+
+  private static final class ThreadRecorder extends SyComponentAbstract
+  {
+    private static final Set<Thread> THREADS =
+      ConcurrentHashMap.newKeySet();
+
+    ThreadRecorder(
+      final SyScreenType screen)
+    {
+      super(
+        screen,
+        List.of(),
+        SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_STOPS_TRAVERSAL
+      );
+    }
+
+    @Override
+    public PAreaSizeI<SySpaceParentRelativeType> layout(
+      final SyLayoutContextType layoutContext,
+      final SyConstraints constraints)
+    {
+      THREADS.add(Thread.currentThread());
+      final PAreaSizeI<SySpaceParentRelativeType> size =
+        constraints.sizeWithin(17, 13);
+      this.setSize(size);
+      return size;
+    }
+
+    @Override
+    protected SyEventConsumed onEventInput(
+      final SyEventInputType event)
+    {
+      return EVENT_NOT_CONSUMED;
+    }
+
+    @Override
+    public List<SyThemeClassNameType> themeClassesDefaultForComponent()
+    {
+      return List.of();
+    }
+  }
+}
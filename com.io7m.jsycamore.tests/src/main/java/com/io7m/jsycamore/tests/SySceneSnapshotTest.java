@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.rendering.SyRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
+import com.io7m.jsycamore.api.rendering.SySceneNode;
+import com.io7m.jsycamore.api.rendering.SySceneSnapshot;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.text.SyFontDirectoryServiceType;
+import com.io7m.jsycamore.api.windows.SyWindowType;
+import com.io7m.jsycamore.awt.internal.SyAWTFont;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.awt.internal.SyAWTImageLoader;
+import com.io7m.jsycamore.awt.internal.SyAWTRenderer;
+import com.io7m.jsycamore.components.standard.SyCanvas;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.jsycamore.api.text.SyText.text;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SySceneSnapshotTest
+{
+  private SyFontDirectoryServiceType<SyAWTFont> fonts;
+  private SyAWTImageLoader imageLoader;
+  private SyScreenType screen;
+  private SyAWTRenderer renderer;
+  private SyWindowType window1;
+  private ExecutorService renderThread;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.fonts =
+      SyAWTFontDirectoryService.createFromServiceLoader();
+    this.imageLoader =
+      new SyAWTImageLoader();
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          this.fonts,
+          PAreaSizeI.of(512, 512)
+        );
+    this.renderer =
+      new SyAWTRenderer(this.screen.services(), this.fonts, this.imageLoader);
+    this.renderThread =
+      Executors.newSingleThreadExecutor();
+
+    final var windowService = this.screen.windowService();
+    final var window0 = windowService.windowCreate(300, 200);
+    window0.title().set(text("Window 0"));
+    this.window1 = windowService.windowCreate(300, 200);
+    this.window1.title().set(text("Window 1"));
+    this.window1.setPosition(PVector2I.of(100, 150));
+    this.screen.update();
+
+    /*
+     * Render once and wait, so that the images used by the window
+     * decorations are loaded.
+     */
+
+    final var image = SyTestImages.createImage();
+    final var graphics = image.createGraphics();
+    this.renderer.render(graphics, this.screen);
+    graphics.dispose();
+    Thread.sleep(500L);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.renderThread.shutdown();
+    this.renderThread.awaitTermination(5L, TimeUnit.SECONDS);
+    this.screen.close();
+  }
+
+  private BufferedImage renderOnRenderThread(
+    final SySceneSnapshot snapshot)
+    throws Exception
+  {
+    return this.renderThread.submit(() -> {
+      final var image = SyTestImages.createImage();
+      final var graphics = image.createGraphics();
+      this.renderer.render(graphics, snapshot);
+      graphics.dispose();
+      return image;
+    }).get(5L, TimeUnit.SECONDS);
+  }
+
+  private BufferedImage renderDirectly()
+  {
+    final var image = SyTestImages.createImage();
+    final var graphics = image.createGraphics();
+    this.renderer.render(graphics, this.screen);
+    graphics.dispose();
+    return image;
+  }
+
+  /**
+   * Snapshots are not captured unless enabled.
+   */
+
+  @Test
+  public void testSnapshotsDisabledByDefault()
+  {
+    this.screen.update();
+    assertTrue(this.screen.snapshot().isEmpty());
+
+    this.screen.setSnapshotsEnabled(true);
+    assertTrue(this.screen.snapshot().isEmpty());
+    this.screen.update();
+    assertTrue(this.screen.snapshot().isPresent());
+
+    this.screen.setSnapshotsEnabled(false);
+    assertTrue(this.screen.snapshot().isEmpty());
+  }
+
+  /**
+   * Rendering a snapshot on another thread produces exactly the same image
+   * as rendering the screen directly.
+   */
+
+  @Test
+  public void testSnapshotMatchesRendering()
+    throws Exception
+  {
+    this.screen.setSnapshotsEnabled(true);
+    this.screen.update();
+
+    final var snapshot = this.screen.snapshot().orElseThrow();
+    assertEquals(PAreaSizeI.of(512, 512), snapshot.size());
+    assertFalse(snapshot.windows().isEmpty());
+
+    final var imageDirect = this.renderDirectly();
+    final var imageSnapshot = this.renderOnRenderThread(snapshot);
+    assertArrayEquals(SyTestImages.pixels(imageDirect), SyTestImages.pixels(imageSnapshot));
+  }
+
+  /**
+   * A snapshot is unaffected by changes made to the screen after it was
+   * captured.
+   */
+
+  @Test
+  public void testSnapshotIsolatedFromUpdates()
+    throws Exception
+  {
+    this.screen.setSnapshotsEnabled(true);
+    this.screen.update();
+
+    final var snapshot0 = this.screen.snapshot().orElseThrow();
+    final var imageBefore = this.renderDirectly();
+
+    this.window1.title().set(text("Changed"));
+    this.window1.setPosition(PVector2I.of(200, 250));
+    this.screen.update();
+
+    final var snapshot1 = this.screen.snapshot().orElseThrow();
+    assertTrue(snapshot1.frame() > snapshot0.frame());
+    assertNotEquals(snapshot0.windows(), snapshot1.windows());
+
+    final var imageSnapshot0 = this.renderOnRenderThread(snapshot0);
+    assertArrayEquals(SyTestImages.pixels(imageBefore), SyTestImages.pixels(imageSnapshot0));
+
+    final var imageAfter = this.renderDirectly();
+    final var imageSnapshot1 = this.renderOnRenderThread(snapshot1);
+    assertArrayEquals(SyTestImages.pixels(imageAfter), SyTestImages.pixels(imageSnapshot1));
+  }
+
+  /**
+   * A snapshot captures the pixels of rasters as they were when the
+   * snapshot was taken.
+   */
+
+  @Test
+  public void testSnapshotRasterIsolated()
+    throws Exception
+  {
+    final var raster = new SyRaster(16, 16);
+    Arrays.fill(raster.pixels(), 0xffff0000);
+    raster.markDirtyAll();
+
+    final var canvas = new SyCanvas(this.screen);
+    canvas.setRaster(raster);
+    this.window1.contentArea().childAdd(canvas);
+
+    this.screen.setSnapshotsEnabled(true);
+    this.screen.update();
+    final var snapshot0 = this.screen.snapshot().orElseThrow();
+    final var image0 = SyTestImages.pixels(this.renderOnRenderThread(snapshot0));
+
+    Arrays.fill(raster.pixels(), 0xff00ff00);
+    raster.markDirtyAll();
+
+    final var captured =
+      snapshot0.windows()
+        .stream()
+        .flatMap(w -> w.nodes().stream())
+        .map(SySceneNode::node)
+        .filter(SyRenderNodeRaster.class::isInstance)
+        .map(SyRenderNodeRaster.class::cast)
+        .findFirst()
+        .orElseThrow();
+
+    assertTrue(captured.raster().isSnapshot());
+    assertEquals(0xffff0000, captured.raster().pixels()[0]);
+    assertArrayEquals(image0, SyTestImages.pixels(this.renderOnRenderThread(snapshot0)));
+
+    this.screen.update();
+    final var snapshot1 = this.screen.snapshot().orElseThrow();
+    final var image1 = SyTestImages.pixels(this.renderOnRenderThread(snapshot1));
+    assertFalse(Arrays.equals(image0, image1));
+    assertArrayEquals(image0, SyTestImages.pixels(this.renderOnRenderThread(snapshot0)));
+  }
+}
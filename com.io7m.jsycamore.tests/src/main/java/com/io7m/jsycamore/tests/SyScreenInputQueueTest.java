@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnReleased;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_CONSUMED;
+import static com.io7m.jsycamore.api.mouse.SyMouseButton.MOUSE_BUTTON_LEFT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyScreenInputQueueTest
+{
+  private static final int PRODUCERS = 4;
+  private static final int PER_PRODUCER = 2000;
+
+  private SyScreenType screen;
+  private Recorder recorder;
+
+  private static PVector2I<SySpaceViewportType> at(
+    final int x,
+    final int y)
+  {
+    return PVector2I.of(x, y);
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          SyAWTFontDirectoryService.createFromServiceLoader(),
+          PAreaSizeI.of(1024, 1024)
+        );
+
+    final var window =
+      this.screen.windowService().windowCreate(1024, 1024);
+    window.decorated().set(false);
+
+    this.recorder = new Recorder(this.screen);
+    this.recorder.setMouseMoveSubscribed(true);
+    window.contentArea().childAdd(this.recorder);
+    this.screen.update();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.screen.close();
+  }
+
+  /**
+   * Queued input is delivered, in order, by the next update.
+   */
+
+  @Test
+  public void testDeliveredOnUpdate()
+  {
+    final var queue = this.screen.inputQueue();
+    queue.mouseMoved(at(10, 10));
+    queue.mouseDown(at(10, 10), MOUSE_BUTTON_LEFT);
+    queue.mouseUp(at(10, 10), MOUSE_BUTTON_LEFT);
+    assertEquals(List.of(), this.recorder.events);
+
+    this.screen.update();
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(10, 10), this.recorder),
+        new SyMouseEventOnPressed(at(10, 10), MOUSE_BUTTON_LEFT, this.recorder),
+        new SyMouseEventOnReleased(
+          at(10, 10), MOUSE_BUTTON_LEFT, this.recorder),
+        new SyMouseEventOnOver(at(10, 10), this.recorder)
+      ),
+      this.recorder.events
+    );
+
+    this.screen.update();
+    assertEquals(4, this.recorder.events.size());
+  }
+
+  /**
+   * Input submitted concurrently by several threads is all delivered, and
+   * the input of each thread is delivered in the order it was submitted.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  @Timeout(value = 30L, unit = TimeUnit.SECONDS)
+  public void testConcurrentProducers()
+    throws Exception
+  {
+    final var queue = this.screen.inputQueue();
+    final var start = new CountDownLatch(1);
+    final var threads = new ArrayList<Thread>();
+
+    for (int p = 0; p < PRODUCERS; ++p) {
+      final var y = p;
+      threads.add(Thread.ofPlatform().start(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int x = 0; x < PER_PRODUCER; ++x) {
+          queue.mouseMoved(at(x % 1000, y));
+        }
+      }));
+    }
+
+    start.countDown();
+    while (this.recorder.events.size() < PRODUCERS * PER_PRODUCER) {
+      this.screen.update();
+    }
+    for (final var thread : threads) {
+      thread.join();
+    }
+    this.screen.update();
+
+    assertEquals(PRODUCERS * PER_PRODUCER, this.recorder.events.size());
+
+    final var counts = new int[PRODUCERS];
+    for (final var event : this.recorder.events) {
+      final var position = switch (event) {
+        case final SyMouseEventOnOver e -> e.mousePosition();
+        case final SyMouseEventOnMoved e -> e.mousePosition();
+        default -> throw new IllegalStateException();
+      };
+      final var producer = position.y();
+      assertEquals(counts[producer] % 1000, position.x());
+      ++counts[producer];
+    }
+    for (final var count : counts) {
+      assertEquals(PER_PRODUCER, count);
+    }
+
+    assertInstanceOf(SyMouseEventOnOver.class, this.recorder.events.get(0));
+    assertTrue(this.recorder.isMouseOver());
+  }
+
+  private static final class Recorder extends SyComponentAbstract
+  {
+    private final ArrayList<SyEventInputType> events;
+
+    Recorder(
+      final SyScreenType inScreen)
+    {
+      super(
+        inScreen,
+        List.of(),
+        SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_STOPS_TRAVERSAL
+      );
+      this.events = new ArrayList<>();
+    }
+
+    @Override
+    protected SyEventConsumed onEventInput(
+      final SyEventInputType event)
+    {
+      this.events.add(event);
+      return EVENT_CONSUMED;
+    }
+
+    @Override
+    public List<SyThemeClassNameType> themeClassesDefaultForComponent()
+    {
+      return List.of();
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnHeld;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnReleased;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_CONSUMED;
+import static com.io7m.jsycamore.api.mouse.SyMouseButton.MOUSE_BUTTON_LEFT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class SyScreenMouseCoalescingTest
+{
+  private SyScreenType screen;
+  private Recorder recorder;
+
+  private static PVector2I<SySpaceViewportType> at(
+    final int x,
+    final int y)
+  {
+    return PVector2I.of(x, y);
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          SyAWTFontDirectoryService.createFromServiceLoader(),
+          PAreaSizeI.of(1024, 1024)
+        );
+
+    final var window =
+      this.screen.windowService().windowCreate(256, 256);
+    window.decorated().set(false);
+
+    this.recorder = new Recorder(this.screen);
+    window.contentArea().childAdd(this.recorder);
+    this.screen.update();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.screen.close();
+  }
+
+  /**
+   * Without coalescing, every movement is delivered.
+   */
+
+  @Test
+  public void testDisabledDeliversAll()
+  {
+    this.recorder.setMouseMoveSubscribed(true);
+    this.screen.mouseMoved(at(10, 10));
+    this.screen.mouseMoved(at(20, 20));
+
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(10, 10), this.recorder),
+        new SyMouseEventOnMoved(at(20, 20), this.recorder)
+      ),
+      this.recorder.events
+    );
+  }
+
+  /**
+   * Movements are coalesced until the next update.
+   */
+
+  @Test
+  public void testCoalescedUntilUpdate()
+  {
+    this.screen.setMouseCoalescingEnabled(true);
+
+    for (int index = 0; index < 10; ++index) {
+      assertEquals(Optional.empty(), this.screen.mouseMoved(at(10 + index, 10)));
+    }
+    assertEquals(List.of(), this.recorder.events);
+
+    this.screen.update();
+    assertEquals(
+      List.of(new SyMouseEventOnOver(at(19, 10), this.recorder)),
+      this.recorder.events
+    );
+    assertEquals(at(19, 10), this.screen.mousePosition().get());
+
+    this.screen.update();
+    assertEquals(1, this.recorder.events.size());
+    assertEquals(
+      Optional.of(this.recorder),
+      this.screen.mouseMoved(at(30, 30))
+    );
+  }
+
+  /**
+   * Movements are delivered before presses and releases, so that ordering
+   * is preserved, and movements while held are coalesced too.
+   */
+
+  @Test
+  public void testCoalescedOrdering()
+  {
+    this.screen.setMouseCoalescingEnabled(true);
+
+    this.screen.mouseMoved(at(10, 10));
+    this.screen.mouseMoved(at(20, 20));
+    this.screen.mouseDown(at(30, 30), MOUSE_BUTTON_LEFT);
+    this.screen.mouseMoved(at(40, 40));
+    this.screen.mouseMoved(at(50, 50));
+    this.screen.mouseUp(at(60, 60), MOUSE_BUTTON_LEFT);
+    this.screen.update();
+
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(20, 20), this.recorder),
+        new SyMouseEventOnPressed(at(30, 30), MOUSE_BUTTON_LEFT, this.recorder),
+        new SyMouseEventOnHeld(
+          at(30, 30), at(50, 50), MOUSE_BUTTON_LEFT, this.recorder),
+        new SyMouseEventOnReleased(
+          at(60, 60), MOUSE_BUTTON_LEFT, this.recorder),
+        new SyMouseEventOnOver(at(60, 60), this.recorder)
+      ),
+      this.recorder.events
+    );
+  }
+
+  /**
+   * Disabling coalescing delivers the pending movement.
+   */
+
+  @Test
+  public void testDisableFlushes()
+  {
+    this.screen.setMouseCoalescingEnabled(true);
+    this.screen.mouseMoved(at(10, 10));
+    assertEquals(List.of(), this.recorder.events);
+
+    this.screen.setMouseCoalescingEnabled(false);
+    assertEquals(
+      List.of(new SyMouseEventOnOver(at(10, 10), this.recorder)),
+      this.recorder.events
+    );
+  }
+
+  private static final class Recorder extends SyComponentAbstract
+  {
+    private final ArrayList<SyEventInputType> events;
+
+    Recorder(
+      final SyScreenType inScreen)
+    {
+      super(
+        inScreen,
+        List.of(),
+        SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_STOPS_TRAVERSAL
+      );
+      this.events = new ArrayList<>();
+    }
+
+    @Override
+    protected SyEventConsumed onEventInput(
+      final SyEventInputType event)
+    {
+      this.events.add(event);
+      return EVENT_CONSUMED;
+    }
+
+    @Override
+    public List<SyThemeClassNameType> themeClassesDefaultForComponent()
+    {
+      return List.of();
+    }
+  }
+}
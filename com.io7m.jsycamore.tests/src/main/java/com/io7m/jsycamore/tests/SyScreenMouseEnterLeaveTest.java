@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
+import com.io7m.jsycamore.api.events.SyEventInputType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnReleased;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
+import com.io7m.jsycamore.awt.internal.SyAWTFontDirectoryService;
+import com.io7m.jsycamore.components.standard.SyComponentAbstract;
+import com.io7m.jsycamore.theme.primal.SyThemePrimalFactory;
+import com.io7m.jsycamore.vanilla.SyScreenFactory;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_CONSUMED;
+import static com.io7m.jsycamore.api.mouse.SyMouseButton.MOUSE_BUTTON_LEFT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyScreenMouseEnterLeaveTest
+{
+  private SyScreenType screen;
+  private Recorder left;
+  private Recorder right;
+
+  private static PVector2I<SySpaceViewportType> at(
+    final int x,
+    final int y)
+  {
+    return PVector2I.of(x, y);
+  }
+
+  private Recorder recorderAt(
+    final int x)
+  {
+    final var window =
+      this.screen.windowService().windowCreate(100, 100);
+    window.decorated().set(false);
+    window.setPosition(PVector2I.of(x, 0));
+
+    final var recorder = new Recorder(this.screen);
+    window.contentArea().childAdd(recorder);
+    return recorder;
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.screen =
+      new SyScreenFactory()
+        .create(
+          new SyThemePrimalFactory().create(),
+          SyAWTFontDirectoryService.createFromServiceLoader(),
+          PAreaSizeI.of(1024, 1024)
+        );
+
+    this.left = this.recorderAt(0);
+    this.right = this.recorderAt(200);
+    this.screen.update();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.screen.close();
+  }
+
+  /**
+   * Moving within a component delivers a single "over" event on entry.
+   */
+
+  @Test
+  public void testEnterOnce()
+  {
+    assertFalse(this.left.isMouseMoveSubscribed());
+
+    for (int index = 0; index < 50; ++index) {
+      this.screen.mouseMoved(at(10 + index, 10));
+    }
+
+    assertEquals(
+      List.of(new SyMouseEventOnOver(at(10, 10), this.left)),
+      this.left.events
+    );
+    assertTrue(this.left.isMouseOver());
+  }
+
+  /**
+   * Subscribed components receive every movement after entry.
+   */
+
+  @Test
+  public void testSubscribedMoves()
+  {
+    this.left.setMouseMoveSubscribed(true);
+
+    this.screen.mouseMoved(at(10, 10));
+    this.screen.mouseMoved(at(11, 10));
+    this.screen.mouseMoved(at(12, 10));
+
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(10, 10), this.left),
+        new SyMouseEventOnMoved(at(11, 10), this.left),
+        new SyMouseEventOnMoved(at(12, 10), this.left)
+      ),
+      this.left.events
+    );
+  }
+
+  /**
+   * Moving between components delivers "no longer over" to the old
+   * component and "over" to the new one.
+   */
+
+  @Test
+  public void testTransitions()
+  {
+    this.screen.mouseMoved(at(10, 10));
+    this.screen.mouseMoved(at(20, 10));
+    this.screen.mouseMoved(at(210, 10));
+    this.screen.mouseMoved(at(220, 10));
+    this.screen.mouseMoved(at(500, 500));
+    this.screen.mouseMoved(at(600, 500));
+
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(10, 10), this.left),
+        new SyMouseEventOnNoLongerOver()
+      ),
+      this.left.events
+    );
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(210, 10), this.right),
+        new SyMouseEventOnNoLongerOver()
+      ),
+      this.right.events
+    );
+    assertFalse(this.left.isMouseOver());
+    assertFalse(this.right.isMouseOver());
+  }
+
+  /**
+   * Releasing a mouse button re-delivers "over" to the component under
+   * the cursor, even if the cursor has not left it.
+   */
+
+  @Test
+  public void testReleaseReenters()
+  {
+    this.screen.mouseMoved(at(10, 10));
+    this.screen.mouseDown(at(10, 10), MOUSE_BUTTON_LEFT);
+    this.screen.mouseUp(at(10, 10), MOUSE_BUTTON_LEFT);
+    this.screen.mouseMoved(at(11, 10));
+
+    assertEquals(
+      List.of(
+        new SyMouseEventOnOver(at(10, 10), this.left),
+        new SyMouseEventOnPressed(at(10, 10), MOUSE_BUTTON_LEFT, this.left),
+        new SyMouseEventOnReleased(at(10, 10), MOUSE_BUTTON_LEFT, this.left),
+        new SyMouseEventOnOver(at(10, 10), this.left)
+      ),
+      this.left.events
+    );
+  }
+
+  private static final class Recorder extends SyComponentAbstract
+  {
+    private final ArrayList<SyEventInputType> events;
+
+    Recorder(
+      final SyScreenType inScreen)
+    {
+      super(
+        inScreen,
+        List.of(),
+        SyKeyboardFocusBehavior.IGNORES_FOCUS_AND_STOPS_TRAVERSAL
+      );
+      this.events = new ArrayList<>();
+    }
+
+    @Override
+    protected SyEventConsumed onEventInput(
+      final SyEventInputType event)
+    {
+      this.events.add(event);
+      return EVENT_CONSUMED;
+    }
+
+    @Override
+    public List<SyThemeClassNameType> themeClassesDefaultForComponent()
+    {
+      return List.of();
+    }
+  }
+}
@@ -16,12 +16,20 @@
 
 package com.io7m.jsycamore.tests;
 
+import com.io7m.jorchard.core.JOTreeExceptionDetachDenied;
 import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
 import com.io7m.jsycamore.api.components.SyScrollPaneType;
+import com.io7m.jsycamore.components.standard.SyLayoutVertical;
 import com.io7m.jsycamore.components.standard.SyScrollPanes;
+import com.io7m.jsycamore.components.standard.SySpace;
 import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public final class SyScrollPaneTest extends SyComponentContract<SyScrollPaneType>
 {
   @Override
@@ -43,4 +51,65 @@ public final class SyScrollPaneTest extends SyComponentContract<SyScrollPaneType
 
     c.position();
   }
+
+  /**
+   * The content area is attached to the viewport from construction, and
+   * cannot be detached from it.
+   */
+
+  @Test
+  public void testContentAreaAttached()
+  {
+    final var c = this.newComponent();
+    final var contentNode = c.contentArea().node();
+
+    assertEquals(
+      c.contentViewport(),
+      contentNode.parent().orElseThrow().value()
+    );
+    assertThrows(JOTreeExceptionDetachDenied.class, () -> {
+      contentNode.parent().orElseThrow().childRemove(contentNode);
+    });
+  }
+
+  /**
+   * Nested scroll panes with large content areas are laid out without
+   * detaching their content areas, and each content area receives its own
+   * size independently of the viewport.
+   */
+
+  @Test
+  public void testNestedLayoutWithoutTreeMutation()
+  {
+    final var outer = this.newComponent();
+    outer.setContentAreaSize(PAreaSizeI.of(4000, 4000));
+
+    final var inner = this.newComponent();
+    inner.setContentAreaSize(PAreaSizeI.of(8000, 8000));
+    inner.setSizeUpperLimit(PAreaSizeI.of(300, 300));
+
+    final var rows = new SyLayoutVertical(this.screen());
+    for (int index = 0; index < 100; ++index) {
+      rows.childAdd(new SySpace(this.screen()));
+    }
+    inner.contentArea().childAdd(rows);
+    outer.contentArea().childAdd(inner);
+    this.windowContentArea().childAdd(outer);
+
+    final var outerParent = outer.contentArea().node().parent().orElseThrow();
+    final var innerParent = inner.contentArea().node().parent().orElseThrow();
+
+    for (int index = 0; index < 3; ++index) {
+      this.window().layout(this.layoutContext);
+    }
+
+    assertSame(outerParent, outer.contentArea().node().parent().orElseThrow());
+    assertSame(innerParent, inner.contentArea().node().parent().orElseThrow());
+
+    assertEquals(PAreaSizeI.of(4000, 4000), outer.contentArea().size().get());
+    assertEquals(PAreaSizeI.of(8000, 8000), inner.contentArea().size().get());
+    assertEquals(PAreaSizeI.of(8000, 8000), rows.size().get());
+    assertTrue(inner.contentViewport().size().get().sizeX() < 300);
+    assertTrue(outer.contentViewport().size().get().sizeX() < 512);
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jsycamore.tests;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import static java.awt.image.BufferedImage.TYPE_4BYTE_ABGR_PRE;
+
+/**
+ * Functions over the images that renderers draw into during tests.
+ */
+
+final class SyTestImages
+{
+  private SyTestImages()
+  {
+
+  }
+
+  /**
+   * @return A 512x512 image filled with opaque black
+   */
+
+  static BufferedImage createImage()
+  {
+    final var image =
+      new BufferedImage(512, 512, TYPE_4BYTE_ABGR_PRE);
+    final var graphics = image.createGraphics();
+    graphics.setPaint(Color.BLACK);
+    graphics.fillRect(0, 0, 512, 512);
+    graphics.dispose();
+    return image;
+  }
+
+  /**
+   * @param image The image
+   *
+   * @return The pixels of the image as packed ARGB values
+   */
+
+  static int[] pixels(
+    final BufferedImage image)
+  {
+    return image.getRGB(
+      0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+}
@@ -0,0 +1,451 @@
+/*
+ * Copyright © 2022 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.tests;
+
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.components.SyTreeViewNodeType;
+import com.io7m.jsycamore.api.components.SyTreeViewProviderType;
+import com.io7m.jsycamore.api.components.SyTreeViewRowFactoryType;
+import com.io7m.jsycamore.api.components.SyTreeViewType;
+import com.io7m.jsycamore.components.standard.SySpace;
+import com.io7m.jsycamore.components.standard.SyTreeViews;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_FAILED;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_LOADED;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_LOADING;
+import static com.io7m.jsycamore.api.components.SyTreeViewNodeState.NODE_UNLOADED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SyTreeViewTest extends SyComponentContract<SyTreeViewType>
+{
+  private TestClock clock;
+  private Map<String, List<CompletableFuture<List<String>>>> requests;
+  private Map<String, SyTreeViewNodeType<String>> nodes;
+  private Set<String> placeholders;
+
+  @BeforeEach
+  public void setupTree()
+  {
+    this.clock = new TestClock();
+    this.requests = new HashMap<>();
+    this.nodes = new HashMap<>();
+    this.placeholders = new HashSet<>();
+  }
+
+  @Override
+  protected SyTreeViewType newComponent()
+  {
+    return SyTreeViews.create(this.screen(), List.of(), this.clock);
+  }
+
+  private SyTreeViewType newTree()
+  {
+    final var tree = this.newComponent();
+    tree.setSizeUpperLimit(PAreaSizeI.of(300, 200));
+    tree.setCollapsedDiscardDelay(Duration.ofSeconds(30L));
+    tree.setRoot("root", new Provider(), new Rows());
+    this.windowContentArea().childAdd(tree);
+    return tree;
+  }
+
+  private void layout()
+  {
+    this.placeholders.clear();
+    this.window().layout(this.layoutContext);
+  }
+
+  private CompletableFuture<List<String>> request(
+    final String item)
+  {
+    final var futures = this.requests.get(item);
+    return futures.get(futures.size() - 1);
+  }
+
+  private static List<String> names(
+    final String prefix,
+    final int count)
+  {
+    return IntStream.range(0, count)
+      .mapToObj(i -> prefix + i)
+      .toList();
+  }
+
+  /**
+   * The hidden root's children are requested immediately, and a placeholder
+   * is shown until they arrive.
+   */
+
+  @Test
+  public void testRootPlaceholder()
+  {
+    final var tree = this.newTree();
+    this.layout();
+
+    assertEquals(1, this.requests.get("root").size());
+    assertEquals(1, tree.rowCount());
+    assertEquals(Set.of("root"), this.placeholders);
+
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    assertEquals(5, tree.rowCount());
+    assertEquals(5, tree.nodesRealized());
+    assertEquals(Set.of(), this.placeholders);
+    assertEquals(0, this.nodes.get("a0").depth());
+    assertEquals(NODE_UNLOADED, this.nodes.get("a0").state());
+  }
+
+  /**
+   * Expanding a node requests its children, and shows a placeholder row
+   * beneath the node until they arrive.
+   */
+
+  @Test
+  public void testExpandPlaceholder()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    final var a0 = this.nodes.get("a0");
+    a0.expand();
+    this.layout();
+
+    assertEquals(NODE_LOADING, a0.state());
+    assertEquals(6, tree.rowCount());
+    assertEquals(Set.of("a0"), this.placeholders);
+
+    this.request("a0").complete(List.of("leaf0", "b1"));
+    this.layout();
+
+    assertEquals(NODE_LOADED, a0.state());
+    assertEquals(7, tree.rowCount());
+    assertEquals(7, tree.nodesRealized());
+    assertEquals(Set.of(), this.placeholders);
+    assertTrue(this.nodes.get("leaf0").isLeaf());
+    assertFalse(this.nodes.get("b1").isLeaf());
+    assertEquals(1, this.nodes.get("b1").depth());
+  }
+
+  /**
+   * The children of a collapsed node are discarded only after the delay
+   * has elapsed, and are requested again on the next expansion.
+   */
+
+  @Test
+  public void testCollapseDiscards()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    final var a0 = this.nodes.get("a0");
+    a0.expand();
+    this.layout();
+    this.request("a0").complete(names("b", 100));
+    this.layout();
+    assertEquals(105, tree.rowCount());
+
+    a0.collapse();
+    this.layout();
+    assertEquals(5, tree.rowCount());
+    assertEquals(105, tree.nodesRealized());
+
+    this.clock.advance(Duration.ofSeconds(10L));
+    this.layout();
+    assertEquals(105, tree.nodesRealized());
+    assertEquals(NODE_LOADED, a0.state());
+
+    this.clock.advance(Duration.ofSeconds(20L));
+    this.layout();
+    assertEquals(5, tree.nodesRealized());
+    assertEquals(NODE_UNLOADED, a0.state());
+
+    a0.expand();
+    this.layout();
+    assertEquals(2, this.requests.get("a0").size());
+    assertEquals(NODE_LOADING, a0.state());
+  }
+
+  /**
+   * Re-expanding a node before the delay has elapsed keeps its children.
+   */
+
+  @Test
+  public void testCollapseExpandKeeps()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    final var a0 = this.nodes.get("a0");
+    a0.expand();
+    this.layout();
+    this.request("a0").complete(names("b", 3));
+    this.layout();
+
+    a0.collapse();
+    this.layout();
+    this.clock.advance(Duration.ofSeconds(10L));
+    a0.expand();
+    this.clock.advance(Duration.ofSeconds(60L));
+    this.layout();
+
+    assertEquals(1, this.requests.get("a0").size());
+    assertEquals(NODE_LOADED, a0.state());
+    assertEquals(8, tree.rowCount());
+  }
+
+  /**
+   * A request that is abandoned by a discard cannot affect the node when it
+   * completes.
+   */
+
+  @Test
+  public void testStaleCompletionIgnored()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    final var a0 = this.nodes.get("a0");
+    a0.expand();
+    this.layout();
+    final var first = this.request("a0");
+
+    a0.collapse();
+    this.clock.advance(Duration.ofSeconds(30L));
+    this.layout();
+    assertTrue(first.isCancelled());
+    assertEquals(NODE_UNLOADED, a0.state());
+
+    a0.expand();
+    this.layout();
+    assertEquals(NODE_LOADING, a0.state());
+    assertEquals(6, tree.rowCount());
+
+    this.request("a0").complete(names("c", 2));
+    this.layout();
+    assertEquals(NODE_LOADED, a0.state());
+    assertEquals(7, tree.rowCount());
+  }
+
+  /**
+   * Discarding a node also abandons the requests in progress for its
+   * descendants, and their completions are not counted.
+   */
+
+  @Test
+  public void testStaleDescendantCompletionIgnored()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    final var a0 = this.nodes.get("a0");
+    a0.expand();
+    this.layout();
+    this.request("a0").complete(names("b", 3));
+    this.layout();
+
+    final var b0 = this.nodes.get("b0");
+    b0.expand();
+    this.layout();
+    assertEquals(NODE_LOADING, b0.state());
+    final var pending = this.request("b0");
+
+    a0.collapse();
+    this.clock.advance(Duration.ofSeconds(30L));
+    this.layout();
+    assertEquals(5, tree.nodesRealized());
+    assertTrue(pending.isCancelled());
+    assertEquals(NODE_UNLOADED, b0.state());
+
+    pending.complete(names("c", 50));
+    this.layout();
+    assertEquals(5, tree.nodesRealized());
+    assertEquals(5, tree.rowCount());
+    assertEquals(NODE_UNLOADED, b0.state());
+  }
+
+  /**
+   * A failed request marks the node as failed, and removes its placeholder.
+   */
+
+  @Test
+  public void testFailure()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 5));
+    this.layout();
+
+    final var a0 = this.nodes.get("a0");
+    a0.expand();
+    this.layout();
+    this.request("a0").completeExceptionally(new IOException("Failed!"));
+    this.layout();
+
+    assertEquals(NODE_FAILED, a0.state());
+    assertEquals(5, tree.rowCount());
+    assertEquals(Set.of(), this.placeholders);
+
+    a0.collapse();
+    a0.expand();
+    this.layout();
+    assertEquals(2, this.requests.get("a0").size());
+    assertEquals(NODE_LOADING, a0.state());
+  }
+
+  /**
+   * A node with a million children only creates enough rows to fill the
+   * viewport.
+   */
+
+  @Test
+  public void testMillionChildren()
+  {
+    final var tree = this.newTree();
+    this.layout();
+    this.request("root").complete(names("a", 1_000_000));
+    this.layout();
+
+    assertEquals(1_000_000, tree.rowCount());
+    assertTrue(
+      tree.listView().rowsCreated() <= 200 / 16 + 1 + tree.listView().overscan()
+    );
+  }
+
+  private static final class TestClock extends Clock
+  {
+    private long millis;
+
+    TestClock()
+    {
+
+    }
+
+    void advance(
+      final Duration duration)
+    {
+      this.millis += duration.toMillis();
+    }
+
+    @Override
+    public ZoneId getZone()
+    {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(
+      final ZoneId zone)
+    {
+      return this;
+    }
+
+    @Override
+    public Instant instant()
+    {
+      return Instant.ofEpochMilli(this.millis);
+    }
+  }
+
+  private final class Provider implements SyTreeViewProviderType<String>
+  {
+    Provider()
+    {
+
+    }
+
+    @Override
+    public boolean isLeaf(
+      final String item)
+    {
+      return item.startsWith("leaf");
+    }
+
+    @Override
+    public CompletableFuture<List<String>> children(
+      final String item)
+    {
+      final var future = new CompletableFuture<List<String>>();
+      SyTreeViewTest.this.requests
+        .computeIfAbsent(item, k -> new ArrayList<>())
+        .add(future);
+      return future;
+    }
+  }
+
+  private final class Rows implements SyTreeViewRowFactoryType<String>
+  {
+    Rows()
+    {
+
+    }
+
+    @Override
+    public SyComponentType rowCreate()
+    {
+      final var row = new SySpace(SyTreeViewTest.this.screen());
+      row.setSizeUpperLimit(PAreaSizeI.of(Integer.MAX_VALUE, 16));
+      return row;
+    }
+
+    @Override
+    public void rowBind(
+      final SyComponentType row,
+      final SyTreeViewNodeType<String> node)
+    {
+      SyTreeViewTest.this.nodes.put(node.item(), node);
+    }
+
+    @Override
+    public void rowBindPlaceholder(
+      final SyComponentType row,
+      final SyTreeViewNodeType<String> parent)
+    {
+      SyTreeViewTest.this.placeholders.add(parent.item());
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.theme.primal.internal;
+
+import com.io7m.jregions.core.parameterized.areas.PAreasI;
+import com.io7m.jsycamore.api.components.SyCanvasReadableType;
+import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
+import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
+
+import java.util.Objects;
+
+/**
+ * A theme component for canvases.
+ */
+
+public final class SyPrimalCanvas extends SyPrimalAbstract
+{
+  /**
+   * A theme component for canvases.
+   *
+   * @param inTheme The theme
+   */
+
+  public SyPrimalCanvas(
+    final SyThemePrimal inTheme)
+  {
+    super(inTheme);
+  }
+
+  @Override
+  public SyRenderNodeType render(
+    final SyThemeContextType context,
+    final SyComponentReadableType component)
+  {
+    Objects.requireNonNull(context, "context");
+    Objects.requireNonNull(component, "component");
+
+    if (!(component instanceof final SyCanvasReadableType canvas)) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    final var rasterOpt = canvas.raster().get();
+    if (rasterOpt.isEmpty()) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    final var size = component.size().get();
+    if (size.sizeX() <= 0 || size.sizeY() <= 0) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    return new SyRenderNodeRaster(
+      "CanvasRaster",
+      rasterOpt.get(),
+      PVectors2I.zero(),
+      PAreasI.size(PAreasI.cast(component.boundingArea()))
+    );
+  }
+}
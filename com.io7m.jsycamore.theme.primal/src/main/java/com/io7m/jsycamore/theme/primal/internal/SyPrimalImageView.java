@@ -20,8 +20,10 @@ import com.io7m.jregions.core.parameterized.areas.PAreaI;
 import com.io7m.jregions.core.parameterized.areas.PAreasI;
 import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
 import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.components.SyImageViewScaling;
 import com.io7m.jsycamore.api.components.SyImageViewType;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeImage;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeImageTiled;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
 import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
 import com.io7m.jsycamore.api.spaces.SySpaceComponentRelativeType;
@@ -53,7 +55,8 @@ public final class SyPrimalImageView extends SyPrimalAbstract
 
   private static SyRenderNodeType imageOf(
     final PAreaI<SySpaceParentRelativeType> area,
-    final URI uri)
+    final URI uri,
+    final SyImageViewScaling scaling)
   {
     final PAreaSizeI<SySpaceComponentRelativeType> size =
       PAreasI.size(PAreasI.cast(area));
@@ -91,7 +94,24 @@ public final class SyPrimalImageView extends SyPrimalAbstract
       };
     }
 
-    return new SyRenderNodeImage("ImageView", uri, PVectors2I.zero(), size);
+    return switch (scaling) {
+      case IMAGE_SCALED -> {
+        yield new SyRenderNodeImage(
+          "ImageView",
+          uri,
+          PVectors2I.zero(),
+          size
+        );
+      }
+      case IMAGE_TILED -> {
+        yield new SyRenderNodeImageTiled(
+          "ImageView",
+          uri,
+          PVectors2I.zero(),
+          size
+        );
+      }
+    };
   }
 
   private static SyRenderNodeImage iconOf(
@@ -132,7 +152,7 @@ public final class SyPrimalImageView extends SyPrimalAbstract
     if (component instanceof final SyImageViewType imageView) {
       return imageView.imageURI()
         .get()
-        .map(uri -> imageOf(area, uri))
+        .map(uri -> imageOf(area, uri, imageView.scaling().get()))
         .orElse(SyRenderNodeNoop.noop());
     }
 
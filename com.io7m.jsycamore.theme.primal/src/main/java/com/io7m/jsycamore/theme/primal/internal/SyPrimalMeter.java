@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.theme.primal.internal;
+
+import com.io7m.jregions.core.parameterized.areas.PAreasI;
+import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
+import com.io7m.jsycamore.api.components.SyComponentReadableType;
+import com.io7m.jsycamore.api.components.SyMeterReadableType;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeComposite;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeNoop;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeRaster;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeShape;
+import com.io7m.jsycamore.api.rendering.SyRenderNodeType;
+import com.io7m.jsycamore.api.rendering.SyShapeRectangle;
+import com.io7m.jsycamore.api.spaces.SySpaceComponentRelativeType;
+import com.io7m.jsycamore.api.spaces.SySpaceRGBAPreType;
+import com.io7m.jsycamore.api.themes.SyThemeContextType;
+import com.io7m.jsycamore.api.themes.SyThemeValueException;
+import com.io7m.jsycamore.api.themes.SyThemeValuesType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector4D;
+import com.io7m.jtensors.core.parameterized.vectors.PVectors2I;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.io7m.jsycamore.theme.primal.internal.SyPrimalValues.PRIMARY_BACKGROUND;
+import static com.io7m.jsycamore.theme.primal.internal.SyPrimalValues.PRIMARY_EDGE;
+import static com.io7m.jsycamore.theme.primal.internal.SyPrimalValues.PRIMARY_FOREGROUND;
+
+/**
+ * A theme component for meters.
+ */
+
+public final class SyPrimalMeter extends SyPrimalAbstract
+{
+  /**
+   * A theme component for meters.
+   *
+   * @param inTheme The theme
+   */
+
+  public SyPrimalMeter(
+    final SyThemePrimal inTheme)
+  {
+    super(inTheme);
+  }
+
+  private static double normalized(
+    final SyMeterReadableType meter,
+    final double value)
+  {
+    final var minimum = meter.valueMinimum();
+    final var range = meter.valueMaximum() - minimum;
+    return Math.clamp((value - minimum) / range, 0.0, 1.0);
+  }
+
+  private static SyRenderNodeType bar(
+    final SyMeterReadableType meter,
+    final SyThemeValuesType values,
+    final int sizeX,
+    final int sizeY)
+    throws SyThemeValueException
+  {
+    final var latest = meter.valueLatest();
+    if (Double.isNaN(latest)) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    final var width = (int) Math.round(normalized(meter, latest) * sizeX);
+    if (width <= 0) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    return new SyRenderNodeShape(
+      "MeterBar",
+      PVectors2I.zero(),
+      Optional.empty(),
+      Optional.of(values.fillFlat(PRIMARY_FOREGROUND)),
+      new SyShapeRectangle<>(PAreasI.create(0, 0, width, sizeY))
+    );
+  }
+
+  /**
+   * Render the column history using the sparkline that the meter retains
+   * and draws during layout.
+   */
+
+  private static SyRenderNodeType sparkline(
+    final SyMeterReadableType meter,
+    final PAreaSizeI<SySpaceComponentRelativeType> size)
+  {
+    final var raster = meter.sparkline();
+    if (raster.isEmpty() || meter.columnCount() == 0) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    return new SyRenderNodeRaster(
+      "MeterSparkline",
+      raster.get(),
+      PVectors2I.zero(),
+      size,
+      meter.sparklineScrollX()
+    );
+  }
+
+  @Override
+  public Optional<PVector4D<SySpaceRGBAPreType>> foreground(
+    final SyThemeContextType context,
+    final SyComponentReadableType component)
+  {
+    Objects.requireNonNull(context, "context");
+    Objects.requireNonNull(component, "component");
+
+    try {
+      return Optional.of(this.theme().values().color4D(PRIMARY_FOREGROUND));
+    } catch (final SyThemeValueException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public SyRenderNodeType render(
+    final SyThemeContextType context,
+    final SyComponentReadableType component)
+  {
+    Objects.requireNonNull(context, "context");
+    Objects.requireNonNull(component, "component");
+
+    if (!(component instanceof final SyMeterReadableType meter)) {
+      return SyRenderNodeNoop.noop();
+    }
+
+    try {
+      final var area =
+        component.boundingArea();
+      final var rectangle =
+        new SyShapeRectangle<SySpaceComponentRelativeType>(
+          PAreasI.cast(PAreasI.moveToOrigin(area))
+        );
+
+      final var values =
+        this.theme().values();
+
+      final var mainFill =
+        new SyRenderNodeShape(
+          "MeterFill",
+          PVectors2I.zero(),
+          Optional.empty(),
+          Optional.of(values.fillFlat(PRIMARY_BACKGROUND)),
+          rectangle
+        );
+
+      final var data =
+        switch (meter.style()) {
+          case METER_BAR -> {
+            yield bar(meter, values, area.sizeX(), area.sizeY());
+          }
+          case METER_SPARKLINE -> {
+            yield sparkline(meter, PAreasI.size(PAreasI.cast(area)));
+          }
+        };
+
+      final var mainEdge =
+        new SyRenderNodeShape(
+          "MeterEdge",
+          PVectors2I.zero(),
+          Optional.of(values.edgeFlat(PRIMARY_EDGE)),
+          Optional.empty(),
+          rectangle
+        );
+
+      return SyRenderNodeComposite.composite(
+        "MeterComposite",
+        mainFill,
+        data,
+        mainEdge
+      );
+    } catch (final SyThemeValueException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -22,6 +22,7 @@ import com.io7m.jsycamore.api.components.SyConstraints;
 import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.spaces.SySpaceParentRelativeType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameStandard;
+import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 import com.io7m.jsycamore.api.themes.SyThemeComponentType;
 import com.io7m.jsycamore.api.themes.SyThemeType;
 import com.io7m.jsycamore.api.themes.SyThemeValuesType;
@@ -30,6 +31,7 @@ import com.io7m.jsycamore.api.windows.SyWindowDecorationComponent;
 import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
 
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -216,11 +218,19 @@ public final class SyThemePrimal implements SyThemeType
           this.standards.put(className, new SyPrimalTextArea(this));
         }
 
+        case METER -> {
+          this.standards.put(className, new SyPrimalMeter(this));
+        }
+
+        case CANVAS -> {
+          this.standards.put(className, new SyPrimalCanvas(this));
+        }
+
         case CHECKBOX,
           GRID_VIEW,
           LIST_VIEW,
-          METER,
-          TEXT_FIELD -> {
+          TEXT_FIELD,
+          TREE_VIEW -> {
 
         }
         case WINDOW_TITLE_TEXT -> {
@@ -524,13 +534,39 @@ public final class SyThemePrimal implements SyThemeType
   public SyThemeComponentType findForComponent(
     final SyThemeableReadableType component)
   {
-    for (final var className : component.themeClassesInPreferenceOrder()) {
+    /*
+     * Equivalent to searching themeClassesInPreferenceOrder(), but without
+     * constructing the concatenated list. This is called for every component
+     * on every layout and rendering pass.
+     */
+
+    final var matchExtra =
+      this.findForClasses(component.themeClassesExtra());
+    if (matchExtra != null) {
+      return matchExtra;
+    }
+
+    final var matchDefault =
+      this.findForClasses(component.themeClassesDefaultForComponent());
+    if (matchDefault != null) {
+      return matchDefault;
+    }
+    return this.unmatched;
+  }
+
+  private SyThemeComponentType findForClasses(
+    final List<SyThemeClassNameType> classes)
+  {
+    final var classCount = classes.size();
+    for (int index = 0; index < classCount; ++index) {
+      final var className = classes.get(index);
       if (className instanceof final SyThemeClassNameStandard standard) {
-        if (this.standards.containsKey(standard)) {
-          return this.standards.get(standard);
+        final var match = this.standards.get(standard);
+        if (match != null) {
+          return match;
         }
       }
     }
-    return this.unmatched;
+    return null;
   }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.vanilla.internal;
+
+import com.io7m.jaffirm.core.Preconditions;
+import com.io7m.jsycamore.api.components.SyComponentType;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusServiceType;
+import com.io7m.jsycamore.api.services.SyServiceAbstract;
+import com.io7m.jsycamore.api.windows.SyWindowType;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The keyboard focus service. The focus state and traversal order of each
+ * window are held by the window itself.
+ */
+
+final class SyKeyboardFocusService
+  extends SyServiceAbstract
+  implements SyKeyboardFocusServiceType
+{
+  private final Supplier<Optional<SyWindowType>> windowFocused;
+
+  SyKeyboardFocusService(
+    final Supplier<Optional<SyWindowType>> inWindowFocused)
+  {
+    this.windowFocused =
+      Objects.requireNonNull(inWindowFocused, "windowFocused");
+  }
+
+  private static SyKeyboardFocusTraversal traversalOf(
+    final SyWindowType window)
+  {
+    return ((SyWindow) window).focusTraversal();
+  }
+
+  @Override
+  public String description()
+  {
+    return "Keyboard focus service.";
+  }
+
+  @Override
+  public Optional<SyComponentType> focused()
+  {
+    final var windowOpt = this.windowFocused.get();
+    if (windowOpt.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var window = windowOpt.get();
+    return Optional.ofNullable(
+      traversalOf(window).focused(window.contentArea()));
+  }
+
+  @Override
+  public void focus(
+    final SyComponentType component)
+  {
+    Objects.requireNonNull(component, "component");
+
+    final var windowOpt = component.window();
+    Preconditions.checkPreconditionV(
+      windowOpt.isPresent(),
+      "Component must be attached to a window to receive focus."
+    );
+
+    final var window = windowOpt.get();
+    final var accepted =
+      traversalOf(window).focus(window.contentArea(), component);
+
+    Preconditions.checkPreconditionV(
+      accepted,
+      "Component must be reachable by focus traversal to receive focus."
+    );
+  }
+
+  /**
+   * Focus the nearest component, starting at the given component and
+   * proceeding through its ancestors, that can receive focus. If no such
+   * component exists, the focus is unchanged.
+   *
+   * @param component The component that was clicked
+   */
+
+  void focusClicked(
+    final SyComponentType component)
+  {
+    final var windowOpt = component.window();
+    if (windowOpt.isEmpty()) {
+      return;
+    }
+
+    final var window = windowOpt.get();
+    final var root = window.contentArea();
+    final var traversal = traversalOf(window);
+
+    var current = component;
+    while (current != null && current != root) {
+      if (traversal.focus(root, current)) {
+        return;
+      }
+      final var parent = current.node().parent();
+      current = parent.isPresent() ? parent.get().value() : null;
+    }
+  }
+
+  @Override
+  public void focusClear()
+  {
+    final var windowOpt = this.windowFocused.get();
+    if (windowOpt.isPresent()) {
+      final var window = windowOpt.get();
+      traversalOf(window).focus(window.contentArea(), null);
+    }
+  }
+
+  @Override
+  public Optional<SyComponentType> focusNext()
+  {
+    return this.step(true);
+  }
+
+  @Override
+  public Optional<SyComponentType> focusPrevious()
+  {
+    return this.step(false);
+  }
+
+  private Optional<SyComponentType> step(
+    final boolean forward)
+  {
+    final var windowOpt = this.windowFocused.get();
+    if (windowOpt.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var window = windowOpt.get();
+    return Optional.ofNullable(
+      traversalOf(window).step(window.contentArea(), forward));
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.vanilla.internal;
+
+import com.io7m.jsycamore.api.components.SyComponentType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+
+/**
+ * <p>The keyboard focus traversal order of a single window.</p>
+ * <p>The order is computed once, by a depth-first walk of the window's
+ * content, and then cached along with the index of every component in the
+ * order. Moving focus forwards or backwards is then a single index lookup
+ * followed by a step through the cached order. The order is only recomputed
+ * after the window reports that its component tree has changed.</p>
+ * <p>The order is not patched in place: any change to the window's tree,
+ * however small, causes the whole order to be recomputed, in time
+ * proportional to the size of the window's tree. The recomputation happens
+ * lazily, on the next focus query after the change, and so many changes
+ * between two queries cost a single recomputation.</p>
+ */
+
+final class SyKeyboardFocusTraversal
+{
+  private final ArrayList<SyComponentType> order;
+  private final IdentityHashMap<SyComponentType, Integer> indices;
+  private final ArrayDeque<SyComponentType> stack;
+  private boolean stale;
+  private SyComponentType focused;
+
+  SyKeyboardFocusTraversal()
+  {
+    this.order = new ArrayList<>();
+    this.indices = new IdentityHashMap<>();
+    this.stack = new ArrayDeque<>();
+    this.stale = true;
+  }
+
+  private static boolean isEligible(
+    final SyComponentType component)
+  {
+    return component.isVisible() && component.isActive();
+  }
+
+  /**
+   * Mark the traversal order as needing to be recomputed.
+   */
+
+  void invalidate()
+  {
+    this.stale = true;
+  }
+
+  /**
+   * @param root The root component of the window's content
+   *
+   * @return The traversal order, recomputed if necessary
+   */
+
+  ArrayList<SyComponentType> order(
+    final SyComponentType root)
+  {
+    this.rebuildIfStale(root);
+    return this.order;
+  }
+
+  private void rebuildIfStale(
+    final SyComponentType root)
+  {
+    if (!this.stale) {
+      return;
+    }
+
+    this.order.clear();
+    this.indices.clear();
+    this.stack.clear();
+
+    /*
+     * The root is the window's content area, which never receives focus
+     * itself, but whose children are always traversed.
+     */
+
+    this.pushChildren(root);
+    while (!this.stack.isEmpty()) {
+      final var component = this.stack.pop();
+      final var behavior = component.keyboardFocusBehavior().get();
+      if (behavior.receivesFocus()) {
+        this.indices.put(component, Integer.valueOf(this.order.size()));
+        this.order.add(component);
+      }
+      if (behavior.continuesFocusTraversal()) {
+        this.pushChildren(component);
+      }
+    }
+
+    if (this.focused != null && !this.indices.containsKey(this.focused)) {
+      this.focused = null;
+    }
+    this.stale = false;
+  }
+
+  private void pushChildren(
+    final SyComponentType component)
+  {
+    final var children = component.node().children();
+    for (int index = children.size() - 1; index >= 0; --index) {
+      this.stack.push(children.get(index).value());
+    }
+  }
+
+  /**
+   * @param root The root component of the window's content
+   *
+   * @return The focused component, or {@code null} if there isn't one
+   */
+
+  SyComponentType focused(
+    final SyComponentType root)
+  {
+    this.rebuildIfStale(root);
+    if (this.focused != null && !isEligible(this.focused)) {
+      this.focused = null;
+    }
+    return this.focused;
+  }
+
+  /**
+   * Focus the given component.
+   *
+   * @param root      The root component of the window's content
+   * @param component The component, or {@code null} to clear focus
+   *
+   * @return {@code true} if the component is part of the traversal order
+   */
+
+  boolean focus(
+    final SyComponentType root,
+    final SyComponentType component)
+  {
+    this.rebuildIfStale(root);
+    if (component == null) {
+      this.focused = null;
+      return true;
+    }
+    if (this.indices.containsKey(component)) {
+      this.focused = component;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Move focus in the given direction, skipping components that are
+   * currently invisible or inactive.
+   *
+   * @param root    The root component of the window's content
+   * @param forward {@code true} to move forwards
+   *
+   * @return The newly focused component, or {@code null} if there isn't one
+   */
+
+  SyComponentType step(
+    final SyComponentType root,
+    final boolean forward)
+  {
+    Objects.requireNonNull(root, "root");
+    this.rebuildIfStale(root);
+
+    final int size = this.order.size();
+    if (size == 0) {
+      this.focused = null;
+      return null;
+    }
+
+    int index;
+    if (this.focused == null) {
+      index = forward ? -1 : size;
+    } else {
+      index = this.indices.get(this.focused).intValue();
+    }
+
+    final int delta = forward ? 1 : -1;
+    for (int count = 0; count < size; ++count) {
+      index = Math.floorMod(index + delta, size);
+      final var candidate = this.order.get(index);
+      if (isEligible(candidate)) {
+        this.focused = candidate;
+        return candidate;
+      }
+    }
+
+    this.focused = null;
+    return null;
+  }
+}
@@ -24,6 +24,7 @@ import com.io7m.jsycamore.api.text.SyFontType;
 import com.io7m.jsycamore.api.themes.SyThemeType;
 
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A layout context.
@@ -34,6 +35,7 @@ public final class SyLayoutContext implements SyLayoutContextType
   private final SyFontDirectoryServiceType<? extends SyFontType> fonts;
   private final SyThemeType themeCurrent;
   private final SyServiceDirectoryReadableType services;
+  private volatile ForkJoinPool layoutPool;
 
   /**
    * Construct a layout context.
@@ -54,6 +56,26 @@ public final class SyLayoutContext implements SyLayoutContextType
       Objects.requireNonNull(inFonts, "fonts");
     this.themeCurrent =
       Objects.requireNonNull(inThemeCurrent, "themeCurrent");
+    this.layoutPool =
+      ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Set the pool used for parallel layout.
+   *
+   * @param pool The pool
+   */
+
+  public void setLayoutPool(
+    final ForkJoinPool pool)
+  {
+    this.layoutPool = Objects.requireNonNull(pool, "pool");
+  }
+
+  @Override
+  public ForkJoinPool layoutPool()
+  {
+    return this.layoutPool;
   }
 
   @Override
@@ -24,9 +24,16 @@ import com.io7m.jregions.core.parameterized.sizes.PAreaSizeI;
 import com.io7m.jsycamore.api.components.SyComponentQuery;
 import com.io7m.jsycamore.api.components.SyComponentType;
 import com.io7m.jsycamore.api.components.SyConstraints;
+import com.io7m.jsycamore.api.events.SyEventConsumed;
 import com.io7m.jsycamore.api.events.SyEventType;
 import com.io7m.jsycamore.api.keyboard.SyKeyCode;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventModifierPressed;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventModifierReleased;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventPressed;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventReleased;
+import com.io7m.jsycamore.api.keyboard.SyKeyEventType;
 import com.io7m.jsycamore.api.keyboard.SyKeyModifier;
+import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusServiceType;
 import com.io7m.jsycamore.api.layout.SyLayoutContextType;
 import com.io7m.jsycamore.api.menus.SyMenuClosed;
 import com.io7m.jsycamore.api.menus.SyMenuHostType;
@@ -36,10 +43,14 @@ import com.io7m.jsycamore.api.menus.SyMenuServiceType;
 import com.io7m.jsycamore.api.menus.SyMenuType;
 import com.io7m.jsycamore.api.mouse.SyMouseButton;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnHeld;
+import com.io7m.jsycamore.api.mouse.SyMouseEventOnMoved;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnNoLongerOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnOver;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnPressed;
 import com.io7m.jsycamore.api.mouse.SyMouseEventOnReleased;
+import com.io7m.jsycamore.api.rendering.SySceneSnapshot;
+import com.io7m.jsycamore.api.rendering.SySceneSnapshotBuilder;
+import com.io7m.jsycamore.api.screens.SyScreenInputQueueType;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.services.SyServiceAbstract;
 import com.io7m.jsycamore.api.services.SyServiceDirectoryType;
@@ -70,10 +81,14 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.SubmissionPublisher;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.io7m.jsycamore.api.components.SyComponentQuery.FIND_FOR_MOUSE_CURSOR;
+import static com.io7m.jsycamore.api.events.SyEventConsumed.EVENT_NOT_CONSUMED;
+import static com.io7m.jsycamore.api.keyboard.SyKeyCode.SY_KEY_TAB;
 import static com.io7m.jsycamore.api.text.SyTextDirection.TEXT_DIRECTION_LEFT_TO_RIGHT;
 import static com.io7m.jsycamore.api.windows.SyWindowDeletionPolicy.WINDOW_MAY_BE_DELETED;
 import static com.io7m.jsycamore.api.windows.SyWindowDeletionPolicy.WINDOW_MAY_NOT_BE_DELETED;
@@ -95,6 +110,16 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   private final SubmissionPublisher<SyEventType> events;
   private final WindowService windowService;
   private final MenuService menuService;
+  private final SyKeyboardFocusService focusService;
+  private final SySceneSnapshotBuilder snapshotBuilder;
+  private final SyLayoutContext layoutContext;
+  private final SyScreenInputQueue inputQueue;
+  private volatile boolean snapshotsEnabled;
+  private volatile SySceneSnapshot snapshot;
+  private volatile boolean layoutParallel;
+  private boolean mouseCoalescing;
+  private PVector2I<SySpaceViewportType> mouseMovePending;
+  private long frame;
 
   /**
    * A screen.
@@ -139,7 +164,7 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
     final var windowMenuOverlayLayout =
       new SyLayoutManual(this);
 
-    final SyLayoutContextType layoutContext =
+    this.layoutContext =
       new SyLayoutContext(this.services, fonts, this.theme);
 
     final var mouseButtonStates =
@@ -152,7 +177,7 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
         this.viewportSize,
         this.mousePosition,
         mouseButtonStates,
-        layoutContext,
+        this.layoutContext,
         windowMenuOverlayLayout
       );
 
@@ -160,12 +185,22 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
       new MenuService(
         this.events,
         this.viewportSize,
-        layoutContext,
+        this.layoutContext,
         windowMenuOverlayLayout
       );
 
+    this.snapshotBuilder =
+      new SySceneSnapshotBuilder();
+    this.inputQueue =
+      new SyScreenInputQueue();
+
     this.services.register(SyMenuServiceType.class, this.menuService);
     this.services.register(SyWindowServiceType.class, this.windowService);
+
+    this.focusService =
+      new SyKeyboardFocusService(this.windowService::windowKeyboardFocused);
+    this.services.register(
+      SyKeyboardFocusServiceType.class, this.focusService);
   }
 
   @Override
@@ -192,6 +227,12 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
     return this.theme;
   }
 
+  @Override
+  public SyScreenInputQueueType inputQueue()
+  {
+    return this.inputQueue;
+  }
+
   @Override
   public Optional<SyComponentType> componentOver()
   {
@@ -207,7 +248,68 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   @Override
   public void update()
   {
-    this.windowService.update();
+    this.inputQueue.drain(this);
+    this.mouseMovedFlush();
+
+    if (this.layoutParallel) {
+      this.windowService.updateParallel(this.layoutContext.layoutPool());
+    } else {
+      this.windowService.update();
+    }
+
+    ++this.frame;
+    if (this.snapshotsEnabled) {
+      this.snapshot = this.snapshotBuilder.build(this, this.frame);
+    }
+  }
+
+  @Override
+  public void setSnapshotsEnabled(
+    final boolean enabled)
+  {
+    this.snapshotsEnabled = enabled;
+    if (!enabled) {
+      this.snapshot = null;
+    }
+  }
+
+  @Override
+  public Optional<SySceneSnapshot> snapshot()
+  {
+    return Optional.ofNullable(this.snapshot);
+  }
+
+  @Override
+  public void setParallelLayoutEnabled(
+    final boolean enabled)
+  {
+    this.layoutParallel = enabled;
+  }
+
+  @Override
+  public void setLayoutPool(
+    final ForkJoinPool pool)
+  {
+    this.layoutContext.setLayoutPool(pool);
+  }
+
+  @Override
+  public void setMouseCoalescingEnabled(
+    final boolean enabled)
+  {
+    this.mouseCoalescing = enabled;
+    if (!enabled) {
+      this.mouseMovedFlush();
+    }
+  }
+
+  private void mouseMovedFlush()
+  {
+    final var position = this.mouseMovePending;
+    if (position != null) {
+      this.mouseMovePending = null;
+      this.windowService.mouseMoved(position);
+    }
   }
 
   @Override
@@ -235,6 +337,10 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   public Optional<SyComponentType> mouseMoved(
     final PVector2I<SySpaceViewportType> position)
   {
+    if (this.mouseCoalescing) {
+      this.mouseMovePending = Objects.requireNonNull(position, "Position");
+      return this.windowService.componentOver;
+    }
     return this.windowService.mouseMoved(position);
   }
 
@@ -243,6 +349,7 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
     final PVector2I<SySpaceViewportType> position,
     final SyMouseButton button)
   {
+    this.mouseMovedFlush();
     return this.windowService.mouseDown(position, button);
   }
 
@@ -251,6 +358,7 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
     final PVector2I<SySpaceViewportType> position,
     final SyMouseButton button)
   {
+    this.mouseMovedFlush();
     return this.windowService.mouseUp(position, button);
   }
 
@@ -266,8 +374,23 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   {
     Objects.requireNonNull(keyCode, "keyCode");
 
-    final var wasPressed = this.keyStates.contains(keyCode);
     this.keyStates.add(keyCode);
+
+    /*
+     * The focused component has the first opportunity to handle the key.
+     * If it doesn't consume the tab key, the tab key moves the focus.
+     */
+
+    final var consumed =
+      this.keySendToFocused(new SyKeyEventPressed(keyCode));
+
+    if (consumed == EVENT_NOT_CONSUMED && keyCode == SY_KEY_TAB) {
+      if (this.keyModifierShiftIsPressed()) {
+        this.focusService.focusPrevious();
+      } else {
+        this.focusService.focusNext();
+      }
+    }
   }
 
   @Override
@@ -276,8 +399,8 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   {
     Objects.requireNonNull(keyCode, "keyCode");
 
-    final var wasPressed = this.keyStates.contains(keyCode);
     this.keyStates.remove(keyCode);
+    this.keySendToFocused(new SyKeyEventReleased(keyCode));
   }
 
   @Override
@@ -286,8 +409,8 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   {
     Objects.requireNonNull(keyModifier, "keyModifier");
 
-    final var wasPressed = this.keyModifierStates.contains(keyModifier);
     this.keyModifierStates.add(keyModifier);
+    this.keySendToFocused(new SyKeyEventModifierPressed(keyModifier));
   }
 
   @Override
@@ -296,8 +419,28 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
   {
     Objects.requireNonNull(keyModifier, "keyModifier");
 
-    final var wasPressed = this.keyModifierStates.contains(keyModifier);
     this.keyModifierStates.remove(keyModifier);
+    this.keySendToFocused(new SyKeyEventModifierReleased(keyModifier));
+  }
+
+  private SyEventConsumed keySendToFocused(
+    final SyKeyEventType event)
+  {
+    final var focused = this.focusService.focused();
+    if (focused.isPresent()) {
+      return focused.get().eventSend(event);
+    }
+    return EVENT_NOT_CONSUMED;
+  }
+
+  private boolean keyModifierShiftIsPressed()
+  {
+    for (final var modifier : this.keyModifierStates) {
+      if (modifier.isShift()) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private void onClickedNothing()
@@ -309,6 +452,7 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
     final SyComponentType component)
   {
     this.menuService.onClickedSomething(component);
+    this.focusService.focusClicked(component);
   }
 
   private enum MouseButtonState
@@ -342,10 +486,55 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
     }
   }
 
+  /**
+   * A task that lays out a range of windows, splitting the range in half
+   * until each task lays out a single window.
+   */
+
+  private static final class WindowLayoutAction extends RecursiveAction
+  {
+    private final SyLayoutContextType layoutContext;
+    private final List<SyWindowType> windows;
+    private final int start;
+    private final int end;
+
+    WindowLayoutAction(
+      final SyLayoutContextType inLayoutContext,
+      final List<SyWindowType> inWindows,
+      final int inStart,
+      final int inEnd)
+    {
+      this.layoutContext = inLayoutContext;
+      this.windows = inWindows;
+      this.start = inStart;
+      this.end = inEnd;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.end - this.start == 1) {
+        this.windows.get(this.start).layout(this.layoutContext);
+        return;
+      }
+
+      final var middle = (this.start + this.end) >>> 1;
+      invokeAll(
+        new WindowLayoutAction(
+          this.layoutContext, this.windows, this.start, middle),
+        new WindowLayoutAction(
+          this.layoutContext, this.windows, middle, this.end)
+      );
+    }
+  }
+
   private static final class WindowService
     extends SyServiceAbstract
     implements SyWindowServiceType
   {
+    private static final SyMouseButton[] MOUSE_BUTTONS =
+      SyMouseButton.values();
+
     private final SyScreen screen;
     private final SubmissionPublisher<SyEventType> events;
     private final AttributeType<PAreaSizeI<SySpaceViewportType>> viewportSize;
@@ -413,26 +602,38 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
       }
     }
 
-    private boolean mouseAnyButtonsAreDown()
+    private static void onMouseMovedWithin(
+      final PVector2I<SySpaceViewportType> position,
+      final SyComponentType current,
+      final boolean reenter)
     {
-      final var entries =
-        this.mouseButtonStates.entrySet();
-      final var iterator =
-        entries.iterator();
+      if (reenter) {
+        current.eventSend(new SyMouseEventOnOver(position, current));
+      } else if (current.isMouseMoveSubscribed()) {
+        current.eventSend(new SyMouseEventOnMoved(position, current));
+      }
+    }
 
-      while (iterator.hasNext()) {
-        final var entry = iterator.next();
-        final var state = entry.getValue();
-        if (MouseButtonState.MOUSE_STATE_DOWN == state.state) {
+    private boolean mouseAnyButtonsAreDown()
+    {
+      for (final var button : MOUSE_BUTTONS) {
+        final var state = this.mouseButtonStates.get(button);
+        if (state != null && MouseButtonState.MOUSE_STATE_DOWN == state.state) {
           return true;
         }
       }
-
       return false;
     }
 
     Optional<SyComponentType> mouseMoved(
       final PVector2I<SySpaceViewportType> position)
+    {
+      return this.mouseMoved(position, false);
+    }
+
+    private Optional<SyComponentType> mouseMoved(
+      final PVector2I<SySpaceViewportType> position,
+      final boolean reenter)
     {
       Objects.requireNonNull(position, "Position");
 
@@ -441,7 +642,8 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
       /*
        * If the mouse button is down, the selected component is delivered a
        * "mouse held" event. Otherwise, the component under the cursor is
-       * delivered a "mouse over" event.
+       * delivered "over" and "no longer over" events as the cursor enters
+       * and leaves it.
        */
 
       if (this.mouseAnyButtonsAreDown()) {
@@ -472,39 +674,43 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
         return this.componentOver;
       }
 
-      /*
-       * The mouse button is up. Deliver "no longer over" events to the
-       * relevant components.
-       */
-
-      final var currentOpt =
-        this.componentForPosition(position, FIND_FOR_MOUSE_CURSOR);
+      final var current =
+        this.componentAtPosition(
+          position.x(), position.y(), FIND_FOR_MOUSE_CURSOR);
 
       /*
        * If the cursor is currently over a component...
        */
 
-      if (currentOpt.isPresent()) {
-        final var current = currentOpt.get();
+      if (current != null) {
 
         /*
-         * If the cursor was previously over a component, and that component
-         * is not the same component as the current one, notify the previous
-         * component that the cursor is no longer over it.
+         * If the cursor is still over the same component, then there is no
+         * transition, and the component only hears about the movement if it
+         * has subscribed to movements. A release of a mouse button counts
+         * as a transition, because components typically reset their "over"
+         * state when released.
          */
 
         if (this.componentOver.isPresent()) {
           final var previous = this.componentOver.get();
-          if (!Objects.equals(previous, current)) {
-            this.onMouseMovedNotifyPreviousNoLongerOver();
+          if (Objects.equals(previous, current)) {
+            onMouseMovedWithin(position, current, reenter);
+            return this.componentOver;
           }
+
+          /*
+           * The cursor has left the previous component.
+           */
+
+          this.onMouseMovedNotifyPreviousNoLongerOver();
         }
 
         /*
-         * Tell the current component that the cursor is over it.
+         * Tell the current component that the cursor has entered it.
          */
 
-        this.componentOver = currentOpt;
+        this.componentOver = Optional.of(current);
         current.eventSend(new SyMouseEventOnOver(position, current));
         return this.componentOver;
       }
@@ -550,7 +756,7 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
             }
           }
 
-          this.mouseMoved(position);
+          this.mouseMoved(position, true);
           yield state.componentClickedLast;
         }
       };
@@ -628,20 +834,26 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
       Objects.requireNonNull(position, "Position");
       Objects.requireNonNull(query, "query");
 
-      final var windowIterator =
-        this.windows.windowsVisibleOrdered().iterator();
+      return Optional.ofNullable(
+        this.componentAtPosition(position.x(), position.y(), query)
+      );
+    }
 
-      while (windowIterator.hasNext()) {
-        final var window = windowIterator.next();
+    private SyComponentType componentAtPosition(
+      final int x,
+      final int y,
+      final SyComponentQuery query)
+    {
+      final var ordered = this.windows.windowsVisibleOrdered();
+      final var count = ordered.size();
+      for (int index = 0; index < count; ++index) {
         final var component =
-          window.componentForViewportPosition(position, query);
-
-        if (component.isPresent()) {
+          ordered.get(index).componentAtViewportPosition(x, y, query);
+        if (component != null) {
           return component;
         }
       }
-
-      return Optional.empty();
+      return null;
     }
 
     private void processWindowChange(
@@ -659,6 +871,21 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
       }
     }
 
+    /**
+     * @return The topmost visible window, excluding the menu overlay
+     */
+
+    Optional<SyWindowType> windowKeyboardFocused()
+    {
+      final var ordered = this.windows.windowsVisibleOrdered();
+      for (final var window : ordered) {
+        if (window != this.windowMenuOverlay) {
+          return Optional.of(window);
+        }
+      }
+      return Optional.empty();
+    }
+
     @Override
     public boolean windowIsFocused(
       final SyWindowType window)
@@ -786,6 +1013,33 @@ public final class SyScreen implements SyScreenType, SyThemeContextType
         .forEach(window -> window.layout(this.layoutContext));
     }
 
+    /**
+     * Lay out the visible windows concurrently on the given pool. Window
+     * component trees are disjoint, and so each window can be laid out
+     * independently; the windows share only the layout context, which is
+     * required to be thread-safe.
+     *
+     * @param pool The pool
+     */
+
+    void updateParallel(
+      final ForkJoinPool pool)
+    {
+      final var windowsNow = this.windowsVisibleOrdered();
+      if (windowsNow.size() < 2) {
+        this.update();
+        return;
+      }
+
+      pool.invoke(
+        new WindowLayoutAction(
+          this.layoutContext,
+          windowsNow,
+          0,
+          windowsNow.size())
+      );
+    }
+
     @Override
     public String description()
     {
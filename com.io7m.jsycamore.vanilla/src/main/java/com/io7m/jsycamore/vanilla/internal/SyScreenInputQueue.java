@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2021 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.jsycamore.vanilla.internal;
+
+import com.io7m.jsycamore.api.keyboard.SyKeyCode;
+import com.io7m.jsycamore.api.keyboard.SyKeyModifier;
+import com.io7m.jsycamore.api.mouse.SyMouseButton;
+import com.io7m.jsycamore.api.screens.SyScreenInputQueueType;
+import com.io7m.jsycamore.api.screens.SyScreenType;
+import com.io7m.jsycamore.api.spaces.SySpaceViewportType;
+import com.io7m.jtensors.core.parameterized.vectors.PVector2I;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free multiple-producer single-consumer input queue. Producers
+ * append with a single atomic exchange of the tail, and so never block or
+ * retry; the single consumer (the thread updating the screen) follows the
+ * links from the head without any atomic operations.
+ */
+
+final class SyScreenInputQueue implements SyScreenInputQueueType
+{
+  private final AtomicReference<Input> tail;
+  private Input head;
+
+  SyScreenInputQueue()
+  {
+    final var stub = new Input(InputKind.STUB, null, null, null, null);
+    this.head = stub;
+    this.tail = new AtomicReference<>(stub);
+  }
+
+  private void submit(
+    final Input input)
+  {
+    final var previous = this.tail.getAndSet(input);
+    previous.next = input;
+  }
+
+  /**
+   * Deliver all of the input that has been completely submitted to the given
+   * screen, in submission order. Input that is concurrently being submitted
+   * may not be visible yet, and is delivered on the next call. This method
+   * must only be called by one thread at a time.
+   *
+   * @param screen The screen
+   *
+   * @return The number of inputs delivered
+   */
+
+  int drain(
+    final SyScreenType screen)
+  {
+    int count = 0;
+    while (true) {
+      final var next = this.head.next;
+      if (next == null) {
+        return count;
+      }
+
+      this.head = next;
+      next.deliver(screen);
+      next.clear();
+      ++count;
+    }
+  }
+
+  @Override
+  public void mouseMoved(
+    final PVector2I<SySpaceViewportType> position)
+  {
+    Objects.requireNonNull(position, "position");
+    this.submit(new Input(InputKind.MOUSE_MOVED, position, null, null, null));
+  }
+
+  @Override
+  public void mouseDown(
+    final PVector2I<SySpaceViewportType> position,
+    final SyMouseButton button)
+  {
+    Objects.requireNonNull(position, "position");
+    Objects.requireNonNull(button, "button");
+    this.submit(new Input(InputKind.MOUSE_DOWN, position, button, null, null));
+  }
+
+  @Override
+  public void mouseUp(
+    final PVector2I<SySpaceViewportType> position,
+    final SyMouseButton button)
+  {
+    Objects.requireNonNull(position, "position");
+    Objects.requireNonNull(button, "button");
+    this.submit(new Input(InputKind.MOUSE_UP, position, button, null, null));
+  }
+
+  @Override
+  public void keyPressed(
+    final SyKeyCode keyCode)
+  {
+    Objects.requireNonNull(keyCode, "keyCode");
+    this.submit(new Input(InputKind.KEY_PRESSED, null, null, keyCode, null));
+  }
+
+  @Override
+  public void keyReleased(
+    final SyKeyCode keyCode)
+  {
+    Objects.requireNonNull(keyCode, "keyCode");
+    this.submit(new Input(InputKind.KEY_RELEASED, null, null, keyCode, null));
+  }
+
+  @Override
+  public void keyModifierPressed(
+    final SyKeyModifier keyModifier)
+  {
+    Objects.requireNonNull(keyModifier, "keyModifier");
+    this.submit(new Input(
+      InputKind.KEY_MODIFIER_PRESSED, null, null, null, keyModifier));
+  }
+
+  @Override
+  public void keyModifierReleased(
+    final SyKeyModifier keyModifier)
+  {
+    Objects.requireNonNull(keyModifier, "keyModifier");
+    this.submit(new Input(
+      InputKind.KEY_MODIFIER_RELEASED, null, null, null, keyModifier));
+  }
+
+  private enum InputKind
+  {
+    STUB,
+    MOUSE_MOVED,
+    MOUSE_DOWN,
+    MOUSE_UP,
+    KEY_PRESSED,
+    KEY_RELEASED,
+    KEY_MODIFIER_PRESSED,
+    KEY_MODIFIER_RELEASED
+  }
+
+  /**
+   * A queued input. The most recently consumed input acts as the head of
+   * the queue, and so its payload is cleared after delivery to avoid
+   * retaining it.
+   */
+
+  private static final class Input
+  {
+    private InputKind kind;
+    private PVector2I<SySpaceViewportType> position;
+    private SyMouseButton button;
+    private SyKeyCode keyCode;
+    private SyKeyModifier keyModifier;
+    private volatile Input next;
+
+    Input(
+      final InputKind inKind,
+      final PVector2I<SySpaceViewportType> inPosition,
+      final SyMouseButton inButton,
+      final SyKeyCode inKeyCode,
+      final SyKeyModifier inKeyModifier)
+    {
+      this.kind = inKind;
+      this.position = inPosition;
+      this.button = inButton;
+      this.keyCode = inKeyCode;
+      this.keyModifier = inKeyModifier;
+    }
+
+    void deliver(
+      final SyScreenType screen)
+    {
+      switch (this.kind) {
+        case STUB -> {
+
+        }
+        case MOUSE_MOVED -> screen.mouseMoved(this.position);
+        case MOUSE_DOWN -> screen.mouseDown(this.position, this.button);
+        case MOUSE_UP -> screen.mouseUp(this.position, this.button);
+        case KEY_PRESSED -> screen.keyPressed(this.keyCode);
+        case KEY_RELEASED -> screen.keyReleased(this.keyCode);
+        case KEY_MODIFIER_PRESSED ->
+          screen.keyModifierPressed(this.keyModifier);
+        case KEY_MODIFIER_RELEASED ->
+          screen.keyModifierReleased(this.keyModifier);
+      }
+    }
+
+    void clear()
+    {
+      this.kind = InputKind.STUB;
+      this.position = null;
+      this.button = null;
+      this.keyCode = null;
+      this.keyModifier = null;
+    }
+  }
+}
@@ -72,6 +72,7 @@ public final class SyWindow implements SyWindowType
   private final SyWindowLayerID layer;
   private final SyWindowDeletionPolicy deletionPolicy;
   private final AttributeReadableType<PAreaSizeI<SySpaceViewportType>> sizeUpperLimit;
+  private final SyKeyboardFocusTraversal focusTraversal;
   private PVector2I<SySpaceViewportType> position;
   private PVector2I<SySpaceViewportType> positionMaximized;
   private PAreaSizeI<SySpaceViewportType> size;
@@ -107,6 +108,8 @@ public final class SyWindow implements SyWindowType
       new SyConstraints(0, 0, this.size.sizeX(), this.size.sizeY());
     this.viewportAccumulator =
       SyWindowViewportAccumulator.create();
+    this.focusTraversal =
+      new SyKeyboardFocusTraversal();
 
     final var attributes = SyComponentAttributes.get();
     this.maximized =
@@ -232,6 +235,21 @@ public final class SyWindow implements SyWindowType
     return this.root.contentArea();
   }
 
+  @Override
+  public void onComponentTreeChanged()
+  {
+    this.focusTraversal.invalidate();
+  }
+
+  /**
+   * @return The keyboard focus traversal for this window
+   */
+
+  SyKeyboardFocusTraversal focusTraversal()
+  {
+    return this.focusTraversal;
+  }
+
   @Override
   public AttributeType<SyText> title()
   {
@@ -342,6 +360,28 @@ public final class SyWindow implements SyWindowType
     );
   }
 
+  @Override
+  public SyComponentType componentAtViewportPosition(
+    final int viewportX,
+    final int viewportY,
+    final SyComponentQuery query)
+  {
+    Objects.requireNonNull(query, "query");
+
+    final var windowPosition = this.position().get();
+    final var windowSize = this.size().get();
+    final int targetX = Math.subtractExact(viewportX, windowPosition.x());
+    final int targetY = Math.subtractExact(viewportY, windowPosition.y());
+
+    if (targetX < 0 || targetX >= windowSize.sizeX()) {
+      return null;
+    }
+    if (targetY < 0 || targetY >= windowSize.sizeY()) {
+      return null;
+    }
+    return this.root.componentAtWindowRelative(targetX, targetY, 0, 0, query);
+  }
+
   @Override
   public Optional<SyComponentType> componentForWindowPosition(
     final PVector2I<SySpaceWindowType> windowPosition,
@@ -16,19 +16,15 @@
 
 package com.io7m.jsycamore.vanilla.internal;
 
-import com.io7m.jattribute.core.AttributeReadableType;
 import com.io7m.jsycamore.api.keyboard.SyKeyboardFocusBehavior;
 import com.io7m.jsycamore.api.screens.SyScreenType;
 import com.io7m.jsycamore.api.themes.SyThemeClassNameType;
 import com.io7m.jsycamore.api.windows.SyWindowDecorationComponent;
-import com.io7m.jsycamore.api.windows.SyWindowReadableType;
 import com.io7m.jsycamore.components.standard.SyComponentAbstract;
 
 import java.util.List;
 import java.util.Objects;
 
-import static java.lang.Boolean.FALSE;
-
 /**
  * A window decoration component.
  */
@@ -60,6 +56,27 @@ public abstract class SyWindowComponent extends SyComponentAbstract
 
   @Override
   public final boolean isVisible()
+  {
+    if (!this.isVisibleIfAncestorsVisible()) {
+      return false;
+    }
+
+    /*
+     * Otherwise, this component is visible if the parent is visible.
+     */
+
+    final var parentOpt =
+      this.nodeReadable().parentReadable();
+    if (parentOpt.isPresent()) {
+      final var parent = parentOpt.get().value();
+      return parent.isVisible();
+    }
+
+    return true;
+  }
+
+  @Override
+  public final boolean isVisibleIfAncestorsVisible()
   {
     return switch (this.visibility().get()) {
       case VISIBILITY_INVISIBLE -> false;
@@ -70,32 +87,17 @@ public abstract class SyWindowComponent extends SyComponentAbstract
          * if the window is not showing decorations.
          */
 
-        if (this.semantic.isDecoration() && !this.isWindowDecorated()) {
-          yield false;
-        }
-
-        /*
-         * Otherwise, this component is visible if the parent is visible.
-         */
-
-        final var parentOpt =
-          this.nodeReadable().parentReadable();
-        if (parentOpt.isPresent()) {
-          final var parent = parentOpt.get().value();
-          yield parent.isVisible();
-        }
-
-        yield true;
+        yield !this.semantic.isDecoration() || this.isWindowDecorated();
       }
     };
   }
 
   protected final boolean isWindowDecorated()
   {
-    return this.windowReadable()
-      .map(SyWindowReadableType::decorated)
-      .map(AttributeReadableType::get)
-      .orElse(FALSE)
-      .booleanValue();
+    final var windowOpt = this.window();
+    if (windowOpt.isPresent()) {
+      return windowOpt.get().decorated().get().booleanValue();
+    }
+    return false;
   }
 }